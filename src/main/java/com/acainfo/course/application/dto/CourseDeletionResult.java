@@ -0,0 +1,15 @@
+package com.acainfo.course.application.dto;
+
+/**
+ * Outcome of a course hard delete: how many dependent rows went with it.
+ *
+ * @param schedulesDeleted    schedules of the course
+ * @param sessionsDeleted     sessions of the course (REGULAR and EXTRA)
+ * @param reservationsDeleted reservations of those sessions
+ */
+public record CourseDeletionResult(
+        int schedulesDeleted,
+        int sessionsDeleted,
+        int reservationsDeleted
+) {
+}
@@ -1,5 +1,6 @@
 package com.acainfo.course.application.port.in;
 
+import com.acainfo.course.application.dto.CourseDeletionResult;
 import com.acainfo.course.domain.model.Course;
 
 /**
@@ -11,10 +12,12 @@ public interface DeleteCourseUseCase {
     /**
      * Delete a group (hard delete).
      * Note: Should verify that no enrollments are associated.
+     * Schedules, sessions and their reservations are removed with bulk deletes.
      *
      * @param id Group ID
+     * @return Number of schedules, sessions and reservations deleted
      */
-    void delete(Long id);
+    CourseDeletionResult delete(Long id);
 
     /**
      * Cancel a group (soft delete).
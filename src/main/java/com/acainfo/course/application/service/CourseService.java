@@ -1,5 +1,6 @@
 package com.acainfo.course.application.service;
 
+import com.acainfo.course.application.dto.CourseDeletionResult;
 import com.acainfo.course.application.dto.CreateCourseCommand;
 import com.acainfo.course.application.dto.CourseFilters;
 import com.acainfo.course.application.dto.UpdateCourseCommand;
@@ -12,10 +13,11 @@ import com.acainfo.course.domain.exception.CourseNotFoundException;
 import com.acainfo.course.domain.exception.InvalidCourseDataException;
 import com.acainfo.course.domain.model.CourseStatus;
 import com.acainfo.course.domain.model.Course;
+import com.acainfo.enrollment.application.dto.CourseClosureResult;
 import com.acainfo.enrollment.application.port.in.CloseCourseEnrollmentsUseCase;
 import com.acainfo.enrollment.application.port.out.EnrollmentRepositoryPort;
+import com.acainfo.reservation.application.port.out.ReservationRepositoryPort;
 import com.acainfo.schedule.application.port.out.ScheduleRepositoryPort;
-import com.acainfo.schedule.domain.model.Schedule;
 import com.acainfo.session.application.port.out.SessionRepositoryPort;
 import com.acainfo.subject.application.port.out.SubjectRepositoryPort;
 import com.acainfo.subject.domain.exception.SubjectNotFoundException;
@@ -30,7 +32,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.List;
 
 /**
  * Service implementing course use cases.
@@ -50,6 +51,7 @@ public class CourseService implements
     private final UserRepositoryPort userRepositoryPort;
     private final ScheduleRepositoryPort scheduleRepositoryPort;
     private final SessionRepositoryPort sessionRepositoryPort;
+    private final ReservationRepositoryPort reservationRepositoryPort;
     private final EnrollmentRepositoryPort enrollmentRepositoryPort;
     private final CloseCourseEnrollmentsUseCase closeCourseEnrollmentsUseCase;
 
@@ -134,7 +136,8 @@ public class CourseService implements
             boolean closingCourse = course.isOpen() && command.status() != CourseStatus.OPEN;
             course.setStatus(command.status());
             if (closingCourse) {
-                closeCourseEnrollmentsUseCase.closeAllForCourse(id);
+                CourseClosureResult closure = closeCourseEnrollmentsUseCase.closeAllForCourse(id);
+                log.info("Course {} closed: {}", id, closure);
             }
         }
 
@@ -187,7 +190,7 @@ public class CourseService implements
 
     @Override
     @Transactional
-    public void delete(Long id) {
+    public CourseDeletionResult delete(Long id) {
         log.info("Deleting course with ID: {}", id);
 
         Course course = getById(id);
@@ -199,13 +202,13 @@ public class CourseService implements
             );
         }
 
-        // Delete all sessions and schedules associated with this course
-        List<Schedule> schedules = scheduleRepositoryPort.findByCourseId(id);
-        for (Schedule schedule : schedules) {
-            sessionRepositoryPort.deleteByScheduleId(schedule.getId());
-            scheduleRepositoryPort.delete(schedule.getId());
-        }
-        log.info("Deleted {} schedules and their associated sessions for course ID: {}", schedules.size(), id);
+        // One bulk delete per table, children first: reservations -> sessions -> schedules.
+        // Covers EXTRA sessions too (no schedule), which the per-schedule loop left behind.
+        int reservationsDeleted = reservationRepositoryPort.deleteBySessionCourseId(id);
+        int sessionsDeleted = sessionRepositoryPort.deleteByCourseId(id);
+        int schedulesDeleted = scheduleRepositoryPort.deleteByCourseId(id);
+        log.info("Deleted {} schedules, {} sessions and {} reservations for course ID: {}",
+                schedulesDeleted, sessionsDeleted, reservationsDeleted, id);
 
         // Decrement subject's course count
         Subject subject = subjectRepositoryPort.findById(course.getSubjectId())
@@ -216,6 +219,8 @@ public class CourseService implements
 
         courseRepositoryPort.delete(id);
         log.info("Course deleted successfully: ID {}", id);
+
+        return new CourseDeletionResult(schedulesDeleted, sessionsDeleted, reservationsDeleted);
     }
 
     @Override
@@ -229,7 +234,8 @@ public class CourseService implements
 
         Course cancelledCourse = courseRepositoryPort.save(course);
         if (wasOpen) {
-            closeCourseEnrollmentsUseCase.closeAllForCourse(id);
+            CourseClosureResult closure = closeCourseEnrollmentsUseCase.closeAllForCourse(id);
+            log.info("Course {} enrollments closed on cancellation: {}", id, closure);
         }
         log.info("Course cancelled successfully: ID {}", id);
 
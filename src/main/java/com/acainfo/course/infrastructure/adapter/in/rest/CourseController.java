@@ -1,5 +1,6 @@
 package com.acainfo.course.infrastructure.adapter.in.rest;
 
+import com.acainfo.course.application.dto.CourseDeletionResult;
 import com.acainfo.course.application.dto.CourseFilters;
 import com.acainfo.course.application.port.in.CreateCourseUseCase;
 import com.acainfo.course.application.port.in.DeleteCourseUseCase;
@@ -116,12 +117,12 @@ public class CourseController {
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Void> deleteGroup(@PathVariable Long id) {
+    public ResponseEntity<CourseDeletionResult> deleteGroup(@PathVariable Long id) {
         log.info("REST: Deleting group ID: {}", id);
 
-        deleteCourseUseCase.delete(id);
+        CourseDeletionResult result = deleteCourseUseCase.delete(id);
 
-        return ResponseEntity.noContent().build();
+        return ResponseEntity.ok(result);
     }
 
     @PostMapping("/{id}/cancel")
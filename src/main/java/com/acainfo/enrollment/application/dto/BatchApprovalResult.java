@@ -0,0 +1,26 @@
+package com.acainfo.enrollment.application.dto;
+
+import com.acainfo.enrollment.domain.model.Enrollment;
+
+import java.util.List;
+
+/**
+ * Outcome of approving several enrollment requests at once.
+ *
+ * @param approved enrollments approved, either ACTIVE or placed on the WAITING_LIST
+ * @param skipped  requested enrollments left untouched, with the reason
+ */
+public record BatchApprovalResult(
+        List<Enrollment> approved,
+        List<SkippedEnrollment> skipped
+) {
+
+    /**
+     * An enrollment of the batch that could not be approved.
+     *
+     * @param enrollmentId Requested enrollment ID
+     * @param reason       Why it was skipped (same message the single approval would raise)
+     */
+    public record SkippedEnrollment(Long enrollmentId, String reason) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.acainfo.enrollment.application.dto;
+
+/**
+ * Outcome of closing the live enrollments of a course.
+ *
+ * @param completed             ACTIVE enrollments moved to COMPLETED
+ * @param expired               PENDING_APPROVAL / WAITING_LIST enrollments moved to EXPIRED
+ * @param reservationsCancelled future confirmed reservations of the completed students
+ */
+public record CourseClosureResult(
+        int completed,
+        int expired,
+        int reservationsCancelled
+) {
+    /**
+     * Total number of enrollments that changed state.
+     */
+    public int transitioned() {
+        return completed + expired;
+    }
+}
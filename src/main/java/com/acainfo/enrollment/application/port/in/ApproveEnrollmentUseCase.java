@@ -1,7 +1,10 @@
 package com.acainfo.enrollment.application.port.in;
 
+import com.acainfo.enrollment.application.dto.BatchApprovalResult;
 import com.acainfo.enrollment.domain.model.Enrollment;
 
+import java.util.List;
+
 /**
  * Use case for approving enrollment requests.
  * Teachers can approve enrollment requests for their groups.
@@ -22,4 +25,17 @@ public interface ApproveEnrollmentUseCase {
      * @throws com.acainfo.enrollment.domain.exception.UnauthorizedApprovalException if approver is not authorized
      */
     Enrollment approve(Long enrollmentId, Long approverUserId);
+
+    /**
+     * Approve several enrollment requests at once.
+     * Each course is locked once; seats go to the batch in request-arrival order
+     * (enrollment ID) and the overflow goes to WAITING_LIST. Enrollments that
+     * cannot be approved (not found, not pending, course not found, approver not
+     * authorized for the course) are skipped and reported instead of failing the batch.
+     *
+     * @param enrollmentIds IDs of the enrollments to approve
+     * @param approverUserId ID of the user approving (teacher or admin)
+     * @return Approved enrollments and skipped IDs with their reason
+     */
+    BatchApprovalResult approveBatch(List<Long> enrollmentIds, Long approverUserId);
 }
@@ -1,5 +1,7 @@
 package com.acainfo.enrollment.application.port.in;
 
+import com.acainfo.enrollment.application.dto.CourseClosureResult;
+
 /**
  * Use case invoked when a course stops being OPEN (CLOSED or CANCELLED):
  * its live enrollments must stop being "active".
@@ -13,10 +15,11 @@ package com.acainfo.enrollment.application.port.in;
 public interface CloseCourseEnrollmentsUseCase {
 
     /**
-     * Close all live enrollments of a course.
+     * Close all live enrollments of a course, as a fixed number of bulk statements
+     * whatever the number of enrollments.
      *
      * @param courseId the course being closed/cancelled
-     * @return number of enrollments transitioned
+     * @return counts of enrollments completed / expired and reservations cancelled
      */
-    int closeAllForCourse(Long courseId);
+    CourseClosureResult closeAllForCourse(Long courseId);
 }
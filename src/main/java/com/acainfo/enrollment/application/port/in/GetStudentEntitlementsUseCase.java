@@ -0,0 +1,20 @@
+package com.acainfo.enrollment.application.port.in;
+
+import java.util.Set;
+
+/**
+ * Use case for a student's access entitlements.
+ * A student can access the materials of every subject in which they have an
+ * ACTIVE enrollment (in any course of that subject).
+ */
+public interface GetStudentEntitlementsUseCase {
+
+    /**
+     * Subjects whose materials the student can access.
+     * Served from a bounded cache, invalidated when the student's enrollments change.
+     *
+     * @param studentId Student ID
+     * @return IDs of the subjects with an ACTIVE enrollment (empty if none)
+     */
+    Set<Long> getAccessibleSubjectIds(Long studentId);
+}
@@ -1,5 +1,9 @@
 package com.acainfo.enrollment.application.port.out;
 
+import com.acainfo.enrollment.domain.model.Enrollment;
+
+import java.util.List;
+
 /**
  * Output port for automatic reservation management.
  * Implemented by reservation module to maintain hexagonal architecture.
@@ -17,12 +21,33 @@ public interface AutoReservationPort {
      */
     void generateForNewEnrollment(Long studentId, Long courseId, Long enrollmentId);
 
+    /**
+     * Batch variant of {@link #generateForNewEnrollment(Long, Long, Long)} for enrollments
+     * activated together (bulk approval). Sessions, existing reservations and in-person
+     * counts are read once for the whole batch and all reservations are written in one
+     * batched insert.
+     *
+     * @param enrollments Newly ACTIVE enrollments, possibly spanning several courses
+     */
+    void generateForNewEnrollments(List<Enrollment> enrollments);
+
     /**
      * Cancel all future confirmed reservations for a student in a group.
      * Called when enrollment is withdrawn.
      *
      * @param studentId Student's user ID
      * @param courseId   Group ID to find future sessions
+     * @return number of reservations cancelled
+     */
+    int cancelFutureReservations(Long studentId, Long courseId);
+
+    /**
+     * Cancel the future confirmed reservations of every ACTIVE student of a course,
+     * as a single set-based update. Called on course closure, before the
+     * enrollments leave ACTIVE.
+     *
+     * @param courseId Course being closed
+     * @return number of reservations cancelled
      */
-    void cancelFutureReservations(Long studentId, Long courseId);
+    int cancelFutureReservationsForActiveStudents(Long courseId);
 }
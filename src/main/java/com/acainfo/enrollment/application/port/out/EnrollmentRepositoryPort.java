@@ -5,8 +5,11 @@ import com.acainfo.enrollment.domain.model.Enrollment;
 import com.acainfo.enrollment.domain.model.EnrollmentStatus;
 import org.springframework.data.domain.Page;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Output port for Enrollment persistence.
@@ -23,6 +26,14 @@ public interface EnrollmentRepositoryPort {
      */
     Enrollment save(Enrollment enrollment);
 
+    /**
+     * Save or update several enrollments in one batched write.
+     *
+     * @param enrollments Domain enrollments to persist
+     * @return Persisted enrollments, in the same order
+     */
+    List<Enrollment> saveAll(List<Enrollment> enrollments);
+
     /**
      * Find enrollment by ID.
      *
@@ -31,6 +42,15 @@ public interface EnrollmentRepositoryPort {
      */
     Optional<Enrollment> findById(Long id);
 
+    /**
+     * Find several enrollments by ID in a single query.
+     * Missing IDs are simply absent from the result.
+     *
+     * @param ids Enrollment IDs
+     * @return Enrollments found
+     */
+    List<Enrollment> findAllById(Collection<Long> ids);
+
     /**
      * Find enrollments with dynamic filters (Criteria Builder).
      *
@@ -135,28 +155,50 @@ public interface EnrollmentRepositoryPort {
     long countActiveByCourseId(Long courseId);
 
     /**
-     * Find waiting list for a group, ordered by position (FIFO).
+     * Subjects in which a student has at least one ACTIVE enrollment,
+     * resolved with a single enrollment-course join.
      *
-     * @param courseId Group ID
-     * @return List of enrollments in waiting list order
+     * @param studentId Student ID
+     * @return Distinct subject IDs
      */
-    List<Enrollment> findWaitingListByCourseId(Long courseId);
+    Set<Long> findActiveSubjectIdsByStudentId(Long studentId);
+
+    /**
+     * Move every ACTIVE enrollment of a course to COMPLETED in a single update.
+     *
+     * @param courseId  Course being closed
+     * @param updatedAt Timestamp written to updatedAt
+     * @return Number of enrollments completed
+     */
+    int completeActiveByCourseId(Long courseId, LocalDateTime updatedAt);
 
     /**
-     * Get the next waiting list position for a group.
+     * Move every PENDING_APPROVAL / WAITING_LIST enrollment of a course to EXPIRED
+     * in a single update, taking them out of the waiting list.
+     *
+     * @param courseId  Course being closed
+     * @param updatedAt Timestamp written to updatedAt
+     * @return Number of enrollments expired
+     */
+    int expirePendingAndWaitingByCourseId(Long courseId, LocalDateTime updatedAt);
+
+    /**
+     * Find waiting list for a group in queue order (FIFO), with display positions filled in.
      *
      * @param courseId Group ID
-     * @return Next position number
+     * @return List of enrollments in waiting list order
      */
-    int getNextWaitingListPosition(Long courseId);
+    List<Enrollment> findWaitingListByCourseId(Long courseId);
 
     /**
-     * Decrement waiting list positions after a student leaves.
+     * Find the head of a group's waiting list, locking its row (skip-locked pick).
+     * Queue order is (waitingListEnteredAt, id); no position bookkeeping is needed
+     * when the head leaves the queue.
      *
      * @param courseId Group ID
-     * @param position Position of student who left
+     * @return Optional containing the next enrollment to promote, empty if the queue is empty
      */
-    void decrementWaitingListPositionsAfter(Long courseId, int position);
+    Optional<Enrollment> findNextInWaitingListForUpdate(Long courseId);
 
     /**
      * Delete an enrollment by ID.
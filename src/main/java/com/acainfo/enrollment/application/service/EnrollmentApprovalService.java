@@ -1,5 +1,7 @@
 package com.acainfo.enrollment.application.service;
 
+import com.acainfo.enrollment.application.dto.BatchApprovalResult;
+import com.acainfo.enrollment.application.dto.BatchApprovalResult.SkippedEnrollment;
 import com.acainfo.enrollment.application.port.in.ApproveEnrollmentUseCase;
 import com.acainfo.enrollment.application.port.in.RejectEnrollmentUseCase;
 import com.acainfo.enrollment.application.port.out.AutoReservationPort;
@@ -20,6 +22,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service implementing enrollment approval and rejection use cases.
@@ -57,24 +69,28 @@ public class EnrollmentApprovalService implements ApproveEnrollmentUseCase, Reje
         boolean hasAvailableSeats = !course.hasCapacityLimit()
                 || enrollmentRepositoryPort.countActiveByCourseId(course.getId()) < course.getCapacity();
 
+        LocalDateTime now = LocalDateTime.now();
+
         if (hasAvailableSeats) {
             // Direct enrollment as ACTIVE
             enrollment.setStatus(EnrollmentStatus.ACTIVE);
             log.info("Enrollment {} approved as ACTIVE (seats available)", enrollmentId);
         } else {
-            // Add to waiting list
-            int position = enrollmentRepositoryPort.getNextWaitingListPosition(course.getId());
+            // Add to waiting list: the entry timestamp is the queue key (no MAX() scan)
             enrollment.setStatus(EnrollmentStatus.WAITING_LIST);
-            enrollment.setWaitingListPosition(position);
-            log.info("Enrollment {} approved but added to waiting list at position {} (no seats)",
-                    enrollmentId, position);
+            enrollment.setWaitingListEnteredAt(now);
         }
 
-        enrollment.setApprovedAt(LocalDateTime.now());
+        enrollment.setApprovedAt(now);
         enrollment.setApprovedByUserId(approverUserId);
 
         Enrollment savedEnrollment = enrollmentRepositoryPort.save(enrollment);
 
+        if (savedEnrollment.isOnWaitingList()) {
+            log.info("Enrollment {} approved but added to waiting list at position {} (no seats)",
+                    enrollmentId, savedEnrollment.getWaitingListPosition());
+        }
+
         // Auto-generate reservations for the newly active student
         if (savedEnrollment.isActive()) {
             autoReservationPort.generateForNewEnrollment(
@@ -87,6 +103,89 @@ public class EnrollmentApprovalService implements ApproveEnrollmentUseCase, Reje
         return savedEnrollment;
     }
 
+    @Override
+    @Transactional
+    public BatchApprovalResult approveBatch(List<Long> enrollmentIds, Long approverUserId) {
+        Set<Long> requestedIds = new LinkedHashSet<>(enrollmentIds);
+        log.info("Approving {} enrollments in batch by user {}", requestedIds.size(), approverUserId);
+
+        Map<Long, Enrollment> found = enrollmentRepositoryPort.findAllById(requestedIds).stream()
+                .collect(Collectors.toMap(Enrollment::getId, Function.identity()));
+        List<SkippedEnrollment> skipped = new ArrayList<>();
+
+        // TreeMap: courses are locked in ascending ID order, so concurrent batches cannot deadlock
+        Map<Long, List<Enrollment>> pendingByCourse = new TreeMap<>();
+        for (Long id : requestedIds) {
+            Enrollment enrollment = found.get(id);
+            if (enrollment == null) {
+                skipped.add(new SkippedEnrollment(id, new EnrollmentNotFoundException(id).getMessage()));
+            } else if (!enrollment.canBeApproved()) {
+                skipped.add(new SkippedEnrollment(id,
+                        "No se puede aprobar una inscripción con estado: " + enrollment.getStatus()));
+            } else {
+                pendingByCourse.computeIfAbsent(enrollment.getCourseId(), k -> new ArrayList<>()).add(enrollment);
+            }
+        }
+
+        if (pendingByCourse.isEmpty()) {
+            return new BatchApprovalResult(List.of(), skipped);
+        }
+
+        User approver = getUserProfileUseCase.getUserById(approverUserId);
+        LocalDateTime now = LocalDateTime.now();
+        List<Enrollment> toSave = new ArrayList<>();
+
+        for (Map.Entry<Long, List<Enrollment>> entry : pendingByCourse.entrySet()) {
+            Long courseId = entry.getKey();
+            List<Enrollment> batch = entry.getValue();
+
+            Optional<Course> course = courseRepositoryPort.findByIdForUpdate(courseId);
+            if (course.isEmpty()) {
+                String reason = new CourseNotFoundException(courseId).getMessage();
+                batch.forEach(e -> skipped.add(new SkippedEnrollment(e.getId(), reason)));
+                continue;
+            }
+            if (!isAuthorizedApprover(approverUserId, approver, course.get())) {
+                String reason = new UnauthorizedApprovalException(approverUserId, courseId).getMessage();
+                batch.forEach(e -> skipped.add(new SkippedEnrollment(e.getId(), reason)));
+                continue;
+            }
+
+            // One occupancy count per course under the row lock; seats are then handed out in memory
+            long freeSeats = course.get().hasCapacityLimit()
+                    ? Math.max(0, course.get().getCapacity() - enrollmentRepositoryPort.countActiveByCourseId(courseId))
+                    : Long.MAX_VALUE;
+
+            // First come, first served: the oldest requests get the seats, and the waiting
+            // list tie-break on ID keeps the same order for the overflow
+            batch.sort(Comparator.comparing(Enrollment::getId));
+            for (Enrollment enrollment : batch) {
+                if (freeSeats > 0) {
+                    enrollment.setStatus(EnrollmentStatus.ACTIVE);
+                    freeSeats--;
+                } else {
+                    enrollment.setStatus(EnrollmentStatus.WAITING_LIST);
+                    enrollment.setWaitingListEnteredAt(now);
+                }
+                enrollment.setApprovedAt(now);
+                enrollment.setApprovedByUserId(approverUserId);
+                toSave.add(enrollment);
+            }
+        }
+
+        List<Enrollment> saved = enrollmentRepositoryPort.saveAll(toSave);
+
+        // Single fan-out for every newly active student of the batch
+        List<Enrollment> activated = saved.stream().filter(Enrollment::isActive).toList();
+        if (!activated.isEmpty()) {
+            autoReservationPort.generateForNewEnrollments(activated);
+        }
+
+        log.info("Batch approval by user {}: {} active, {} waiting list, {} skipped",
+                approverUserId, activated.size(), saved.size() - activated.size(), skipped.size());
+        return new BatchApprovalResult(saved, skipped);
+    }
+
     @Override
     @Transactional
     public Enrollment reject(Long enrollmentId, Long rejecterUserId, String reason) {
@@ -131,11 +230,14 @@ public class EnrollmentApprovalService implements ApproveEnrollmentUseCase, Reje
     private void validateApproverAuthorization(Long userId, Course course) {
         User user = getUserProfileUseCase.getUserById(userId);
 
-        boolean isAdmin = user.isAdmin();
-        boolean isCourseTeacher = course.getTeacherId() != null && course.getTeacherId().equals(userId);
-
-        if (!isAdmin && !isCourseTeacher) {
+        if (!isAuthorizedApprover(userId, user, course)) {
             throw new UnauthorizedApprovalException(userId, course.getId());
         }
     }
+
+    private boolean isAuthorizedApprover(Long userId, User user, Course course) {
+        boolean isAdmin = user.isAdmin();
+        boolean isCourseTeacher = course.getTeacherId() != null && course.getTeacherId().equals(userId);
+        return isAdmin || isCourseTeacher;
+    }
 }
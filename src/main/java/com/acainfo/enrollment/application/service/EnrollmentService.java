@@ -1,6 +1,7 @@
 package com.acainfo.enrollment.application.service;
 
 import com.acainfo.enrollment.application.dto.ChangeCourseCommand;
+import com.acainfo.enrollment.application.dto.CourseClosureResult;
 import com.acainfo.enrollment.application.dto.EnrollStudentCommand;
 import com.acainfo.enrollment.application.dto.EnrollmentFilters;
 import com.acainfo.enrollment.application.port.in.ChangeCourseUseCase;
@@ -92,13 +93,13 @@ public class EnrollmentService implements
         }
 
         boolean wasActive = enrollment.isActive();
-        Integer oldPosition = enrollment.getWaitingListPosition();
         Long courseId = enrollment.getCourseId();
 
-        // Update enrollment status
+        // Update enrollment status (leaving the queue needs no renumbering: positions are derived on read)
         enrollment.setStatus(EnrollmentStatus.WITHDRAWN);
         enrollment.setWithdrawnAt(LocalDateTime.now());
         enrollment.setWaitingListPosition(null);
+        enrollment.setWaitingListEnteredAt(null);
 
         Enrollment savedEnrollment = enrollmentRepositoryPort.save(enrollment);
 
@@ -107,11 +108,6 @@ public class EnrollmentService implements
             autoReservationPort.cancelFutureReservations(enrollment.getStudentId(), courseId);
         }
 
-        // If was on waiting list, adjust positions
-        if (oldPosition != null) {
-            enrollmentRepositoryPort.decrementWaitingListPositionsAfter(courseId, oldPosition);
-        }
-
         // If was active, promote next from waiting list (which will auto-generate their reservations)
         if (wasActive) {
             waitingListService.promoteNextFromWaitingList(courseId);
@@ -168,36 +164,25 @@ public class EnrollmentService implements
     /**
      * Close all live enrollments of a course (invoked when the course stops being OPEN).
      * ACTIVE -> COMPLETED (+ cancel future reservations); PENDING_APPROVAL / WAITING_LIST -> EXPIRED.
+     *
+     * <p>Three set-based statements regardless of course size. Reservations go first:
+     * they are selected through the students' ACTIVE enrollments.</p>
      */
     @Override
     @Transactional
-    public int closeAllForCourse(Long courseId) {
-        List<Enrollment> enrollments = enrollmentRepositoryPort.findByCourseId(courseId);
-        int transitioned = 0;
-
-        for (Enrollment enrollment : enrollments) {
-            switch (enrollment.getStatus()) {
-                case ACTIVE -> {
-                    enrollment.setStatus(EnrollmentStatus.COMPLETED);
-                    enrollmentRepositoryPort.save(enrollment);
-                    autoReservationPort.cancelFutureReservations(
-                            enrollment.getStudentId(), courseId);
-                    transitioned++;
-                }
-                case PENDING_APPROVAL, WAITING_LIST -> {
-                    enrollment.setStatus(EnrollmentStatus.EXPIRED);
-                    enrollment.setWaitingListPosition(null);
-                    enrollmentRepositoryPort.save(enrollment);
-                    transitioned++;
-                }
-                default -> { /* WITHDRAWN, COMPLETED, REJECTED, EXPIRED: nada que hacer */ }
-            }
-        }
+    public CourseClosureResult closeAllForCourse(Long courseId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        int reservationsCancelled = autoReservationPort.cancelFutureReservationsForActiveStudents(courseId);
+        int completed = enrollmentRepositoryPort.completeActiveByCourseId(courseId, now);
+        int expired = enrollmentRepositoryPort.expirePendingAndWaitingByCourseId(courseId, now);
 
-        if (transitioned > 0) {
-            log.info("Closed {} live enrollments for course {}", transitioned, courseId);
+        CourseClosureResult result = new CourseClosureResult(completed, expired, reservationsCancelled);
+        if (result.transitioned() > 0) {
+            log.info("Closed live enrollments for course {}: completed={}, expired={}, reservationsCancelled={}",
+                    courseId, completed, expired, reservationsCancelled);
         }
-        return transitioned;
+        return result;
     }
 
     // ==================== GetEnrollmentUseCase ====================
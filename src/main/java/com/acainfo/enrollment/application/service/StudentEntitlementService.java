@@ -0,0 +1,110 @@
+package com.acainfo.enrollment.application.service;
+
+import com.acainfo.enrollment.application.port.in.GetStudentEntitlementsUseCase;
+import com.acainfo.enrollment.application.port.out.EnrollmentRepositoryPort;
+import com.acainfo.enrollment.domain.event.EnrollmentsChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service implementing GetStudentEntitlementsUseCase.
+ *
+ * <p>Entitlements are read on every material download, preview and listing, but
+ * only change with enrollments. They are computed with one join query and kept
+ * in a bounded LRU cache:</p>
+ * <ul>
+ *   <li>Evicted after commit of any enrollment write ({@link EnrollmentsChangedEvent}); a
+ *       read already in flight when the eviction arrives is returned but not cached</li>
+ *   <li>Entries also expire after {@link #TTL}</li>
+ *   <li>At most {@link #MAX_ENTRIES} students are cached; the least recently used go first</li>
+ * </ul>
+ *
+ * <p>The cache is per node: the eviction event only reaches the instance where the
+ * enrollment changed. With several instances the others keep serving the old
+ * entitlements until the entry expires, so {@link #TTL} bounds how long a cancelled
+ * enrollment can still download there. It is short for that reason; the cache still
+ * absorbs the bursts of a listing followed by its previews and downloads.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StudentEntitlementService implements GetStudentEntitlementsUseCase {
+
+    static final int MAX_ENTRIES = 5_000;
+    static final Duration TTL = Duration.ofSeconds(30);
+
+    private final EnrollmentRepositoryPort enrollmentRepositoryPort;
+    private final Clock clock;
+
+    private final Map<Long, CachedEntitlement> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedEntitlement> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Students being read from the database, by load number; guarded by {@code cache}.
+     * An eviction drops the student's load, so a read that started before it is not cached.
+     */
+    private final Map<Long, Long> loading = new HashMap<>();
+    private long loadSequence;
+
+    @Override
+    public Set<Long> getAccessibleSubjectIds(Long studentId) {
+        Instant now = clock.instant();
+
+        long load;
+        synchronized (cache) {
+            CachedEntitlement cached = cache.get(studentId);
+            if (cached != null && now.isBefore(cached.expiresAt())) {
+                return cached.subjectIds();
+            }
+            load = ++loadSequence;
+            loading.put(studentId, load);
+        }
+
+        // Computed outside the lock: concurrent misses for the same student just query twice
+        Set<Long> subjectIds = Set.copyOf(enrollmentRepositoryPort.findActiveSubjectIdsByStudentId(studentId));
+
+        synchronized (cache) {
+            // An eviction meanwhile may have missed the enrollment change in this read: not cached
+            if (loading.remove(studentId, load)) {
+                cache.put(studentId, new CachedEntitlement(subjectIds, now.plus(TTL)));
+            }
+        }
+        return subjectIds;
+    }
+
+    /**
+     * Drop cached entitlements once the enrollment change is committed.
+     * Runs immediately when published outside a transaction.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnrollmentsChanged(EnrollmentsChangedEvent event) {
+        synchronized (cache) {
+            if (event.affectsAllStudents()) {
+                cache.clear();
+                loading.clear();
+            } else {
+                cache.remove(event.studentId());
+                loading.remove(event.studentId());
+            }
+        }
+        log.debug("Entitlements evicted for {}",
+                event.affectsAllStudents() ? "all students" : "student " + event.studentId());
+    }
+
+    private record CachedEntitlement(Set<Long> subjectIds, Instant expiresAt) {
+    }
+}
@@ -16,10 +16,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Service implementing waiting list management.
  * Handles FIFO queue operations: get list, leave queue, promote.
+ *
+ * <p>Queue order is the entry timestamp (ties by id) and positions are computed on
+ * read, so every operation touches only the rows it changes.</p>
  */
 @Service
 @RequiredArgsConstructor
@@ -58,21 +62,14 @@ public class WaitingListService implements WaitingListUseCase {
             );
         }
 
-        Integer oldPosition = enrollment.getWaitingListPosition();
-        Long courseId = enrollment.getCourseId();
-
-        // Update enrollment status
+        // Update enrollment status. Positions behind are derived on read: nothing to renumber.
         enrollment.setStatus(EnrollmentStatus.WITHDRAWN);
         enrollment.setWithdrawnAt(LocalDateTime.now());
         enrollment.setWaitingListPosition(null);
+        enrollment.setWaitingListEnteredAt(null);
 
         Enrollment savedEnrollment = enrollmentRepositoryPort.save(enrollment);
 
-        // Adjust positions for remaining students in queue
-        if (oldPosition != null) {
-            enrollmentRepositoryPort.decrementWaitingListPositionsAfter(courseId, oldPosition);
-        }
-
         log.info("Student left waiting list successfully, enrollment: {}", enrollmentId);
         return savedEnrollment;
     }
@@ -86,29 +83,24 @@ public class WaitingListService implements WaitingListUseCase {
         courseRepositoryPort.findByIdForUpdate(courseId)
                 .orElseThrow(() -> new CourseNotFoundException(courseId));
 
-        List<Enrollment> waitingList = enrollmentRepositoryPort.findWaitingListByCourseId(courseId);
+        // Single-row pick of the queue head (FIFO), no need to load the whole list
+        Optional<Enrollment> head = enrollmentRepositoryPort.findNextInWaitingListForUpdate(courseId);
 
-        if (waitingList.isEmpty()) {
+        if (head.isEmpty()) {
             log.debug("No students in waiting list for group: {}", courseId);
             return null;
         }
 
-        // Get first in queue (FIFO)
-        Enrollment nextInLine = waitingList.get(0);
-        Integer oldPosition = nextInLine.getWaitingListPosition();
+        Enrollment nextInLine = head.get();
 
         // Promote to ACTIVE
         nextInLine.setStatus(EnrollmentStatus.ACTIVE);
         nextInLine.setWaitingListPosition(null);
+        nextInLine.setWaitingListEnteredAt(null);
         nextInLine.setPromotedAt(LocalDateTime.now());
 
         Enrollment promotedEnrollment = enrollmentRepositoryPort.save(nextInLine);
 
-        // Adjust positions for remaining students
-        if (oldPosition != null) {
-            enrollmentRepositoryPort.decrementWaitingListPositionsAfter(courseId, oldPosition);
-        }
-
         // Auto-generate reservations for promoted student
         autoReservationPort.generateForNewEnrollment(
                 promotedEnrollment.getStudentId(),
@@ -0,0 +1,23 @@
+package com.acainfo.enrollment.domain.event;
+
+/**
+ * Published whenever enrollments are written, so derived data (e.g. the
+ * students' material entitlements) can be invalidated.
+ *
+ * @param studentId Student whose enrollments changed, or null when a bulk
+ *                  update may have touched any student
+ */
+public record EnrollmentsChangedEvent(Long studentId) {
+
+    public static EnrollmentsChangedEvent forStudent(Long studentId) {
+        return new EnrollmentsChangedEvent(studentId);
+    }
+
+    public static EnrollmentsChangedEvent forAllStudents() {
+        return new EnrollmentsChangedEvent(null);
+    }
+
+    public boolean affectsAllStudents() {
+        return studentId == null;
+    }
+}
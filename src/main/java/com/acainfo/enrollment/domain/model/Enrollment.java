@@ -47,11 +47,18 @@ public class Enrollment {
     private EnrollmentStatus status;
 
     /**
-     * Position in the waiting list. Null if not in waiting list.
-     * Used for FIFO promotion when seats become available.
+     * Position in the waiting list (1-based). Null if not in waiting list.
+     * Not persisted: derived on read from the queue order (waitingListEnteredAt, id),
+     * so leaving the queue or being promoted never renumbers the students behind.
      */
     private Integer waitingListPosition;
 
+    /**
+     * When the enrollment entered the waiting list. Monotonic queue key used for
+     * FIFO promotion (ties broken by id). Null if not in waiting list.
+     */
+    private LocalDateTime waitingListEnteredAt;
+
     /**
      * Date when the enrollment was created.
      */
@@ -1,5 +1,6 @@
 package com.acainfo.enrollment.infrastructure.adapter.in.rest;
 
+import com.acainfo.enrollment.application.dto.BatchApprovalResult;
 import com.acainfo.enrollment.application.dto.EnrollmentFilters;
 import com.acainfo.enrollment.application.port.in.ApproveEnrollmentUseCase;
 import com.acainfo.enrollment.application.port.in.ChangeCourseUseCase;
@@ -9,6 +10,8 @@ import com.acainfo.enrollment.application.port.in.RejectEnrollmentUseCase;
 import com.acainfo.enrollment.application.port.in.WithdrawEnrollmentUseCase;
 import com.acainfo.enrollment.domain.model.Enrollment;
 import com.acainfo.enrollment.domain.model.EnrollmentStatus;
+import com.acainfo.enrollment.infrastructure.adapter.in.rest.dto.BatchApprovalResponse;
+import com.acainfo.enrollment.infrastructure.adapter.in.rest.dto.BatchApproveEnrollmentsRequest;
 import com.acainfo.enrollment.infrastructure.adapter.in.rest.dto.ChangeCourseRequest;
 import com.acainfo.enrollment.infrastructure.adapter.in.rest.dto.EnrollStudentRequest;
 import com.acainfo.enrollment.infrastructure.adapter.in.rest.dto.EnrollmentResponse;
@@ -37,6 +40,7 @@ import java.util.List;
  * - POST (enroll): STUDENT or ADMIN
  * - DELETE (withdraw): Owner student or ADMIN
  * - PUT (change-group): Owner student or ADMIN
+ * - POST (approve-batch): Course teacher or ADMIN
  *
  * All responses are enriched with related entity data (student name, subject name, etc.)
  * to reduce the number of API calls the frontend needs to make.
@@ -247,6 +251,35 @@ public class EnrollmentController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Approve several enrollment requests at once.
+     * POST /api/enrollments/approve-batch
+     * Enrollments the caller cannot approve are skipped and reported, not failed.
+     */
+    @PostMapping("/approve-batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
+    public ResponseEntity<BatchApprovalResponse> approveBatch(
+            @Valid @RequestBody BatchApproveEnrollmentsRequest request,
+            @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        log.info("REST: Approving {} enrollments in batch by user {}",
+                request.getEnrollmentIds().size(), userDetails.getUserId());
+
+        BatchApprovalResult result = approveEnrollmentUseCase.approveBatch(
+                request.getEnrollmentIds(), userDetails.getUserId());
+        List<EnrollmentResponse> approved = enrollmentResponseEnricher.enrichList(result.approved());
+        int activeCount = (int) result.approved().stream().filter(Enrollment::isActive).count();
+
+        BatchApprovalResponse response = BatchApprovalResponse.builder()
+                .activeCount(activeCount)
+                .waitingListCount(result.approved().size() - activeCount)
+                .approved(approved)
+                .skipped(result.skipped())
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Reject an enrollment request.
      * PUT /api/enrollments/{id}/reject
@@ -0,0 +1,22 @@
+package com.acainfo.enrollment.infrastructure.adapter.in.rest.dto;
+
+import com.acainfo.enrollment.application.dto.BatchApprovalResult.SkippedEnrollment;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * REST DTO for the result of a bulk approval.
+ * Response body for POST /api/enrollments/approve-batch
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchApprovalResponse {
+    private Integer activeCount;
+    private Integer waitingListCount;
+    private List<EnrollmentResponse> approved;
+    private List<SkippedEnrollment> skipped;
+}
@@ -0,0 +1,24 @@
+package com.acainfo.enrollment.infrastructure.adapter.in.rest.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * REST DTO for approving several enrollment requests at once.
+ * Request body for POST /api/enrollments/approve-batch
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchApproveEnrollmentsRequest {
+
+    @NotEmpty(message = "Debe indicar al menos una inscripción")
+    @Size(max = 500, message = "No se pueden aprobar más de 500 inscripciones a la vez")
+    private List<@NotNull Long> enrollmentIds;
+}
@@ -22,7 +22,7 @@ import java.time.LocalDateTime;
         @Index(name = "idx_enrollment_status", columnList = "status"),
         @Index(name = "idx_enrollment_student_group", columnList = "student_id, course_id"),
         @Index(name = "idx_enrollment_group_status", columnList = "course_id, status"),
-        @Index(name = "idx_enrollment_waiting_list", columnList = "course_id, status, waiting_list_position")
+        @Index(name = "idx_enrollment_waiting_list", columnList = "course_id, status, waiting_list_entered_at, id")
     }
     // Note: Unique constraint for active enrollments is managed via partial index in PostgreSQL
     // See: uk_enrollment_student_group_active_states (only applies to PENDING_APPROVAL, ACTIVE, WAITING_LIST)
@@ -52,8 +52,9 @@ public class EnrollmentJpaEntity {
     @Builder.Default
     private EnrollmentStatus status = EnrollmentStatus.ACTIVE;
 
-    @Column(name = "waiting_list_position")
-    private Integer waitingListPosition;
+    // Queue order key; the displayed position is computed on read (window function)
+    @Column(name = "waiting_list_entered_at")
+    private LocalDateTime waitingListEnteredAt;
 
     @Column(name = "enrolled_at", nullable = false)
     private LocalDateTime enrolledAt;
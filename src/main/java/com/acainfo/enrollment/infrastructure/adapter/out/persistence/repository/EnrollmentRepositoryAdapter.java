@@ -2,6 +2,7 @@ package com.acainfo.enrollment.infrastructure.adapter.out.persistence.repository
 
 import com.acainfo.enrollment.application.dto.EnrollmentFilters;
 import com.acainfo.enrollment.application.port.out.EnrollmentRepositoryPort;
+import com.acainfo.enrollment.domain.event.EnrollmentsChangedEvent;
 import com.acainfo.enrollment.domain.model.Enrollment;
 import com.acainfo.enrollment.domain.model.EnrollmentStatus;
 import com.acainfo.enrollment.infrastructure.adapter.out.persistence.entity.EnrollmentJpaEntity;
@@ -9,22 +10,29 @@ import com.acainfo.enrollment.infrastructure.adapter.out.persistence.specificati
 import com.acainfo.enrollment.infrastructure.mapper.EnrollmentPersistenceMapper;
 import com.acainfo.user.application.port.in.GetUserProfileUseCase;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Adapter implementing EnrollmentRepositoryPort.
  * Translates domain operations to JPA operations.
+ * Every write publishes an {@link EnrollmentsChangedEvent} so cached
+ * entitlements are invalidated whichever service changed the enrollment.
  */
 @Component
 @RequiredArgsConstructor
@@ -33,25 +41,53 @@ public class EnrollmentRepositoryAdapter implements EnrollmentRepositoryPort {
     private final JpaEnrollmentRepository jpaEnrollmentRepository;
     private final EnrollmentPersistenceMapper enrollmentPersistenceMapper;
     private final GetUserProfileUseCase getUserProfileUseCase;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public Enrollment save(Enrollment enrollment) {
         EnrollmentJpaEntity jpaEntity = enrollmentPersistenceMapper.toJpaEntity(enrollment);
         EnrollmentJpaEntity savedEntity = jpaEnrollmentRepository.save(jpaEntity);
-        return enrollmentPersistenceMapper.toDomain(savedEntity);
+        eventPublisher.publishEvent(EnrollmentsChangedEvent.forStudent(savedEntity.getStudentId()));
+        return withQueuePosition(enrollmentPersistenceMapper.toDomain(savedEntity));
+    }
+
+    @Override
+    public List<Enrollment> saveAll(List<Enrollment> enrollments) {
+        if (enrollments.isEmpty()) {
+            return List.of();
+        }
+        List<EnrollmentJpaEntity> savedEntities = jpaEnrollmentRepository.saveAll(
+                enrollmentPersistenceMapper.toJpaEntityList(enrollments));
+        savedEntities.stream()
+                .map(EnrollmentJpaEntity::getStudentId)
+                .distinct()
+                .forEach(studentId -> eventPublisher.publishEvent(EnrollmentsChangedEvent.forStudent(studentId)));
+        return withQueuePositions(enrollmentPersistenceMapper.toDomainList(savedEntities));
     }
 
     @Override
     public Optional<Enrollment> findById(Long id) {
         return jpaEnrollmentRepository.findById(id)
-                .map(enrollmentPersistenceMapper::toDomain);
+                .map(enrollmentPersistenceMapper::toDomain)
+                .map(this::withQueuePosition);
+    }
+
+    @Override
+    public List<Enrollment> findAllById(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return withQueuePositions(enrollmentPersistenceMapper.toDomainList(
+                jpaEnrollmentRepository.findAllById(ids)));
     }
 
     @Override
     public Page<Enrollment> findWithFilters(EnrollmentFilters filters) {
+        // waitingListPosition is derived on read; its persisted equivalent is the queue key
+        String sortBy = "waitingListPosition".equals(filters.sortBy()) ? "waitingListEnteredAt" : filters.sortBy();
         Sort sort = filters.sortDirection().equalsIgnoreCase("ASC")
-                ? Sort.by(filters.sortBy()).ascending()
-                : Sort.by(filters.sortBy()).descending();
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
 
         PageRequest pageRequest = PageRequest.of(filters.page(), filters.size(), sort);
 
@@ -72,49 +108,52 @@ public class EnrollmentRepositoryAdapter implements EnrollmentRepositoryPort {
             spec = spec.and(EnrollmentSpecifications.hasStudentIdIn(studentIdsFromEmail));
         }
 
-        return jpaEnrollmentRepository.findAll(spec, pageRequest)
+        Page<Enrollment> page = jpaEnrollmentRepository.findAll(spec, pageRequest)
                 .map(enrollmentPersistenceMapper::toDomain);
+        withQueuePositions(page.getContent());
+        return page;
     }
 
     @Override
     public List<Enrollment> findByStudentId(Long studentId) {
-        return enrollmentPersistenceMapper.toDomainList(
+        return withQueuePositions(enrollmentPersistenceMapper.toDomainList(
                 jpaEnrollmentRepository.findByStudentId(studentId)
-        );
+        ));
     }
 
     @Override
     public List<Enrollment> findByCourseId(Long courseId) {
-        return enrollmentPersistenceMapper.toDomainList(
+        return withQueuePositions(enrollmentPersistenceMapper.toDomainList(
                 jpaEnrollmentRepository.findByCourseId(courseId)
-        );
+        ));
     }
 
     @Override
     public List<Enrollment> findByStudentIdAndStatus(Long studentId, EnrollmentStatus status) {
-        return enrollmentPersistenceMapper.toDomainList(
+        return withQueuePositions(enrollmentPersistenceMapper.toDomainList(
                 jpaEnrollmentRepository.findByStudentIdAndStatus(studentId, status)
-        );
+        ));
     }
 
     @Override
     public List<Enrollment> findByStudentIdAndStatusIn(Long studentId, List<EnrollmentStatus> statuses) {
-        return enrollmentPersistenceMapper.toDomainList(
+        return withQueuePositions(enrollmentPersistenceMapper.toDomainList(
                 jpaEnrollmentRepository.findByStudentIdAndStatusIn(studentId, statuses)
-        );
+        ));
     }
 
     @Override
     public List<Enrollment> findByCourseIdAndStatus(Long courseId, EnrollmentStatus status) {
-        return enrollmentPersistenceMapper.toDomainList(
+        return withQueuePositions(enrollmentPersistenceMapper.toDomainList(
                 jpaEnrollmentRepository.findByCourseIdAndStatus(courseId, status)
-        );
+        ));
     }
 
     @Override
     public Optional<Enrollment> findByStudentIdAndCourseId(Long studentId, Long courseId) {
         return jpaEnrollmentRepository.findByStudentIdAndCourseId(studentId, courseId)
-                .map(enrollmentPersistenceMapper::toDomain);
+                .map(enrollmentPersistenceMapper::toDomain)
+                .map(this::withQueuePosition);
     }
 
     @Override
@@ -160,26 +199,80 @@ public class EnrollmentRepositoryAdapter implements EnrollmentRepositoryPort {
     }
 
     @Override
-    public List<Enrollment> findWaitingListByCourseId(Long courseId) {
-        return enrollmentPersistenceMapper.toDomainList(
-                jpaEnrollmentRepository.findByCourseIdAndStatusOrderByWaitingListPositionAsc(
-                        courseId, EnrollmentStatus.WAITING_LIST)
-        );
+    public Set<Long> findActiveSubjectIdsByStudentId(Long studentId) {
+        return new HashSet<>(jpaEnrollmentRepository.findActiveSubjectIdsByStudentId(studentId));
+    }
+
+    @Override
+    public int completeActiveByCourseId(Long courseId, LocalDateTime updatedAt) {
+        int completed = jpaEnrollmentRepository.completeActiveByCourseId(courseId, updatedAt);
+        if (completed > 0) {
+            eventPublisher.publishEvent(EnrollmentsChangedEvent.forAllStudents());
+        }
+        return completed;
     }
 
     @Override
-    public int getNextWaitingListPosition(Long courseId) {
-        return jpaEnrollmentRepository.findNextWaitingListPosition(courseId);
+    public int expirePendingAndWaitingByCourseId(Long courseId, LocalDateTime updatedAt) {
+        return jpaEnrollmentRepository.expirePendingAndWaitingByCourseId(courseId, updatedAt);
     }
 
     @Override
-    @Transactional
-    public void decrementWaitingListPositionsAfter(Long courseId, int position) {
-        jpaEnrollmentRepository.decrementWaitingListPositionsAfter(courseId, position);
+    public List<Enrollment> findWaitingListByCourseId(Long courseId) {
+        List<Enrollment> queue = enrollmentPersistenceMapper.toDomainList(
+                jpaEnrollmentRepository.findByCourseIdAndStatusOrderByWaitingListEnteredAtAscIdAsc(
+                        courseId, EnrollmentStatus.WAITING_LIST)
+        );
+        // Already in queue order: the display position is the 1-based index
+        for (int i = 0; i < queue.size(); i++) {
+            queue.get(i).setWaitingListPosition(i + 1);
+        }
+        return queue;
+    }
+
+    @Override
+    public Optional<Enrollment> findNextInWaitingListForUpdate(Long courseId) {
+        return jpaEnrollmentRepository.findFirstByCourseIdAndStatusOrderByWaitingListEnteredAtAscIdAsc(
+                        courseId, EnrollmentStatus.WAITING_LIST)
+                .map(enrollmentPersistenceMapper::toDomain);
     }
 
     @Override
     public void delete(Long id) {
         jpaEnrollmentRepository.deleteById(id);
+        eventPublisher.publishEvent(EnrollmentsChangedEvent.forAllStudents());
+    }
+
+    // ==================== Waiting list positions ====================
+
+    private Enrollment withQueuePosition(Enrollment enrollment) {
+        withQueuePositions(List.of(enrollment));
+        return enrollment;
+    }
+
+    /**
+     * Fill the display position of the WAITING_LIST enrollments in the list.
+     * Positions are computed on read by a single window-function query, so the
+     * queue itself never needs renumbering. No query when nobody is waiting.
+     */
+    private List<Enrollment> withQueuePositions(List<Enrollment> enrollments) {
+        List<Enrollment> waiting = enrollments.stream()
+                .filter(Enrollment::isOnWaitingList)
+                .toList();
+        if (waiting.isEmpty()) {
+            return enrollments;
+        }
+
+        Set<Long> courseIds = waiting.stream().map(Enrollment::getCourseId).collect(Collectors.toSet());
+        Set<Long> ids = waiting.stream().map(Enrollment::getId).collect(Collectors.toSet());
+
+        Map<Long, Integer> positions = jpaEnrollmentRepository.findWaitingListPositions(courseIds, ids).stream()
+                .collect(Collectors.toMap(
+                        row -> ((Number) row[0]).longValue(),
+                        row -> ((Number) row[1]).intValue()
+                ));
+
+        waiting.forEach(e -> e.setWaitingListPosition(positions.get(e.getId())));
+        return enrollments;
     }
 }
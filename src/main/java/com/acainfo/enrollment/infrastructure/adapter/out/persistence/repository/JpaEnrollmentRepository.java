@@ -2,14 +2,19 @@ package com.acainfo.enrollment.infrastructure.adapter.out.persistence.repository
 
 import com.acainfo.enrollment.domain.model.EnrollmentStatus;
 import com.acainfo.enrollment.infrastructure.adapter.out.persistence.entity.EnrollmentJpaEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -63,27 +68,41 @@ public interface JpaEnrollmentRepository extends
     long countByCourseIdAndStatus(Long courseId, EnrollmentStatus status);
 
     /**
-     * Find waiting list for a group, ordered by position (FIFO).
+     * Find waiting list for a group in queue order (FIFO: entered-at, then id).
      */
-    List<EnrollmentJpaEntity> findByCourseIdAndStatusOrderByWaitingListPositionAsc(
+    List<EnrollmentJpaEntity> findByCourseIdAndStatusOrderByWaitingListEnteredAtAscIdAsc(
             Long courseId, EnrollmentStatus status);
 
     /**
-     * Find the next waiting list position for a group.
+     * Pick the head of a group's waiting list and lock it.
+     * Translates to ORDER BY ... LIMIT 1 FOR UPDATE SKIP LOCKED (lock timeout -2 = skip locked),
+     * so promotion touches a single index entry regardless of queue length.
      */
-    @Query("SELECT COALESCE(MAX(e.waitingListPosition), 0) + 1 FROM EnrollmentJpaEntity e " +
-           "WHERE e.courseId = :courseId AND e.status = 'WAITING_LIST'")
-    int findNextWaitingListPosition(@Param("courseId") Long courseId);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    Optional<EnrollmentJpaEntity> findFirstByCourseIdAndStatusOrderByWaitingListEnteredAtAscIdAsc(
+            Long courseId, EnrollmentStatus status);
 
     /**
-     * Decrement waiting list positions after a student leaves.
-     * Called when someone leaves the waiting list to maintain FIFO order.
+     * Compute display positions of waiting list enrollments with a window function.
+     * Returns pairs of [enrollmentId, position] for the requested ids only.
      */
-    @Modifying
-    @Query("UPDATE EnrollmentJpaEntity e SET e.waitingListPosition = e.waitingListPosition - 1 " +
-           "WHERE e.courseId = :courseId AND e.status = 'WAITING_LIST' " +
-           "AND e.waitingListPosition > :position")
-    void decrementWaitingListPositionsAfter(@Param("courseId") Long courseId, @Param("position") int position);
+    @Query(value = """
+        SELECT q.id, q.queue_position
+        FROM (
+            SELECT e.id AS id,
+                   ROW_NUMBER() OVER (PARTITION BY e.course_id
+                                      ORDER BY e.waiting_list_entered_at, e.id) AS queue_position
+            FROM enrollments e
+            WHERE e.status = 'WAITING_LIST'
+            AND e.course_id IN (:courseIds)
+        ) q
+        WHERE q.id IN (:ids)
+        """, nativeQuery = true)
+    List<Object[]> findWaitingListPositions(
+            @Param("courseIds") Collection<Long> courseIds,
+            @Param("ids") Collection<Long> ids
+    );
 
     /**
      * Find pending approval enrollments for multiple groups.
@@ -94,4 +113,44 @@ public interface JpaEnrollmentRepository extends
      * Find pending enrollments older than a given time (for expiration).
      */
     List<EnrollmentJpaEntity> findByStatusAndEnrolledAtBefore(EnrollmentStatus status, LocalDateTime cutoffTime);
+
+    /**
+     * Bulk ACTIVE -> COMPLETED for a course (course closure).
+     * Audit fields are not populated by bulk JPQL, so updatedAt is set explicitly.
+     */
+    @Modifying
+    @Query("""
+        UPDATE EnrollmentJpaEntity e
+        SET e.status = com.acainfo.enrollment.domain.model.EnrollmentStatus.COMPLETED,
+            e.updatedAt = :now
+        WHERE e.courseId = :courseId
+        AND e.status = 'ACTIVE'
+        """)
+    int completeActiveByCourseId(@Param("courseId") Long courseId, @Param("now") LocalDateTime now);
+
+    /**
+     * Bulk PENDING_APPROVAL / WAITING_LIST -> EXPIRED for a course (course closure).
+     */
+    @Modifying
+    @Query("""
+        UPDATE EnrollmentJpaEntity e
+        SET e.status = com.acainfo.enrollment.domain.model.EnrollmentStatus.EXPIRED,
+            e.waitingListEnteredAt = NULL,
+            e.updatedAt = :now
+        WHERE e.courseId = :courseId
+        AND e.status IN ('PENDING_APPROVAL', 'WAITING_LIST')
+        """)
+    int expirePendingAndWaitingByCourseId(@Param("courseId") Long courseId, @Param("now") LocalDateTime now);
+
+    /**
+     * Distinct subjects of a student's ACTIVE enrollments (one join, no per-course lookup).
+     */
+    @Query("""
+        SELECT DISTINCT c.subjectId
+        FROM EnrollmentJpaEntity e
+        JOIN CourseJpaEntity c ON e.courseId = c.id
+        WHERE e.studentId = :studentId
+        AND e.status = 'ACTIVE'
+        """)
+    List<Long> findActiveSubjectIdsByStudentId(@Param("studentId") Long studentId);
 }
@@ -3,6 +3,7 @@ package com.acainfo.enrollment.infrastructure.mapper;
 import com.acainfo.enrollment.domain.model.Enrollment;
 import com.acainfo.enrollment.infrastructure.adapter.out.persistence.entity.EnrollmentJpaEntity;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
@@ -23,10 +24,12 @@ public interface EnrollmentPersistenceMapper {
 
     /**
      * Convert JPA entity to domain Enrollment.
+     * Display position is not persisted; the repository adapter fills it on read.
      *
      * @param entity JPA entity
      * @return Domain model
      */
+    @Mapping(target = "waitingListPosition", ignore = true)
     Enrollment toDomain(EnrollmentJpaEntity entity);
 
     /**
@@ -1,13 +1,17 @@
 package com.acainfo.material.application.dto;
 
+import java.nio.file.Path;
+
 /**
  * One capture (photo/screenshot of worked exercises) fed to the GENERATE mode.
+ * Only the tmp file is passed around: the LLM adapter encodes it while building
+ * the request, so the raw bytes are never held in memory.
  *
- * @param data     Raw image bytes
+ * @param path     Capture file in the job's tmp directory
  * @param mimeType Image MIME type (image/png, image/jpeg...)
  */
 public record AiImageInput(
-        byte[] data,
+        Path path,
         String mimeType
 ) {
 }
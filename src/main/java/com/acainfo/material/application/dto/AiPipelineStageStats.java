@@ -0,0 +1,27 @@
+package com.acainfo.material.application.dto;
+
+/**
+ * Load of one stage of the AI LaTeX pipeline since startup.
+ *
+ * @param stage Stage name (llm, compile)
+ * @param concurrency Steps the stage runs at the same time
+ * @param running Steps running now
+ * @param queued Steps waiting for a free slot
+ * @param queueCapacity Waiting steps beyond which new ones are rejected
+ * @param completed Steps finished (successfully or not)
+ * @param rejected Steps rejected because the queue was full
+ * @param avgWaitMillis Mean time a step waited in the queue
+ * @param avgRunMillis Mean time a step ran
+ */
+public record AiPipelineStageStats(
+        String stage,
+        int concurrency,
+        int running,
+        int queued,
+        int queueCapacity,
+        long completed,
+        long rejected,
+        double avgWaitMillis,
+        double avgRunMillis
+) {
+}
@@ -0,0 +1,19 @@
+package com.acainfo.material.application.dto;
+
+/**
+ * A blob used only by materials of past academic years, eligible for the cold tier.
+ *
+ * @param sha256 Blob hash
+ * @param storagePath Hot storage path of the blob
+ * @param size Blob size in bytes
+ * @param academicYear Most recent academic year among the materials using it
+ * @param archiveLocator Existing cold-tier copy (blob restored earlier), or null
+ */
+public record ArchivableBlob(
+        String sha256,
+        String storagePath,
+        Long size,
+        Integer academicYear,
+        String archiveLocator
+) {
+}
@@ -0,0 +1,30 @@
+package com.acainfo.material.application.dto;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * One capture received for a GENERATE job, not yet read: the web layer hands
+ * over a way to move it to disk instead of its bytes, so the service spools it
+ * straight into the job's tmp directory.
+ *
+ * @param content  Writes the capture to the given file (e.g. {@code MultipartFile::transferTo})
+ * @param mimeType Image MIME type (image/png, image/jpeg...)
+ */
+public record CaptureUpload(
+        Content content,
+        String mimeType
+) {
+
+    /**
+     * Source of the capture bytes.
+     */
+    @FunctionalInterface
+    public interface Content {
+
+        /**
+         * Write the whole capture to {@code target} (created or replaced).
+         */
+        void transferTo(Path target) throws IOException;
+    }
+}
@@ -0,0 +1,21 @@
+package com.acainfo.material.application.dto;
+
+/**
+ * Outcome of moving past-year material files to the compressed cold tier.
+ *
+ * @param candidates Blobs used only by materials of past academic years
+ * @param archived Blobs moved to the cold tier (hot file deleted)
+ * @param failed Blobs that could not be read, or were reused meanwhile (left hot)
+ * @param segments Archive segments written in this run
+ * @param bytesArchived Hot bytes freed by the archived blobs
+ * @param bytesReclaimed Net disk space reclaimed: freed bytes minus the segments written
+ */
+public record ColdTierResult(
+        int candidates,
+        int archived,
+        int failed,
+        int segments,
+        long bytesArchived,
+        long bytesReclaimed
+) {
+}
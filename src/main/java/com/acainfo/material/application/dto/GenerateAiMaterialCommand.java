@@ -10,13 +10,13 @@ import java.util.List;
  * @param folderId      Destination folder (null = subject root); must belong to the subject
  * @param createdById   Admin launching the job
  * @param exerciseCount Number of exercises to generate (default 2 at the API layer)
- * @param images        Captures (bytes + MIME); persisted to tmp while the job runs
+ * @param images        Captures (source + MIME), spooled to tmp while the job runs
  */
 public record GenerateAiMaterialCommand(
         Long subjectId,
         Long folderId,
         Long createdById,
         int exerciseCount,
-        List<AiImageInput> images
+        List<CaptureUpload> images
 ) {
 }
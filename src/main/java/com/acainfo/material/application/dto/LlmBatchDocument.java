@@ -0,0 +1,32 @@
+package com.acainfo.material.application.dto;
+
+import java.nio.file.Path;
+
+/**
+ * A PDF, or a range of its pages, to transcribe within a provider batch.
+ *
+ * @param customId   Key its result comes back under
+ * @param pdf        Local copy of the PDF (only the range's pages for a range)
+ * @param firstPage  First page of the source it holds (1-based)
+ * @param lastPage   Last page of the source it holds (inclusive)
+ * @param totalPages Pages of the whole source
+ */
+public record LlmBatchDocument(
+        String customId,
+        Path pdf,
+        int firstPage,
+        int lastPage,
+        int totalPages
+) {
+
+    public static LlmBatchDocument whole(String customId, Path pdf, int pages) {
+        return new LlmBatchDocument(customId, pdf, 1, pages, pages);
+    }
+
+    /**
+     * Whether it holds only part of the source, to be merged with the other ranges.
+     */
+    public boolean isRange() {
+        return firstPage > 1 || lastPage < totalPages;
+    }
+}
@@ -0,0 +1,19 @@
+package com.acainfo.material.application.dto;
+
+/**
+ * Result of one request of a provider batch: either the reply or why there is none.
+ *
+ * @param customId     Key the request was submitted under
+ * @param reply        LaTeX and usage (null when it failed)
+ * @param errorMessage Why the request failed: API error, expired, cut at max tokens...
+ */
+public record LlmBatchResult(
+        String customId,
+        LlmLatexReply reply,
+        String errorMessage
+) {
+
+    public boolean succeeded() {
+        return reply != null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.acainfo.material.application.dto;
+
+/**
+ * Answer of the LLM to a LaTeX request.
+ *
+ * @param tex   LaTeX returned (full document, or fragment for excerpt fixes)
+ * @param usage Tokens and latency of the request, added up on the job
+ */
+public record LlmLatexReply(
+        String tex,
+        LlmUsage usage
+) {
+}
@@ -0,0 +1,17 @@
+package com.acainfo.material.application.dto;
+
+/**
+ * Tokens and latency of one LLM request.
+ *
+ * @param inputTokens Input tokens
+ * @param outputTokens Output tokens
+ * @param latencyMillis Time until the full response arrived
+ */
+public record LlmUsage(
+        long inputTokens,
+        long outputTokens,
+        long latencyMillis
+) {
+
+    public static final LlmUsage NONE = new LlmUsage(0, 0, 0);
+}
@@ -0,0 +1,26 @@
+package com.acainfo.material.application.dto;
+
+import java.util.List;
+
+/**
+ * A ZIP download whose access check has already passed.
+ * Only metadata: file content is read from storage while the archive is streamed.
+ *
+ * @param filename Name of the ZIP file offered to the client
+ * @param entries  Files to include, in archive order
+ */
+public record MaterialArchive(
+        String filename,
+        List<Entry> entries
+) {
+
+    /**
+     * One file of the archive.
+     *
+     * @param path        Path inside the ZIP (folder name + original filename, unique)
+     * @param storagePath Storage path to read the content from
+     * @param compressed  True for formats that are already compressed (stored, not deflated)
+     */
+    public record Entry(String path, String storagePath, boolean compressed) {
+    }
+}
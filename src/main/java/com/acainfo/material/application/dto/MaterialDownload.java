@@ -1,19 +1,37 @@
 package com.acainfo.material.application.dto;
 
-import java.io.InputStream;
+import org.springframework.core.io.Resource;
+
+import java.net.URI;
+import java.time.Instant;
 
 /**
  * DTO containing material download data.
  *
+ * <p>{@code content} is a seekable resource, so the web layer can answer
+ * {@code Range} requests with 206 partial responses without reading the
+ * skipped bytes. {@code etag} and {@code lastModified} are the validators
+ * for conditional requests (304).</p>
+ *
+ * <p>When the storage can serve the file itself, {@code redirectUrl} is set
+ * and {@code content} is null: the client is redirected to a short-lived URL
+ * and the bytes never pass through the application.</p>
+ *
  * @param filename Original filename for download
  * @param mimeType MIME type for Content-Type header
  * @param fileSize File size for Content-Length header
- * @param content File content as InputStream
+ * @param content File content as a seekable resource (null when redirecting)
+ * @param etag Entity tag: the content hash (stored files are immutable)
+ * @param lastModified Upload instant of the stored file
+ * @param redirectUrl Presigned storage URL to redirect to, or null to stream {@code content}
  */
 public record MaterialDownload(
         String filename,
         String mimeType,
         Long fileSize,
-        InputStream content
+        Resource content,
+        String etag,
+        Instant lastModified,
+        URI redirectUrl
 ) {
 }
@@ -3,6 +3,11 @@ package com.acainfo.material.application.dto;
 /**
  * DTO for Material dynamic filtering (Criteria Builder).
  * Used by repository ports to build dynamic queries.
+ *
+ * <p>{@code visibleInAcademicYear} carries the caller's visibility rule: when set,
+ * only visible materials of that academic year match (students' view); null means
+ * no restriction (admin/teacher). It is applied in SQL so pages and totals are
+ * exact.</p>
  */
 public record MaterialFilters(
         Long subjectId,
@@ -10,6 +15,7 @@ public record MaterialFilters(
         String fileExtension,
         String searchTerm,
         Integer academicYear,
+        Integer visibleInAcademicYear,
         Integer page,
         Integer size,
         String sortBy,
@@ -0,0 +1,19 @@
+package com.acainfo.material.application.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Usage counted in memory for one material and day, added to its daily aggregate on flush.
+ *
+ * @param materialId Material ID
+ * @param usageDate Day the accesses happened
+ * @param downloads Downloads to add
+ * @param previews Previews to add
+ */
+public record MaterialUsageCount(
+        Long materialId,
+        LocalDate usageDate,
+        long downloads,
+        long previews
+) {
+}
@@ -0,0 +1,21 @@
+package com.acainfo.material.application.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Usage report of the materials of a subject.
+ *
+ * @param subjectId Subject ID
+ * @param since First day counted in {@code top}
+ * @param top Most used materials since {@code since}, downloads + previews descending
+ * @param neverOpened Current academic year materials nobody has downloaded or previewed,
+ *                    oldest first
+ */
+public record MaterialUsageReport(
+        Long subjectId,
+        LocalDate since,
+        List<MaterialUsageStat> top,
+        List<MaterialUsageStat> neverOpened
+) {
+}
@@ -0,0 +1,21 @@
+package com.acainfo.material.application.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Usage of one material over a period.
+ *
+ * @param materialId Material ID
+ * @param name Material name
+ * @param downloads Downloads in the period
+ * @param previews Previews in the period
+ * @param lastUsedOn Last day with any access, or null if never opened
+ */
+public record MaterialUsageStat(
+        Long materialId,
+        String name,
+        Long downloads,
+        Long previews,
+        LocalDate lastUsedOn
+) {
+}
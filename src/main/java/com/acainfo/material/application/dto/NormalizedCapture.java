@@ -0,0 +1,20 @@
+package com.acainfo.material.application.dto;
+
+import java.nio.file.Path;
+
+/**
+ * A capture after normalization, ready to be stored for the model.
+ *
+ * @param path            File to store: the normalized image, or the original when
+ *                        normalizing would not make it smaller (or it cannot be decoded)
+ * @param mimeType        MIME type of {@code path}
+ * @param originalBytes   Size of the capture as uploaded
+ * @param normalizedBytes Size of {@code path}
+ */
+public record NormalizedCapture(
+        Path path,
+        String mimeType,
+        long originalBytes,
+        long normalizedBytes
+) {
+}
@@ -0,0 +1,13 @@
+package com.acainfo.material.application.dto;
+
+/**
+ * Preview of a PDF: a small PNG of its first page plus its page count.
+ *
+ * @param thumbnailPng First page rendered as PNG
+ * @param pageCount    Number of pages of the document
+ */
+public record PdfPreview(
+        byte[] thumbnailPng,
+        int pageCount
+) {
+}
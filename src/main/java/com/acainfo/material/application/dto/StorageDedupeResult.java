@@ -0,0 +1,19 @@
+package com.acainfo.material.application.dto;
+
+/**
+ * Outcome of moving legacy material files into the content-addressed store.
+ *
+ * @param scanned Legacy materials found (no content hash)
+ * @param migrated Materials now pointing at a blob
+ * @param failed Materials whose file could not be read or stored (left untouched)
+ * @param distinctBlobs Distinct contents among the migrated materials
+ * @param bytesReclaimed Bytes no longer stored twice
+ */
+public record StorageDedupeResult(
+        int scanned,
+        int migrated,
+        int failed,
+        int distinctBlobs,
+        long bytesReclaimed
+) {
+}
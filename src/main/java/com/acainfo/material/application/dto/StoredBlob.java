@@ -0,0 +1,15 @@
+package com.acainfo.material.application.dto;
+
+/**
+ * A file written to the content-addressed store.
+ *
+ * @param sha256 Hex SHA-256 of the content, computed while the upload was written
+ * @param storagePath Path of the blob relative to the storage base directory
+ * @param size Number of bytes written
+ */
+public record StoredBlob(
+        String sha256,
+        String storagePath,
+        long size
+) {
+}
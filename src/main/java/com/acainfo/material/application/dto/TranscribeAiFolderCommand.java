@@ -0,0 +1,14 @@
+package com.acainfo.material.application.dto;
+
+/**
+ * Command to launch a TRANSCRIBE_BATCH job: every whiteboard PDF of a folder
+ * not yet transcribed -> clean transcriptions, published into the same folder.
+ *
+ * @param folderId    Folder whose PDFs are transcribed
+ * @param createdById Admin launching the job
+ */
+public record TranscribeAiFolderCommand(
+        Long folderId,
+        Long createdById
+) {
+}
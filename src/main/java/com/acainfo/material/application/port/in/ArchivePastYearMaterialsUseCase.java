@@ -0,0 +1,22 @@
+package com.acainfo.material.application.port.in;
+
+import com.acainfo.material.application.dto.ColdTierResult;
+
+/**
+ * Use case for moving material files of past academic years to the compressed
+ * cold tier. Students never access those materials; admins and teachers still
+ * can, and get the file restored on access.
+ *
+ * <p>Idempotent: only blobs still in the hot store are processed.</p>
+ */
+public interface ArchivePastYearMaterialsUseCase {
+
+    /**
+     * Compress every blob used only by past-year materials into archive segments,
+     * repoint its materials to the segment and delete the hot file.
+     *
+     * @throws com.acainfo.material.domain.exception.ColdTierRunningException if a run
+     *         already holds the cold-tier cluster lock, here or on another instance
+     */
+    ColdTierResult archivePastYears();
+}
@@ -0,0 +1,20 @@
+package com.acainfo.material.application.port.in;
+
+import com.acainfo.material.application.dto.StorageDedupeResult;
+
+/**
+ * Use case for migrating legacy material files (per-subject layout, one copy per
+ * upload) into the content-addressed store, where identical files are kept once.
+ *
+ * <p>Idempotent: only materials without a content hash are processed, so it can be
+ * re-run after a partial failure.</p>
+ */
+public interface DeduplicateStorageUseCase {
+
+    /**
+     * Hash every legacy file, move it to its blob and repoint the material.
+     * Legacy files are deleted only after their material points at the blob.
+     * Synchronous: returns once every legacy material has been processed.
+     */
+    StorageDedupeResult deduplicateLegacyFiles();
+}
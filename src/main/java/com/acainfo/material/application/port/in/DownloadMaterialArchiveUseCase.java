@@ -0,0 +1,41 @@
+package com.acainfo.material.application.port.in;
+
+import com.acainfo.material.application.dto.MaterialArchive;
+
+import java.io.OutputStream;
+
+/**
+ * Use case for downloading a whole folder or subject as a single ZIP.
+ *
+ * <p>Access is checked once for the whole archive: admins and teachers get every
+ * material; students need an ACTIVE enrollment in the subject and only get the
+ * visible, current-year materials whose download is not disabled (the same
+ * materials they could download one by one).</p>
+ */
+public interface DownloadMaterialArchiveUseCase {
+
+    /**
+     * Check access and list the materials of a folder.
+     *
+     * @throws com.acainfo.material.domain.exception.MaterialFolderNotFoundException if the folder does not exist
+     * @throws com.acainfo.material.domain.exception.MaterialAccessDeniedException if the user cannot access it
+     */
+    MaterialArchive prepareFolderArchive(Long folderId, Long userId);
+
+    /**
+     * Check access and list the materials of a subject, grouped by folder.
+     *
+     * @throws com.acainfo.material.domain.exception.MaterialAccessDeniedException if the user cannot access it
+     */
+    MaterialArchive prepareSubjectArchive(Long subjectId, Long userId);
+
+    /**
+     * Stream a prepared archive as ZIP. Files are copied from storage one at a time
+     * with a fixed-size buffer: no temp files, memory independent of archive size.
+     *
+     * @param archive Archive returned by one of the prepare methods
+     * @param out     Destination (typically the HTTP response body); not closed
+     * @throws com.acainfo.material.domain.exception.FileStorageException if a file cannot be read or written
+     */
+    void writeArchive(MaterialArchive archive, OutputStream out);
+}
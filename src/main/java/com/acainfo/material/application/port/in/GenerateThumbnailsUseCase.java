@@ -0,0 +1,16 @@
+package com.acainfo.material.application.port.in;
+
+/**
+ * Use case for (re)generating PDF previews of existing materials.
+ * New uploads get theirs automatically in the background.
+ */
+public interface GenerateThumbnailsUseCase {
+
+    /**
+     * Queue preview generation for every PDF material that has none yet.
+     * Returns immediately; the work runs on the background worker.
+     *
+     * @return Number of materials queued
+     */
+    int backfill();
+}
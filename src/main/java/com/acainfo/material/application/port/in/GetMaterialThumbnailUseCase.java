@@ -0,0 +1,19 @@
+package com.acainfo.material.application.port.in;
+
+import com.acainfo.material.application.dto.MaterialDownload;
+
+/**
+ * Use case for the first-page thumbnail of a PDF material.
+ * Same access rules as {@link PreviewMaterialUseCase}.
+ */
+public interface GetMaterialThumbnailUseCase {
+
+    /**
+     * Get the thumbnail (PNG) of a material.
+     *
+     * @throws com.acainfo.material.domain.exception.MaterialNotFoundException if material not found
+     * @throws com.acainfo.material.domain.exception.MaterialAccessDeniedException if user cannot access
+     * @throws com.acainfo.material.domain.exception.MaterialThumbnailNotFoundException if not generated (yet)
+     */
+    MaterialDownload thumbnail(Long materialId, Long userId);
+}
@@ -0,0 +1,19 @@
+package com.acainfo.material.application.port.in;
+
+import com.acainfo.material.application.dto.MaterialUsageReport;
+
+/**
+ * Use case for the material usage statistics of a subject.
+ */
+public interface GetMaterialUsageUseCase {
+
+    /**
+     * Most used and never-opened materials of a subject.
+     * Accesses still buffered in memory (up to one flush interval) are not included.
+     *
+     * @param subjectId Subject ID
+     * @param days Window of the ranking, in days up to today
+     * @param limit Maximum number of materials in the ranking
+     */
+    MaterialUsageReport getSubjectUsage(Long subjectId, int days, int limit);
+}
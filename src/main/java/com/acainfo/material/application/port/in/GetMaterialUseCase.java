@@ -33,12 +33,15 @@ public interface GetMaterialUseCase {
     PageResponse<Material> findWithFilters(MaterialFilters filters);
 
     /**
-     * Get all materials for a subject.
+     * Get a page of materials for a subject, newest first.
      *
      * @param subjectId Subject ID
-     * @return List of materials
+     * @param visibleInAcademicYear Caller's visibility rule (see {@link MaterialFilters}); null = no restriction
+     * @param page Page number (0-based)
+     * @param size Page size
+     * @return Page of materials
      */
-    List<Material> getBySubjectId(Long subjectId);
+    PageResponse<Material> getBySubjectId(Long subjectId, Integer visibleInAcademicYear, int page, int size);
 
     /**
      * Check if user can download a material.
@@ -50,7 +53,7 @@ public interface GetMaterialUseCase {
     boolean canDownload(Long materialId, Long userId);
 
     /**
-     * Get recent materials for subjects the student is enrolled in.
+     * Get recent visible, current-year materials for subjects the student is enrolled in.
      *
      * @param studentId Student ID
      * @param days Number of days to look back
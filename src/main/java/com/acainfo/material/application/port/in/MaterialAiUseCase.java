@@ -1,13 +1,18 @@
 package com.acainfo.material.application.port.in;
 
+import com.acainfo.material.application.dto.AiPipelineStageStats;
 import com.acainfo.material.application.dto.GenerateAiMaterialCommand;
+import com.acainfo.material.application.dto.TranscribeAiFolderCommand;
 import com.acainfo.material.application.dto.TranscribeAiMaterialCommand;
 import com.acainfo.material.domain.model.MaterialAiJob;
 
+import java.util.List;
+
 /**
  * Use case for the AI LaTeX generator/transcriber.
- * Creating a job returns immediately (PENDING); the pipeline runs on a
- * dedicated single-thread executor and the frontend polls getJob().
+ * Creating a job returns immediately (PENDING); the pipeline runs in the
+ * background through bounded stages and the frontend reads getJob() again
+ * whenever the job changes (pushed over SSE).
  */
 public interface MaterialAiUseCase {
 
@@ -21,10 +26,25 @@ public interface MaterialAiUseCase {
      */
     MaterialAiJob createTranscribeJob(TranscribeAiMaterialCommand command);
 
+    /**
+     * Launch a TRANSCRIBE_BATCH job: the folder's PDFs not transcribed yet, in one
+     * provider batch (cheaper, results within hours).
+     *
+     * @throws com.acainfo.material.domain.exception.MaterialFolderNotFoundException if not found
+     * @throws com.acainfo.material.domain.exception.InvalidAiJobRequestException if nothing to
+     *         transcribe or over the batch limits
+     */
+    MaterialAiJob createTranscribeFolderJob(TranscribeAiFolderCommand command);
+
     /**
      * Poll a job's state.
      *
      * @throws com.acainfo.material.domain.exception.MaterialAiJobNotFoundException if not found
      */
     MaterialAiJob getJob(Long jobId);
+
+    /**
+     * Queue depth and latency of each pipeline stage (llm, compile) since startup.
+     */
+    List<AiPipelineStageStats> getPipelineStats();
 }
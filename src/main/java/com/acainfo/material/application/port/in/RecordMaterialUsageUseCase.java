@@ -0,0 +1,17 @@
+package com.acainfo.material.application.port.in;
+
+import com.acainfo.material.domain.model.MaterialUsageType;
+
+/**
+ * Use case for counting material downloads and previews.
+ *
+ * <p>Called on every access, so it never touches the database: counts are buffered
+ * in memory and flushed periodically. Counts of a node that dies before a flush are lost.</p>
+ */
+public interface RecordMaterialUsageUseCase {
+
+    /**
+     * Count one access to a material, on today's date.
+     */
+    void record(Long materialId, MaterialUsageType type);
+}
@@ -0,0 +1,30 @@
+package com.acainfo.material.application.port.in;
+
+import com.acainfo.material.domain.model.Material;
+
+import java.io.InputStream;
+
+/**
+ * Use case for reading material files that live in the cold tier
+ * (see {@link Material#isArchived()}).
+ */
+public interface RestoreArchivedMaterialUseCase {
+
+    /**
+     * Write an archived file back to the hot store and repoint every material
+     * sharing its content. Callers must have checked access first.
+     *
+     * @return Hot storage path of the restored file
+     * @throws com.acainfo.material.domain.exception.FileStorageException if the archive cannot be read
+     */
+    String restore(Material material);
+
+    /**
+     * Stream an archived file straight from its segment, without restoring it.
+     *
+     * @param archiveLocator Locator stored as the material's storage path
+     * @return Decompressed content (closing it closes the segment)
+     * @throws com.acainfo.material.domain.exception.FileStorageException if the entry is not found
+     */
+    InputStream openArchived(String archiveLocator);
+}
@@ -0,0 +1,24 @@
+package com.acainfo.material.application.port.out;
+
+import com.acainfo.material.application.dto.NormalizedCapture;
+
+import java.nio.file.Path;
+
+/**
+ * Output port to the image processing applied to GENERATE captures before they
+ * are stored: upright (EXIF orientation), no larger than the model needs and
+ * re-encoded, so requests carry fewer bytes and input tokens.
+ * Implemented by ImageIoCaptureNormalizer (javax.imageio, in-process).
+ */
+public interface CaptureNormalizerPort {
+
+    /**
+     * Normalize {@code source} into {@code target}. Never fails on an image it
+     * cannot handle: the original is returned instead.
+     *
+     * @param source   capture as uploaded
+     * @param mimeType its MIME type
+     * @param target   file to write the normalized image to (created or replaced)
+     */
+    NormalizedCapture normalize(Path source, String mimeType, Path target);
+}
@@ -1,10 +1,17 @@
 package com.acainfo.material.application.port.out;
 
+import com.acainfo.material.application.dto.StoredBlob;
+import org.springframework.core.io.Resource;
+
 import java.io.InputStream;
+import java.net.URI;
+import java.util.Optional;
 
 /**
  * Output port for file storage operations.
  * Defines the contract for storing and retrieving file content.
+ * Material files go to the content-addressed store ({@link #storeBlob(InputStream)});
+ * {@link #store(InputStream, String, Long)} is kept for named side files (e.g. LaTeX sources).
  *
  * <p>Implementations:</p>
  * <ul>
@@ -27,6 +34,41 @@ public interface FileStoragePort {
      */
     String store(InputStream content, String storedFilename, Long subjectId);
 
+    /**
+     * Store content in the content-addressed store, hashing it (SHA-256) while it is
+     * written. Content already present is not written twice: the upload is discarded
+     * and the existing blob path is returned. Safe to call concurrently for the same content.
+     *
+     * @param content File content as InputStream (not closed by this method)
+     * @return Hash, blob path and size of the stored content
+     * @throws com.acainfo.material.domain.exception.FileStorageException if storage fails
+     */
+    StoredBlob storeBlob(InputStream content);
+
+    /**
+     * Store a file derived from a blob (e.g. its thumbnail) next to it, at
+     * {@code {blob path}{suffix}}. Derived files depend only on the content, so
+     * materials sharing a blob share them too; an existing one is replaced.
+     *
+     * @param contentHash SHA-256 of the source blob
+     * @param suffix      Suffix appended to the blob name (e.g. ".thumb.png")
+     * @param content     Derived content
+     * @return Storage path of the derived file
+     * @throws com.acainfo.material.domain.exception.FileStorageException if storage fails
+     */
+    String storeDerived(String contentHash, String suffix, InputStream content);
+
+    /**
+     * Store a cold-tier archive segment at {@code archive/{segmentName}}.
+     * Segments are written once and never modified.
+     *
+     * @param segmentName Segment name relative to the archive directory (e.g. "2024/20261019-043000-1.zip")
+     * @param content     Segment content
+     * @return Storage path of the segment
+     * @throws com.acainfo.material.domain.exception.FileStorageException if storage fails
+     */
+    String storeArchiveSegment(String segmentName, InputStream content);
+
     /**
      * Retrieve file content.
      *
@@ -36,6 +78,32 @@ public interface FileStoragePort {
      */
     InputStream retrieve(String storagePath);
 
+    /**
+     * Retrieve file content as a seekable resource, for serving over HTTP.
+     * Unlike {@link #retrieve(String)} the resource knows its length and
+     * last-modified time and supports positional reads, so byte ranges can be
+     * served without reading the bytes before the range start.
+     *
+     * @param storagePath Path returned by store()
+     * @return Readable resource over the stored file
+     * @throws com.acainfo.material.domain.exception.FileStorageException if the file does not exist
+     */
+    Resource retrieveResource(String storagePath);
+
+    /**
+     * Short-lived URL the client can fetch the file from directly, bypassing the
+     * application. Only call it after the caller's access has been checked: anyone
+     * holding the URL can read the file until it expires.
+     *
+     * @param storagePath Path returned by store()
+     * @param filename    Filename for the Content-Disposition header of the response
+     * @param mimeType    Content-Type of the response
+     * @param inline      true for {@code inline} (viewer), false for {@code attachment}
+     * @return The URL, or empty when the storage cannot serve files directly
+     *         (the application then streams {@link #retrieveResource(String)})
+     */
+    Optional<URI> directDownloadUrl(String storagePath, String filename, String mimeType, boolean inline);
+
     /**
      * Delete a stored file.
      *
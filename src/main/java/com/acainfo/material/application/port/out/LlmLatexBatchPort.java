@@ -0,0 +1,35 @@
+package com.acainfo.material.application.port.out;
+
+import com.acainfo.material.application.dto.LlmBatchDocument;
+import com.acainfo.material.application.dto.LlmBatchResult;
+
+import java.util.List;
+
+/**
+ * Output port to the LLM's batch interface: many requests submitted at once,
+ * processed by the provider when it has capacity (within a day) at a lower price.
+ * Implemented by AnthropicLatexAdapter (Message Batches API).
+ *
+ * <p>Replies are the same full documents as {@link LlmLatexPort#transcribeDocument}
+ * (or {@link LlmLatexPort#transcribePages} for a page range), but nothing is
+ * streamed: results can only be read once the whole batch has ended.</p>
+ */
+public interface LlmLatexBatchPort {
+
+    /**
+     * Submit one TRANSCRIBE request per document or page range.
+     *
+     * @return id of the provider's batch
+     */
+    String submitTranscriptions(List<LlmBatchDocument> documents);
+
+    /**
+     * Whether the batch has ended (every request succeeded, failed or expired).
+     */
+    boolean isEnded(String batchId);
+
+    /**
+     * Results of an ended batch, one per submitted document.
+     */
+    List<LlmBatchResult> results(String batchId);
+}
@@ -1,15 +1,22 @@
 package com.acainfo.material.application.port.out;
 
 import com.acainfo.material.application.dto.AiImageInput;
+import com.acainfo.material.application.dto.LlmLatexReply;
 
 import java.util.List;
+import java.util.function.LongConsumer;
 
 /**
  * Output port to the LLM that produces LaTeX documents.
  * Implemented by AnthropicLatexAdapter (Claude via official Java SDK).
  *
  * <p>Every method returns the FULL source of a compilable LaTeX document
- * (from \documentclass to \end{document}).</p>
+ * (from \documentclass to \end{document}), except {@link #fixLatexExcerpt},
+ * together with the tokens and latency of the request.</p>
+ *
+ * <p>The reply is streamed: {@code progress} is called, from the calling thread,
+ * with the output tokens received so far (an estimate until the reply is
+ * complete).</p>
  */
 public interface LlmLatexPort {
 
@@ -19,17 +26,33 @@ public interface LlmLatexPort {
      * The resulting document carries a \title{short topic} the pipeline
      * parses to name the material.
      */
-    String generateExercises(List<AiImageInput> images, int exerciseCount);
+    LlmLatexReply generateExercises(List<AiImageInput> images, int exerciseCount, LongConsumer progress);
 
     /**
      * TRANSCRIBE mode: faithful clean transcription of a handwritten
      * whiteboard PDF. Illegible symbols become \textbf{[?]}.
      */
-    String transcribeDocument(byte[] pdfBytes);
+    LlmLatexReply transcribeDocument(byte[] pdfBytes, LongConsumer progress);
+
+    /**
+     * TRANSCRIBE mode on part of a long document: {@code pdfBytes} holds pages
+     * {@code firstPage}-{@code lastPage} of {@code totalPages}. Returns a full
+     * document whose body is merged with the other ranges'.
+     */
+    LlmLatexReply transcribePages(byte[] pdfBytes, int firstPage, int lastPage, int totalPages,
+                                  LongConsumer progress);
 
     /**
      * Fix loop: given a .tex that failed to compile and the compiler's
      * "error:" lines, return a minimally-corrected full document.
      */
-    String fixLatex(String texSource, String compilationErrors);
+    LlmLatexReply fixLatex(String texSource, String compilationErrors, LongConsumer progress);
+
+    /**
+     * Fix loop on a large document: only the lines around the errors are sent.
+     * Returns the corrected replacement for exactly lines {@code firstLine}-{@code lastLine},
+     * NOT a full document.
+     */
+    LlmLatexReply fixLatexExcerpt(String excerpt, int firstLine, int lastLine, String compilationErrors,
+                                  LongConsumer progress);
 }
@@ -1,11 +1,17 @@
 package com.acainfo.material.application.port.out;
 
 import com.acainfo.material.domain.model.MaterialAiJob;
+import com.acainfo.material.domain.model.MaterialAiJobItem;
+import com.acainfo.material.domain.model.MaterialAiJobStage;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 /**
- * Output port for MaterialAiJob persistence.
+ * Output port for MaterialAiJob persistence. The job table doubles as the work
+ * queue shared by every instance (see {@link #claimNext}).
  */
 public interface MaterialAiJobRepositoryPort {
 
@@ -20,10 +26,59 @@ public interface MaterialAiJobRepositoryPort {
     Optional<MaterialAiJob> findById(Long id);
 
     /**
-     * Mark every PENDING/RUNNING job as FAILED with the given message.
-     * Used on startup: a restart kills in-flight jobs (deploy.sh does docker restart).
+     * Claim the oldest job that is due: PENDING with its retry time reached, or
+     * RUNNING with an expired lease. Rows locked by another instance's claim are
+     * skipped, so concurrent workers never claim the same job.
+     * The claimed job is RUNNING, leased to {@code workerId} and has one more attempt.
      *
-     * @return number of jobs marked as failed
+     * @return the claimed job, or empty when nothing is due
      */
-    int failInterruptedJobs(String errorMessage);
+    Optional<MaterialAiJob> claimNext(String workerId, LocalDateTime now, LocalDateTime leaseUntil);
+
+    /**
+     * Write the state a run leaves the job in and release its lease, only while
+     * {@code leaseOwner} still holds it: a worker whose lease expired must not
+     * overwrite what the instance that took the job over has written.
+     *
+     * @return false when the job was taken over (nothing is written)
+     */
+    boolean release(MaterialAiJob job, String leaseOwner);
+
+    /**
+     * Whether the job is still RUNNING under {@code leaseOwner}'s lease.
+     */
+    boolean isLeasedTo(Long jobId, String leaseOwner);
+
+    /**
+     * Extend the lease of the given jobs while they are still RUNNING and held by {@code workerId}.
+     *
+     * @return number of leases renewed (fewer than asked = some job was taken over)
+     */
+    int renewLeases(String workerId, Collection<Long> jobIds, LocalDateTime leaseUntil);
+
+    /**
+     * Record the step a RUNNING job is in and the tokens received in it, without
+     * touching the rest of the row (lease included).
+     */
+    void updateProgress(Long jobId, MaterialAiJobStage stage, long tokens, LocalDateTime now);
+
+    /**
+     * Record the outcome of the item at {@code position} of a batch job, alone:
+     * items are saved as they are published, while the job is still RUNNING.
+     */
+    void updateItem(Long jobId, int position, MaterialAiJobItem item);
+
+    /**
+     * Record the provider batch a batch job has just submitted, alone and at
+     * once: submitting is paid for and not idempotent, so the id must survive a
+     * crash before the job's next save.
+     */
+    void updateLlmBatchId(Long jobId, String llmBatchId);
+
+    /**
+     * Those of {@code materialIds} an unfinished (PENDING or RUNNING) job is
+     * transcribing: the source of a TRANSCRIBE job or a PENDING item of a
+     * TRANSCRIBE_BATCH one.
+     */
+    Set<Long> findSourcesInProgress(Collection<Long> materialIds);
 }
@@ -0,0 +1,84 @@
+package com.acainfo.material.application.port.out;
+
+import com.acainfo.material.application.dto.ArchivableBlob;
+import com.acainfo.material.application.dto.StoredBlob;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Output port for the reference counts of content-addressed blobs.
+ * Each material pointing to a blob holds one reference; the blob file can be
+ * deleted once the last reference is released.
+ */
+public interface MaterialBlobRepositoryPort {
+
+    /**
+     * Add one reference to a blob, registering it on first use.
+     * The blob row stays locked until the end of the transaction, so concurrent
+     * acquire/release/removal are serialized.
+     * An archived blob becomes hot again at the blob path; the caller checks under this
+     * lock that the file is there, since storeBlob skips the write when it finds one.
+     *
+     * @param blob Stored blob
+     */
+    void acquire(StoredBlob blob);
+
+    /**
+     * Remove one reference from a blob.
+     *
+     * @param sha256 Blob hash
+     * @return Storage path of the blob if that was its last reference (the row stays, with
+     *         no references, until {@link #removeIfUnreferenced} deletes it along with the
+     *         file), empty while other materials still use it
+     */
+    Optional<String> release(String sha256);
+
+    /**
+     * Remove the row of a blob left without references. The row stays locked until
+     * the end of the transaction, so the caller deletes the file before any upload of
+     * the same content can take a reference again.
+     *
+     * @param sha256 Blob hash
+     * @return false if the blob is unknown or was referenced again meanwhile
+     */
+    boolean removeIfUnreferenced(String sha256);
+
+    /**
+     * Remove a blob written to the store that no material took a reference to.
+     * Registers it with no references when it has no row, so the check runs under the
+     * blob's row lock like {@link #removeIfUnreferenced}, and the caller deletes the file
+     * before commit.
+     *
+     * @param blob Stored blob
+     * @return false if some material references the blob
+     */
+    boolean removeIfUnadopted(StoredBlob blob);
+
+    /**
+     * Hot blobs used only by materials of academic years before the given one.
+     */
+    List<ArchivableBlob> findArchivable(int currentAcademicYear);
+
+    /**
+     * Record that a blob now lives in the cold tier. Locks the blob row until the
+     * end of the transaction, so no upload can adopt the blob meanwhile.
+     *
+     * @return false if the blob is unknown or already archived
+     */
+    boolean markArchived(String sha256, String archiveLocator);
+
+    /**
+     * Lock an archived blob's row until the end of the transaction, so its hot file
+     * can be deleted without an upload or a restore making it hot again meanwhile.
+     *
+     * @return false if the blob is unknown or no longer archived
+     */
+    boolean lockIfArchived(String sha256);
+
+    /**
+     * Record that an archived blob has been written back to the hot store.
+     * The archive locator is kept, so archiving it again costs no new segment.
+     */
+    void markRestored(String sha256, String storagePath);
+}
@@ -20,6 +20,12 @@ public interface MaterialFolderRepositoryPort {
      */
     Optional<MaterialFolder> findById(Long id);
 
+    /**
+     * Find folder by ID with a pessimistic write lock, held until the transaction
+     * ends. Serializes jobs launched on the same folder (check-then-insert).
+     */
+    Optional<MaterialFolder> findByIdForUpdate(Long id);
+
     /**
      * Find all folders for a subject, ordered by position (then name).
      */
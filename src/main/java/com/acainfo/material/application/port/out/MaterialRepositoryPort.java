@@ -40,12 +40,16 @@ public interface MaterialRepositoryPort {
     Page<Material> findWithFilters(MaterialFilters filters);
 
     /**
-     * Find all materials for a subject.
+     * Find the materials of a subject (optionally a single folder) for a bulk ZIP download,
+     * ordered by original filename.
      *
      * @param subjectId Subject ID
-     * @return List of materials ordered by uploadedAt desc
+     * @param folderId Folder ID, or null for every material of the subject
+     * @param visibleInAcademicYear Student rule: when set, only visible materials of that
+     *                              academic year with downloads enabled; null = all
+     * @return Materials to include
      */
-    List<Material> findBySubjectId(Long subjectId);
+    List<Material> findDownloadable(Long subjectId, Long folderId, Integer visibleInAcademicYear);
 
     /**
      * Find all materials uploaded by a user.
@@ -71,13 +75,15 @@ public interface MaterialRepositoryPort {
     void delete(Long id);
 
     /**
-     * Find recent materials for given subjects uploaded within specified days.
+     * Find recent visible materials of an academic year for given subjects
+     * uploaded within specified days.
      *
      * @param subjectIds List of subject IDs to filter by
+     * @param academicYear Academic year the materials must belong to
      * @param days Number of days to look back
      * @return List of materials ordered by uploadedAt desc
      */
-    List<Material> findRecentBySubjectIds(List<Long> subjectIds, int days);
+    List<Material> findRecentVisibleBySubjectIds(List<Long> subjectIds, int academicYear, int days);
 
     /**
      * Find multiple materials by IDs (used by batch operations to validate existence).
@@ -121,4 +127,45 @@ public interface MaterialRepositoryPort {
      * @return number of rows affected
      */
     int clearFolderId(Long folderId);
+
+    /**
+     * Find materials whose file is still in the legacy per-subject layout
+     * (no content hash yet). Used by the storage deduplication tool.
+     */
+    List<Material> findWithoutContentHash();
+
+    /**
+     * Point a legacy material at its content-addressed blob. Only applies while the
+     * material has no content hash, so concurrent or repeated runs cannot adopt twice.
+     *
+     * @return number of rows affected (0 if the material was already migrated or deleted)
+     */
+    int assignBlob(Long materialId, String contentHash, String storagePath);
+
+    /**
+     * Whether a material of the given academic year or later (or without academic
+     * year) uses the content. Such a blob must stay in the hot store.
+     */
+    boolean isContentInUseFrom(String contentHash, int academicYear);
+
+    /**
+     * Repoint every material of a content currently at {@code fromPath} to {@code toPath}
+     * (blob path &lt;-&gt; archive locator).
+     *
+     * @return number of materials repointed
+     */
+    int repointStorage(String contentHash, String fromPath, String toPath);
+
+    /**
+     * IDs of the PDF materials (in the content-addressed store) without a thumbnail yet.
+     */
+    List<Long> findPdfIdsWithoutThumbnail();
+
+    /**
+     * Record the generated preview of a material. Touches only the preview columns,
+     * so it cannot overwrite concurrent metadata edits.
+     *
+     * @return number of rows affected (0 if the material was deleted meanwhile)
+     */
+    int assignPreview(Long materialId, int pageCount, String thumbnailPath);
 }
@@ -0,0 +1,36 @@
+package com.acainfo.material.application.port.out;
+
+import com.acainfo.material.application.dto.MaterialUsageCount;
+import com.acainfo.material.application.dto.MaterialUsageStat;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Output port for the daily usage aggregates of materials (one row per material and day).
+ */
+public interface MaterialUsageRepositoryPort {
+
+    /**
+     * Add counts to their daily rows, creating missing rows, in one batch.
+     * Counts of materials deleted meanwhile are dropped.
+     */
+    void addCounts(List<MaterialUsageCount> counts);
+
+    /**
+     * Materials of a subject with any access since the given day, most used first.
+     */
+    List<MaterialUsageStat> findTopBySubject(Long subjectId, LocalDate since, int limit);
+
+    /**
+     * Materials of a subject and academic year that have never been accessed, oldest first.
+     */
+    List<MaterialUsageStat> findNeverOpenedBySubject(Long subjectId, int academicYear);
+
+    /**
+     * Which of the given materials have been accessed since the given day.
+     */
+    Set<Long> findUsedSince(Collection<Long> materialIds, LocalDate since);
+}
@@ -0,0 +1,27 @@
+package com.acainfo.material.application.port.out;
+
+import java.nio.file.Path;
+
+/**
+ * Output port to split source PDFs into page ranges, so long documents can be
+ * transcribed in parallel chunks.
+ * Implemented by PdfBoxPagesAdapter (Apache PDFBox, in-process).
+ */
+public interface PdfPagesPort {
+
+    /**
+     * Number of pages of a PDF.
+     *
+     * @throws com.acainfo.material.domain.exception.InvalidAiJobRequestException
+     *         if the file is not a readable PDF
+     */
+    int countPages(Path pdf);
+
+    /**
+     * A new PDF with pages {@code firstPage}-{@code lastPage} (1-based, inclusive).
+     *
+     * @throws com.acainfo.material.domain.exception.InvalidAiJobRequestException
+     *         if the file is not a readable PDF
+     */
+    byte[] extractPages(Path pdf, int firstPage, int lastPage);
+}
@@ -0,0 +1,21 @@
+package com.acainfo.material.application.port.out;
+
+import com.acainfo.material.application.dto.PdfPreview;
+
+import java.io.InputStream;
+
+/**
+ * Output port to the PDF renderer used for material previews.
+ * Implemented by PdfBoxPreviewAdapter (Apache PDFBox, in-process).
+ */
+public interface PdfPreviewPort {
+
+    /**
+     * Render the first page as a thumbnail and count the pages.
+     *
+     * @param pdf PDF content (not closed by this method)
+     * @throws com.acainfo.material.domain.exception.FileStorageException
+     *         if the content cannot be read or is not a valid PDF
+     */
+    PdfPreview render(InputStream pdf);
+}
@@ -0,0 +1,95 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.dto.AiPipelineStageStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One stage of the AI LaTeX pipeline: at most {@code concurrency} steps run at once,
+ * at most {@code queueCapacity} wait for a slot, and further steps are rejected.
+ *
+ * <p>Jobs run on virtual threads ("aiJobExecutor"), so a step waiting here parks its
+ * job's virtual thread without holding a platform thread; a job moves to the next
+ * stage by calling it once the previous step returns.</p>
+ */
+@Slf4j
+public class AiPipelineStage {
+
+    private final String name;
+    private final int concurrency;
+    private final int queueCapacity;
+    private final Semaphore slots;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    public AiPipelineStage(String name, int concurrency, int queueCapacity) {
+        if (concurrency < 1 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Etapa '" + name + "' mal configurada: concurrencia "
+                    + concurrency + ", cola " + queueCapacity);
+        }
+        this.name = name;
+        this.concurrency = concurrency;
+        this.queueCapacity = queueCapacity;
+        this.slots = new Semaphore(concurrency, true);
+    }
+
+    /**
+     * Run a step in this stage, waiting (FIFO) for a free slot.
+     *
+     * @throws RejectedExecutionException if the queue of the stage is full
+     */
+    public <T> T call(Callable<T> step) throws Exception {
+        long enqueuedAt = System.nanoTime();
+        // Timed tryAcquire honours fairness: a free slot never jumps the queue
+        if (!slots.tryAcquire(0, TimeUnit.SECONDS)) {
+            if (queued.incrementAndGet() > queueCapacity) {
+                queued.decrementAndGet();
+                rejected.increment();
+                throw new RejectedExecutionException(
+                        "Etapa '" + name + "' saturada: " + queueCapacity + " pasos en cola");
+            }
+            try {
+                slots.acquire();
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+
+        long startedAt = System.nanoTime();
+        waitNanos.add(startedAt - enqueuedAt);
+        try {
+            return step.call();
+        } finally {
+            long ranFor = System.nanoTime() - startedAt;
+            runNanos.add(ranFor);
+            completed.increment();
+            slots.release();
+            log.debug("Etapa {}: paso terminado en {} ms (espera {} ms)", name,
+                    TimeUnit.NANOSECONDS.toMillis(ranFor), TimeUnit.NANOSECONDS.toMillis(startedAt - enqueuedAt));
+        }
+    }
+
+    public AiPipelineStageStats stats() {
+        long done = completed.sum();
+        return new AiPipelineStageStats(
+                name,
+                concurrency,
+                concurrency - slots.availablePermits(),
+                queued.get(),
+                queueCapacity,
+                done,
+                rejected.sum(),
+                done == 0 ? 0 : waitNanos.sum() / 1e6 / done,
+                done == 0 ? 0 : runNanos.sum() / 1e6 / done);
+    }
+}
@@ -0,0 +1,61 @@
+package com.acainfo.material.application.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The lines of a .tex around its compile errors, sent to Claude instead of the
+ * whole document: the fix round trip pays for a few dozen lines, and the reply is
+ * spliced back in place.
+ *
+ * @param firstLine first line of the excerpt (1-based, inclusive)
+ * @param lastLine  last line of the excerpt (inclusive)
+ * @param text      the excerpt itself
+ */
+record LatexExcerpt(int firstLine, int lastLine, String text) {
+
+    /** Lines kept before the first and after the last error line. */
+    static final int CONTEXT_LINES = 8;
+
+    private static final Pattern ERROR_LINE = Pattern.compile("doc\\.tex:(\\d+):");
+
+    /**
+     * The window around the error lines the compiler reported. Empty when they
+     * carry no line number, point outside the document or the window would be
+     * over half of it: then the whole document is worth sending.
+     */
+    static Optional<LatexExcerpt> around(String tex, String errors) {
+        List<Integer> errorLines = new ArrayList<>();
+        Matcher matcher = ERROR_LINE.matcher(errors == null ? "" : errors);
+        while (matcher.find()) {
+            errorLines.add(Integer.parseInt(matcher.group(1)));
+        }
+        String[] lines = tex.split("\n", -1);
+        if (errorLines.isEmpty() || errorLines.stream().anyMatch(line -> line < 1 || line > lines.length)) {
+            return Optional.empty();
+        }
+
+        int first = Math.max(1, errorLines.stream().min(Integer::compare).orElseThrow() - CONTEXT_LINES);
+        int last = Math.min(lines.length, errorLines.stream().max(Integer::compare).orElseThrow() + CONTEXT_LINES);
+        if ((last - first + 1) * 2 > lines.length) {
+            return Optional.empty();
+        }
+        return Optional.of(new LatexExcerpt(first, last,
+                String.join("\n", Arrays.copyOfRange(lines, first - 1, last))));
+    }
+
+    /**
+     * The document with this excerpt's lines replaced by {@code replacement}.
+     */
+    String spliceInto(String tex, String replacement) {
+        String[] lines = tex.split("\n", -1);
+        List<String> result = new ArrayList<>(Arrays.asList(lines).subList(0, firstLine - 1));
+        result.add(replacement);
+        result.addAll(Arrays.asList(lines).subList(lastLine, lines.length));
+        return String.join("\n", result);
+    }
+}
@@ -0,0 +1,169 @@
+package com.acainfo.material.application.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Joins the documents transcribed for consecutive page ranges into one: the
+ * first document's preamble kept as is, plus the packages and definitions the
+ * others add, and every body in order.
+ * <p>
+ * A later preamble is read statement by statement (a definition may span
+ * several lines until its braces close). Only package loads of packages
+ * not loaded yet and definitions of names not defined yet are carried over, so
+ * a repeated {@code \newcommand} or {@code \newtheorem} never reaches the
+ * compiler as "already defined". Anything else there (class, title, settings)
+ * belongs to the first document.
+ */
+final class LatexMerger {
+
+    private static final String BEGIN_DOCUMENT = "\\begin{document}";
+    private static final String END_DOCUMENT = "\\end{document}";
+
+    /** A package load with its options and its list of packages. */
+    private static final Pattern USEPACKAGE = Pattern.compile("^\\\\usepackage\\s*(\\[[^]]*])?\\s*\\{([^}]*)}");
+
+    /** A macro, operator, environment or theorem definition: the name it defines. */
+    private static final Pattern DEFINITION = Pattern.compile(
+            "^\\\\(?:(?:new|renew|provide)command|DeclareMathOperator|(?:new|renew)environment|newtheorem)"
+                    + "\\*?\\s*\\{?\\s*\\\\?([A-Za-z@]+)"
+                    + "|^\\\\def\\s*\\\\([A-Za-z@]+)");
+
+    private LatexMerger() {
+    }
+
+    static String merge(List<String> documents) {
+        if (documents.size() == 1) {
+            return documents.get(0);
+        }
+        List<String> preamble = new ArrayList<>(preamble(documents.get(0)));
+        Set<String> packages = new HashSet<>();
+        Set<String> defined = new HashSet<>();
+        for (String statement : statements(preamble)) {
+            String code = statement.strip();
+            Matcher usepackage = USEPACKAGE.matcher(code);
+            if (usepackage.find()) {
+                packages.addAll(packageNames(usepackage.group(2)));
+            }
+            String name = definedName(code);
+            if (name != null) {
+                defined.add(name);
+            }
+        }
+
+        for (String document : documents.subList(1, documents.size())) {
+            for (String statement : statements(preamble(document))) {
+                String code = statement.strip();
+                Matcher usepackage = USEPACKAGE.matcher(code);
+                if (usepackage.find()) {
+                    List<String> added = packageNames(usepackage.group(2)).stream()
+                            .filter(packages::add)
+                            .toList();
+                    if (!added.isEmpty()) {
+                        String options = usepackage.group(1) == null ? "" : usepackage.group(1);
+                        preamble.add("\\usepackage" + options + "{" + String.join(",", added) + "}");
+                    }
+                    continue;
+                }
+                String name = definedName(code);
+                if (name != null && defined.add(name)) {
+                    preamble.add(statement);
+                }
+            }
+        }
+
+        List<String> bodies = new ArrayList<>();
+        for (String document : documents) {
+            bodies.add(body(document));
+        }
+        return String.join("\n", preamble).stripTrailing()
+                + "\n\n" + BEGIN_DOCUMENT + "\n"
+                + String.join("\n\n", bodies)
+                + "\n" + END_DOCUMENT + "\n";
+    }
+
+    private static List<String> preamble(String document) {
+        int begin = document.indexOf(BEGIN_DOCUMENT);
+        return begin < 0 ? List.of() : document.substring(0, begin).lines().toList();
+    }
+
+    /**
+     * Groups the preamble lines into statements: a line whose braces are left
+     * open takes the following ones until they close.
+     */
+    private static List<String> statements(List<String> lines) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = null;
+        int depth = 0;
+        for (String line : lines) {
+            if (current == null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                current = new StringBuilder(line);
+            } else {
+                current.append('\n').append(line);
+            }
+            depth += braceBalance(line);
+            if (depth <= 0) {
+                statements.add(current.toString());
+                current = null;
+                depth = 0;
+            }
+        }
+        if (current != null) {
+            statements.add(current.toString());
+        }
+        return statements;
+    }
+
+    /** Opened minus closed braces, skipping escaped ones and comments. */
+    private static int braceBalance(String line) {
+        int balance = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '%') {
+                break;
+            } else if (c == '{') {
+                balance++;
+            } else if (c == '}') {
+                balance--;
+            }
+        }
+        return balance;
+    }
+
+    private static List<String> packageNames(String list) {
+        return Arrays.stream(list.split(","))
+                .map(String::strip)
+                .filter(name -> !name.isEmpty())
+                .toList();
+    }
+
+    private static String definedName(String code) {
+        Matcher definition = DEFINITION.matcher(code);
+        if (!definition.find()) {
+            return null;
+        }
+        return definition.group(1) != null ? definition.group(1) : definition.group(2);
+    }
+
+    /**
+     * What lies between \begin{document} and \end{document}; the whole text when
+     * they are missing (a truncated or chatty reply is still worth keeping).
+     */
+    private static String body(String document) {
+        int begin = document.indexOf(BEGIN_DOCUMENT);
+        int from = begin < 0 ? 0 : begin + BEGIN_DOCUMENT.length();
+        int end = document.lastIndexOf(END_DOCUMENT);
+        int to = end < from ? document.length() : end;
+        return document.substring(from, to).strip();
+    }
+}
@@ -0,0 +1,234 @@
+package com.acainfo.material.application.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Deterministic, local repairs of the mechanical LaTeX mistakes LLMs keep making,
+ * tried on a failed compile before paying for a Claude fix round trip.
+ *
+ * <p>Each {@link Rule} only rewrites what it recognises and leaves the content
+ * alone otherwise. Every repair is followed by a compile, and the outcome is
+ * counted per rule so the log shows which rules actually save round trips.</p>
+ */
+@Slf4j
+@Component
+public class LatexPreFixer {
+
+    /** Packages the prompts forbid that break or slow down tectonic. */
+    static final Set<String> FORBIDDEN = Set.of(
+            "inputenc", "fontenc", "tikz", "pgfplots", "pgf", "pstricks", "minted", "shellesc");
+
+    private static final Pattern USEPACKAGE = Pattern.compile(
+            "\\\\usepackage(\\[[^\\]]*])?\\{([^}]*)}[ \\t]*\\n?");
+    private static final Pattern MISSING_STY = Pattern.compile("File `([^']+)\\.sty' not found");
+    private static final Pattern ENVIRONMENT = Pattern.compile("\\\\(begin|end)\\{([^}]+)}");
+    private static final Pattern TIKZ_BLOCK = Pattern.compile(
+            "\\\\begin\\{tikzpicture}.*?\\\\end\\{tikzpicture}", Pattern.DOTALL);
+    private static final Pattern TIKZ_LIBRARY = Pattern.compile("\\\\usetikzlibrary\\{[^}]*}[ \\t]*\\n?");
+
+    /**
+     * Local repairs, applied in this order.
+     */
+    public enum Rule {
+
+        /** ```latex fences and chatter around the document. */
+        MARKDOWN_FENCES {
+            @Override
+            String apply(String tex, String errors) {
+                String unfenced = Arrays.stream(tex.split("\n", -1))
+                        .filter(line -> !line.strip().startsWith("```"))
+                        .collect(Collectors.joining("\n"));
+                int start = unfenced.indexOf("\\documentclass");
+                int end = unfenced.lastIndexOf("\\end{document}");
+                if (start < 0) {
+                    return unfenced;
+                }
+                return end > start
+                        ? unfenced.substring(start, end + "\\end{document}".length())
+                        : unfenced.substring(start);
+            }
+        },
+
+        /** Forbidden packages (inputenc/fontenc included) and packages tectonic cannot find. */
+        FORBIDDEN_PACKAGES {
+            @Override
+            String apply(String tex, String errors) {
+                Set<String> dropped = new HashSet<>(FORBIDDEN);
+                Matcher missing = MISSING_STY.matcher(errors);
+                while (missing.find()) {
+                    dropped.add(missing.group(1));
+                }
+                String result = dropPackages(tex, dropped::contains);
+                // Without tikz its pictures cannot compile: leave a visible placeholder
+                result = TIKZ_BLOCK.matcher(result)
+                        .replaceAll(Matcher.quoteReplacement("\\textit{[figura omitida]}"));
+                return TIKZ_LIBRARY.matcher(result).replaceAll("");
+            }
+        },
+
+        /** A document cut short before \end{document}. */
+        MISSING_END_DOCUMENT {
+            @Override
+            String apply(String tex, String errors) {
+                if (!tex.contains("\\begin{document}") || tex.contains("\\end{document}")) {
+                    return tex;
+                }
+                return tex.stripTrailing() + "\n\\end{document}\n";
+            }
+        },
+
+        /** Environments closed in the wrong order, never closed or closed twice. */
+        UNBALANCED_ENVIRONMENTS {
+            @Override
+            String apply(String tex, String errors) {
+                return balanceEnvironments(tex);
+            }
+        };
+
+        abstract String apply(String tex, String errors);
+    }
+
+    /**
+     * Outcome of a local repair pass.
+     *
+     * @param tex   repaired source (the input when nothing applied)
+     * @param rules rules that changed the source, in order
+     */
+    public record Repair(String tex, List<Rule> rules) {
+
+        public boolean changed() {
+            return !rules.isEmpty();
+        }
+    }
+
+    private final Map<Rule, LongAdder> applied = new EnumMap<>(Rule.class);
+    private final Map<Rule, LongAdder> fixed = new EnumMap<>(Rule.class);
+
+    public LatexPreFixer() {
+        for (Rule rule : Rule.values()) {
+            applied.put(rule, new LongAdder());
+            fixed.put(rule, new LongAdder());
+        }
+    }
+
+    /**
+     * Apply every rule that changes something, given the source that failed and
+     * the compiler's "error:" lines.
+     */
+    public Repair repair(String tex, String errors) {
+        String current = tex;
+        List<Rule> rules = new ArrayList<>();
+        for (Rule rule : Rule.values()) {
+            String next = rule.apply(current, errors == null ? "" : errors);
+            if (!next.strip().equals(current.strip())) {
+                rules.add(rule);
+                current = next;
+            }
+        }
+        return new Repair(current, List.copyOf(rules));
+    }
+
+    /**
+     * Count the compile that followed a repair against each rule it applied and
+     * log the running success rate of those rules.
+     */
+    public void recordOutcome(Repair repair, boolean compiled) {
+        for (Rule rule : repair.rules()) {
+            applied.get(rule).increment();
+            if (compiled) {
+                fixed.get(rule).increment();
+            }
+            long total = applied.get(rule).sum();
+            long ok = fixed.get(rule).sum();
+            log.info("Corrección local {}: {} ({}/{} compilaciones arregladas, {}%)",
+                    rule, compiled ? "compila" : "sigue sin compilar", ok, total, ok * 100 / total);
+        }
+    }
+
+    static String dropPackages(String tex, Predicate<String> dropped) {
+        Matcher matcher = USEPACKAGE.matcher(tex);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            List<String> packages = Arrays.stream(matcher.group(2).split(","))
+                    .map(String::strip)
+                    .toList();
+            List<String> kept = packages.stream().filter(name -> !dropped.test(name)).toList();
+            String replacement;
+            if (kept.size() == packages.size()) {
+                replacement = matcher.group();
+            } else if (kept.isEmpty()) {
+                replacement = "";
+            } else {
+                String options = matcher.group(1) != null ? matcher.group(1) : "";
+                replacement = "\\usepackage" + options + "{" + String.join(",", kept) + "}\n";
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    /**
+     * Close environments in the order they were opened: an \end that skips open
+     * environments closes them first, an \end with nothing to close is dropped and
+     * whatever is still open at the end is closed.
+     */
+    static String balanceEnvironments(String tex) {
+        Matcher matcher = ENVIRONMENT.matcher(tex);
+        Deque<String> open = new ArrayDeque<>();
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            if (isCommentedOut(tex, matcher.start())) {
+                continue;
+            }
+            String name = matcher.group(2);
+            String replacement = matcher.group();
+            if (matcher.group(1).equals("begin")) {
+                open.push(name);
+            } else if (name.equals(open.peek())) {
+                open.pop();
+            } else if (open.contains(name)) {
+                StringBuilder closers = new StringBuilder();
+                while (!name.equals(open.peek())) {
+                    closers.append("\\end{").append(open.pop()).append("}\n");
+                }
+                open.pop();
+                replacement = closers + replacement;
+            } else {
+                replacement = "";
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        while (!open.isEmpty()) {
+            result.append("\n\\end{").append(open.pop()).append("}");
+        }
+        return result.toString();
+    }
+
+    private static boolean isCommentedOut(String tex, int position) {
+        int lineStart = tex.lastIndexOf('\n', position - 1) + 1;
+        for (int i = lineStart; i < position; i++) {
+            if (tex.charAt(i) == '%' && (i == 0 || tex.charAt(i - 1) != '\\')) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
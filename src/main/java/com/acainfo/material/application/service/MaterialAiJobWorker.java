@@ -0,0 +1,101 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.port.out.MaterialAiJobRepositoryPort;
+import com.acainfo.material.domain.model.MaterialAiJob;
+import com.acainfo.shared.infrastructure.config.AnthropicProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Consumer of the AI job queue on this instance: claims due jobs from the job
+ * table, hands them to {@link MaterialAiPipeline} and keeps their leases alive.
+ *
+ * <p>Every instance runs one worker with its own id. A claim locks the row with
+ * SKIP LOCKED, so two instances never take the same job; if an instance dies its
+ * leases stop being renewed and the jobs are claimed again once they expire.</p>
+ */
+@Slf4j
+@Component
+public class MaterialAiJobWorker {
+
+    private final MaterialAiJobRepositoryPort jobRepository;
+    private final MaterialAiPipeline pipeline;
+    private final AnthropicProperties properties;
+    private final Clock clock;
+
+    private final String workerId;
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public MaterialAiJobWorker(MaterialAiJobRepositoryPort jobRepository, MaterialAiPipeline pipeline,
+                               AnthropicProperties properties, Clock clock) {
+        this.jobRepository = jobRepository;
+        this.pipeline = pipeline;
+        this.properties = properties;
+        this.clock = clock;
+        this.workerId = System.getenv().getOrDefault("HOSTNAME", "acainfo")
+                + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Claim due jobs until this instance runs {@code max-jobs-per-node} of them or
+     * the queue is empty.
+     */
+    @Scheduled(fixedDelayString = "${app.anthropic.queue.poll-interval-ms:5000}")
+    public synchronized void poll() {
+        while (running.size() < properties.getQueue().getMaxJobsPerNode()) {
+            LocalDateTime now = LocalDateTime.now(clock);
+            Optional<MaterialAiJob> claimed = jobRepository.claimNext(workerId, now, leaseUntil(now));
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            MaterialAiJob job = claimed.get();
+            log.info("AI job {} reclamado por {} (intento {})", job.getId(), workerId, job.getAttempts());
+            running.add(job.getId());
+            pipeline.process(job).whenComplete((ignored, error) -> running.remove(job.getId()));
+        }
+    }
+
+    /**
+     * Poll right away after a job is created, so it does not wait for the next run.
+     * The job is already queued: a failure here is left to the scheduled poll.
+     */
+    public void wakeUp() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo reclamar el job recién creado, lo recogerá el siguiente sondeo: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Renew the leases of the jobs running here, well before they expire. Scheduled
+     * tasks share a pool ({@code spring.task.scheduling.pool.size}), so a long one
+     * such as the cold tier cannot hold the heartbeat back past the lease.
+     */
+    @Scheduled(fixedDelayString = "${app.anthropic.queue.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        Set<Long> jobIds = Set.copyOf(running);
+        if (jobIds.isEmpty()) {
+            return;
+        }
+        int renewed = jobRepository.renewLeases(workerId, jobIds, leaseUntil(LocalDateTime.now(clock)));
+        if (renewed < jobIds.size()) {
+            log.warn("{} de {} jobs de IA ya no tienen lease en {}: otra instancia los ha retomado",
+                    jobIds.size() - renewed, jobIds.size(), workerId);
+        }
+    }
+
+    private LocalDateTime leaseUntil(LocalDateTime now) {
+        return now.plusSeconds(properties.getQueue().getLeaseSeconds());
+    }
+}
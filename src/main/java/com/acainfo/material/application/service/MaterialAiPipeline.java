@@ -1,38 +1,67 @@
 package com.acainfo.material.application.service;
 
 import com.acainfo.material.application.dto.AiImageInput;
+import com.acainfo.material.application.dto.AiPipelineStageStats;
 import com.acainfo.material.application.dto.LatexCompilationResult;
-import com.acainfo.material.application.dto.StoredCapture;
+import com.acainfo.material.application.dto.LlmBatchDocument;
+import com.acainfo.material.application.dto.LlmBatchResult;
+import com.acainfo.material.application.dto.LlmLatexReply;
+import com.acainfo.material.application.dto.LlmUsage;
 import com.acainfo.material.application.dto.UploadMaterialCommand;
 import com.acainfo.material.application.port.in.UploadMaterialUseCase;
 import com.acainfo.material.application.port.out.FileStoragePort;
 import com.acainfo.material.application.port.out.LatexCompilerPort;
+import com.acainfo.material.application.port.out.LlmLatexBatchPort;
 import com.acainfo.material.application.port.out.LlmLatexPort;
 import com.acainfo.material.application.port.out.MaterialAiJobRepositoryPort;
 import com.acainfo.material.application.port.out.MaterialRepositoryPort;
-import com.acainfo.material.domain.exception.MaterialAiJobNotFoundException;
+import com.acainfo.material.application.port.out.PdfPagesPort;
+import com.acainfo.material.domain.event.MaterialAiJobChangedEvent;
+import com.acainfo.material.domain.exception.FileStorageException;
+import com.acainfo.material.domain.exception.LlmOutputTruncatedException;
+import com.acainfo.material.domain.exception.LlmUnavailableException;
 import com.acainfo.material.domain.exception.MaterialNotFoundException;
 import com.acainfo.material.domain.model.Material;
 import com.acainfo.material.domain.model.MaterialAiJob;
+import com.acainfo.material.domain.model.MaterialAiJobCapture;
+import com.acainfo.material.domain.model.MaterialAiJobItem;
+import com.acainfo.material.domain.model.MaterialAiJobItemStatus;
+import com.acainfo.material.domain.model.MaterialAiJobStage;
 import com.acainfo.material.domain.model.MaterialAiJobStatus;
+import com.acainfo.shared.domain.exception.DomainException;
 import com.acainfo.shared.infrastructure.config.AnthropicProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Clock;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -42,9 +71,27 @@ import java.util.stream.Stream;
  * {@code app.anthropic.max-fix-retries}) -> publish as material (+ .tex next
  * to the PDF, same UUID, no material row, for debugging and future re-runs).
  *
- * <p>Separate bean from {@link MaterialAiService} so @Async goes through the
- * proxy. ONLY the pipeline methods run on the dedicated single-thread executor
- * ("aiJobExecutor"): one job at a time on a 2 vCPU server.</p>
+ * <p>Jobs come from {@link MaterialAiJobWorker}, already claimed. Separate bean
+ * so @Async goes through the proxy. Each job runs on its own virtual thread
+ * ("aiJobExecutor") and goes through the stages of {@link MaterialAiStages}:
+ * Claude calls and tectonic compiles have separate bounded queues, so a job
+ * waiting minutes on the API no longer holds back another job's compile.</p>
+ *
+ * <p>While it runs, the job's current step and the tokens streamed in so far
+ * are written to it (at most every {@code app.anthropic.pipeline.progress-interval-ms}),
+ * so the admin watching it can tell a long response from a stuck one. Every
+ * change is also published as a {@link MaterialAiJobChangedEvent}.</p>
+ *
+ * <p>A TRANSCRIBE source longer than {@code app.anthropic.transcription.pages-per-chunk}
+ * is split into page ranges transcribed in parallel and merged by
+ * {@link LatexMerger}; a range that fails transiently is retried on its own, and
+ * one whose output hits the token limit is split in two.</p>
+ *
+ * <p>A TRANSCRIBE_BATCH job sends every PDF of a folder to the provider's batch
+ * interface at once (long ones in the same page ranges) and waits PENDING between
+ * checks; once the batch ends, each source's results are merged, compiled and
+ * published into the folder on their own, and one that fails does not hold back
+ * the others.</p>
  */
 @Slf4j
 @Service
@@ -53,91 +100,486 @@ public class MaterialAiPipeline {
 
     private static final Pattern TITLE_PATTERN = Pattern.compile("\\\\title\\{([^}]*)}");
     private static final DateTimeFormatter DAY_MONTH = DateTimeFormatter.ofPattern("dd-MM");
+    /** Suffix of the batch requests that carry a page range of their item's source. */
+    private static final Pattern RANGE_ID = Pattern.compile("-p(\\d+)-(\\d+)$");
+    static final String TRANSCRIPTION_SUFFIX = "-a-limpio.pdf";
 
     private final MaterialAiJobRepositoryPort jobRepository;
     private final MaterialRepositoryPort materialRepository;
     private final UploadMaterialUseCase uploadMaterialUseCase;
     private final FileStoragePort fileStorage;
     private final LlmLatexPort llmLatex;
+    private final PdfPagesPort pdfPages;
+    private final LlmLatexBatchPort llmBatch;
     private final LatexCompilerPort latexCompiler;
+    private final MaterialAiStages stages;
+    private final LatexPreFixer preFixer;
     private final AnthropicProperties properties;
     private final Clock clock;
+    private final ApplicationEventPublisher eventPublisher;
 
+    /**
+     * Run a claimed job to completion. A transient failure (network, API overload,
+     * storage, full stage) sends the job back to the queue with exponential backoff
+     * until {@code app.anthropic.queue.max-attempts}; anything else fails it for good.
+     * Captures are deleted from storage only once the job is COMPLETED or FAILED.
+     *
+     * <p>Every write that ends the run is conditional on this worker still holding
+     * the job's lease, and so is publishing: a run whose job was taken over by
+     * another instance (lease expired) stops without touching it.</p>
+     */
     @Async("aiJobExecutor")
-    public void runGenerateJob(Long jobId, Long folderId, int exerciseCount,
-                               Path capturesDir, List<StoredCapture> captures) {
-        MaterialAiJob job = jobRepository.findById(jobId)
-                .orElseThrow(() -> new MaterialAiJobNotFoundException(jobId));
+    public CompletableFuture<Void> process(MaterialAiJob job) {
+        // Claimed by the worker: now RUNNING
+        eventPublisher.publishEvent(new MaterialAiJobChangedEvent(job.getId()));
         try {
-            markRunning(job);
-
-            List<AiImageInput> images = new ArrayList<>();
-            for (StoredCapture capture : captures) {
-                images.add(new AiImageInput(Files.readAllBytes(capture.path()), capture.mimeType()));
+            if (job.getAttempts() > properties.getQueue().getMaxAttempts()) {
+                // Claimed again after its lease expired one time too many: it kills its instance
+                throw new IllegalStateException("Interrumpido " + (job.getAttempts() - 1)
+                        + " veces por caída del servidor: abandonado");
             }
+            switch (job.getType()) {
+                case GENERATE -> markCompleted(job, runGenerate(job), null);
+                case TRANSCRIBE -> markCompleted(job, runTranscribe(job), null);
+                case TRANSCRIBE_BATCH -> runBatch(job);
+            }
+            deleteCaptures(job);
+        } catch (LeaseLostException e) {
+            // The captures are the new owner's now
+            log.warn("AI job {}: otra instancia lo ha retomado (lease perdido), se abandona este intento",
+                    job.getId());
+        } catch (Exception e) {
+            if (isTransient(e) && job.getAttempts() < properties.getQueue().getMaxAttempts()) {
+                scheduleRetry(job, e);
+            } else if (markFailed(job, e)) {
+                deleteCaptures(job);
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
 
-            String tex = llmLatex.generateExercises(images, exerciseCount);
-            CompiledDocument document = compileWithRetries(tex);
+    private Long runGenerate(MaterialAiJob job) throws Exception {
+        Path capturesDir = Files.createTempDirectory("acainfo-ai-captures-");
+        try {
+            // Captures are fetched inside the stage: queued jobs keep nothing on local disk
+            String tex = ask(job, MaterialAiJobStage.GENERATING, 0, progress -> llmLatex.generateExercises(
+                    fetchCaptures(job, capturesDir), job.getExerciseCount(), progress));
+            CompiledDocument document = compileWithRetries(job, tex);
 
             String day = LocalDate.now(clock).format(DAY_MONTH);
             String topic = parseTitle(document.tex());
             String name = topic != null ? "Repaso %s — %s".formatted(day, topic) : "Repaso " + day;
 
-            Long materialId = publish(job, folderId, name,
+            return publish(job, job.getFolderId(), name,
                     "Generado automáticamente con IA",
                     "repaso-" + day + ".pdf",
                     document);
-            markCompleted(job, materialId);
-        } catch (Exception e) {
-            markFailed(job, e);
         } finally {
             deleteRecursively(capturesDir);
         }
     }
 
-    @Async("aiJobExecutor")
-    public void runTranscribeJob(Long jobId) {
-        MaterialAiJob job = jobRepository.findById(jobId)
-                .orElseThrow(() -> new MaterialAiJobNotFoundException(jobId));
+    private Long runTranscribe(MaterialAiJob job) throws Exception {
+        Material source = materialRepository.findById(job.getSourceMaterialId())
+                .orElseThrow(() -> new MaterialNotFoundException(job.getSourceMaterialId()));
+        // Local copy: page ranges are cut from it, and only the ones being sent are in memory
+        Path pdf = Files.createTempFile("acainfo-ai-source-", ".pdf");
+        String tex;
         try {
-            markRunning(job);
-
-            Material source = materialRepository.findById(job.getSourceMaterialId())
-                    .orElseThrow(() -> new MaterialNotFoundException(job.getSourceMaterialId()));
-            byte[] pdfBytes;
             try (InputStream is = fileStorage.retrieve(source.getStoragePath())) {
-                pdfBytes = is.readAllBytes();
+                Files.copy(is, pdf, StandardCopyOption.REPLACE_EXISTING);
             }
+            tex = transcribe(job, pdf);
+        } finally {
+            Files.deleteIfExists(pdf);
+        }
+        return publishTranscription(job, source, compileWithRetries(job, tex));
+    }
 
-            String tex = llmLatex.transcribeDocument(pdfBytes);
-            CompiledDocument document = compileWithRetries(tex);
+    /**
+     * Publish a transcription next to its original: same folder, "(a limpio)".
+     */
+    private Long publishTranscription(MaterialAiJob job, Material source, CompiledDocument document) {
+        return publish(job, source.getFolderId(),
+                source.getName() + " (a limpio)",
+                "Transcripción automática del original " + source.getName(),
+                transcriptionFilename(source.getOriginalFilename()),
+                document);
+    }
 
-            String baseName = source.getOriginalFilename().replaceAll("(?i)\\.pdf$", "");
-            Long materialId = publish(job, source.getFolderId(),
-                    source.getName() + " (a limpio)",
-                    "Transcripción automática del original " + source.getName(),
-                    baseName + "-a-limpio.pdf",
-                    document);
-            markCompleted(job, materialId);
+    /**
+     * File name the transcription of {@code originalFilename} is published under.
+     */
+    static String transcriptionFilename(String originalFilename) {
+        return originalFilename.replaceAll("(?i)\\.pdf$", "") + TRANSCRIPTION_SUFFIX;
+    }
+
+    /**
+     * TRANSCRIBE_BATCH, one step per claim: the first claim submits the pending
+     * items as one provider batch, the next ones check on it, and the one that
+     * finds it ended compiles and publishes every result.
+     */
+    private void runBatch(MaterialAiJob job) throws Exception {
+        if (job.getLlmBatchId() == null) {
+            if (submitBatch(job)) {
+                awaitBatch(job, null);
+            } else {
+                finishBatch(job);
+            }
+            return;
+        }
+        List<LlmBatchResult> results = null;
+        String pollError = null;
+        try {
+            if (llmBatch.isEnded(job.getLlmBatchId())) {
+                results = llmBatch.results(job.getLlmBatchId());
+            }
         } catch (Exception e) {
-            markFailed(job, e);
+            if (!isTransient(e)) {
+                throw e;
+            }
+            // The batch is already paid for: a network blip while checking on it
+            // must not use up the attempts and leave it orphaned
+            pollError = "No se pudo consultar el lote, se reintenta: " + messageOf(e);
+        }
+        if (results == null) {
+            awaitBatch(job, pollError);
+            return;
         }
+        publishBatchResults(job, results);
+        finishBatch(job);
     }
 
     /**
-     * Compile; on failure send the .tex + "error:" lines back to Claude and
-     * retry, up to max-fix-retries times. Standard mitigation for LLM LaTeX
-     * (missing packages, unbalanced environments, math mode).
+     * Copy each pending item's PDF from storage and submit them all.
+     *
+     * @return false when no item was left to submit (every source deleted)
      */
-    private CompiledDocument compileWithRetries(String tex) {
+    private boolean submitBatch(MaterialAiJob job) throws IOException {
+        Path dir = Files.createTempDirectory("acainfo-ai-batch-");
+        try {
+            List<LlmBatchDocument> documents = new ArrayList<>();
+            List<MaterialAiJobItem> items = job.getItems();
+            for (int i = 0; i < items.size(); i++) {
+                MaterialAiJobItem item = items.get(i);
+                if (item.status() != MaterialAiJobItemStatus.PENDING) {
+                    continue;
+                }
+                Optional<Material> source = sourceOf(item);
+                if (source.isEmpty()) {
+                    items.set(i, item.markFailed("El material original se ha borrado"));
+                    continue;
+                }
+                Path pdf = dir.resolve(item.customId() + ".pdf");
+                try (InputStream in = fileStorage.retrieve(source.get().getStoragePath())) {
+                    Files.copy(in, pdf);
+                }
+                try {
+                    documents.addAll(batchDocuments(item, pdf, dir));
+                } catch (DomainException e) {
+                    items.set(i, item.markFailed(messageOf(e)));
+                }
+            }
+            if (documents.isEmpty()) {
+                return false;
+            }
+            job.setLlmBatchId(llmBatch.submitTranscriptions(documents));
+            // Before anything else can fail: a claim that finds no id submits (and pays) again
+            jobRepository.updateLlmBatchId(job.getId(), job.getLlmBatchId());
+            log.info("AI job {}: {} PDF enviados en el lote {}", job.getId(), documents.size(), job.getLlmBatchId());
+            return true;
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+
+    /**
+     * The whole PDF as one request when it is short; otherwise one request per
+     * range of pages-per-chunk pages, as a TRANSCRIBE job splits it, so no reply
+     * runs past max-tokens.
+     */
+    private List<LlmBatchDocument> batchDocuments(MaterialAiJobItem item, Path pdf, Path dir) throws IOException {
+        int pages = pdfPages.countPages(pdf);
+        int pagesPerChunk = properties.getTranscription().getPagesPerChunk();
+        if (pages <= pagesPerChunk) {
+            return List.of(LlmBatchDocument.whole(item.customId(), pdf, pages));
+        }
+        List<LlmBatchDocument> documents = new ArrayList<>();
+        for (PageRange range : PageRange.split(pages, pagesPerChunk)) {
+            String customId = item.customId(range.first(), range.last());
+            Path part = Files.write(dir.resolve(customId + ".pdf"),
+                    pdfPages.extractPages(pdf, range.first(), range.last()));
+            documents.add(new LlmBatchDocument(customId, part, range.first(), range.last(), pages));
+        }
+        return documents;
+    }
+
+    /**
+     * Back to PENDING until the next check, {@code app.anthropic.batch.poll-seconds}
+     * from now, without holding a worker slot. Waiting is not an attempt: the
+     * claim's is given back, so a batch that takes hours does not use them up.
+     *
+     * @param notice Why the last check failed, shown while the job waits; null if it did not
+     */
+    private void awaitBatch(MaterialAiJob job, String notice) {
+        long delay = properties.getBatch().getPollSeconds();
+        job.setStatus(MaterialAiJobStatus.PENDING);
+        job.setAttempts(job.getAttempts() - 1);
+        job.setProgressStage(MaterialAiJobStage.BATCHED);
+        job.setProgressTokens(0);
+        job.setNextAttemptAt(LocalDateTime.now(clock).plusSeconds(delay));
+        job.setErrorMessage(notice != null ? truncate(notice) : null);
+        if (!release(job)) {
+            throw new LeaseLostException();
+        }
+        if (notice != null) {
+            log.warn("AI job {}: lote {}: {}; se consulta de nuevo en {} s",
+                    job.getId(), job.getLlmBatchId(), notice, delay);
+        } else {
+            log.info("AI job {}: lote {} en proceso, se consulta de nuevo en {} s",
+                    job.getId(), job.getLlmBatchId(), delay);
+        }
+    }
+
+    /**
+     * Compile and publish each result of the ended batch, saving every item as
+     * soon as it is done: a job retried or taken over after an interruption
+     * skips the items already published.
+     */
+    private void publishBatchResults(MaterialAiJob job, List<LlmBatchResult> batchResults) throws Exception {
+        Map<String, List<LlmBatchResult>> results = new HashMap<>();
+        for (LlmBatchResult result : batchResults) {
+            // The ranges of a long source come back each under "<item>-p<first>-<last>"
+            String itemId = RANGE_ID.matcher(result.customId()).replaceFirst("");
+            results.computeIfAbsent(itemId, id -> new ArrayList<>()).add(result);
+        }
+        List<MaterialAiJobItem> items = job.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            MaterialAiJobItem item = items.get(i);
+            if (item.status() != MaterialAiJobItemStatus.PENDING) {
+                continue;
+            }
+            MaterialAiJobItem outcome = publishBatchItem(job, item, results.getOrDefault(item.customId(), List.of()));
+            items.set(i, outcome);
+            jobRepository.updateItem(job.getId(), i, outcome);
+            eventPublisher.publishEvent(new MaterialAiJobChangedEvent(job.getId()));
+        }
+    }
+
+    /**
+     * One source: its results (one, or one per page range merged in page order)
+     * compiled (fix loop included) and published next to its original. A
+     * transient error is thrown, so the job is retried later; any other failure
+     * stays with the item.
+     */
+    private MaterialAiJobItem publishBatchItem(MaterialAiJob job, MaterialAiJobItem item,
+                                               List<LlmBatchResult> results) throws Exception {
+        Optional<Material> source = sourceOf(item);
+        if (source.isEmpty()) {
+            return item.markFailed("El material original se ha borrado");
+        }
+        if (results.isEmpty()) {
+            return item.markFailed("La API no devolvió resultado para este documento");
+        }
+        List<LlmBatchResult> parts = results.stream()
+                .sorted(Comparator.comparingInt(part -> PageRange.ofCustomId(part.customId())
+                        .map(PageRange::first).orElse(1)))
+                .toList();
+        for (LlmBatchResult part : parts) {
+            if (!part.succeeded()) {
+                String pages = PageRange.ofCustomId(part.customId())
+                        .map(range -> "Páginas " + range + ": ")
+                        .orElse("");
+                return item.markFailed(truncate(pages + part.errorMessage()));
+            }
+        }
+        if (!contiguous(parts)) {
+            return item.markFailed("Al resultado del lote le faltan páginas del documento");
+        }
+        parts.forEach(part -> addUsage(job, part.reply().usage()));
+        String tex = LatexMerger.merge(parts.stream().map(part -> part.reply().tex()).toList());
+        try {
+            CompiledDocument document = compileWithRetries(job, tex);
+            return item.markCompleted(publishTranscription(job, source.get(), document));
+        } catch (LeaseLostException e) {
+            throw e;
+        } catch (Exception e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+            log.warn("AI job {}: la transcripción del material {} falla: {}",
+                    job.getId(), item.sourceMaterialId(), messageOf(e));
+            return item.markFailed(messageOf(e));
+        }
+    }
+
+    /**
+     * COMPLETED when at least one transcription was published, with the
+     * failures summed up in the error message; FAILED when none was.
+     */
+    private void finishBatch(MaterialAiJob job) {
+        List<MaterialAiJobItem> items = job.getItems();
+        List<MaterialAiJobItem> failed = items.stream()
+                .filter(item -> item.status() == MaterialAiJobItemStatus.FAILED)
+                .toList();
+        if (!items.isEmpty() && failed.size() == items.size()) {
+            markFailed(job, new IllegalStateException(
+                    "No se pudo publicar ninguna transcripción del lote: " + failed.get(0).errorMessage()));
+            return;
+        }
+        markCompleted(job, null, failed.isEmpty() ? null
+                : "%d de %d transcripciones fallaron".formatted(failed.size(), items.size()));
+    }
+
+    /**
+     * A whole document, or ranges 1-n, n+1-m... without gaps.
+     */
+    private static boolean contiguous(List<LlmBatchResult> parts) {
+        int next = 1;
+        for (LlmBatchResult part : parts) {
+            Optional<PageRange> range = PageRange.ofCustomId(part.customId());
+            if (range.isEmpty()) {
+                return parts.size() == 1;
+            }
+            if (range.get().first() != next) {
+                return false;
+            }
+            next = range.get().last() + 1;
+        }
+        return true;
+    }
+
+    private Optional<Material> sourceOf(MaterialAiJobItem item) {
+        return Optional.ofNullable(item.sourceMaterialId()).flatMap(materialRepository::findById);
+    }
+
+    /**
+     * Short PDFs go in one request. Longer ones are split into ranges of
+     * pages-per-chunk pages, at most chunk-concurrency of them in flight, and the
+     * results merged in page order; the first range that fails for good cancels
+     * the others and fails the job.
+     */
+    private String transcribe(MaterialAiJob job, Path pdf) throws Exception {
+        AnthropicProperties.Transcription config = properties.getTranscription();
+        int pages = pdfPages.countPages(pdf);
+        if (pages <= config.getPagesPerChunk()) {
+            byte[] pdfBytes = Files.readAllBytes(pdf);
+            return ask(job, MaterialAiJobStage.TRANSCRIBING, 0,
+                    progress -> llmLatex.transcribeDocument(pdfBytes, progress));
+        }
+
+        List<PageRange> ranges = PageRange.split(pages, config.getPagesPerChunk());
+        log.info("AI job {}: {} páginas, se transcriben en {} rangos", job.getId(), pages, ranges.size());
+        ChunkTokens tokens = new ChunkTokens();
+        ExecutorService executor = Executors.newFixedThreadPool(config.getChunkConcurrency(),
+                Thread.ofVirtual().name("ai-chunk-", 0).factory());
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (PageRange range : ranges) {
+                futures.add(executor.submit(() -> transcribeRange(job, pdf, range, pages, tokens)));
+            }
+            List<String> documents = new ArrayList<>();
+            for (Future<String> future : futures) {
+                documents.add(future.get());
+            }
+            return LatexMerger.merge(documents);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * One range, retried up to chunk-attempts times on transient errors, each
+     * retry waiting twice as long as the previous one (a saturated API is not
+     * hit again at once by every range of the job). A
+     * range whose output was cut at max-tokens is split in halves (down to a
+     * single page) instead of being sent again as is.
+     */
+    private String transcribeRange(MaterialAiJob job, Path pdf, PageRange range, int totalPages,
+                                   ChunkTokens tokens) throws Exception {
+        byte[] pdfBytes = pdfPages.extractPages(pdf, range.first(), range.last());
+        int maxAttempts = properties.getTranscription().getChunkAttempts();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return ask(job, MaterialAiJobStage.TRANSCRIBING, tokens.total(), progress ->
+                        llmLatex.transcribePages(pdfBytes, range.first(), range.last(), totalPages,
+                                tokens.tracking(range, progress)));
+            } catch (LlmOutputTruncatedException e) {
+                if (range.first() == range.last()) {
+                    throw e;
+                }
+                log.info("AI job {}: las páginas {} superan el límite de salida, se dividen", job.getId(), range);
+                List<String> halves = new ArrayList<>();
+                for (PageRange half : range.halves()) {
+                    halves.add(transcribeRange(job, pdf, half, totalPages, tokens));
+                }
+                return LatexMerger.merge(halves);
+            } catch (Exception e) {
+                if (!isTransient(e) || attempt >= maxAttempts) {
+                    throw e;
+                }
+                long backoffMs = properties.getTranscription().getChunkRetryBackoffMs() << (attempt - 1);
+                log.warn("AI job {}: fallo transitorio en las páginas {} (intento {}/{}), se reintenta en {} ms: {}",
+                        job.getId(), range, attempt, maxAttempts, backoffMs, messageOf(e));
+                Thread.sleep(backoffMs);
+            }
+        }
+    }
+
+    /**
+     * Copy the job's captures from storage to a local dir: the model adapter
+     * encodes them from files.
+     */
+    private List<AiImageInput> fetchCaptures(MaterialAiJob job, Path dir) throws IOException {
+        List<AiImageInput> images = new ArrayList<>();
+        for (int i = 0; i < job.getCaptures().size(); i++) {
+            MaterialAiJobCapture capture = job.getCaptures().get(i);
+            Path file = dir.resolve("captura-" + i);
+            try (InputStream in = fileStorage.retrieve(capture.storagePath())) {
+                Files.copy(in, file);
+            }
+            images.add(new AiImageInput(file, capture.mimeType()));
+        }
+        return images;
+    }
+
+    /**
+     * Compile; on failure first try the local repairs of {@link LatexPreFixer}, and
+     * only if the source still does not compile send the errors back to Claude,
+     * up to max-fix-retries times. Standard mitigation for LLM LaTeX (missing
+     * packages, unbalanced environments, math mode). Compiles go through the
+     * compile stage and fixes back through the llm stage.
+     */
+    private CompiledDocument compileWithRetries(MaterialAiJob job, String tex) throws Exception {
         String current = tex;
-        LatexCompilationResult result = latexCompiler.compile(current);
+        LatexCompilationResult result = compile(job, current);
         int attempts = 0;
-        while (!result.success() && attempts < properties.getMaxFixRetries()) {
+        boolean repairedLocally = false;
+        while (!result.success()) {
+            if (!repairedLocally) {
+                // Once per source: a repaired source that still fails goes to Claude
+                repairedLocally = true;
+                LatexPreFixer.Repair repair = preFixer.repair(current, result.errors());
+                if (repair.changed()) {
+                    current = repair.tex();
+                    result = compile(job, current);
+                    preFixer.recordOutcome(repair, result.success());
+                    continue;
+                }
+            }
+            if (attempts >= properties.getMaxFixRetries()) {
+                break;
+            }
             attempts++;
             log.info("Compilación fallida, reintento {}/{} vía Claude", attempts, properties.getMaxFixRetries());
-            current = llmLatex.fixLatex(current, result.errors());
-            result = latexCompiler.compile(current);
+            current = fixWithLlm(job, current, result.errors());
+            repairedLocally = false;
+            result = compile(job, current);
         }
         if (!result.success()) {
             throw new IllegalStateException(
@@ -146,13 +588,87 @@ public class MaterialAiPipeline {
         return new CompiledDocument(result.pdf(), current);
     }
 
+    /**
+     * Send Claude only the lines around the errors when they are a small part of
+     * the document, and the whole document otherwise.
+     */
+    private String fixWithLlm(MaterialAiJob job, String broken, String errors) throws Exception {
+        Optional<LatexExcerpt> excerpt = LatexExcerpt.around(broken, errors);
+        if (excerpt.isEmpty()) {
+            return ask(job, MaterialAiJobStage.FIXING, 0, progress -> llmLatex.fixLatex(broken, errors, progress));
+        }
+        LatexExcerpt lines = excerpt.get();
+        String fixed = ask(job, MaterialAiJobStage.FIXING, 0, progress -> llmLatex.fixLatexExcerpt(
+                lines.text(), lines.firstLine(), lines.lastLine(), errors, progress));
+        return lines.spliceInto(broken, fixed);
+    }
+
+    /**
+     * One Claude request through the llm stage, reporting {@code step} and the
+     * streamed tokens (from {@code startTokens}) as progress; its tokens and
+     * latency are added to the job and saved with its next status change.
+     */
+    private String ask(MaterialAiJob job, MaterialAiJobStage step, long startTokens,
+                       LlmRequest request) throws Exception {
+        LlmLatexReply reply = stages.getLlm().call(() -> {
+            ProgressReporter progress = new ProgressReporter(job.getId(), step, startTokens);
+            return request.send(progress);
+        });
+        addUsage(job, reply.usage());
+        return reply.tex();
+    }
+
+    private static void addUsage(MaterialAiJob job, LlmUsage usage) {
+        // Page ranges of one job finish on different threads
+        synchronized (job) {
+            job.setLlmCalls(job.getLlmCalls() + 1);
+            job.setLlmInputTokens(job.getLlmInputTokens() + usage.inputTokens());
+            job.setLlmOutputTokens(job.getLlmOutputTokens() + usage.outputTokens());
+            job.setLlmMillis(job.getLlmMillis() + usage.latencyMillis());
+        }
+    }
+
+    private LatexCompilationResult compile(MaterialAiJob job, String tex) throws Exception {
+        return stages.getCompile().call(() -> {
+            reportProgress(job.getId(), MaterialAiJobStage.COMPILING, 0);
+            return latexCompiler.compile(tex);
+        });
+    }
+
+    /**
+     * Best effort: a failed progress write is logged, never fails the job. The
+     * streams are notified asynchronously and log their own failures.
+     */
+    private void reportProgress(Long jobId, MaterialAiJobStage step, long tokens) {
+        try {
+            jobRepository.updateProgress(jobId, step, tokens, LocalDateTime.now(clock));
+        } catch (RuntimeException e) {
+            log.warn("AI job {}: no se pudo guardar el progreso ({}): {}", jobId, step, e.getMessage());
+            return;
+        }
+        eventPublisher.publishEvent(new MaterialAiJobChangedEvent(jobId));
+    }
+
+    /**
+     * Queue depth, load and latency of each stage since startup.
+     */
+    public List<AiPipelineStageStats> stageStats() {
+        return stages.stats();
+    }
+
     /**
      * Publish the PDF as a material (born visible, with academic year and
      * folder) and store the .tex next to it: same UUID, .tex extension,
-     * no material row.
+     * no material row. The .tex is best effort: once the material exists a
+     * failure only loses the source, never fails the job.
      */
     private Long publish(MaterialAiJob job, Long folderId, String name, String description,
                          String originalFilename, CompiledDocument document) {
+        reportProgress(job.getId(), MaterialAiJobStage.PUBLISHING, 0);
+        if (!jobRepository.isLeasedTo(job.getId(), job.getLeaseOwner())) {
+            // Taken over meanwhile: the new owner publishes its own
+            throw new LeaseLostException();
+        }
         UploadMaterialCommand command = new UploadMaterialCommand(
                 job.getSubjectId(),
                 job.getCreatedById(),
@@ -165,9 +681,16 @@ public class MaterialAiPipeline {
                 folderId);
         Material material = uploadMaterialUseCase.upload(command);
 
+        // The material is committed: failing here would retry the job and publish it twice
         String texFilename = material.getStoredFilename().replaceAll("(?i)\\.pdf$", "") + ".tex";
-        fileStorage.store(new ByteArrayInputStream(document.tex().getBytes(StandardCharsets.UTF_8)),
-                texFilename, job.getSubjectId());
+        try {
+            fileStorage.store(new ByteArrayInputStream(document.tex().getBytes(StandardCharsets.UTF_8)),
+                    texFilename, job.getSubjectId());
+        } catch (RuntimeException e) {
+            log.warn("AI job {}: material {} publicado ('{}') pero no se pudo guardar su .tex: {}",
+                    job.getId(), material.getId(), name, messageOf(e));
+            return material.getId();
+        }
 
         log.info("AI job {}: material {} publicado ('{}') con su .tex en storage",
                 job.getId(), material.getId(), name);
@@ -187,24 +710,106 @@ public class MaterialAiPipeline {
         return title.isBlank() ? null : title;
     }
 
-    private void markRunning(MaterialAiJob job) {
-        job.setStatus(MaterialAiJobStatus.RUNNING);
-        jobRepository.save(job);
-    }
-
-    private void markCompleted(MaterialAiJob job, Long materialId) {
+    /**
+     * @param notice Failed items of a batch job; null otherwise
+     */
+    private void markCompleted(MaterialAiJob job, Long materialId, String notice) {
         job.setStatus(MaterialAiJobStatus.COMPLETED);
+        clearProgress(job);
         job.setResultMaterialId(materialId);
-        jobRepository.save(job);
-        log.info("AI job {} COMPLETED (material {})", job.getId(), materialId);
+        job.setErrorMessage(notice);
+        if (!release(job)) {
+            throw new LeaseLostException();
+        }
+        log.info("AI job {} COMPLETED (material {}): {} llamadas a Claude en {} ms, tokens entrada={}, salida={}",
+                job.getId(), materialId, job.getLlmCalls(), job.getLlmMillis(), job.getLlmInputTokens(),
+                job.getLlmOutputTokens());
     }
 
-    private void markFailed(MaterialAiJob job, Exception e) {
-        String message = e.getMessage() != null ? e.getMessage() : e.toString();
+    /**
+     * @return false when the job had been taken over and was left alone
+     */
+    private boolean markFailed(MaterialAiJob job, Exception e) {
+        String message = messageOf(e);
         job.setStatus(MaterialAiJobStatus.FAILED);
-        job.setErrorMessage(message.length() > 2000 ? message.substring(0, 2000) : message);
-        jobRepository.save(job);
+        clearProgress(job);
+        job.setErrorMessage(message);
+        if (!release(job)) {
+            return false;
+        }
         log.error("AI job {} FAILED: {}", job.getId(), message, e);
+        return true;
+    }
+
+    /**
+     * Write the job's new state and drop its lease, if this worker still holds it.
+     */
+    private boolean release(MaterialAiJob job) {
+        String leaseOwner = job.getLeaseOwner();
+        job.setLeaseOwner(null);
+        job.setLeaseExpiresAt(null);
+        if (!jobRepository.release(job, leaseOwner)) {
+            log.warn("AI job {}: el lease de {} ha caducado y otra instancia lo ha retomado; "
+                    + "no se sobrescribe su estado ({})", job.getId(), leaseOwner, job.getStatus());
+            return false;
+        }
+        eventPublisher.publishEvent(new MaterialAiJobChangedEvent(job.getId()));
+        return true;
+    }
+
+    private static void clearProgress(MaterialAiJob job) {
+        job.setProgressStage(null);
+        job.setProgressTokens(0);
+    }
+
+    /**
+     * Back to the queue: PENDING, claimable again after base * 2^(attempt - 1).
+     * The error stays visible to the admin while the job waits.
+     */
+    private void scheduleRetry(MaterialAiJob job, Exception e) {
+        long delay = properties.getQueue().getRetryBackoffSeconds() << (job.getAttempts() - 1);
+        job.setStatus(MaterialAiJobStatus.PENDING);
+        clearProgress(job);
+        job.setNextAttemptAt(LocalDateTime.now(clock).plusSeconds(delay));
+        job.setErrorMessage(truncate("Intento %d/%d fallido, se reintenta en %d s: %s".formatted(
+                job.getAttempts(), properties.getQueue().getMaxAttempts(), delay, messageOf(e))));
+        if (!release(job)) {
+            return;
+        }
+        log.warn("AI job {}: fallo transitorio en el intento {}, reintento en {} s: {}",
+                job.getId(), job.getAttempts(), delay, messageOf(e));
+    }
+
+    /**
+     * Worth retrying, and nothing else: I/O, an unavailable LLM API (network,
+     * 429, 5xx), storage errors and a full stage. Anything else (missing source
+     * material, a document that does not compile, a 400 from the API, a bug)
+     * would fail again the same way and fails the job.
+     */
+    static boolean isTransient(Exception e) {
+        return e instanceof FileStorageException
+                || e instanceof LlmUnavailableException
+                || e instanceof UncheckedIOException
+                || e instanceof IOException
+                || e instanceof RejectedExecutionException;
+    }
+
+    private void deleteCaptures(MaterialAiJob job) {
+        for (MaterialAiJobCapture capture : job.getCaptures()) {
+            try {
+                fileStorage.delete(capture.storagePath());
+            } catch (RuntimeException e) {
+                log.warn("No se pudo borrar la captura {} del job {}", capture.storagePath(), job.getId());
+            }
+        }
+    }
+
+    private static String messageOf(Exception e) {
+        return truncate(e.getMessage() != null ? e.getMessage() : e.toString());
+    }
+
+    private static String truncate(String message) {
+        return message.length() > 2000 ? message.substring(0, 2000) : message;
     }
 
     private void deleteRecursively(Path dir) {
@@ -226,4 +831,101 @@ public class MaterialAiPipeline {
 
     private record CompiledDocument(byte[] pdf, String tex) {
     }
+
+    /**
+     * The job's lease was lost to another instance: this run stops without
+     * writing to the job or publishing.
+     */
+    private static final class LeaseLostException extends RuntimeException {
+    }
+
+    /**
+     * Pages {@code first}-{@code last} of the source, 1-based and inclusive.
+     */
+    private record PageRange(int first, int last) {
+
+        static List<PageRange> split(int pages, int size) {
+            List<PageRange> ranges = new ArrayList<>();
+            for (int first = 1; first <= pages; first += size) {
+                ranges.add(new PageRange(first, Math.min(first + size - 1, pages)));
+            }
+            return ranges;
+        }
+
+        /**
+         * The range a batch request's custom id ends in; empty for a whole document.
+         */
+        static Optional<PageRange> ofCustomId(String customId) {
+            Matcher matcher = RANGE_ID.matcher(customId);
+            if (!matcher.find()) {
+                return Optional.empty();
+            }
+            return Optional.of(new PageRange(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+        }
+
+        List<PageRange> halves() {
+            int middle = (first + last) / 2;
+            return List.of(new PageRange(first, middle), new PageRange(middle + 1, last));
+        }
+
+        @Override
+        public String toString() {
+            return first + "-" + last;
+        }
+    }
+
+    /**
+     * Tokens streamed so far by each range of a chunked transcription, so the
+     * job shows their sum rather than whichever range reported last.
+     */
+    private static final class ChunkTokens {
+
+        private final Map<PageRange, Long> byRange = new ConcurrentHashMap<>();
+
+        long total() {
+            return byRange.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        LongConsumer tracking(PageRange range, LongConsumer progress) {
+            return tokens -> {
+                byRange.put(range, tokens);
+                progress.accept(total());
+            };
+        }
+    }
+
+    /**
+     * A Claude request given the callback its streamed tokens go to.
+     */
+    @FunctionalInterface
+    private interface LlmRequest {
+        LlmLatexReply send(LongConsumer progress) throws Exception;
+    }
+
+    /**
+     * Writes the step as soon as the request starts, then the streamed tokens at
+     * most once per progress interval. Only called from the request's thread.
+     */
+    private final class ProgressReporter implements LongConsumer {
+
+        private final Long jobId;
+        private final MaterialAiJobStage step;
+        private long lastWrite;
+
+        ProgressReporter(Long jobId, MaterialAiJobStage step, long startTokens) {
+            this.jobId = jobId;
+            this.step = step;
+            reportProgress(jobId, step, startTokens);
+            this.lastWrite = clock.millis();
+        }
+
+        @Override
+        public void accept(long tokens) {
+            long now = clock.millis();
+            if (now - lastWrite >= properties.getPipeline().getProgressIntervalMs()) {
+                lastWrite = now;
+                reportProgress(jobId, step, tokens);
+            }
+        }
+    }
 }
@@ -1,9 +1,14 @@
 package com.acainfo.material.application.service;
 
+import com.acainfo.material.application.dto.AiPipelineStageStats;
 import com.acainfo.material.application.dto.GenerateAiMaterialCommand;
-import com.acainfo.material.application.dto.StoredCapture;
+import com.acainfo.material.application.dto.CaptureUpload;
+import com.acainfo.material.application.dto.NormalizedCapture;
+import com.acainfo.material.application.dto.TranscribeAiFolderCommand;
 import com.acainfo.material.application.dto.TranscribeAiMaterialCommand;
 import com.acainfo.material.application.port.in.MaterialAiUseCase;
+import com.acainfo.material.application.port.out.CaptureNormalizerPort;
+import com.acainfo.material.application.port.out.FileStoragePort;
 import com.acainfo.material.application.port.out.MaterialAiJobRepositoryPort;
 import com.acainfo.material.application.port.out.MaterialFolderRepositoryPort;
 import com.acainfo.material.application.port.out.MaterialRepositoryPort;
@@ -14,25 +19,41 @@ import com.acainfo.material.domain.exception.MaterialFolderNotFoundException;
 import com.acainfo.material.domain.exception.MaterialNotFoundException;
 import com.acainfo.material.domain.model.Material;
 import com.acainfo.material.domain.model.MaterialAiJob;
+import com.acainfo.material.domain.model.MaterialAiJobCapture;
+import com.acainfo.material.domain.model.MaterialAiJobItem;
 import com.acainfo.material.domain.model.MaterialAiJobStatus;
 import com.acainfo.material.domain.model.MaterialAiJobType;
 import com.acainfo.material.domain.model.MaterialFolder;
+import com.acainfo.shared.infrastructure.config.AnthropicProperties;
 import com.acainfo.subject.application.port.in.GetSubjectUseCase;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 /**
- * Service that creates AI LaTeX jobs and hands them to the async pipeline.
+ * Service that creates AI LaTeX jobs and queues them in the job table.
  * Validation happens HERE (fail fast, before paying an API call); the heavy
- * work happens in {@link MaterialAiPipeline} on the dedicated executor.
+ * work happens in {@link MaterialAiPipeline} once a {@link MaterialAiJobWorker} claims the job.
  */
 @Slf4j
 @Service
@@ -43,7 +64,11 @@ public class MaterialAiService implements MaterialAiUseCase {
     private final MaterialRepositoryPort materialRepository;
     private final MaterialFolderRepositoryPort materialFolderRepository;
     private final GetSubjectUseCase getSubjectUseCase;
+    private final FileStoragePort fileStorage;
     private final MaterialAiPipeline pipeline;
+    private final MaterialAiJobWorker jobWorker;
+    private final CaptureNormalizerPort captureNormalizer;
+    private final AnthropicProperties properties;
 
     @Override
     public MaterialAiJob createGenerateJob(GenerateAiMaterialCommand command) {
@@ -54,31 +79,30 @@ public class MaterialAiService implements MaterialAiUseCase {
         getSubjectUseCase.getById(command.subjectId());
         validateFolderBelongsToSubject(command.folderId(), command.subjectId());
 
-        // Captures go to tmp NOW: the multipart InputStream/bytes die with the
-        // request, and the job may wait queued behind another one for minutes.
-        Path capturesDir;
-        List<StoredCapture> captures = new ArrayList<>();
+        // Captures go to storage NOW: the multipart parts die with the request, and the
+        // job may wait in the queue, be retried or be taken over by another instance.
+        // transferTo moves the already-spooled part file, which is then normalized (upright,
+        // downscaled, re-encoded) once here rather than on every attempt.
+        List<MaterialAiJobCapture> captures = storeCaptures(command.images(), command.subjectId());
+        MaterialAiJob job;
         try {
-            capturesDir = Files.createTempDirectory("acainfo-ai-captures-");
-            for (int i = 0; i < command.images().size(); i++) {
-                Path file = capturesDir.resolve("captura-" + i);
-                Files.write(file, command.images().get(i).data());
-                captures.add(new StoredCapture(file, command.images().get(i).mimeType()));
-            }
-        } catch (IOException e) {
-            throw new UncheckedIOException("No se pudieron guardar las capturas temporales", e);
+            job = jobRepository.save(MaterialAiJob.builder()
+                    .type(MaterialAiJobType.GENERATE)
+                    .subjectId(command.subjectId())
+                    .folderId(command.folderId())
+                    .exerciseCount(command.exerciseCount())
+                    .captures(captures)
+                    .status(MaterialAiJobStatus.PENDING)
+                    .createdById(command.createdById())
+                    .build());
+        } catch (RuntimeException e) {
+            captures.forEach(capture -> fileStorage.delete(capture.storagePath()));
+            throw e;
         }
 
-        MaterialAiJob job = jobRepository.save(MaterialAiJob.builder()
-                .type(MaterialAiJobType.GENERATE)
-                .subjectId(command.subjectId())
-                .status(MaterialAiJobStatus.PENDING)
-                .createdById(command.createdById())
-                .build());
-
         log.info("AI job GENERATE creado: id={}, subject={}, capturas={}, ejercicios={}",
                 job.getId(), command.subjectId(), captures.size(), command.exerciseCount());
-        pipeline.runGenerateJob(job.getId(), command.folderId(), command.exerciseCount(), capturesDir, captures);
+        jobWorker.wakeUp();
         return job;
     }
 
@@ -90,6 +114,9 @@ public class MaterialAiService implements MaterialAiUseCase {
             throw new InvalidAiJobRequestException(
                     "Solo se pueden transcribir materiales PDF (este es ." + source.getFileExtension() + ")");
         }
+        if (!jobRepository.findSourcesInProgress(List.of(source.getId())).isEmpty()) {
+            throw new InvalidAiJobRequestException("El material '" + source.getName() + "' ya se está transcribiendo");
+        }
 
         MaterialAiJob job = jobRepository.save(MaterialAiJob.builder()
                 .type(MaterialAiJobType.TRANSCRIBE)
@@ -101,16 +128,182 @@ public class MaterialAiService implements MaterialAiUseCase {
 
         log.info("AI job TRANSCRIBE creado: id={}, material origen={} ('{}')",
                 job.getId(), source.getId(), source.getName());
-        pipeline.runTranscribeJob(job.getId());
+        jobWorker.wakeUp();
         return job;
     }
 
+    /**
+     * Under the folder's row lock, so two launches of the same folder (a double
+     * click, two admins) cannot both pick up its PDFs; those an unfinished job is
+     * already transcribing are left out as well.
+     */
+    @Override
+    @Transactional
+    public MaterialAiJob createTranscribeFolderJob(TranscribeAiFolderCommand command) {
+        MaterialFolder folder = materialFolderRepository.findByIdForUpdate(command.folderId())
+                .orElseThrow(() -> new MaterialFolderNotFoundException(command.folderId()));
+        List<Material> candidates = untranscribedPdfs(
+                materialRepository.findDownloadable(folder.getSubjectId(), folder.getId(), null));
+        Set<Long> inProgress = candidates.isEmpty() ? Set.of()
+                : jobRepository.findSourcesInProgress(candidates.stream().map(Material::getId).toList());
+        List<Material> sources = candidates.stream()
+                .filter(material -> !inProgress.contains(material.getId()))
+                .toList();
+        if (sources.isEmpty()) {
+            throw new InvalidAiJobRequestException(inProgress.isEmpty()
+                    ? "La carpeta '" + folder.getName() + "' no tiene PDF pendientes de transcribir"
+                    : "Los PDF pendientes de la carpeta '" + folder.getName() + "' ya se están transcribiendo");
+        }
+        AnthropicProperties.Batch limits = properties.getBatch();
+        if (sources.size() > limits.getMaxItems()) {
+            throw new InvalidAiJobRequestException("La carpeta tiene " + sources.size()
+                    + " PDF por transcribir y un lote admite " + limits.getMaxItems());
+        }
+        long megabytes = sources.stream().map(Material::getFileSize).filter(Objects::nonNull)
+                .mapToLong(Long::longValue).sum() / (1024 * 1024);
+        if (megabytes > limits.getMaxMegabytes()) {
+            throw new InvalidAiJobRequestException("Los PDF de la carpeta suman " + megabytes
+                    + " MB y un lote admite " + limits.getMaxMegabytes() + " MB");
+        }
+
+        MaterialAiJob job = jobRepository.save(MaterialAiJob.builder()
+                .type(MaterialAiJobType.TRANSCRIBE_BATCH)
+                .subjectId(folder.getSubjectId())
+                .folderId(folder.getId())
+                .items(sources.stream()
+                        .map(source -> MaterialAiJobItem.pending(source.getId()))
+                        .collect(Collectors.toCollection(ArrayList::new)))
+                .status(MaterialAiJobStatus.PENDING)
+                .createdById(command.createdById())
+                .build());
+
+        log.info("AI job TRANSCRIBE_BATCH creado: id={}, carpeta={} ('{}'), PDF={} ({} MB, {} ya en curso)",
+                job.getId(), folder.getId(), folder.getName(), sources.size(), megabytes, inProgress.size());
+        wakeUpWorkerAfterCommit();
+        return job;
+    }
+
+    /**
+     * Woken before the commit, the worker would not see the job yet and it would
+     * wait for the next poll.
+     */
+    private void wakeUpWorkerAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            jobWorker.wakeUp();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                jobWorker.wakeUp();
+            }
+        });
+    }
+
+    /**
+     * The PDFs of a folder that are neither a transcription nor already have one
+     * next to them, so launching the folder again only picks up new uploads.
+     */
+    private static List<Material> untranscribedPdfs(List<Material> materials) {
+        Set<String> filenames = materials.stream()
+                .map(material -> material.getOriginalFilename().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        return materials.stream()
+                .filter(material -> "pdf".equalsIgnoreCase(material.getFileExtension()))
+                .filter(material -> {
+                    String filename = material.getOriginalFilename().toLowerCase(Locale.ROOT);
+                    return !filename.endsWith(MaterialAiPipeline.TRANSCRIPTION_SUFFIX)
+                            && !filenames.contains(MaterialAiPipeline.transcriptionFilename(filename));
+                })
+                .toList();
+    }
+
     @Override
     public MaterialAiJob getJob(Long jobId) {
         return jobRepository.findById(jobId)
                 .orElseThrow(() -> new MaterialAiJobNotFoundException(jobId));
     }
 
+    @Override
+    public List<AiPipelineStageStats> getPipelineStats() {
+        return pipeline.stageStats();
+    }
+
+    /**
+     * Normalize and store the captures, up to {@code app.anthropic.captures.concurrency}
+     * at once. If one fails, the ones already stored are deleted.
+     */
+    private List<MaterialAiJobCapture> storeCaptures(List<CaptureUpload> images, Long subjectId) {
+        int threads = Math.max(1, Math.min(images.size(), properties.getCaptures().getConcurrency()));
+        List<StoredCapture> stored = new ArrayList<>();
+        RuntimeException failure = null;
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            List<Future<StoredCapture>> pending = new ArrayList<>();
+            for (CaptureUpload image : images) {
+                pending.add(pool.submit(() -> storeCapture(image, subjectId)));
+            }
+            for (Future<StoredCapture> capture : pending) {
+                try {
+                    stored.add(capture.get());
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException runtime
+                                ? runtime
+                                : new IllegalStateException("No se pudieron guardar las capturas", e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = new IllegalStateException("Interrumpido guardando las capturas", e);
+                    break;
+                }
+            }
+        }
+        if (failure != null) {
+            stored.forEach(capture -> fileStorage.delete(capture.capture().storagePath()));
+            throw failure;
+        }
+
+        long originalBytes = stored.stream().mapToLong(StoredCapture::originalBytes).sum();
+        long normalizedBytes = stored.stream().mapToLong(StoredCapture::storedBytes).sum();
+        log.info("Capturas normalizadas: {} KB -> {} KB ({} KB ahorrados)",
+                originalBytes / 1024, normalizedBytes / 1024, (originalBytes - normalizedBytes) / 1024);
+        return stored.stream().map(StoredCapture::capture).toList();
+    }
+
+    private StoredCapture storeCapture(CaptureUpload image, Long subjectId) {
+        Path tmp = null;
+        Path normalizedTmp = null;
+        try {
+            tmp = Files.createTempFile("acainfo-ai-capture-", null);
+            image.content().transferTo(tmp);
+            normalizedTmp = Files.createTempFile("acainfo-ai-capture-", ".normalizada");
+            NormalizedCapture normalized = captureNormalizer.normalize(tmp, image.mimeType(), normalizedTmp);
+            try (InputStream in = Files.newInputStream(normalized.path())) {
+                String storagePath = fileStorage.store(in, "ai-captura-" + UUID.randomUUID(), subjectId);
+                return new StoredCapture(new MaterialAiJobCapture(storagePath, normalized.mimeType()),
+                        normalized.originalBytes(), normalized.normalizedBytes());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron guardar las capturas", e);
+        } finally {
+            deleteTemp(tmp);
+            deleteTemp(normalizedTmp);
+        }
+    }
+
+    private void deleteTemp(Path tmp) {
+        if (tmp != null) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException e) {
+                log.warn("No se pudo borrar la captura temporal {}", tmp);
+            }
+        }
+    }
+
+    private record StoredCapture(MaterialAiJobCapture capture, long originalBytes, long storedBytes) {
+    }
+
     private void validateFolderBelongsToSubject(Long folderId, Long subjectId) {
         if (folderId == null) {
             return;
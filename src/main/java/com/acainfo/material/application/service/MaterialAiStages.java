@@ -0,0 +1,51 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.dto.AiPipelineStageStats;
+import com.acainfo.shared.infrastructure.config.AnthropicProperties;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * The two stages of the AI LaTeX pipeline, sized from {@code app.anthropic.pipeline.*}.
+ *
+ * <p>{@code llm}: calls to Claude, I/O-bound (minutes waiting on the API), so several
+ * run at once. {@code compile}: tectonic runs, CPU-bound, capped at the number of
+ * CPUs so compiles never compete with each other for a core.</p>
+ *
+ * <p>Each queue holds at least every step the jobs claimed on this node can have in
+ * the stage at once ({@code max-jobs-per-node} jobs, each with up to
+ * {@code chunk-concurrency} Claude calls and one compile), so a claimed job always
+ * waits for its slot and is never rejected: a rejected compile would throw away the
+ * Claude call already paid for.</p>
+ */
+@Slf4j
+@Getter
+@Component
+public class MaterialAiStages {
+
+    private final AiPipelineStage llm;
+    private final AiPipelineStage compile;
+
+    public MaterialAiStages(AnthropicProperties properties) {
+        AnthropicProperties.Pipeline pipeline = properties.getPipeline();
+        int compileConcurrency = pipeline.getCompileConcurrency() > 0
+                ? pipeline.getCompileConcurrency()
+                : Runtime.getRuntime().availableProcessors();
+        int jobs = properties.getQueue().getMaxJobsPerNode();
+        int llmSteps = jobs * Math.max(1, properties.getTranscription().getChunkConcurrency());
+        this.llm = new AiPipelineStage("llm", pipeline.getLlmConcurrency(),
+                Math.max(pipeline.getLlmQueueCapacity(), llmSteps));
+        this.compile = new AiPipelineStage("compile", compileConcurrency,
+                Math.max(pipeline.getCompileQueueCapacity(), jobs));
+        log.info("Etapas de IA: llm {} a la vez (cola {}), compile {} a la vez (cola {})",
+                pipeline.getLlmConcurrency(), llm.stats().queueCapacity(),
+                compileConcurrency, compile.stats().queueCapacity());
+    }
+
+    public List<AiPipelineStageStats> stats() {
+        return List.of(llm.stats(), compile.stats());
+    }
+}
@@ -0,0 +1,249 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.enrollment.application.port.in.GetStudentEntitlementsUseCase;
+import com.acainfo.material.application.dto.MaterialArchive;
+import com.acainfo.material.application.port.in.DownloadMaterialArchiveUseCase;
+import com.acainfo.material.application.port.in.RestoreArchivedMaterialUseCase;
+import com.acainfo.material.application.port.out.FileStoragePort;
+import com.acainfo.material.application.port.out.MaterialFolderRepositoryPort;
+import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.domain.exception.FileStorageException;
+import com.acainfo.material.domain.exception.MaterialAccessDeniedException;
+import com.acainfo.material.domain.exception.MaterialFolderNotFoundException;
+import com.acainfo.material.domain.model.AcademicYear;
+import com.acainfo.material.domain.model.AllowedFileTypes;
+import com.acainfo.material.domain.model.ArchiveLocator;
+import com.acainfo.material.domain.model.Material;
+import com.acainfo.material.domain.model.MaterialFolder;
+import com.acainfo.subject.application.port.in.GetSubjectUseCase;
+import com.acainfo.subject.domain.model.Subject;
+import com.acainfo.user.application.port.out.UserRepositoryPort;
+import com.acainfo.user.domain.model.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service for ZIP downloads of a folder or a whole subject.
+ * Implements DownloadMaterialArchiveUseCase.
+ *
+ * <p>The access check and the material listing run once, in a short read-only
+ * transaction; the ZIP itself is streamed afterwards without holding a
+ * connection. PDFs, images and Office/ZIP files are already compressed, so they
+ * are written as STORED entries (no deflate CPU, same size); text and code files
+ * are deflated. A STORED entry needs its CRC in the header, so those files are
+ * read twice (checksum pass, then copy) instead of being buffered.</p>
+ *
+ * <p>Files of past years in the cold tier are read from their archive segment and
+ * NOT restored: one ZIP of an old subject should not undo the tiering. Reaching an
+ * entry means scanning its segment from the start, so these are always written
+ * DEFLATED, which needs no CRC up front and reads them once; already compressed
+ * ones at level 0, so deflate only frames them.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MaterialArchiveService implements DownloadMaterialArchiveUseCase {
+
+    /**
+     * Extensions whose content is already compressed.
+     */
+    static final Set<String> COMPRESSED_EXTENSIONS = Set.of("pdf", "docx", "zip", "jpg", "jpeg", "png");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MaterialRepositoryPort materialRepository;
+    private final MaterialFolderRepositoryPort materialFolderRepository;
+    private final FileStoragePort fileStorage;
+    private final UserRepositoryPort userRepository;
+    private final GetStudentEntitlementsUseCase studentEntitlements;
+    private final GetSubjectUseCase getSubjectUseCase;
+    private final RestoreArchivedMaterialUseCase restoreArchivedMaterial;
+    private final Clock clock;
+
+    @Override
+    @Transactional(readOnly = true)
+    public MaterialArchive prepareFolderArchive(Long folderId, Long userId) {
+        MaterialFolder folder = materialFolderRepository.findById(folderId)
+                .orElseThrow(() -> new MaterialFolderNotFoundException(folderId));
+
+        Integer visibleInAcademicYear = checkAccess(folder.getSubjectId(), userId);
+        List<Material> materials = materialRepository.findDownloadable(
+                folder.getSubjectId(), folderId, visibleInAcademicYear);
+
+        log.info("Folder ZIP prepared: folder={}, user={}, files={}", folderId, userId, materials.size());
+        return new MaterialArchive(safeName(folder.getName()) + ".zip", toEntries(materials, Map.of()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MaterialArchive prepareSubjectArchive(Long subjectId, Long userId) {
+        Integer visibleInAcademicYear = checkAccess(subjectId, userId);
+        Subject subject = getSubjectUseCase.getById(subjectId);
+
+        // Folders come ordered by position: the ZIP follows the same order as the UI
+        Map<Long, String> folderNames = new LinkedHashMap<>();
+        materialFolderRepository.findBySubjectId(subjectId)
+                .forEach(folder -> folderNames.put(folder.getId(), safeName(folder.getName())));
+        List<Long> folderOrder = new ArrayList<>(folderNames.keySet());
+
+        List<Material> materials = new ArrayList<>(
+                materialRepository.findDownloadable(subjectId, null, visibleInAcademicYear));
+        // Subject root first, then folder by folder (stable: filenames stay sorted)
+        materials.sort(Comparator.comparingInt(m -> m.getFolderId() == null ? -1 : folderOrder.indexOf(m.getFolderId())));
+
+        log.info("Subject ZIP prepared: subject={}, user={}, files={}", subjectId, userId, materials.size());
+        return new MaterialArchive(safeName(subject.getCode()) + ".zip", toEntries(materials, folderNames));
+    }
+
+    @Override
+    public void writeArchive(MaterialArchive archive, OutputStream out) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            for (MaterialArchive.Entry entry : archive.entries()) {
+                writeEntry(zip, entry, buffer);
+            }
+            // finish() instead of close(): the caller owns the response stream
+            zip.finish();
+            zip.flush();
+        } catch (IOException e) {
+            throw new FileStorageException("Error al generar el ZIP " + archive.filename(), e);
+        }
+    }
+
+    /**
+     * Copy one stored file into the archive. A file missing from storage is
+     * skipped (logged) rather than aborting a download already in progress.
+     */
+    private void writeEntry(ZipOutputStream zip, MaterialArchive.Entry entry, byte[] buffer) throws IOException {
+        ZipEntry zipEntry = new ZipEntry(entry.path());
+        boolean archived = ArchiveLocator.isLocator(entry.storagePath());
+        zip.setLevel(archived && entry.compressed() ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+        InputStream content;
+        try {
+            if (entry.compressed() && !archived) {
+                CRC32 crc = new CRC32();
+                long size = checksum(entry.storagePath(), crc, buffer);
+                zipEntry.setMethod(ZipEntry.STORED);
+                zipEntry.setSize(size);
+                zipEntry.setCompressedSize(size);
+                zipEntry.setCrc(crc.getValue());
+            }
+            content = open(entry.storagePath());
+        } catch (FileStorageException e) {
+            log.warn("ZIP entry skipped, file not readable: {} ({})", entry.storagePath(), e.getMessage());
+            return;
+        }
+
+        try (InputStream in = content) {
+            zip.putNextEntry(zipEntry);
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                zip.write(buffer, 0, read);
+            }
+            zip.closeEntry();
+        }
+    }
+
+    private long checksum(String storagePath, CRC32 crc, byte[] buffer) {
+        try (InputStream in = open(storagePath)) {
+            long size = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                size += read;
+            }
+            return size;
+        } catch (IOException e) {
+            throw new FileStorageException("Error al leer el archivo: " + storagePath, e);
+        }
+    }
+
+    private InputStream open(String storagePath) {
+        return ArchiveLocator.isLocator(storagePath)
+                ? restoreArchivedMaterial.openArchived(storagePath)
+                : fileStorage.retrieve(storagePath);
+    }
+
+    /**
+     * Single access check for the whole archive.
+     *
+     * @return null for admins/teachers (everything), or the current academic year for
+     *         entitled students (only visible, downloadable materials of that year)
+     */
+    private Integer checkAccess(Long subjectId, Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> MaterialAccessDeniedException.forSubject(subjectId, userId));
+
+        if (user.isAdmin() || user.isTeacher()) {
+            return null;
+        }
+        if (user.isStudent() && studentEntitlements.getAccessibleSubjectIds(userId).contains(subjectId)) {
+            return AcademicYear.current(clock);
+        }
+        throw MaterialAccessDeniedException.forSubject(subjectId, userId);
+    }
+
+    /**
+     * Entry paths: "{folder}/{original filename}", with " (n)" added on clashes
+     * so two uploads named the same never overwrite each other when extracted.
+     */
+    private List<MaterialArchive.Entry> toEntries(List<Material> materials, Map<Long, String> folderNames) {
+        Set<String> usedPaths = new HashSet<>();
+        List<MaterialArchive.Entry> entries = new ArrayList<>(materials.size());
+
+        for (Material material : materials) {
+            String folder = material.getFolderId() != null ? folderNames.get(material.getFolderId()) : null;
+            String prefix = folder != null ? folder + "/" : "";
+            String path = uniquePath(prefix, safeName(material.getOriginalFilename()), usedPaths);
+            String extension = AllowedFileTypes.extractExtension(material.getOriginalFilename());
+
+            entries.add(new MaterialArchive.Entry(
+                    path,
+                    material.getStoragePath(),
+                    extension != null && COMPRESSED_EXTENSIONS.contains(extension)
+            ));
+        }
+        return entries;
+    }
+
+    private String uniquePath(String prefix, String filename, Set<String> usedPaths) {
+        String path = prefix + filename;
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        String extension = dot > 0 ? filename.substring(dot) : "";
+
+        for (int n = 2; !usedPaths.add(path.toLowerCase()); n++) {
+            path = prefix + base + " (" + n + ")" + extension;
+        }
+        return path;
+    }
+
+    /**
+     * Keep names usable as a single path segment.
+     */
+    private String safeName(String name) {
+        if (name == null || name.isBlank()) {
+            return "material";
+        }
+        return name.replaceAll("[/\\\\:*?\"<>|]", "_").strip();
+    }
+}
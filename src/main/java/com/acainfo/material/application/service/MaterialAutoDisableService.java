@@ -1,6 +1,7 @@
 package com.acainfo.material.application.service;
 
 import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.application.port.out.MaterialUsageRepositoryPort;
 import com.acainfo.material.domain.model.Material;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,7 +10,10 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Scheduled job that auto-disables materials that have been visible AND downloadable
@@ -18,6 +22,10 @@ import java.util.List;
  * <p>The goal is to force the administrator to periodically review which materials
  * remain public, instead of leaving them indefinitely available.</p>
  *
+ * <p>With {@code app.material.auto-disable.unused-days} &gt; 0 the age threshold is not
+ * enough: a material is only disabled if nobody has downloaded or previewed it in the
+ * last {@code unused-days} days (see {@link MaterialUsageService}).</p>
+ *
  * <p>Same pattern as
  * {@link com.acainfo.enrollment.application.service.EnrollmentExpirationService}.</p>
  */
@@ -27,19 +35,25 @@ import java.util.List;
 public class MaterialAutoDisableService {
 
     private final MaterialRepositoryPort materialRepository;
+    private final MaterialUsageRepositoryPort materialUsageRepository;
+    private final Clock clock;
 
     @Value("${app.material.auto-disable.threshold-days:3}")
     private int thresholdDays;
 
+    @Value("${app.material.auto-disable.unused-days:0}")
+    private int unusedDays;
+
     /**
      * Runs daily at 03:00 (server time). Configurable via {@code app.material.auto-disable.cron}.
      */
     @Scheduled(cron = "${app.material.auto-disable.cron:0 0 3 * * *}")
     @Transactional
     public void disableExpiredMaterials() {
-        log.info("Running material auto-disable job (threshold={} days)...", thresholdDays);
+        log.info("Running material auto-disable job (threshold={} days, unused={} days)...",
+                thresholdDays, unusedDays);
 
-        List<Material> expired = materialRepository.findExpiredActiveMaterials(thresholdDays);
+        List<Material> expired = withoutRecentUsage(materialRepository.findExpiredActiveMaterials(thresholdDays));
         if (expired.isEmpty()) {
             log.debug("No materials matched the auto-disable criteria");
             return;
@@ -57,6 +71,23 @@ public class MaterialAutoDisableService {
                 expired.size(), hidden, blocked);
     }
 
+    /**
+     * Keep only the materials nobody has opened in the last {@code unusedDays} days
+     * (all of them when the usage policy is off).
+     */
+    private List<Material> withoutRecentUsage(List<Material> expired) {
+        if (unusedDays <= 0 || expired.isEmpty()) {
+            return expired;
+        }
+        Set<Long> used = materialUsageRepository.findUsedSince(
+                expired.stream().map(Material::getId).toList(),
+                LocalDate.now(clock).minusDays(unusedDays));
+        if (!used.isEmpty()) {
+            log.info("Keeping {} expired materials that are still in use", used.size());
+        }
+        return expired.stream().filter(material -> !used.contains(material.getId())).toList();
+    }
+
     /**
      * Manual trigger (for tests / admin endpoint).
      */
@@ -0,0 +1,364 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.dto.ArchivableBlob;
+import com.acainfo.material.application.dto.ColdTierResult;
+import com.acainfo.material.application.dto.StoredBlob;
+import com.acainfo.material.application.port.in.ArchivePastYearMaterialsUseCase;
+import com.acainfo.material.application.port.in.RestoreArchivedMaterialUseCase;
+import com.acainfo.material.application.port.out.FileStoragePort;
+import com.acainfo.material.application.port.out.MaterialBlobRepositoryPort;
+import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.domain.exception.ColdTierRunningException;
+import com.acainfo.material.domain.exception.FileStorageException;
+import com.acainfo.material.domain.model.AcademicYear;
+import com.acainfo.material.domain.model.ArchiveLocator;
+import com.acainfo.material.domain.model.Material;
+import com.acainfo.shared.application.port.out.ClusterLockPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service implementing the cold tier of material storage.
+ *
+ * <p>Tiering runs in the same two phases as {@link MaterialStorageDedupeService}:</p>
+ * <ol>
+ *   <li>Write the archive segments, in parallel: pure I/O, no database work. One
+ *       segment per academic year, split every {@link #SEGMENT_MAX_BYTES}; entries
+ *       are named by content hash and deflated at the highest level (written once,
+ *       rarely read).</li>
+ *   <li>Repoint each blob's materials in its own short transaction, re-checking
+ *       under the blob lock that no current material adopted it meanwhile, then
+ *       delete the hot file. A crash in between leaves an unused segment entry,
+ *       never a material pointing at a missing file.</li>
+ * </ol>
+ *
+ * <p>Restoring writes the entry back through {@code storeBlob}, so it lands at its
+ * original blob path and every material sharing the content is repointed at once.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MaterialColdTierService implements ArchivePastYearMaterialsUseCase, RestoreArchivedMaterialUseCase {
+
+    /** Compression is CPU-bound and the job runs at night; two threads leave room for requests. */
+    private static final int ARCHIVE_PARALLELISM = 2;
+
+    /** Uncompressed bytes per segment: keeps the sequential scan of a restore short. */
+    static final long SEGMENT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    static final String COLD_TIER_LOCK = "material-cold-tier";
+
+    private final MaterialRepositoryPort materialRepository;
+    private final MaterialBlobRepositoryPort materialBlobRepository;
+    private final FileStoragePort fileStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final ClusterLockPort clusterLock;
+    private final Clock clock;
+
+    /**
+     * Disabled by default ({@code cron=-}); set {@code app.material.cold-tier.cron} to
+     * run it (e.g. weekly, Sunday at 04:30). With several instances only the one that
+     * takes the cluster lock runs it, the others skip that run.
+     */
+    @Scheduled(cron = "${app.material.cold-tier.cron:-}")
+    public void archivePastYearsScheduled() {
+        if (!clusterLock.runExclusively(COLD_TIER_LOCK, this::archive)) {
+            log.info("Cold tier: already running on another instance, skipped");
+        }
+    }
+
+    /**
+     * Manual run, under the same cluster lock as the scheduled one: two runs at once
+     * would write the same blobs into two segments and leave one of them orphaned.
+     */
+    @Override
+    public ColdTierResult archivePastYears() {
+        AtomicReference<ColdTierResult> result = new AtomicReference<>();
+        if (!clusterLock.runExclusively(COLD_TIER_LOCK, () -> result.set(archive()))) {
+            throw new ColdTierRunningException();
+        }
+        return result.get();
+    }
+
+    private ColdTierResult archive() {
+        int currentYear = AcademicYear.current(clock);
+        List<ArchivableBlob> candidates = materialBlobRepository.findArchivable(currentYear);
+        log.info("Cold tier: {} blobs of academic years before {} to archive", candidates.size(), currentYear);
+
+        // Blobs restored earlier still have their segment entry: nothing to write
+        List<ArchivableBlob> toWrite = candidates.stream().filter(b -> b.archiveLocator() == null).toList();
+        List<Segment> segments = writeSegments(plan(toWrite), LocalDateTime.now(clock).format(RUN_ID));
+
+        Map<String, String> locators = new HashMap<>();
+        candidates.stream()
+                .filter(b -> b.archiveLocator() != null)
+                .forEach(b -> locators.put(b.sha256(), b.archiveLocator()));
+        segments.forEach(segment -> segment.entries().forEach(sha256 ->
+                locators.put(sha256, new ArchiveLocator(segment.storagePath(), sha256).toString())));
+
+        int archived = 0;
+        long bytesArchived = 0;
+        for (ArchivableBlob blob : candidates) {
+            String locator = locators.get(blob.sha256());
+            if (locator == null || !archive(blob, locator, currentYear)) {
+                continue;
+            }
+
+            // Committed: the materials read from the segment, the hot file is no longer needed
+            deleteHotFile(blob);
+            archived++;
+            bytesArchived += blob.size();
+        }
+
+        long segmentBytes = segments.stream().mapToLong(Segment::size).sum();
+        ColdTierResult result = new ColdTierResult(
+                candidates.size(),
+                archived,
+                candidates.size() - archived,
+                segments.size(),
+                bytesArchived,
+                bytesArchived - segmentBytes
+        );
+        log.info("Cold tier finished: {}", result);
+        return result;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public String restore(Material material) {
+        ArchiveLocator locator = ArchiveLocator.parse(material.getStoragePath());
+
+        StoredBlob blob;
+        try (InputStream content = openArchived(material.getStoragePath())) {
+            blob = fileStorage.storeBlob(content);
+        } catch (IOException e) {
+            throw new FileStorageException("No se pudo restaurar el archivo: " + locator, e);
+        }
+        if (!blob.sha256().equals(locator.entryName())) {
+            throw new FileStorageException("El archivo restaurado no coincide con su hash: " + locator);
+        }
+
+        // New transaction: callers serve downloads in read-only ones
+        materialBlobRepository.markRestored(blob.sha256(), blob.storagePath());
+        int repointed = materialRepository.repointStorage(blob.sha256(), locator.toString(), blob.storagePath());
+        log.info("Cold tier: restored {} for material {} ({} materials repointed)",
+                blob.storagePath(), material.getId(), repointed);
+
+        return blob.storagePath();
+    }
+
+    @Override
+    public InputStream openArchived(String archiveLocator) {
+        ArchiveLocator locator = ArchiveLocator.parse(archiveLocator);
+        ZipInputStream zip = new ZipInputStream(fileStorage.retrieve(locator.segmentPath()));
+        try {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if (entry.getName().equals(locator.entryName())) {
+                    return zip;
+                }
+            }
+        } catch (IOException e) {
+            closeQuietly(zip);
+            throw new FileStorageException("No se pudo leer el archivo: " + archiveLocator, e);
+        }
+        closeQuietly(zip);
+        throw new FileStorageException("Archivo no encontrado: " + archiveLocator);
+    }
+
+    /**
+     * Repoint the blob's materials to its archive locator, unless a material of the
+     * current year (or without year) started using the content since the listing.
+     */
+    private boolean archive(ArchivableBlob blob, String locator, int currentYear) {
+        Boolean archived = transactionTemplate.execute(status -> {
+            if (!materialBlobRepository.markArchived(blob.sha256(), locator)) {
+                return false;
+            }
+            if (materialRepository.isContentInUseFrom(blob.sha256(), currentYear)) {
+                status.setRollbackOnly();
+                return false;
+            }
+            materialRepository.repointStorage(blob.sha256(), blob.storagePath(), locator);
+            return true;
+        });
+        return Boolean.TRUE.equals(archived);
+    }
+
+    /**
+     * Delete an archived blob's hot file under its row lock, unless an upload or a
+     * restore of the same content made it hot again since the archive committed. An
+     * upload arriving later waits for the lock and then finds the file gone.
+     */
+    private void deleteHotFile(ArchivableBlob blob) {
+        Boolean deleted = transactionTemplate.execute(status -> {
+            if (!materialBlobRepository.lockIfArchived(blob.sha256())) {
+                return false;
+            }
+            fileStorage.delete(blob.storagePath());
+            return true;
+        });
+        if (!Boolean.TRUE.equals(deleted)) {
+            log.info("Cold tier: blob {} is hot again, its file is kept", blob.sha256());
+        }
+    }
+
+    /**
+     * Group blobs by academic year (oldest first), then split into segments of at
+     * most {@link #SEGMENT_MAX_BYTES} uncompressed bytes.
+     */
+    private List<List<ArchivableBlob>> plan(List<ArchivableBlob> blobs) {
+        Map<Integer, List<ArchivableBlob>> byYear = new TreeMap<>();
+        blobs.stream()
+                .sorted(Comparator.comparing(ArchivableBlob::sha256))
+                .forEach(blob -> byYear.computeIfAbsent(blob.academicYear(), year -> new ArrayList<>()).add(blob));
+
+        List<List<ArchivableBlob>> segments = new ArrayList<>();
+        for (List<ArchivableBlob> yearBlobs : byYear.values()) {
+            List<ArchivableBlob> current = new ArrayList<>();
+            long currentBytes = 0;
+            for (ArchivableBlob blob : yearBlobs) {
+                if (!current.isEmpty() && currentBytes + blob.size() > SEGMENT_MAX_BYTES) {
+                    segments.add(current);
+                    current = new ArrayList<>();
+                    currentBytes = 0;
+                }
+                current.add(blob);
+                currentBytes += blob.size();
+            }
+            if (!current.isEmpty()) {
+                segments.add(current);
+            }
+        }
+        return segments;
+    }
+
+    private List<Segment> writeSegments(List<List<ArchivableBlob>> plan, String runId) {
+        List<Segment> written = new ArrayList<>();
+        if (plan.isEmpty()) {
+            return written;
+        }
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(ARCHIVE_PARALLELISM)) {
+            List<CompletableFuture<Segment>> futures = new ArrayList<>(plan.size());
+            for (int i = 0; i < plan.size(); i++) {
+                List<ArchivableBlob> blobs = plan.get(i);
+                String name = blobs.getFirst().academicYear() + "/" + runId + "-" + (i + 1) + ".zip";
+                futures.add(CompletableFuture.supplyAsync(() -> writeSegment(name, blobs), pool));
+            }
+            futures.forEach(future -> {
+                Segment segment = future.join();
+                if (segment != null) {
+                    written.add(segment);
+                }
+            });
+        }
+        return written;
+    }
+
+    /**
+     * Compress the blobs into a local temporary ZIP, then store it in one go.
+     * Unreadable blobs are left out (and stay hot).
+     *
+     * @return The stored segment, or null if nothing could be written
+     */
+    private Segment writeSegment(String name, List<ArchivableBlob> blobs) {
+        Path tmpFile = null;
+        try {
+            tmpFile = Files.createTempFile("cold-segment-", ".zip");
+            List<String> entries = new ArrayList<>(blobs.size());
+
+            try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(tmpFile))) {
+                zip.setLevel(Deflater.BEST_COMPRESSION);
+                for (ArchivableBlob blob : blobs) {
+                    InputStream content;
+                    try {
+                        content = fileStorage.retrieve(blob.storagePath());
+                    } catch (FileStorageException e) {
+                        log.warn("Cold tier: blob {} skipped: {}", blob.sha256(), e.getMessage());
+                        continue;
+                    }
+                    try (content) {
+                        zip.putNextEntry(new ZipEntry(blob.sha256()));
+                        content.transferTo(zip);
+                        zip.closeEntry();
+                    }
+                    entries.add(blob.sha256());
+                }
+            }
+            if (entries.isEmpty()) {
+                return null;
+            }
+
+            long size = Files.size(tmpFile);
+            String storagePath;
+            try (InputStream content = Files.newInputStream(tmpFile)) {
+                storagePath = fileStorage.storeArchiveSegment(name, content);
+            }
+            log.debug("Cold tier: segment {} written ({} blobs, {} bytes)", storagePath, entries.size(), size);
+            return new Segment(storagePath, size, entries);
+        } catch (IOException | FileStorageException e) {
+            log.warn("Cold tier: segment {} not written, its blobs stay hot: {}", name, e.getMessage());
+            return null;
+        } finally {
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file: {}", path);
+        }
+    }
+
+    private void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.debug("Could not close archive segment: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * An archive segment written in this run.
+     *
+     * @param storagePath Storage path of the segment
+     * @param size Compressed size in bytes
+     * @param entries Content hashes stored in it
+     */
+    private record Segment(String storagePath, long size, List<String> entries) {
+    }
+}
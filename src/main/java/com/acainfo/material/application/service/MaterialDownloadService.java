@@ -1,26 +1,29 @@
 package com.acainfo.material.application.service;
 
-import com.acainfo.course.application.port.out.CourseRepositoryPort;
 import com.acainfo.material.application.dto.MaterialDownload;
 import com.acainfo.material.application.port.in.DownloadMaterialUseCase;
+import com.acainfo.material.application.port.in.GetMaterialThumbnailUseCase;
 import com.acainfo.material.application.port.in.PreviewMaterialUseCase;
+import com.acainfo.material.application.port.in.RestoreArchivedMaterialUseCase;
 import com.acainfo.material.application.port.out.FileStoragePort;
 import com.acainfo.material.application.port.out.MaterialRepositoryPort;
 import com.acainfo.material.domain.exception.MaterialAccessDeniedException;
 import com.acainfo.material.domain.exception.MaterialNotFoundException;
+import com.acainfo.material.domain.exception.MaterialThumbnailNotFoundException;
 import com.acainfo.material.domain.model.AcademicYear;
 import com.acainfo.material.domain.model.Material;
-import com.acainfo.enrollment.application.port.out.EnrollmentRepositoryPort;
-import com.acainfo.enrollment.domain.model.EnrollmentStatus;
+import com.acainfo.enrollment.application.port.in.GetStudentEntitlementsUseCase;
 import com.acainfo.user.application.port.out.UserRepositoryPort;
 import com.acainfo.user.domain.model.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.InputStream;
+import java.net.URI;
 import java.time.Clock;
+import java.time.LocalDateTime;
 
 /**
  * Service for material download operations with access control.
@@ -29,20 +32,25 @@ import java.time.Clock;
  * <p>Access rules:</p>
  * <ul>
  *   <li>Admins and teachers can always download</li>
- *   <li>Students need an ACTIVE enrollment in a course of the material's subject</li>
+ *   <li>Students need an ACTIVE enrollment in a course of the material's subject,
+ *       resolved from their cached entitlements (no per-enrollment lookups)</li>
  * </ul>
+ *
+ * <p>Files of past academic years may be in the cold tier; they are restored
+ * to the hot store on first access (only admins and teachers get that far).</p>
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
-public class MaterialDownloadService implements DownloadMaterialUseCase, PreviewMaterialUseCase {
+public class MaterialDownloadService implements DownloadMaterialUseCase, PreviewMaterialUseCase,
+        GetMaterialThumbnailUseCase {
 
     private final MaterialRepositoryPort materialRepository;
     private final FileStoragePort fileStorage;
     private final UserRepositoryPort userRepository;
-    private final EnrollmentRepositoryPort enrollmentRepository;
-    private final CourseRepositoryPort courseRepository;
+    private final GetStudentEntitlementsUseCase studentEntitlements;
+    private final RestoreArchivedMaterialUseCase restoreArchivedMaterial;
     private final Clock clock;
 
     @Override
@@ -57,15 +65,10 @@ public class MaterialDownloadService implements DownloadMaterialUseCase, Preview
             throw new MaterialAccessDeniedException(materialId, userId);
         }
 
-        InputStream content = fileStorage.retrieve(material.getStoragePath());
+        MaterialDownload download = toDownload(material, /* inline */ false);
         log.info("Material downloaded: id={}, user={}", materialId, userId);
 
-        return new MaterialDownload(
-                material.getOriginalFilename(),
-                material.getMimeType(),
-                material.getFileSize(),
-                content
-        );
+        return download;
     }
 
     @Override
@@ -81,14 +84,68 @@ public class MaterialDownloadService implements DownloadMaterialUseCase, Preview
             throw new MaterialAccessDeniedException(materialId, userId);
         }
 
-        InputStream content = fileStorage.retrieve(material.getStoragePath());
+        MaterialDownload download = toDownload(material, /* inline */ true);
         log.info("Material previewed: id={}, user={}", materialId, userId);
 
+        return download;
+    }
+
+    @Override
+    public MaterialDownload thumbnail(Long materialId, Long userId) {
+        Material material = materialRepository.findById(materialId)
+                .orElseThrow(() -> new MaterialNotFoundException(materialId));
+
+        // Thumbnails show the first page: same rule as the in-app viewer
+        if (!canUserAccess(material, userId, /* checkDownloadDisabled */ false)) {
+            throw new MaterialAccessDeniedException(materialId, userId);
+        }
+        if (material.getThumbnailPath() == null) {
+            throw new MaterialThumbnailNotFoundException(materialId);
+        }
+
+        Resource content = fileStorage.retrieveResource(material.getThumbnailPath());
+        // Derived from the content hash, so the thumbnail is as immutable as the blob
+        return new MaterialDownload(
+                "thumbnail-" + materialId + ".png",
+                "image/png",
+                null,
+                content,
+                material.getContentHash() + "-thumb",
+                null,
+                null
+        );
+    }
+
+    /**
+     * Build the download payload. Stored files are never rewritten, so the content
+     * hash (or, for legacy files, filename + size) is a strong ETag and the
+     * upload time is the content's last modification.
+     *
+     * <p>Only called once access has been granted: when the storage can hand out a
+     * presigned URL the file is not opened here at all.</p>
+     */
+    private MaterialDownload toDownload(Material material, boolean inline) {
+        String storagePath = material.isArchived()
+                ? restoreArchivedMaterial.restore(material)
+                : material.getStoragePath();
+        URI redirectUrl = fileStorage.directDownloadUrl(
+                storagePath, material.getOriginalFilename(), material.getMimeType(), inline)
+                .orElse(null);
+        Resource content = redirectUrl == null ? fileStorage.retrieveResource(storagePath) : null;
+        LocalDateTime uploadedAt = material.getUploadedAt() != null
+                ? material.getUploadedAt()
+                : material.getCreatedAt();
+
         return new MaterialDownload(
                 material.getOriginalFilename(),
                 material.getMimeType(),
                 material.getFileSize(),
-                content
+                content,
+                material.getContentHash() != null
+                        ? material.getContentHash()
+                        : material.getStoredFilename() + "-" + material.getFileSize(),
+                uploadedAt != null ? uploadedAt.atZone(clock.getZone()).toInstant() : null,
+                redirectUrl
         );
     }
 
@@ -128,20 +185,9 @@ public class MaterialDownloadService implements DownloadMaterialUseCase, Preview
 
         // Students need an ACTIVE enrollment in a course of the material's subject
         if (user.isStudent()) {
-            return hasActiveEnrollmentInSubject(userId, material.getSubjectId());
+            return studentEntitlements.getAccessibleSubjectIds(userId).contains(material.getSubjectId());
         }
 
         return false;
     }
-
-    /**
-     * Check if student has an ACTIVE enrollment in any course of the subject.
-     */
-    private boolean hasActiveEnrollmentInSubject(Long studentId, Long subjectId) {
-        return enrollmentRepository.findByStudentIdAndStatus(studentId, EnrollmentStatus.ACTIVE)
-                .stream()
-                .anyMatch(enrollment -> courseRepository.findById(enrollment.getCourseId())
-                        .map(course -> subjectId.equals(course.getSubjectId()))
-                        .orElse(false));
-    }
 }
@@ -6,10 +6,7 @@ import com.acainfo.material.application.port.out.MaterialRepositoryPort;
 import com.acainfo.material.domain.exception.MaterialNotFoundException;
 import com.acainfo.material.domain.model.AcademicYear;
 import com.acainfo.material.domain.model.Material;
-import com.acainfo.enrollment.application.port.out.EnrollmentRepositoryPort;
-import com.acainfo.enrollment.domain.model.Enrollment;
-import com.acainfo.enrollment.domain.model.EnrollmentStatus;
-import com.acainfo.course.application.port.in.GetCourseUseCase;
+import com.acainfo.enrollment.application.port.in.GetStudentEntitlementsUseCase;
 import com.acainfo.shared.application.dto.PageResponse;
 import com.acainfo.user.application.port.out.UserRepositoryPort;
 import com.acainfo.user.domain.model.User;
@@ -21,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Clock;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service for material query operations.
@@ -36,8 +34,7 @@ public class MaterialQueryService implements GetMaterialUseCase {
 
     private final MaterialRepositoryPort materialRepository;
     private final UserRepositoryPort userRepository;
-    private final EnrollmentRepositoryPort enrollmentRepository;
-    private final GetCourseUseCase getCourseUseCase;
+    private final GetStudentEntitlementsUseCase studentEntitlements;
     private final Clock clock;
 
     @Override
@@ -56,9 +53,13 @@ public class MaterialQueryService implements GetMaterialUseCase {
     }
 
     @Override
-    public List<Material> getBySubjectId(Long subjectId) {
-        log.debug("Getting materials for subject: {}", subjectId);
-        return materialRepository.findBySubjectId(subjectId);
+    public PageResponse<Material> getBySubjectId(Long subjectId, Integer visibleInAcademicYear, int page, int size) {
+        log.debug("Getting materials for subject: {} (page {}, size {})", subjectId, page, size);
+        MaterialFilters filters = new MaterialFilters(
+                subjectId, null, null, null, null, visibleInAcademicYear,
+                page, size, null, null
+        );
+        return PageResponse.of(materialRepository.findWithFilters(filters));
     }
 
     @Override
@@ -94,11 +95,7 @@ public class MaterialQueryService implements GetMaterialUseCase {
 
         // Students need an ACTIVE enrollment in a course of the material's subject
         if (user.isStudent()) {
-            return enrollmentRepository
-                    .findByStudentIdAndStatus(userId, EnrollmentStatus.ACTIVE)
-                    .stream()
-                    .anyMatch(e -> material.getSubjectId()
-                            .equals(getCourseUseCase.getById(e.getCourseId()).getSubjectId()));
+            return studentEntitlements.getAccessibleSubjectIds(userId).contains(material.getSubjectId());
         }
 
         return false;
@@ -108,22 +105,16 @@ public class MaterialQueryService implements GetMaterialUseCase {
     public List<Material> getRecentForStudent(Long studentId, int days) {
         log.debug("Getting recent materials for student {} within {} days", studentId, days);
 
-        // Get active enrollments for the student
-        List<Enrollment> activeEnrollments = enrollmentRepository
-                .findByStudentIdAndStatus(studentId, EnrollmentStatus.ACTIVE);
+        // Subjects of the student's ACTIVE enrollments
+        Set<Long> subjectIds = studentEntitlements.getAccessibleSubjectIds(studentId);
 
-        if (activeEnrollments.isEmpty()) {
+        if (subjectIds.isEmpty()) {
             return List.of();
         }
 
-        // Get subject IDs from groups
-        List<Long> subjectIds = activeEnrollments.stream()
-                .map(enrollment -> getCourseUseCase.getById(enrollment.getCourseId()).getSubjectId())
-                .distinct()
-                .toList();
-
-        // Get recent materials for those subjects
-        return materialRepository.findRecentBySubjectIds(subjectIds, days);
+        // Only what students may see: visible materials of the current academic year
+        return materialRepository.findRecentVisibleBySubjectIds(
+                List.copyOf(subjectIds), AcademicYear.current(clock), days);
     }
 
     private boolean isCurrentAcademicYear(Material material) {
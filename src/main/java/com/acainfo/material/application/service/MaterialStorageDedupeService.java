@@ -0,0 +1,150 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.dto.StorageDedupeResult;
+import com.acainfo.material.application.dto.StoredBlob;
+import com.acainfo.material.application.port.in.DeduplicateStorageUseCase;
+import com.acainfo.material.application.port.out.FileStoragePort;
+import com.acainfo.material.application.port.out.MaterialBlobRepositoryPort;
+import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.domain.model.Material;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Service implementing DeduplicateStorageUseCase.
+ *
+ * <p>Two phases:</p>
+ * <ol>
+ *   <li>Hash + copy into the blob store, in parallel: pure I/O, no database work.</li>
+ *   <li>Repoint each material in its own short transaction, then delete its legacy file.
+ *       A crash between the two leaves the legacy file as an orphan, never a material
+ *       pointing at a missing file. A blob no material adopted (deleted or migrated
+ *       meanwhile, or the transaction failed) is removed again under its row lock, unless
+ *       another material references the same content.</li>
+ * </ol>
+ *
+ * <p>Runs synchronously in the caller's thread: the admin request that starts it waits
+ * for the whole migration.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MaterialStorageDedupeService implements DeduplicateStorageUseCase {
+
+    /** Hashing is disk-bound; a few threads keep the disk busy without starving requests. */
+    private static final int HASH_PARALLELISM = 4;
+
+    private final MaterialRepositoryPort materialRepository;
+    private final MaterialBlobRepositoryPort materialBlobRepository;
+    private final FileStoragePort fileStorage;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public StorageDedupeResult deduplicateLegacyFiles() {
+        List<Material> legacy = materialRepository.findWithoutContentHash();
+        log.info("Storage dedupe: {} legacy materials to migrate", legacy.size());
+
+        Map<Long, StoredBlob> blobs = hashIntoBlobStore(legacy);
+
+        int migrated = 0;
+        long migratedBytes = 0;
+        Map<String, Long> distinct = new HashMap<>();
+
+        for (Material material : legacy) {
+            StoredBlob blob = blobs.get(material.getId());
+            if (blob == null) {
+                continue;
+            }
+
+            if (!adopt(material, blob)) {
+                discardIfUnadopted(blob);
+                continue;
+            }
+
+            // Committed: the material reads from the blob, the legacy copy is no longer needed
+            fileStorage.delete(material.getStoragePath());
+            migrated++;
+            migratedBytes += blob.size();
+            distinct.putIfAbsent(blob.sha256(), blob.size());
+        }
+
+        long distinctBytes = distinct.values().stream().mapToLong(Long::longValue).sum();
+        StorageDedupeResult result = new StorageDedupeResult(
+                legacy.size(),
+                migrated,
+                legacy.size() - blobs.size(),
+                distinct.size(),
+                migratedBytes - distinctBytes
+        );
+        log.info("Storage dedupe finished: {}", result);
+        return result;
+    }
+
+    private boolean adopt(Material material, StoredBlob blob) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (materialRepository.assignBlob(material.getId(), blob.sha256(), blob.storagePath()) == 0) {
+                    return false;
+                }
+                materialBlobRepository.acquire(blob);
+                if (!fileStorage.exists(blob.storagePath())) {
+                    // Removed with the last material of the same content meanwhile: keep the legacy copy
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Storage dedupe: material {} not repointed: {}", material.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Delete the blob file written for a material that did not adopt it, unless another
+     * material references the same content.
+     */
+    private void discardIfUnadopted(StoredBlob blob) {
+        try {
+            transactionTemplate.execute(status -> {
+                if (materialBlobRepository.removeIfUnadopted(blob) && fileStorage.exists(blob.storagePath())) {
+                    fileStorage.delete(blob.storagePath());
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Storage dedupe: unadopted blob {} kept: {}", blob.storagePath(), e.getMessage());
+        }
+    }
+
+    private Map<Long, StoredBlob> hashIntoBlobStore(List<Material> legacy) {
+        Map<Long, StoredBlob> blobs = new ConcurrentHashMap<>();
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(HASH_PARALLELISM)) {
+            CompletableFuture.allOf(legacy.stream()
+                    .map(material -> CompletableFuture.runAsync(() -> {
+                        try (InputStream content = fileStorage.retrieve(material.getStoragePath())) {
+                            blobs.put(material.getId(), fileStorage.storeBlob(content));
+                        } catch (Exception e) {
+                            log.warn("Storage dedupe: material {} skipped ({}): {}",
+                                    material.getId(), material.getStoragePath(), e.getMessage());
+                        }
+                    }, pool))
+                    .toArray(CompletableFuture[]::new)
+            ).join();
+        }
+
+        return blobs;
+    }
+}
@@ -0,0 +1,92 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.dto.PdfPreview;
+import com.acainfo.material.application.port.out.FileStoragePort;
+import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.application.port.out.PdfPreviewPort;
+import com.acainfo.material.domain.event.MaterialUploadedEvent;
+import com.acainfo.material.domain.model.Material;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Background stage that renders the first-page thumbnail and page count of PDF
+ * materials. Runs on the bounded "thumbnailExecutor", never on request threads.
+ *
+ * <p>Triggered after commit of every upload ({@link MaterialUploadedEvent}), which
+ * covers manual uploads and AI pipeline publications, and by the backfill for
+ * existing materials. Failures (corrupt PDF, missing file) are logged and leave
+ * the material without preview; they never affect the upload.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MaterialThumbnailGenerator {
+
+    static final String THUMBNAIL_SUFFIX = ".thumb.png";
+
+    private final MaterialRepositoryPort materialRepository;
+    private final FileStoragePort fileStorage;
+    private final PdfPreviewPort pdfPreview;
+
+    @Async("thumbnailExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMaterialUploaded(MaterialUploadedEvent event) {
+        generate(event.materialId());
+    }
+
+    /**
+     * Generate previews one after another, as a single task on the worker.
+     */
+    @Async("thumbnailExecutor")
+    public void generateAll(List<Long> materialIds) {
+        log.info("Thumbnail backfill started: {} materials", materialIds.size());
+        int generated = 0;
+        for (Long materialId : materialIds) {
+            if (generate(materialId)) {
+                generated++;
+            }
+        }
+        log.info("Thumbnail backfill finished: {}/{} generated", generated, materialIds.size());
+    }
+
+    /**
+     * Render and store the preview of one material.
+     *
+     * @return true if a preview was stored
+     */
+    boolean generate(Long materialId) {
+        Material material = materialRepository.findById(materialId).orElse(null);
+        if (material == null || !"pdf".equals(material.getFileExtension()) || material.getThumbnailPath() != null) {
+            return false;
+        }
+        if (material.getContentHash() == null) {
+            // Derived files live next to the blob: legacy files need the storage dedupe first
+            log.debug("Thumbnail skipped for legacy material {} (no content hash)", materialId);
+            return false;
+        }
+
+        try {
+            PdfPreview preview;
+            try (InputStream pdf = fileStorage.retrieve(material.getStoragePath())) {
+                preview = pdfPreview.render(pdf);
+            }
+            String thumbnailPath = fileStorage.storeDerived(
+                    material.getContentHash(), THUMBNAIL_SUFFIX, new ByteArrayInputStream(preview.thumbnailPng()));
+            materialRepository.assignPreview(materialId, preview.pageCount(), thumbnailPath);
+
+            log.debug("Thumbnail generated for material {} ({} pages)", materialId, preview.pageCount());
+            return true;
+        } catch (Exception e) {
+            log.warn("Thumbnail generation failed for material {}: {}", materialId, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.port.in.GenerateThumbnailsUseCase;
+import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service implementing GenerateThumbnailsUseCase.
+ * Separate bean from {@link MaterialThumbnailGenerator} so @Async goes through the proxy.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MaterialThumbnailService implements GenerateThumbnailsUseCase {
+
+    private final MaterialRepositoryPort materialRepository;
+    private final MaterialThumbnailGenerator thumbnailGenerator;
+
+    @Override
+    public int backfill() {
+        List<Long> pending = materialRepository.findPdfIdsWithoutThumbnail();
+        if (!pending.isEmpty()) {
+            thumbnailGenerator.generateAll(pending);
+        }
+        log.info("Thumbnail backfill queued: {} materials", pending.size());
+        return pending.size();
+    }
+}
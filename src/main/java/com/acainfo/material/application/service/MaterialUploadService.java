@@ -1,11 +1,16 @@
 package com.acainfo.material.application.service;
 
+import com.acainfo.material.application.dto.StoredBlob;
 import com.acainfo.material.application.dto.UploadMaterialCommand;
 import com.acainfo.material.application.port.in.DeleteMaterialUseCase;
 import com.acainfo.material.application.port.in.UploadMaterialUseCase;
 import com.acainfo.material.application.port.out.FileStoragePort;
+import com.acainfo.material.application.port.out.MaterialBlobRepositoryPort;
 import com.acainfo.material.application.port.out.MaterialFolderRepositoryPort;
 import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.domain.event.MaterialBlobReleasedEvent;
+import com.acainfo.material.domain.event.MaterialUploadedEvent;
+import com.acainfo.material.domain.exception.FileStorageException;
 import com.acainfo.material.domain.exception.FolderSubjectMismatchException;
 import com.acainfo.material.domain.exception.InvalidFileTypeException;
 import com.acainfo.material.domain.exception.MaterialFolderNotFoundException;
@@ -16,8 +21,11 @@ import com.acainfo.material.domain.model.Material;
 import com.acainfo.material.domain.model.MaterialFolder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.Clock;
 import java.time.LocalDateTime;
@@ -36,6 +44,8 @@ public class MaterialUploadService implements UploadMaterialUseCase, DeleteMater
     private final MaterialRepositoryPort materialRepository;
     private final MaterialFolderRepositoryPort materialFolderRepository;
     private final FileStoragePort fileStorage;
+    private final MaterialBlobRepositoryPort materialBlobRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final Clock clock;
 
     @Override
@@ -52,11 +62,16 @@ public class MaterialUploadService implements UploadMaterialUseCase, DeleteMater
         // 2. Destination folder (if any) must belong to the material's subject
         validateFolderBelongsToSubject(command.folderId(), command.subjectId());
 
-        // 3. Generate unique stored filename
+        // 3. Unique per-material filename (names side files such as the LaTeX source)
         String storedFilename = UUID.randomUUID() + "." + extension;
 
-        // 4. Store file
-        String storagePath = fileStorage.store(command.content(), storedFilename, command.subjectId());
+        // 4. Store content by hash: identical re-uploads share one blob, one more reference
+        StoredBlob blob = fileStorage.storeBlob(command.content());
+        materialBlobRepository.acquire(blob);
+        // Under the blob lock now: the deletion of its last material may have removed the file storeBlob found
+        if (!fileStorage.exists(blob.storagePath())) {
+            throw new FileStorageException("El archivo se borró mientras se subía, vuelve a intentarlo");
+        }
 
         // 5. Create and save material metadata
         LocalDateTime now = LocalDateTime.now();
@@ -69,8 +84,9 @@ public class MaterialUploadService implements UploadMaterialUseCase, DeleteMater
                 .storedFilename(storedFilename)
                 .fileExtension(extension)
                 .mimeType(command.mimeType())
-                .fileSize(command.fileSize())
-                .storagePath(storagePath)
+                .fileSize(blob.size())
+                .storagePath(blob.storagePath())
+                .contentHash(blob.sha256())
                 .folderId(command.folderId())
                 .academicYear(AcademicYear.current(clock))
                 .uploadedAt(now)
@@ -86,6 +102,9 @@ public class MaterialUploadService implements UploadMaterialUseCase, DeleteMater
         log.info("Material uploaded: id={}, name='{}', subject={}",
                 saved.getId(), saved.getName(), saved.getSubjectId());
 
+        // 6. Preview (thumbnail + page count) is rendered in the background after commit
+        eventPublisher.publishEvent(new MaterialUploadedEvent(saved.getId()));
+
         return saved;
     }
 
@@ -111,12 +130,40 @@ public class MaterialUploadService implements UploadMaterialUseCase, DeleteMater
         Material material = materialRepository.findById(materialId)
                 .orElseThrow(() -> new MaterialNotFoundException(materialId));
 
-        // 2. Delete file from storage
-        fileStorage.delete(material.getStoragePath());
-
-        // 3. Delete metadata
+        // 2. Delete metadata
         materialRepository.delete(materialId);
 
+        // 3. Drop the file: shared blobs (and their thumbnail) only when no other material references them,
+        //    after commit
+        if (material.getContentHash() == null) {
+            fileStorage.delete(material.getStoragePath());
+        } else {
+            materialBlobRepository.release(material.getContentHash())
+                    .ifPresent(blobPath -> eventPublisher.publishEvent(
+                            new MaterialBlobReleasedEvent(material.getContentHash(), blobPath)));
+        }
+
         log.info("Material deleted: id={}, name='{}'", materialId, material.getName());
     }
+
+    /**
+     * Delete the file of a blob whose last material was deleted, once that delete has
+     * committed (a rollback keeps the material, and so its file). Runs in its own
+     * transaction under the blob's row lock: an upload of the same content that took a
+     * reference meanwhile keeps the file, and one arriving later waits for the lock and
+     * then finds the file missing instead of losing it after commit.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onBlobReleased(MaterialBlobReleasedEvent event) {
+        if (!materialBlobRepository.removeIfUnreferenced(event.sha256())) {
+            log.debug("Blob {} referenced again, file kept", event.sha256());
+            return;
+        }
+        fileStorage.delete(event.storagePath());
+        String thumbnailPath = event.storagePath() + MaterialThumbnailGenerator.THUMBNAIL_SUFFIX;
+        if (fileStorage.exists(thumbnailPath)) {
+            fileStorage.delete(thumbnailPath);
+        }
+    }
 }
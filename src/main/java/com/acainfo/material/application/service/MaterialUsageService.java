@@ -0,0 +1,120 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.dto.MaterialUsageCount;
+import com.acainfo.material.application.dto.MaterialUsageReport;
+import com.acainfo.material.application.dto.MaterialUsageStat;
+import com.acainfo.material.application.port.in.GetMaterialUsageUseCase;
+import com.acainfo.material.application.port.in.RecordMaterialUsageUseCase;
+import com.acainfo.material.application.port.out.MaterialUsageRepositoryPort;
+import com.acainfo.material.domain.model.AcademicYear;
+import com.acainfo.material.domain.model.MaterialUsageType;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Download and preview counters per material and day.
+ *
+ * <p>An UPDATE per access would serialize concurrent readers of the same material on
+ * its row. Accesses are instead added to in-memory {@link LongAdder}s (striped, so
+ * concurrent increments do not contend) and a scheduled flush adds what accumulated
+ * to the daily aggregate rows in one batch. If the flush fails, the drained counts go
+ * back to the adders and are retried on the next run.</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MaterialUsageService implements RecordMaterialUsageUseCase, GetMaterialUsageUseCase {
+
+    static final int MAX_TOP = 100;
+
+    private final MaterialUsageRepositoryPort materialUsageRepository;
+    private final Clock clock;
+
+    private final ConcurrentMap<UsageKey, UsageCounters> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(Long materialId, MaterialUsageType type) {
+        UsageCounters counters = countersOf(new UsageKey(materialId, LocalDate.now(clock)));
+        if (type == MaterialUsageType.DOWNLOAD) {
+            counters.downloads.increment();
+        } else {
+            counters.previews.increment();
+        }
+    }
+
+    /**
+     * Add the buffered counts to the aggregate table. Runs every
+     * {@code app.material.usage.flush-interval-ms} and once more on shutdown.
+     */
+    @Scheduled(fixedDelayString = "${app.material.usage.flush-interval-ms:60000}")
+    @PreDestroy
+    public synchronized void flush() {
+        LocalDate today = LocalDate.now(clock);
+        List<MaterialUsageCount> batch = new ArrayList<>();
+        for (Map.Entry<UsageKey, UsageCounters> entry : pending.entrySet()) {
+            UsageKey key = entry.getKey();
+            if (key.day().isBefore(today)) {
+                // No new accesses land on a past day: drop the key, then drain what it holds
+                pending.remove(key);
+            }
+            long downloads = entry.getValue().downloads.sumThenReset();
+            long previews = entry.getValue().previews.sumThenReset();
+            if (downloads > 0 || previews > 0) {
+                batch.add(new MaterialUsageCount(key.materialId(), key.day(), downloads, previews));
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            materialUsageRepository.addCounts(batch);
+            log.debug("Flushed usage counters of {} materials", batch.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not flush usage counters of {} materials, retrying on next run: {}",
+                    batch.size(), e.getMessage());
+            for (MaterialUsageCount count : batch) {
+                UsageCounters counters = countersOf(new UsageKey(count.materialId(), count.usageDate()));
+                counters.downloads.add(count.downloads());
+                counters.previews.add(count.previews());
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public MaterialUsageReport getSubjectUsage(Long subjectId, int days, int limit) {
+        LocalDate since = LocalDate.now(clock).minusDays(Math.max(days, 1) - 1L);
+        List<MaterialUsageStat> top = materialUsageRepository.findTopBySubject(
+                subjectId, since, Math.clamp(limit, 1, MAX_TOP));
+        List<MaterialUsageStat> neverOpened = materialUsageRepository.findNeverOpenedBySubject(
+                subjectId, AcademicYear.current(clock));
+        return new MaterialUsageReport(subjectId, since, top, neverOpened);
+    }
+
+    private UsageCounters countersOf(UsageKey key) {
+        UsageCounters counters = pending.get(key);
+        return counters != null ? counters : pending.computeIfAbsent(key, k -> new UsageCounters());
+    }
+
+    private record UsageKey(Long materialId, LocalDate day) {
+    }
+
+    private static final class UsageCounters {
+        private final LongAdder downloads = new LongAdder();
+        private final LongAdder previews = new LongAdder();
+    }
+}
@@ -0,0 +1,10 @@
+package com.acainfo.material.domain.event;
+
+/**
+ * Published when an AI job changes state (claimed, progress, retry scheduled,
+ * completed, failed), so listeners can push it to whoever is watching the job.
+ *
+ * @param jobId ID of the job
+ */
+public record MaterialAiJobChangedEvent(Long jobId) {
+}
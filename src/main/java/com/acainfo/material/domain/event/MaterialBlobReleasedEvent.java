@@ -0,0 +1,11 @@
+package com.acainfo.material.domain.event;
+
+/**
+ * Published when the last material referencing a blob has been deleted, so its
+ * file can be removed once that delete has committed.
+ *
+ * @param sha256      Hash of the released blob
+ * @param storagePath Storage path of the blob file
+ */
+public record MaterialBlobReleasedEvent(String sha256, String storagePath) {
+}
@@ -0,0 +1,10 @@
+package com.acainfo.material.domain.event;
+
+/**
+ * Published when a material has been uploaded (manually or by the AI pipeline),
+ * so background stages such as preview generation can pick it up after commit.
+ *
+ * @param materialId ID of the new material
+ */
+public record MaterialUploadedEvent(Long materialId) {
+}
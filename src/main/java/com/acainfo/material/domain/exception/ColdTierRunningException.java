@@ -0,0 +1,19 @@
+package com.acainfo.material.domain.exception;
+
+import com.acainfo.shared.domain.exception.BusinessRuleException;
+
+/**
+ * Exception thrown when the cold-tier job is started while a run already holds
+ * its cluster lock, on this or another instance.
+ */
+public class ColdTierRunningException extends BusinessRuleException {
+
+    public ColdTierRunningException() {
+        super("El archivado de cursos anteriores ya se está ejecutando");
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "COLD_TIER_RUNNING";
+    }
+}
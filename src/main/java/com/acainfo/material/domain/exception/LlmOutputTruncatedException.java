@@ -0,0 +1,12 @@
+package com.acainfo.material.domain.exception;
+
+/**
+ * Claude's reply was cut off by max_tokens: the .tex is incomplete. Not worth
+ * retrying as is; a transcription can be split into smaller page ranges instead.
+ */
+public class LlmOutputTruncatedException extends IllegalStateException {
+
+    public LlmOutputTruncatedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.acainfo.material.domain.exception;
+
+/**
+ * The LLM API could not be reached or answered with a temporary error (timeout,
+ * 429, 5xx, overloaded). The same request may succeed later, so jobs retry it.
+ */
+public class LlmUnavailableException extends RuntimeException {
+
+    public LlmUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -16,6 +16,18 @@ public class MaterialAccessDeniedException extends BusinessRuleException {
         super("Acceso denegado al material " + materialId + " para el usuario " + userId + ": " + reason);
     }
 
+    private MaterialAccessDeniedException(String message) {
+        super(message);
+    }
+
+    /**
+     * Access denied to the materials of a whole subject (ZIP downloads).
+     */
+    public static MaterialAccessDeniedException forSubject(Long subjectId, Long userId) {
+        return new MaterialAccessDeniedException(
+                "Acceso denegado a los materiales de la asignatura " + subjectId + " para el usuario " + userId);
+    }
+
     @Override
     public String getErrorCode() {
         return "MATERIAL_ACCESS_DENIED";
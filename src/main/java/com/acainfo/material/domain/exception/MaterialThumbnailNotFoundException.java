@@ -0,0 +1,18 @@
+package com.acainfo.material.domain.exception;
+
+import com.acainfo.shared.domain.exception.NotFoundException;
+
+/**
+ * Exception thrown when a material has no thumbnail (not a PDF, or not generated yet).
+ */
+public class MaterialThumbnailNotFoundException extends NotFoundException {
+
+    public MaterialThumbnailNotFoundException(Long materialId) {
+        super("Miniatura no disponible para el material con ID: " + materialId);
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "MATERIAL_THUMBNAIL_NOT_FOUND";
+    }
+}
@@ -0,0 +1,44 @@
+package com.acainfo.material.domain.model;
+
+/**
+ * Locator of a material file moved to the cold tier: an entry of a compressed
+ * archive segment. Stored in {@code materials.storage_path} while the file is
+ * archived, as {@code archive/{segment}.zip#{sha256}}.
+ *
+ * @param segmentPath Storage path of the archive segment (a ZIP file)
+ * @param entryName   Entry inside the segment: the SHA-256 of the content
+ */
+public record ArchiveLocator(String segmentPath, String entryName) {
+
+    /** Storage directory of the archive segments. */
+    public static final String ARCHIVE_DIR = "archive/";
+
+    private static final char SEPARATOR = '#';
+
+    /**
+     * Whether a storage path is an archive locator rather than a plain file path.
+     */
+    public static boolean isLocator(String storagePath) {
+        return storagePath != null
+                && storagePath.startsWith(ARCHIVE_DIR)
+                && storagePath.indexOf(SEPARATOR) > 0;
+    }
+
+    /**
+     * Parse a locator written by {@link #toString()}.
+     *
+     * @throws IllegalArgumentException if the path is not a locator
+     */
+    public static ArchiveLocator parse(String storagePath) {
+        if (!isLocator(storagePath)) {
+            throw new IllegalArgumentException("Not an archive locator: " + storagePath);
+        }
+        int separator = storagePath.lastIndexOf(SEPARATOR);
+        return new ArchiveLocator(storagePath.substring(0, separator), storagePath.substring(separator + 1));
+    }
+
+    @Override
+    public String toString() {
+        return segmentPath + SEPARATOR + entryName;
+    }
+}
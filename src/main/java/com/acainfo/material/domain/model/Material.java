@@ -88,10 +88,29 @@ public class Material {
     private Long fileSize;
 
     /**
-     * Storage path relative to base storage directory.
+     * Storage path relative to base storage directory, or an archive locator
+     * while the file is in the cold tier (see {@link #isArchived()}).
      */
     private String storagePath;
 
+    /**
+     * SHA-256 (hex) of the file content; the key of its shared blob.
+     * Null for legacy files not yet moved to the content-addressed store.
+     */
+    private String contentHash;
+
+    /**
+     * Number of pages (PDF only), filled in by the background preview stage.
+     * Null until generated, or for non-PDF files.
+     */
+    private Integer pageCount;
+
+    /**
+     * Storage path of the first-page thumbnail (PNG), stored next to the blob.
+     * Null until generated, or for non-PDF files.
+     */
+    private String thumbnailPath;
+
     private LocalDateTime uploadedAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -159,4 +178,12 @@ public class Material {
                         fileExtension.equals("md"));
     }
 
+    /**
+     * Check if the file has been moved to the cold tier (past academic years):
+     * {@code storagePath} is then an {@link ArchiveLocator}, not a readable file.
+     */
+    public boolean isArchived() {
+        return ArchiveLocator.isLocator(storagePath);
+    }
+
 }
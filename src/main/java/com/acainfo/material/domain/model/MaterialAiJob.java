@@ -3,13 +3,17 @@ package com.acainfo.material.domain.model;
 import lombok.*;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * MaterialAiJob domain entity - Anemic model with Lombok.
  * Async job of the LaTeX generator/transcriber (Claude + tectonic).
  *
  * <p>The request returns the job id immediately and the frontend polls its
- * status; the heavy work happens in a dedicated single-thread executor.</p>
+ * status. The job table is the work queue: any instance claims a due job, holds
+ * it under a lease renewed by heartbeats and runs it through the pipeline stages.
+ * A job whose lease expires (its node died) is claimed again by another one.</p>
  */
 @Getter
 @Setter
@@ -51,6 +55,66 @@ public class MaterialAiJob {
      */
     private Long createdById;
 
+    /**
+     * Destination folder of the result (GENERATE), or folder being transcribed
+     * (TRANSCRIBE_BATCH; TRANSCRIBE uses the source's folder).
+     */
+    private Long folderId;
+
+    /**
+     * Exercises to generate (GENERATE only).
+     */
+    private Integer exerciseCount;
+
+    /**
+     * Captures kept in storage until the job finishes (GENERATE only).
+     */
+    @Builder.Default
+    private List<MaterialAiJobCapture> captures = new ArrayList<>();
+
+    /**
+     * Materials of a TRANSCRIBE_BATCH job, each with its own outcome.
+     */
+    @Builder.Default
+    private List<MaterialAiJobItem> items = new ArrayList<>();
+
+    /**
+     * Provider batch the items were submitted in (TRANSCRIBE_BATCH, once submitted).
+     */
+    private String llmBatchId;
+
+    /**
+     * Times the job has been claimed, including the current run.
+     */
+    private int attempts;
+
+    /**
+     * PENDING job waiting for a retry: not claimed before this time.
+     */
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Instance running the job and until when it holds it (RUNNING only).
+     */
+    private String leaseOwner;
+    private LocalDateTime leaseExpiresAt;
+
+    /**
+     * Claude usage of the job across all its attempts: requests, input and output
+     * tokens and time spent waiting for responses.
+     */
+    private int llmCalls;
+    private long llmInputTokens;
+    private long llmOutputTokens;
+    private long llmMillis;
+
+    /**
+     * Progress of a RUNNING job: current step and output tokens received so far
+     * from Claude in it (estimated while the response streams in).
+     */
+    private MaterialAiJobStage progressStage;
+    private long progressTokens;
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
@@ -0,0 +1,13 @@
+package com.acainfo.material.domain.model;
+
+/**
+ * A GENERATE capture stored while its job is queued or running.
+ *
+ * @param storagePath Path returned by the file storage
+ * @param mimeType    Image MIME type sent to the model
+ */
+public record MaterialAiJobCapture(
+        String storagePath,
+        String mimeType
+) {
+}
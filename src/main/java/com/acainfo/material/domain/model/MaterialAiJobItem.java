@@ -0,0 +1,43 @@
+package com.acainfo.material.domain.model;
+
+/**
+ * One source material of a TRANSCRIBE_BATCH job and what became of it.
+ *
+ * @param sourceMaterialId Material being transcribed (null once deleted)
+ * @param status           Item state
+ * @param resultMaterialId Transcription published (COMPLETED only)
+ * @param errorMessage     Why it failed (FAILED only)
+ */
+public record MaterialAiJobItem(
+        Long sourceMaterialId,
+        MaterialAiJobItemStatus status,
+        Long resultMaterialId,
+        String errorMessage
+) {
+
+    public static MaterialAiJobItem pending(Long sourceMaterialId) {
+        return new MaterialAiJobItem(sourceMaterialId, MaterialAiJobItemStatus.PENDING, null, null);
+    }
+
+    public MaterialAiJobItem markCompleted(Long materialId) {
+        return new MaterialAiJobItem(sourceMaterialId, MaterialAiJobItemStatus.COMPLETED, materialId, null);
+    }
+
+    public MaterialAiJobItem markFailed(String message) {
+        return new MaterialAiJobItem(sourceMaterialId, MaterialAiJobItemStatus.FAILED, null, message);
+    }
+
+    /**
+     * Key of the item's request within the provider's batch.
+     */
+    public String customId() {
+        return "material-" + sourceMaterialId;
+    }
+
+    /**
+     * Key of one page range of the item's source, when it is sent in parts.
+     */
+    public String customId(int firstPage, int lastPage) {
+        return customId() + "-p" + firstPage + "-" + lastPage;
+    }
+}
@@ -0,0 +1,13 @@
+package com.acainfo.material.domain.model;
+
+/**
+ * State of one source material within a TRANSCRIBE_BATCH job.
+ */
+public enum MaterialAiJobItemStatus {
+    /** En el lote, sin resultado publicado todavía. */
+    PENDING,
+    /** Transcripción publicada en la carpeta del original. */
+    COMPLETED,
+    /** La API no la devolvió o no compila: el resto del lote sigue. */
+    FAILED
+}
@@ -0,0 +1,20 @@
+package com.acainfo.material.domain.model;
+
+/**
+ * Step a RUNNING AI job is in, shown to the admin following the job
+ * (BATCHED: a batch job waiting, PENDING, for its results).
+ */
+public enum MaterialAiJobStage {
+    /** Claude escribe los ejercicios a partir de las capturas. */
+    GENERATING,
+    /** Claude transcribe la pizarra. */
+    TRANSCRIBING,
+    /** tectonic compila el .tex. */
+    COMPILING,
+    /** Claude corrige un .tex que no compila. */
+    FIXING,
+    /** Se publica el PDF como material. */
+    PUBLISHING,
+    /** Lote enviado a la API: se espera a sus resultados. */
+    BATCHED
+}
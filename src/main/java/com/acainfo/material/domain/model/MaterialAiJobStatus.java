@@ -2,7 +2,8 @@ package com.acainfo.material.domain.model;
 
 /**
  * Lifecycle of an AI LaTeX job: PENDING -> RUNNING -> COMPLETED | FAILED.
- * Jobs left PENDING/RUNNING by a server restart are marked FAILED on startup.
+ * A transient failure sends a RUNNING job back to PENDING with a retry time;
+ * a RUNNING job whose lease expired is claimed again as is.
  */
 public enum MaterialAiJobStatus {
     PENDING,
@@ -7,5 +7,7 @@ public enum MaterialAiJobType {
     /** Capturas de enunciados -> ejercicios de repaso nuevos con solución (PDF). */
     GENERATE,
     /** Pizarra manuscrita ya publicada (PDF) -> transcripción a limpio (PDF). */
-    TRANSCRIBE
+    TRANSCRIBE,
+    /** Carpeta de pizarras -> transcripción a limpio de cada PDF, en un lote de la API. */
+    TRANSCRIBE_BATCH
 }
@@ -0,0 +1,11 @@
+package com.acainfo.material.domain.model;
+
+/**
+ * Kind of access counted in the material usage statistics.
+ */
+public enum MaterialUsageType {
+    /** Descarga del fichero (attachment). */
+    DOWNLOAD,
+    /** Apertura en el visor de la app (inline). */
+    PREVIEW
+}
@@ -1,7 +1,9 @@
 package com.acainfo.material.infrastructure.adapter.in.rest;
 
-import com.acainfo.material.application.dto.AiImageInput;
+import com.acainfo.material.application.dto.AiPipelineStageStats;
+import com.acainfo.material.application.dto.CaptureUpload;
 import com.acainfo.material.application.dto.GenerateAiMaterialCommand;
+import com.acainfo.material.application.dto.TranscribeAiFolderCommand;
 import com.acainfo.material.application.dto.TranscribeAiMaterialCommand;
 import com.acainfo.material.application.port.in.MaterialAiUseCase;
 import com.acainfo.material.domain.exception.InvalidAiJobRequestException;
@@ -19,17 +21,20 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
 /**
  * REST controller for the AI LaTeX generator/transcriber (admin only).
- * Creating a job returns 201 immediately; the frontend polls GET /ai/jobs/{id}.
- * "Relaunch" is always a NEW job re-sending the original request: the job table
- * does not persist the captures (tmp, deleted) nor the parameters.
+ * Creating a job returns 201 immediately; the frontend follows it through the
+ * SSE stream GET /ai/jobs/{id}/events (GET /ai/jobs/{id} still reads it once).
+ * The job table is the work queue: a GENERATE job keeps its parameters and its
+ * captures (in storage) while it waits or runs, so transient failures are retried
+ * from them, but the captures are deleted once the job finishes. "Relaunch" of a
+ * finished job is therefore a NEW job re-sending the original request.
  */
 @RestController
 @RequestMapping("/api/materials")
@@ -42,6 +47,7 @@ public class MaterialAiController {
 
     private final MaterialAiUseCase materialAiUseCase;
     private final MaterialAiRestMapper mapper;
+    private final MaterialAiJobEventStream eventStream;
 
     /**
      * Launch a GENERATE job: captures of exercises worked in class ->
@@ -54,15 +60,16 @@ public class MaterialAiController {
             @Valid @RequestPart("metadata") GenerateAiMaterialRequest request,
             @RequestPart("images") List<MultipartFile> images,
             @AuthenticationPrincipal CustomUserDetails userDetails
-    ) throws IOException {
-        List<AiImageInput> imageInputs = new ArrayList<>();
+    ) {
+        List<CaptureUpload> imageInputs = new ArrayList<>();
         for (MultipartFile image : images) {
             String contentType = image.getContentType();
             if (contentType == null || !ALLOWED_IMAGE_TYPES.contains(contentType)) {
                 throw new InvalidAiJobRequestException(
                         "Formato de captura no soportado: " + contentType + " (usa JPEG, PNG, GIF o WebP)");
             }
-            imageInputs.add(new AiImageInput(image.getBytes(), contentType));
+            // Not read here: the service moves the part file into the job's tmp dir
+            imageInputs.add(new CaptureUpload(image::transferTo, contentType));
         }
 
         MaterialAiJob job = materialAiUseCase.createGenerateJob(new GenerateAiMaterialCommand(
@@ -90,6 +97,24 @@ public class MaterialAiController {
         return ResponseEntity.status(HttpStatus.CREATED).body(mapper.toResponse(job));
     }
 
+    /**
+     * Launch a TRANSCRIBE_BATCH job: every PDF of a folder not transcribed yet,
+     * in one provider batch. Slower (results within hours) and cheaper than one
+     * TRANSCRIBE per file; each transcription is published into the folder as
+     * soon as the batch ends, and the job lists the outcome of each PDF.
+     * Requires ADMIN role.
+     */
+    @PostMapping("/folders/{folderId}/ai/transcribe")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MaterialAiJobResponse> transcribeFolder(
+            @PathVariable Long folderId,
+            @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        MaterialAiJob job = materialAiUseCase.createTranscribeFolderJob(
+                new TranscribeAiFolderCommand(folderId, userDetails.getUserId()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(mapper.toResponse(job));
+    }
+
     /**
      * Poll a job's state.
      * Requires ADMIN role.
@@ -99,4 +124,27 @@ public class MaterialAiController {
     public ResponseEntity<MaterialAiJobResponse> getJob(@PathVariable Long jobId) {
         return ResponseEntity.ok(mapper.toResponse(materialAiUseCase.getJob(jobId)));
     }
+
+    /**
+     * Follow a job's state as Server-Sent Events: a "job" event (same body as
+     * GET /ai/jobs/{id}) now and on every change; the stream ends when the job
+     * is COMPLETED or FAILED.
+     * Requires ADMIN role.
+     */
+    @GetMapping(value = "/ai/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public SseEmitter streamJob(@PathVariable Long jobId) {
+        return eventStream.subscribe(jobId);
+    }
+
+    /**
+     * Load of the pipeline stages (Claude calls, tectonic compiles): running and
+     * queued steps, rejections and mean wait/run time since startup.
+     * Requires ADMIN role.
+     */
+    @GetMapping("/ai/pipeline")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<AiPipelineStageStats>> getPipelineStats() {
+        return ResponseEntity.ok(materialAiUseCase.getPipelineStats());
+    }
 }
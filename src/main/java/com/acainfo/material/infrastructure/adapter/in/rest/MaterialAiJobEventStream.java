@@ -0,0 +1,195 @@
+package com.acainfo.material.infrastructure.adapter.in.rest;
+
+import com.acainfo.material.application.port.in.MaterialAiUseCase;
+import com.acainfo.material.domain.event.MaterialAiJobChangedEvent;
+import com.acainfo.material.domain.model.MaterialAiJobStatus;
+import com.acainfo.material.infrastructure.adapter.in.rest.dto.MaterialAiJobResponse;
+import com.acainfo.material.infrastructure.adapter.in.rest.mapper.MaterialAiRestMapper;
+import com.acainfo.shared.infrastructure.config.AnthropicProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events streams of AI job state, replacing client polling.
+ *
+ * <p>A stream gets the job as it is when it opens and then one "job" event per
+ * {@link MaterialAiJobChangedEvent}; it closes itself once the job is COMPLETED or
+ * FAILED. Between changes nothing is read: the job is only loaded when it
+ * changes, once for all of its streams.</p>
+ *
+ * <p>Jobs may run on another instance, whose events never reach this one: the
+ * heartbeat re-reads each watched job and pushes it when it changed, and sends a
+ * keep-alive comment otherwise. Streams are bounded
+ * ({@code app.anthropic.events.max-subscribers}) and expire after
+ * {@code app.anthropic.events.timeout-minutes}.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MaterialAiJobEventStream {
+
+    static final String EVENT_NAME = "job";
+
+    private final MaterialAiUseCase materialAiUseCase;
+    private final MaterialAiRestMapper mapper;
+    private final AnthropicProperties properties;
+
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Long, MaterialAiJobResponse> lastSent = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+
+    /**
+     * Open a stream on a job.
+     *
+     * @throws com.acainfo.material.domain.exception.MaterialAiJobNotFoundException if not found
+     */
+    public SseEmitter subscribe(Long jobId) {
+        MaterialAiJobResponse current = mapper.toResponse(materialAiUseCase.getJob(jobId));
+        AnthropicProperties.Events config = properties.getEvents();
+        SseEmitter emitter = new SseEmitter(Duration.ofMinutes(config.getTimeoutMinutes()).toMillis());
+
+        if (isFinished(current.status())) {
+            send(emitter, current);
+            emitter.complete();
+            return emitter;
+        }
+        if (open.incrementAndGet() > config.getMaxSubscribers()) {
+            open.decrementAndGet();
+            log.warn("Streams de jobs de IA al máximo ({}): el job {} se sirve sin suscripción",
+                    config.getMaxSubscribers(), jobId);
+            // The client gets the state now and reconnects later: slow polling, never an error
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(EVENT_NAME)
+                        .reconnectTime(Duration.ofSeconds(config.getRetrySeconds()).toMillis())
+                        .data(current, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            return emitter;
+        }
+
+        subscribers.computeIfAbsent(jobId, id -> new CopyOnWriteArraySet<>()).add(emitter);
+        emitter.onCompletion(() -> unsubscribe(jobId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(jobId, emitter));
+        lastSent.putIfAbsent(jobId, current);
+        send(emitter, current);
+        return emitter;
+    }
+
+    /**
+     * Push a changed job to its streams, if it has any. Runs on "aiJobEventExecutor",
+     * off the pipeline thread that published the change.
+     */
+    @Async("aiJobEventExecutor")
+    @EventListener
+    public void onJobChanged(MaterialAiJobChangedEvent event) {
+        if (!subscribers.containsKey(event.jobId())) {
+            return;
+        }
+        try {
+            MaterialAiJobResponse current = read(event.jobId());
+            if (current != null) {
+                broadcast(event.jobId(), current);
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudo avisar a los streams del job de IA {}: {}", event.jobId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Keep idle streams open through proxies, and catch up on jobs running on
+     * other instances.
+     */
+    @Scheduled(fixedDelayString = "${app.anthropic.events.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Long jobId : subscribers.keySet()) {
+            MaterialAiJobResponse current = read(jobId);
+            if (current != null && !current.equals(lastSent.get(jobId))) {
+                broadcast(jobId, current);
+                continue;
+            }
+            for (SseEmitter emitter : subscribers.getOrDefault(jobId, Set.of())) {
+                try {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Open streams on this instance.
+     */
+    public int openStreams() {
+        return open.get();
+    }
+
+    private void broadcast(Long jobId, MaterialAiJobResponse current) {
+        lastSent.put(jobId, current);
+        boolean finished = isFinished(current.status());
+        for (SseEmitter emitter : subscribers.getOrDefault(jobId, Set.of())) {
+            if (send(emitter, current) && finished) {
+                emitter.complete();
+            }
+        }
+        if (finished) {
+            // complete() only unsubscribes once the container dispatches it
+            subscribers.getOrDefault(jobId, Set.of()).forEach(emitter -> unsubscribe(jobId, emitter));
+        }
+    }
+
+    private MaterialAiJobResponse read(Long jobId) {
+        try {
+            return mapper.toResponse(materialAiUseCase.getJob(jobId));
+        } catch (RuntimeException e) {
+            log.warn("No se pudo leer el job de IA {} para sus streams: {}", jobId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, MaterialAiJobResponse job) {
+        try {
+            emitter.send(SseEmitter.event().name(EVENT_NAME).data(job, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client gone or stream already closed
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void unsubscribe(Long jobId, SseEmitter emitter) {
+        subscribers.computeIfPresent(jobId, (id, emitters) -> {
+            if (emitters.remove(emitter)) {
+                open.decrementAndGet();
+            }
+            if (emitters.isEmpty()) {
+                lastSent.remove(id);
+                return null;
+            }
+            return emitters;
+        });
+    }
+
+    private static boolean isFinished(MaterialAiJobStatus status) {
+        return status == MaterialAiJobStatus.COMPLETED || status == MaterialAiJobStatus.FAILED;
+    }
+}
@@ -1,18 +1,30 @@
 package com.acainfo.material.infrastructure.adapter.in.rest;
 
+import com.acainfo.material.application.dto.ColdTierResult;
+import com.acainfo.material.application.dto.MaterialArchive;
 import com.acainfo.material.application.dto.MaterialDownload;
 import com.acainfo.material.application.dto.MaterialFilters;
+import com.acainfo.material.application.dto.MaterialUsageReport;
+import com.acainfo.material.application.dto.StorageDedupeResult;
 import com.acainfo.material.application.dto.UpdateMaterialCommand;
 import com.acainfo.material.application.dto.UploadMaterialCommand;
+import com.acainfo.material.application.port.in.ArchivePastYearMaterialsUseCase;
+import com.acainfo.material.application.port.in.DeduplicateStorageUseCase;
 import com.acainfo.material.application.port.in.DeleteMaterialUseCase;
+import com.acainfo.material.application.port.in.DownloadMaterialArchiveUseCase;
 import com.acainfo.material.application.port.in.DownloadMaterialUseCase;
+import com.acainfo.material.application.port.in.GenerateThumbnailsUseCase;
+import com.acainfo.material.application.port.in.GetMaterialThumbnailUseCase;
+import com.acainfo.material.application.port.in.GetMaterialUsageUseCase;
 import com.acainfo.material.application.port.in.GetMaterialUseCase;
 import com.acainfo.material.application.port.in.PreviewMaterialUseCase;
+import com.acainfo.material.application.port.in.RecordMaterialUsageUseCase;
 import com.acainfo.material.application.port.in.UpdateMaterialUseCase;
 import com.acainfo.material.application.port.in.UploadMaterialUseCase;
 import com.acainfo.material.domain.exception.MaterialNotFoundException;
 import com.acainfo.material.domain.model.AcademicYear;
 import com.acainfo.material.domain.model.Material;
+import com.acainfo.material.domain.model.MaterialUsageType;
 import com.acainfo.material.infrastructure.adapter.in.rest.dto.BatchDownloadDisabledRequest;
 import com.acainfo.material.infrastructure.adapter.in.rest.dto.BatchUpdateResponse;
 import com.acainfo.material.infrastructure.adapter.in.rest.dto.BatchVisibilityRequest;
@@ -22,10 +34,11 @@ import com.acainfo.material.infrastructure.adapter.in.rest.dto.UploadMaterialReq
 import com.acainfo.material.infrastructure.adapter.in.rest.mapper.MaterialRestMapper;
 import com.acainfo.security.userdetails.CustomUserDetails;
 import com.acainfo.shared.application.dto.PageResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -33,10 +46,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -52,10 +68,17 @@ public class MaterialController {
 
     private final UploadMaterialUseCase uploadMaterialUseCase;
     private final DownloadMaterialUseCase downloadMaterialUseCase;
+    private final DownloadMaterialArchiveUseCase downloadMaterialArchiveUseCase;
     private final PreviewMaterialUseCase previewMaterialUseCase;
+    private final GetMaterialThumbnailUseCase getMaterialThumbnailUseCase;
+    private final GenerateThumbnailsUseCase generateThumbnailsUseCase;
     private final DeleteMaterialUseCase deleteMaterialUseCase;
     private final GetMaterialUseCase getMaterialUseCase;
     private final UpdateMaterialUseCase updateMaterialUseCase;
+    private final DeduplicateStorageUseCase deduplicateStorageUseCase;
+    private final ArchivePastYearMaterialsUseCase archivePastYearMaterialsUseCase;
+    private final RecordMaterialUsageUseCase recordMaterialUsageUseCase;
+    private final GetMaterialUsageUseCase getMaterialUsageUseCase;
     private final MaterialRestMapper mapper;
     private final MaterialResponseEnricher materialResponseEnricher;
     private final Clock clock;
@@ -111,45 +134,94 @@ public class MaterialController {
      * Download material content.
      * Requires proper access (admin/teacher or student with enrollment + payments ok)
      * AND that the material does not have downloads disabled by an admin.
+     * With S3 storage the response is a 302 to a short-lived presigned URL.
      */
     @GetMapping("/{id}/download")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Resource> download(
             @PathVariable Long id,
-            @AuthenticationPrincipal CustomUserDetails userDetails
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            HttpServletRequest request
     ) {
         Long userId = userDetails.getUserId();
         MaterialDownload download = downloadMaterialUseCase.download(id, userId);
+        if (!isNotModified(download, request)) {
+            recordUsage(id, MaterialUsageType.DOWNLOAD, range, userDetails);
+        }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(download.mimeType()))
-                .contentLength(download.fileSize())
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + download.filename() + "\"")
-                .body(new InputStreamResource(download.content()));
+        return fileResponse(download, "attachment");
     }
 
     /**
      * Stream material content for in-browser visualization.
      * Same access rules as download EXCEPT it does not enforce {@code downloadDisabled}:
      * a material whose download is disabled can still be opened in the in-app viewer.
-     * Returns the content with {@code Content-Disposition: inline}.
+     * Returns the content with {@code Content-Disposition: inline}; supports {@code Range}
+     * so the viewer can fetch only the pages it seeks to.
      */
     @GetMapping("/{id}/preview")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Resource> preview(
             @PathVariable Long id,
-            @AuthenticationPrincipal CustomUserDetails userDetails
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            HttpServletRequest request
     ) {
         Long userId = userDetails.getUserId();
         MaterialDownload download = previewMaterialUseCase.preview(id, userId);
+        if (!isNotModified(download, request)) {
+            recordUsage(id, MaterialUsageType.PREVIEW, range, userDetails);
+        }
 
+        return fileResponse(download, "inline");
+    }
+
+    /**
+     * First-page thumbnail (PNG) of a PDF material; 404 until it has been generated.
+     * Same access rules as preview. A material's content never changes, so the
+     * thumbnail is cached by the browser for a year without revalidation
+     * ({@code private}: access depends on the caller).
+     */
+    @GetMapping("/{id}/thumbnail")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Resource> thumbnail(
+            @PathVariable Long id,
+            @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        MaterialDownload thumbnail = getMaterialThumbnailUseCase.thumbnail(id, userDetails.getUserId());
         return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(download.mimeType()))
-                .contentLength(download.fileSize())
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "inline; filename=\"" + download.filename() + "\"")
-                .body(new InputStreamResource(download.content()));
+                .contentType(MediaType.IMAGE_PNG)
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                .eTag(thumbnail.etag())
+                .body(thumbnail.content());
+    }
+
+    /**
+     * Download every material of a folder as one ZIP.
+     * Access is checked once for the whole folder; students get the materials they
+     * could download one by one. The ZIP is streamed as it is built.
+     */
+    @GetMapping("/folders/{id}/zip")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> downloadFolderZip(
+            @PathVariable Long id,
+            @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        return zipResponse(downloadMaterialArchiveUseCase.prepareFolderArchive(id, userDetails.getUserId()));
+    }
+
+    /**
+     * Download every material of a subject as one ZIP, one directory per folder.
+     * Same access rules as the folder ZIP.
+     */
+    @GetMapping("/subject/{subjectId}/zip")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> downloadSubjectZip(
+            @PathVariable Long subjectId,
+            @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        return zipResponse(downloadMaterialArchiveUseCase.prepareSubjectArchive(subjectId, userDetails.getUserId()));
     }
 
     /**
@@ -165,7 +237,9 @@ public class MaterialController {
 
     /**
      * List materials with filters.
-     * Requires authentication. Non-admin/teacher users only see visible materials.
+     * Requires authentication. Non-admin/teacher users only see visible materials
+     * of the current academic year; the rule is part of the query, so page
+     * sizes and totals are exact.
      */
     @GetMapping
     @PreAuthorize("isAuthenticated()")
@@ -183,15 +257,45 @@ public class MaterialController {
     ) {
         MaterialFilters filters = new MaterialFilters(
                 subjectId, uploadedById, fileExtension, searchTerm, academicYear,
-                page, size, sortBy, sortDirection
+                visibleYearForCaller(userDetails), page, size, sortBy, sortDirection
         );
 
-        PageResponse<Material> result = getMaterialUseCase.findWithFilters(filters);
-        List<Material> visibleForCaller = filterVisibleForCaller(result.content(), userDetails);
-        List<MaterialResponse> content = materialResponseEnricher.enrichList(visibleForCaller);
+        return ResponseEntity.ok(enrichPage(getMaterialUseCase.findWithFilters(filters)));
+    }
+
+    /**
+     * Get materials for a subject, paginated (newest first).
+     * Requires authentication. Non-admin/teacher users only see visible materials
+     * of the current academic year.
+     */
+    @GetMapping("/subject/{subjectId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<PageResponse<MaterialResponse>> getBySubjectId(
+            @PathVariable Long subjectId,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size,
+            @AuthenticationPrincipal CustomUserDetails userDetails
+    ) {
+        PageResponse<Material> result = getMaterialUseCase.getBySubjectId(
+                subjectId, visibleYearForCaller(userDetails), page, size);
+        return ResponseEntity.ok(enrichPage(result));
+    }
+
+    /**
+     * Visibility rule for list queries: non-admin/non-teacher users only see visible
+     * materials of the current academic year. Admin and teacher see everything
+     * (so they can manage), expressed as null.
+     */
+    private Integer visibleYearForCaller(CustomUserDetails userDetails) {
+        if (userDetails == null || isAdminOrTeacher(userDetails)) {
+            return null;
+        }
+        return AcademicYear.current(clock);
+    }
 
-        return ResponseEntity.ok(new PageResponse<>(
-                content,
+    private PageResponse<MaterialResponse> enrichPage(PageResponse<Material> result) {
+        return new PageResponse<>(
+                materialResponseEnricher.enrichList(result.content()),
                 result.page(),
                 result.size(),
                 result.totalElements(),
@@ -199,36 +303,34 @@ public class MaterialController {
                 result.first(),
                 result.last(),
                 result.empty()
-        ));
+        );
     }
 
     /**
-     * Get materials for a subject.
-     * Requires authentication. Non-admin/teacher users only see visible materials.
+     * Count a student access. The viewer fetches a PDF in many Range requests, so only
+     * the one starting at byte 0 (or a plain GET) counts; admin/teacher accesses are
+     * not usage.
      */
-    @GetMapping("/subject/{subjectId}")
-    @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<MaterialResponse>> getBySubjectId(
-            @PathVariable Long subjectId,
-            @AuthenticationPrincipal CustomUserDetails userDetails
-    ) {
-        List<Material> materials = getMaterialUseCase.getBySubjectId(subjectId);
-        List<Material> visible = filterVisibleForCaller(materials, userDetails);
-        return ResponseEntity.ok(materialResponseEnricher.enrichList(visible));
+    private void recordUsage(Long id, MaterialUsageType type, String range, CustomUserDetails userDetails) {
+        if (isAdminOrTeacher(userDetails)) {
+            return;
+        }
+        if (range == null || range.replace(" ", "").startsWith("bytes=0-")) {
+            recordMaterialUsageUseCase.record(id, type);
+        }
     }
 
     /**
-     * Hide non-visible materials and materials from past academic years
-     * from non-admin/non-teacher users.
-     * Admin and teacher always see everything (so they can manage).
+     * Whether the browser's copy is still current, so the response built next is
+     * answered 304 by Spring MVC: a revalidation is not a new access. Evaluated on a
+     * request-only wrapper, which leaves the actual response untouched.
      */
-    private List<Material> filterVisibleForCaller(List<Material> materials, CustomUserDetails userDetails) {
-        if (userDetails == null || isAdminOrTeacher(userDetails)) {
-            return materials;
+    private boolean isNotModified(MaterialDownload download, HttpServletRequest request) {
+        if (download.redirectUrl() != null) {
+            return false;
         }
-        return materials.stream()
-                .filter(m -> m.isVisible() && isCurrentAcademicYear(m))
-                .toList();
+        long lastModified = download.lastModified() == null ? -1 : download.lastModified().toEpochMilli();
+        return new ServletWebRequest(request).checkNotModified(download.etag(), lastModified);
     }
 
     private boolean isCurrentAcademicYear(Material material) {
@@ -267,10 +369,9 @@ public class MaterialController {
             @AuthenticationPrincipal CustomUserDetails userDetails
     ) {
         Long userId = userDetails.getUserId();
+        // Recent endpoint is for students -> the query only returns visible, current-year materials
         List<Material> materials = getMaterialUseCase.getRecentForStudent(userId, days);
-        // Recent endpoint is for students -> always filter hidden materials
-        List<Material> visible = filterVisibleForCaller(materials, userDetails);
-        return ResponseEntity.ok(materialResponseEnricher.enrichList(visible));
+        return ResponseEntity.ok(materialResponseEnricher.enrichList(materials));
     }
 
     /**
@@ -322,9 +423,109 @@ public class MaterialController {
         return ResponseEntity.ok(new BatchUpdateResponse(updated));
     }
 
+    /**
+     * Move legacy material files into the content-addressed store, keeping
+     * identical files once. Idempotent; safe to re-run.
+     * Synchronous: the response arrives once every legacy file has been hashed and
+     * copied, which on a large store can outlast client and proxy timeouts; the
+     * migration keeps running if the client gives up, and a re-run picks up the rest.
+     * Requires ADMIN role.
+     */
+    @PostMapping("/admin/storage/dedupe")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StorageDedupeResult> deduplicateStorage() {
+        return ResponseEntity.ok(deduplicateStorageUseCase.deduplicateLegacyFiles());
+    }
+
+    /**
+     * Run the cold-tier job now: compress the files of past-year materials into
+     * archive segments and report the disk space reclaimed. Idempotent.
+     * 409 Conflict while a run (scheduled or manual, on any instance) is in progress.
+     * Requires ADMIN role.
+     */
+    @PostMapping("/admin/storage/cold-tier")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ColdTierResult> archivePastYears() {
+        return ResponseEntity.ok(archivePastYearMaterialsUseCase.archivePastYears());
+    }
+
+    /**
+     * Usage report of a subject: materials most downloaded/previewed by students in the
+     * last {@code days} days, and current-year materials no student has ever opened.
+     * Requires ADMIN role.
+     */
+    @GetMapping("/admin/usage/subject/{subjectId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<MaterialUsageReport> getSubjectUsage(
+            @PathVariable Long subjectId,
+            @RequestParam(defaultValue = "30") Integer days,
+            @RequestParam(defaultValue = "20") Integer limit
+    ) {
+        return ResponseEntity.ok(getMaterialUsageUseCase.getSubjectUsage(subjectId, days, limit));
+    }
+
+    /**
+     * Queue thumbnail generation for every PDF material that has none yet
+     * (materials uploaded before previews existed). Returns immediately.
+     * Requires ADMIN role.
+     */
+    @PostMapping("/admin/thumbnails/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ThumbnailBackfillResponse> backfillThumbnails() {
+        return ResponseEntity.accepted().body(new ThumbnailBackfillResponse(generateThumbnailsUseCase.backfill()));
+    }
+
+    /**
+     * Build a file response that Spring MVC can answer conditionally and partially:
+     * with ETag / Last-Modified set, a matching If-None-Match / If-Modified-Since
+     * yields 304 without a body; with a seekable Resource body, a Range header yields
+     * 206 with only the requested bytes (Accept-Ranges is advertised automatically).
+     * Content-Length comes from the resource (or the range) rather than being fixed here.
+     * {@code private, no-cache} lets the browser keep the file but revalidate on every use,
+     * since access depends on the caller.
+     */
+    private ResponseEntity<Resource> fileResponse(MaterialDownload download, String disposition) {
+        if (download.redirectUrl() != null) {
+            // Presigned storage URL: the bytes bypass the application. Never cached, it expires in minutes
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .location(download.redirectUrl())
+                    .cacheControl(CacheControl.noStore())
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(download.mimeType()))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(download.etag())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        disposition + "; filename=\"" + download.filename() + "\"");
+        if (download.lastModified() != null) {
+            response.lastModified(download.lastModified());
+        }
+        return response.body(download.content());
+    }
+
+    /**
+     * Stream a prepared archive. The access check already ran (errors map to the usual
+     * status codes); the body is written after the headers, with no Content-Length.
+     */
+    private ResponseEntity<StreamingResponseBody> zipResponse(MaterialArchive archive) {
+        StreamingResponseBody body = out -> downloadMaterialArchiveUseCase.writeArchive(archive, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .cacheControl(CacheControl.noStore())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + archive.filename() + "\"")
+                .body(body);
+    }
+
     /**
      * Response DTO for can-download check.
      */
     public record CanDownloadResponse(boolean canDownload) {
     }
+
+    /**
+     * Response DTO for the thumbnail backfill.
+     */
+    public record ThumbnailBackfillResponse(int queued) {
+    }
 }
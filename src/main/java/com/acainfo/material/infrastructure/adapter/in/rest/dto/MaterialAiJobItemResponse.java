@@ -0,0 +1,14 @@
+package com.acainfo.material.infrastructure.adapter.in.rest.dto;
+
+import com.acainfo.material.domain.model.MaterialAiJobItemStatus;
+
+/**
+ * REST response DTO for one PDF of a folder transcription job.
+ */
+public record MaterialAiJobItemResponse(
+        Long sourceMaterialId,
+        MaterialAiJobItemStatus status,
+        Long resultMaterialId,
+        String errorMessage
+) {
+}
@@ -1,12 +1,14 @@
 package com.acainfo.material.infrastructure.adapter.in.rest.dto;
 
+import com.acainfo.material.domain.model.MaterialAiJobStage;
 import com.acainfo.material.domain.model.MaterialAiJobStatus;
 import com.acainfo.material.domain.model.MaterialAiJobType;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
- * REST response DTO for an AI LaTeX job (the frontend polls it).
+ * REST response DTO for an AI LaTeX job (the frontend reads it, and gets it pushed as SSE "job" events).
  */
 public record MaterialAiJobResponse(
         Long id,
@@ -16,6 +18,14 @@ public record MaterialAiJobResponse(
         MaterialAiJobStatus status,
         String errorMessage,
         Long resultMaterialId,
+        int attempts,
+        int llmCalls,
+        long llmInputTokens,
+        long llmOutputTokens,
+        long llmMillis,
+        MaterialAiJobStage progressStage,
+        long progressTokens,
+        List<MaterialAiJobItemResponse> items,
         LocalDateTime createdAt,
         LocalDateTime updatedAt
 ) {
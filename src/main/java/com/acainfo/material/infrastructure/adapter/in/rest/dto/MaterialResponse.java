@@ -22,6 +22,9 @@ public record MaterialResponse(
         boolean isDocumentFile,
         Long folderId,
         Integer academicYear,
+        // Preview (PDF only; null/false until the background stage has run)
+        Integer pageCount,
+        boolean thumbnailAvailable,
         LocalDateTime uploadedAt,
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
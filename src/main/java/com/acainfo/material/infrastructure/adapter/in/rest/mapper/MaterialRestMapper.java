@@ -24,6 +24,7 @@ public interface MaterialRestMapper {
     @Mapping(target = "fileSizeFormatted", expression = "java(material.getFileSizeFormatted())")
     @Mapping(target = "isCodeFile", expression = "java(material.isCodeFile())")
     @Mapping(target = "isDocumentFile", expression = "java(material.isDocumentFile())")
+    @Mapping(target = "thumbnailAvailable", expression = "java(material.getThumbnailPath() != null)")
     MaterialResponse toResponse(Material material);
 
     /**
@@ -49,6 +50,7 @@ public interface MaterialRestMapper {
     @Mapping(target = "fileSize", source = "material.fileSize")
     @Mapping(target = "folderId", source = "material.folderId")
     @Mapping(target = "academicYear", source = "material.academicYear")
+    @Mapping(target = "pageCount", source = "material.pageCount")
     @Mapping(target = "uploadedAt", source = "material.uploadedAt")
     @Mapping(target = "createdAt", source = "material.createdAt")
     @Mapping(target = "updatedAt", source = "material.updatedAt")
@@ -59,6 +61,7 @@ public interface MaterialRestMapper {
     @Mapping(target = "fileSizeFormatted", expression = "java(material.getFileSizeFormatted())")
     @Mapping(target = "isCodeFile", expression = "java(material.isCodeFile())")
     @Mapping(target = "isDocumentFile", expression = "java(material.isDocumentFile())")
+    @Mapping(target = "thumbnailAvailable", expression = "java(material.getThumbnailPath() != null)")
     MaterialResponse toEnrichedResponse(
             Material material,
             String subjectName,
@@ -0,0 +1,251 @@
+package com.acainfo.material.infrastructure.adapter.out.image;
+
+import com.acainfo.material.application.dto.NormalizedCapture;
+import com.acainfo.material.application.port.out.CaptureNormalizerPort;
+import com.acainfo.shared.infrastructure.config.AnthropicProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+/**
+ * CaptureNormalizerPort adapter over javax.imageio.
+ *
+ * <p>JPEG and PNG captures are decoded (subsampled while reading when they are
+ * far larger than needed, so a phone photo never costs its full decoded size),
+ * scaled down in halving steps to {@code app.anthropic.captures.max-edge-px} so
+ * thin strokes survive, turned upright following their EXIF orientation and
+ * re-encoded: photos as JPEG at {@code jpeg-quality}, PNG screenshots losslessly.
+ * Anything ImageIO cannot read (WebP, CMYK JPEG...) is passed through as is.</p>
+ */
+@Slf4j
+@Component
+public class ImageIoCaptureNormalizer implements CaptureNormalizerPort {
+
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    private final AnthropicProperties properties;
+
+    public ImageIoCaptureNormalizer(AnthropicProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public NormalizedCapture normalize(Path source, String mimeType, Path target) {
+        long originalBytes;
+        try {
+            originalBytes = Files.size(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la captura", e);
+        }
+        NormalizedCapture original = new NormalizedCapture(source, mimeType, originalBytes, originalBytes);
+        boolean jpeg = "image/jpeg".equals(mimeType);
+        if (!jpeg && !"image/png".equals(mimeType)) {
+            return original;
+        }
+
+        try {
+            int orientation = jpeg ? exifOrientation(source) : 1;
+            AnthropicProperties.Captures config = properties.getCaptures();
+            BufferedImage image = read(source, config.getMaxEdgePx());
+            if (image == null) {
+                return original;
+            }
+            boolean resized = Math.max(image.getWidth(), image.getHeight()) > config.getMaxEdgePx();
+            if (resized) {
+                image = scaleDown(image, config.getMaxEdgePx());
+            }
+            if (orientation != 1) {
+                image = orient(image, orientation);
+            }
+
+            if (jpeg) {
+                writeJpeg(image, target, config.getJpegQuality());
+            } else {
+                ImageIO.write(image, "png", target.toFile());
+            }
+            long normalizedBytes = Files.size(target);
+            // Upright matters more than size; otherwise keep whichever is smaller
+            if (orientation == 1 && !resized && normalizedBytes >= originalBytes) {
+                return original;
+            }
+            return new NormalizedCapture(target, mimeType, originalBytes, normalizedBytes);
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo normalizar la captura ({}), se envía tal cual: {}", mimeType, e.getMessage());
+            return original;
+        }
+    }
+
+    /**
+     * Decode, subsampling by the largest power of two that keeps the image at
+     * least twice {@code maxEdge}: nearest-neighbour subsampling is only safe
+     * with that margin left for the smooth scaling afterwards.
+     */
+    private static BufferedImage read(Path source, int maxEdge) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int longEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = 1;
+                while (longEdge / (subsampling * 2) >= maxEdge * 2) {
+                    subsampling *= 2;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Bicubic halving steps down to {@code maxEdge}: a single large step would
+     * skip pixels and break thin pen strokes.
+     */
+    static BufferedImage scaleDown(BufferedImage image, int maxEdge) {
+        double finalScale = (double) maxEdge / Math.max(image.getWidth(), image.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * finalScale));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * finalScale));
+        BufferedImage current = image;
+        do {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            current = draw(current, width, height, new AffineTransform(
+                    (double) width / current.getWidth(), 0, 0, (double) height / current.getHeight(), 0, 0));
+        } while (current.getWidth() > targetWidth || current.getHeight() > targetHeight);
+        return current;
+    }
+
+    /**
+     * Apply an EXIF orientation (2-8): the transform that makes the stored
+     * pixels display upright.
+     */
+    static BufferedImage orient(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean swapsAxes = orientation >= 5;
+        return draw(image, swapsAxes ? h : w, swapsAxes ? w : h, transform);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, AffineTransform transform) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage result = new BufferedImage(width, height, type);
+        Graphics2D g = result.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return result;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(Files.newOutputStream(target))) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Orientation tag (1-8) of a JPEG's EXIF block; 1 (upright) when there is
+     * none. Only the markers before the image data are read.
+     */
+    static int exifOrientation(Path jpeg) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(jpeg))) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    return 1;
+                }
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return 1;
+                }
+                byte[] segment = in.readNBytes(length);
+                if (segment.length < length) {
+                    return 1;
+                }
+                if (marker == 0xFFE1 && segment.length > 14
+                        && new String(segment, 0, 6, StandardCharsets.ISO_8859_1).equals("Exif\0\0")) {
+                    return orientationFromTiff(ByteBuffer.wrap(segment, 6, segment.length - 6).slice());
+                }
+            }
+        } catch (EOFException e) {
+            return 1;
+        }
+    }
+
+    private static int orientationFromTiff(ByteBuffer tiff) {
+        if (tiff.remaining() < 8) {
+            return 1;
+        }
+        tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiff.getInt(4);
+        if (ifd < 8 || ifd + 2 > tiff.limit()) {
+            return 1;
+        }
+        int entries = Short.toUnsignedInt(tiff.getShort(ifd));
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) {
+                return 1;
+            }
+            if (Short.toUnsignedInt(tiff.getShort(entry)) == EXIF_ORIENTATION_TAG) {
+                int value = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+}
@@ -6,6 +6,9 @@ import com.acainfo.material.domain.exception.LatexCompilationException;
 import com.acainfo.shared.infrastructure.config.AnthropicProperties;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -13,7 +16,14 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -25,6 +35,13 @@ import java.util.stream.Stream;
  * <p>Depends on tectonic-only flags and error format ("error: doc.tex:line: msg"):
  * do NOT swap it for MiKTeX/xelatex. {@code --untrusted} because the .tex is
  * written by an LLM. Each compilation runs in a fresh temp dir, always removed.</p>
+ *
+ * <p>Packages and fonts come from tectonic's bundle cache, pointed at
+ * {@code app.anthropic.tectonic.cache-dir} so it survives restarts (and can be
+ * pre-seeded on offline machines), and warmed by one compile at startup. Results
+ * are kept in a small LRU keyed by the SHA-256 of the source: the fix loop and
+ * retried jobs never compile the same document twice. Only successes and failures
+ * with errors in the document are kept.</p>
  */
 @Slf4j
 @Component
@@ -34,10 +51,84 @@ public class TectonicCompilerAdapter implements LatexCompilerPort {
     private static final String TEX_FILENAME = "doc.tex";
     private static final String PDF_FILENAME = "doc.pdf";
 
+    /**
+     * Loads every package the prompts allow (see AnthropicLatexAdapter.PROMPT_BASE)
+     * plus math fonts, so the warm-up pulls into the cache all a real document needs.
+     */
+    static final String WARM_UP_TEX = """
+            \\documentclass[11pt]{article}
+            \\usepackage{amsmath,amssymb,amsthm}
+            \\usepackage[margin=2.5cm]{geometry}
+            \\usepackage{graphicx}
+            \\usepackage{enumitem}
+            \\newtheorem{ejercicio}{Ejercicio}
+            \\title{Calentamiento}
+            \\begin{document}
+            \\maketitle
+            \\begin{ejercicio}
+            Calcula $\\displaystyle\\int_0^{\\infty} e^{-x^2}\\,dx$ y justifica que $\\mathbb{R}$ es completo.
+            \\end{ejercicio}
+            \\begin{enumerate}[label=\\alph*)]
+              \\item $\\sum_{n\\geq 1} \\frac{1}{n^2} = \\frac{\\pi^2}{6}$
+            \\end{enumerate}
+            \\end{document}
+            """;
+
     private final AnthropicProperties properties;
 
+    private final Map<String, LatexCompilationResult> results = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LatexCompilationResult> eldest) {
+            return size() > properties.getTectonic().getCompileCacheEntries();
+        }
+    };
+
+    /**
+     * Compile the warm-up document once the app is up, off the startup thread: the
+     * first real job then finds the bundle cached instead of resolving it cold.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!properties.getTectonic().isWarmUp()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            Compilation compilation = run(WARM_UP_TEX);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            if (compilation.result().success()) {
+                log.info("tectonic listo: documento de calentamiento compilado en {} ms", millis);
+            } else {
+                log.warn("El documento de calentamiento de tectonic no compila: {}", compilation.result().errors());
+            }
+        } catch (LatexCompilationException e) {
+            log.warn("No se pudo calentar tectonic: {}", e.getMessage());
+        }
+    }
+
     @Override
     public LatexCompilationResult compile(String texSource) {
+        String key = sha256(texSource);
+        synchronized (results) {
+            LatexCompilationResult cached = results.get(key);
+            if (cached != null) {
+                log.debug("tectonic: fuente ya compilado ({}), resultado reutilizado", key);
+                return cached;
+            }
+        }
+
+        // Compiled outside the lock: concurrent misses for the same source just compile twice
+        Compilation compilation = run(texSource);
+        if (compilation.deterministic()) {
+            synchronized (results) {
+                results.put(key, compilation.result());
+            }
+        }
+        return compilation.result();
+    }
+
+    private Compilation run(String texSource) {
         Path workDir;
         try {
             workDir = Files.createTempDirectory("acainfo-tex-");
@@ -48,12 +139,23 @@ public class TectonicCompilerAdapter implements LatexCompilerPort {
         try {
             Files.writeString(workDir.resolve(TEX_FILENAME), texSource, StandardCharsets.UTF_8);
 
-            ProcessBuilder pb = new ProcessBuilder(
-                    properties.getTectonic().getBinaryPath(),
+            AnthropicProperties.Tectonic tectonic = properties.getTectonic();
+            List<String> command = new ArrayList<>(List.of(
+                    tectonic.getBinaryPath(),
                     "--untrusted",
-                    "--chatter", "minimal",
+                    "--chatter", "minimal"));
+            if (tectonic.isOnlyCached()) {
+                // Offline machines: resolve everything from the pre-seeded cache, never the network
+                command.add("--only-cached");
+            }
+            command.addAll(List.of(
                     "--outdir", workDir.toString(),
-                    workDir.resolve(TEX_FILENAME).toString());
+                    workDir.resolve(TEX_FILENAME).toString()));
+            ProcessBuilder pb = new ProcessBuilder(command);
+            if (!tectonic.getCacheDir().isBlank()) {
+                Files.createDirectories(Path.of(tectonic.getCacheDir()));
+                pb.environment().put("TECTONIC_CACHE_DIR", tectonic.getCacheDir());
+            }
             pb.redirectErrorStream(true);
 
             Process process = pb.start();
@@ -71,8 +173,9 @@ public class TectonicCompilerAdapter implements LatexCompilerPort {
             if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
                 process.destroyForcibly();
                 log.warn("tectonic superó el timeout de {}s; proceso destruido", timeoutSeconds);
-                return LatexCompilationResult.failure(
-                        "La compilación superó el tiempo máximo (" + timeoutSeconds + "s)");
+                // Not cached: a timeout may be load, not the source
+                return new Compilation(LatexCompilationResult.failure(
+                        "La compilación superó el tiempo máximo (" + timeoutSeconds + "s)"), false);
             }
 
             String output = outputFuture.get(5, TimeUnit.SECONDS);
@@ -80,12 +183,14 @@ public class TectonicCompilerAdapter implements LatexCompilerPort {
             if (process.exitValue() == 0) {
                 byte[] pdf = Files.readAllBytes(workDir.resolve(PDF_FILENAME));
                 log.debug("tectonic OK: PDF de {} bytes", pdf.length);
-                return LatexCompilationResult.ok(pdf);
+                return new Compilation(LatexCompilationResult.ok(pdf), true);
             }
 
             String errors = extractErrorLines(output);
             log.info("tectonic falló (exit={}): {}", process.exitValue(), errors);
-            return LatexCompilationResult.failure(errors);
+            // Only errors in the source are cached: a bundle download failing, an unseeded
+            // --only-cached cache or a full disk may pass on the next run
+            return new Compilation(LatexCompilationResult.failure(errors), hasSourceErrors(output));
 
         } catch (IOException e) {
             throw new LatexCompilationException(
@@ -100,6 +205,23 @@ public class TectonicCompilerAdapter implements LatexCompilerPort {
         }
     }
 
+    static String sha256(String texSource) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(texSource.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Whether tectonic reported errors located in the document ("error: doc.tex:12: ..."),
+     * which depend only on the source.
+     */
+    static boolean hasSourceErrors(String output) {
+        return Stream.of(output.split("\n")).anyMatch(line -> line.startsWith("error: " + TEX_FILENAME + ":"));
+    }
+
     /**
      * Tectonic emits parseable lines "error: doc.tex:12: Undefined control sequence".
      * If none match (unexpected format), fall back to the output tail.
@@ -128,4 +250,12 @@ public class TectonicCompilerAdapter implements LatexCompilerPort {
             log.warn("No se pudo limpiar el directorio de compilación {}", dir);
         }
     }
+
+    /**
+     * @param deterministic false when the outcome does not depend only on the source
+     *                      (timeout, failure without errors in doc.tex), so it must not
+     *                      be cached
+     */
+    private record Compilation(LatexCompilationResult result, boolean deterministic) {
+    }
 }
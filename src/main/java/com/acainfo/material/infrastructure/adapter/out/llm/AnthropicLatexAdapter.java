@@ -2,6 +2,11 @@ package com.acainfo.material.infrastructure.adapter.out.llm;
 
 import com.anthropic.client.AnthropicClient;
 import com.anthropic.client.okhttp.AnthropicOkHttpClient;
+import com.anthropic.core.Timeout;
+import com.anthropic.core.http.StreamResponse;
+import com.anthropic.errors.AnthropicIoException;
+import com.anthropic.errors.AnthropicServiceException;
+import com.anthropic.helpers.MessageAccumulator;
 import com.anthropic.models.messages.Base64ImageSource;
 import com.anthropic.models.messages.Base64PdfSource;
 import com.anthropic.models.messages.ContentBlockParam;
@@ -9,31 +14,69 @@ import com.anthropic.models.messages.DocumentBlockParam;
 import com.anthropic.models.messages.ImageBlockParam;
 import com.anthropic.models.messages.Message;
 import com.anthropic.models.messages.MessageCreateParams;
+import com.anthropic.models.messages.RawContentBlockDelta;
+import com.anthropic.models.messages.RawMessageStreamEvent;
 import com.anthropic.models.messages.StopReason;
 import com.anthropic.models.messages.TextBlockParam;
 import com.anthropic.models.messages.ThinkingConfigAdaptive;
+import com.anthropic.models.messages.Usage;
+import com.anthropic.models.messages.batches.BatchCreateParams;
+import com.anthropic.models.messages.batches.MessageBatch;
+import com.anthropic.models.messages.batches.MessageBatchIndividualResponse;
+import com.anthropic.models.messages.batches.MessageBatchResult;
 import com.acainfo.material.application.dto.AiImageInput;
+import com.acainfo.material.application.dto.LlmBatchDocument;
+import com.acainfo.material.application.dto.LlmBatchResult;
+import com.acainfo.material.application.dto.LlmLatexReply;
+import com.acainfo.material.application.dto.LlmUsage;
+import com.acainfo.material.application.port.out.LlmLatexBatchPort;
 import com.acainfo.material.application.port.out.LlmLatexPort;
+import com.acainfo.material.domain.exception.LlmOutputTruncatedException;
+import com.acainfo.material.domain.exception.LlmUnavailableException;
 import com.acainfo.shared.infrastructure.config.AnthropicProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
- * LlmLatexPort adapter over the official Anthropic Java SDK.
+ * LlmLatexPort and LlmLatexBatchPort adapter over the official Anthropic Java SDK.
  *
- * <p>System prompts are FIXED per mode (cacheable) and built by COMPOSITION
- * (shared core + mode block + empty subject-context slot): evolving to
- * per-(subject, functionality) templates later is additive, not a rewrite.</p>
+ * <p>System prompts are FIXED per mode and built by COMPOSITION (shared core +
+ * mode block + empty subject-context slot): evolving to per-(subject,
+ * functionality) templates later is additive, not a rewrite. Request-specific
+ * values go in the user message.</p>
+ *
+ * <p>No request sets a prompt-cache breakpoint. The only prefix every request of a
+ * mode shares is its system prompt, a few hundred tokens, below the minimum the API
+ * caches; everything after it (captures, PDF pages, the source a fix sends) changes
+ * from one request to the next, so a longer breakpoint would pay the cache write
+ * premium and never be read back.</p>
+ *
+ * <p>Responses are streamed: progress is reported as the text arrives, and a
+ * request is abandoned when the stream stalls
+ * ({@code app.anthropic.stall-timeout-seconds}) rather than after a fixed time
+ * that a long document could legitimately exceed.</p>
+ *
+ * <p>Folder transcriptions go through the Message Batches API instead: same
+ * prompts, one request per PDF or page range, results read once the batch has ended.</p>
  */
 @Slf4j
 @Component
-public class AnthropicLatexAdapter implements LlmLatexPort {
+public class AnthropicLatexAdapter implements LlmLatexPort, LlmLatexBatchPort {
 
     /**
      * Shared core: compilable LaTeX only, XeTeX/tectonic (NO inputenc/fontenc),
@@ -59,10 +102,10 @@ public class AnthropicLatexAdapter implements LlmLatexPort {
 
     static final String PROMPT_GENERATE = """
             Tarea: en las imágenes adjuntas hay enunciados de ejercicios trabajados hoy en clase. \
-            Crea %d ejercicio(s) NUEVO(s) de repaso del mismo tipo y dificultad similar (no copies \
-            los originales), cada uno con su solución completa razonada paso a paso; acompaña los \
-            cálculos con un comentario breve del procedimiento ("multiplicando por el factor \
-            integrante...", "deshaciendo el cambio...").
+            Crea los ejercicios NUEVOS de repaso que se te pidan, del mismo tipo y dificultad \
+            similar (no copies los originales), cada uno con su solución completa razonada paso \
+            a paso; acompaña los cálculos con un comentario breve del procedimiento \
+            ("multiplicando por el factor integrante...", "deshaciendo el cambio...").
             Estructura del documento: \\title{<tema corto, máximo 6 palabras>} y \\maketitle al \
             principio; después, cada ejercicio numerado con su enunciado y a continuación su solución.
             El \\title es OBLIGATORIO y debe describir el tema (p. ej. \\title{Ecuaciones diferenciales exactas}).
@@ -82,6 +125,20 @@ public class AnthropicLatexAdapter implements LlmLatexPort {
             imprescindible y sin alterar el contenido. Devuelve el documento corregido COMPLETO.
             """;
 
+    static final String PROMPT_FIX_EXCERPT = """
+            Tarea: un documento LaTeX NO compila con tectonic (XeTeX). Te paso solo el fragmento \
+            de líneas donde están los errores y las líneas de error del compilador (numeradas \
+            sobre el documento completo). Corrígelo cambiando lo MÍNIMO imprescindible y sin \
+            alterar el contenido. En este caso NO devuelvas un documento completo: devuelve \
+            EXCLUSIVAMENTE las líneas del fragmento corregidas, sin \\documentclass ni preámbulo.
+            """;
+
+    /** Rough characters per output token, to estimate progress while streaming. */
+    static final int CHARS_PER_TOKEN = 4;
+
+    /** Read size when encoding captures and batch PDFs; a multiple of 3 (see {@link #base64(Path)}). */
+    private static final int ENCODE_CHUNK_BYTES = 48 * 1024;
+
     private final AnthropicProperties properties;
     private volatile AnthropicClient client;
 
@@ -90,75 +147,273 @@ public class AnthropicLatexAdapter implements LlmLatexPort {
     }
 
     @Override
-    public String generateExercises(List<AiImageInput> images, int exerciseCount) {
+    public LlmLatexReply generateExercises(List<AiImageInput> images, int exerciseCount, LongConsumer progress) {
         List<ContentBlockParam> blocks = new ArrayList<>();
         for (AiImageInput image : images) {
             blocks.add(ContentBlockParam.ofImage(ImageBlockParam.builder()
                     .source(Base64ImageSource.builder()
                             .mediaType(Base64ImageSource.MediaType.of(image.mimeType()))
-                            .data(Base64.getEncoder().encodeToString(image.data()))
+                            .data(base64(image.path()))
                             .build())
                     .build()));
         }
-        blocks.add(text("Genera los ejercicios de repaso a partir de estas capturas."));
+        blocks.add(text("Genera %d ejercicio(s) de repaso a partir de estas capturas.".formatted(exerciseCount)));
 
-        String system = PROMPT_BASE + PROMPT_SUBJECT_CONTEXT + PROMPT_GENERATE.formatted(exerciseCount);
-        return call(system, blocks);
+        String system = PROMPT_BASE + PROMPT_SUBJECT_CONTEXT + PROMPT_GENERATE;
+        return call(system, blocks, progress);
     }
 
     @Override
-    public String transcribeDocument(byte[] pdfBytes) {
+    public LlmLatexReply transcribeDocument(byte[] pdfBytes, LongConsumer progress) {
         List<ContentBlockParam> blocks = List.of(
-                ContentBlockParam.ofDocument(DocumentBlockParam.builder()
-                        .source(Base64PdfSource.builder()
-                                .data(Base64.getEncoder().encodeToString(pdfBytes))
-                                .build())
-                        .build()),
+                pdf(Base64.getEncoder().encodeToString(pdfBytes)),
                 text("Transcribe este documento a limpio."));
 
         String system = PROMPT_BASE + PROMPT_SUBJECT_CONTEXT + PROMPT_TRANSCRIBE;
-        return call(system, blocks);
+        return call(system, blocks, progress);
     }
 
     @Override
-    public String fixLatex(String texSource, String compilationErrors) {
+    public LlmLatexReply transcribePages(byte[] pdfBytes, int firstPage, int lastPage, int totalPages,
+                                         LongConsumer progress) {
+        // Same system prompt as a whole document; the range goes in the user message
+        List<ContentBlockParam> blocks = List.of(
+                pdf(Base64.getEncoder().encodeToString(pdfBytes)),
+                text(pagesRequest(firstPage, lastPage, totalPages)));
+
+        String system = PROMPT_BASE + PROMPT_SUBJECT_CONTEXT + PROMPT_TRANSCRIBE;
+        return call(system, blocks, progress);
+    }
+
+    private static String pagesRequest(int firstPage, int lastPage, int totalPages) {
+        return """
+                Estas son las páginas %d a %d de unos apuntes de %d páginas. Transcríbelas a \
+                limpio como documento completo; su cuerpo se unirá al de las demás páginas, así \
+                que no añadas \\title, \\maketitle ni \\tableofcontents.""".formatted(
+                firstPage, lastPage, totalPages);
+    }
+
+    @Override
+    public LlmLatexReply fixLatex(String texSource, String compilationErrors, LongConsumer progress) {
+        List<ContentBlockParam> blocks = List.of(
+                text("DOCUMENTO:\n" + texSource),
+                text("ERRORES DEL COMPILADOR:\n" + compilationErrors));
+
+        String system = PROMPT_BASE + PROMPT_FIX;
+        return call(system, blocks, progress);
+    }
+
+    @Override
+    public LlmLatexReply fixLatexExcerpt(String excerpt, int firstLine, int lastLine, String compilationErrors,
+                                         LongConsumer progress) {
         String userMessage = """
                 ERRORES DEL COMPILADOR:
                 %s
 
-                DOCUMENTO:
+                LÍNEAS %d-%d:
                 %s
-                """.formatted(compilationErrors, texSource);
+                """.formatted(compilationErrors, firstLine, lastLine, excerpt);
 
-        String system = PROMPT_BASE + PROMPT_FIX;
-        return call(system, List.of(text(userMessage)));
+        String system = PROMPT_BASE + PROMPT_FIX_EXCERPT;
+        return call(system, List.of(text(userMessage)), progress);
+    }
+
+    @Override
+    public String submitTranscriptions(List<LlmBatchDocument> documents) {
+        String system = PROMPT_BASE + PROMPT_SUBJECT_CONTEXT + PROMPT_TRANSCRIBE;
+        BatchCreateParams.Builder batch = BatchCreateParams.builder();
+        for (LlmBatchDocument document : documents) {
+            // Same requests as transcribeDocument/transcribePages
+            batch.addRequest(BatchCreateParams.Request.builder()
+                    .customId(document.customId())
+                    .params(BatchCreateParams.Request.Params.builder()
+                            .model(properties.getModel())
+                            .maxTokens(properties.getMaxTokens())
+                            .thinking(ThinkingConfigAdaptive.builder().build())
+                            .systemOfTextBlockParams(system(system))
+                            .addUserMessageOfBlockParams(List.of(
+                                    pdf(base64(document.pdf())),
+                                    text(document.isRange()
+                                            ? pagesRequest(document.firstPage(), document.lastPage(),
+                                                    document.totalPages())
+                                            : "Transcribe este documento a limpio.")))
+                            .build())
+                    .build());
+        }
+        MessageBatch created = api(() -> getClient().messages().batches().create(batch.build()));
+        log.info("Anthropic API: lote {} creado con {} transcripciones", created.id(), documents.size());
+        return created.id();
+    }
+
+    @Override
+    public boolean isEnded(String batchId) {
+        MessageBatch batch = api(() -> getClient().messages().batches().retrieve(batchId));
+        log.debug("Anthropic API: lote {} {}", batchId, batch.requestCounts());
+        return MessageBatch.ProcessingStatus.ENDED.equals(batch.processingStatus());
+    }
+
+    @Override
+    public List<LlmBatchResult> results(String batchId) {
+        return api(() -> {
+            List<LlmBatchResult> results = new ArrayList<>();
+            try (StreamResponse<MessageBatchIndividualResponse> response =
+                         getClient().messages().batches().resultsStreaming(batchId)) {
+                response.stream().forEach(entry -> results.add(resultOf(entry)));
+            }
+            return results;
+        });
+    }
+
+    /**
+     * One line of a batch's results. Batch replies are not timed one by one, so
+     * their latency is 0; a reply cut at max_tokens is a failure, as in {@link #call}.
+     */
+    private LlmBatchResult resultOf(MessageBatchIndividualResponse entry) {
+        MessageBatchResult result = entry.result();
+        Optional<Message> message = result.succeeded().map(succeeded -> succeeded.message());
+        if (message.isPresent()) {
+            try {
+                ensureNotTruncated(message.get().stopReason(), properties.getMaxTokens());
+            } catch (LlmOutputTruncatedException e) {
+                return new LlmBatchResult(entry.customId(), null, e.getMessage());
+            }
+            return new LlmBatchResult(entry.customId(),
+                    new LlmLatexReply(texOf(message.get()), usageOf(message.get().usage(), 0)), null);
+        }
+        String reason = result.errored().map(errored -> "La API devolvió un error: " + errored.error().error())
+                .or(() -> result.expired().map(expired -> "El lote caducó antes de procesar este documento"))
+                .orElse("El lote se canceló antes de procesar este documento");
+        return new LlmBatchResult(entry.customId(), null, reason);
     }
 
-    private String call(String systemPrompt, List<ContentBlockParam> userBlocks) {
+    private LlmLatexReply call(String systemPrompt, List<ContentBlockParam> userBlocks, LongConsumer progress) {
         MessageCreateParams params = MessageCreateParams.builder()
                 .model(properties.getModel())
                 .maxTokens(properties.getMaxTokens())
                 .thinking(ThinkingConfigAdaptive.builder().build())
-                .system(systemPrompt)
+                .systemOfTextBlockParams(system(systemPrompt))
                 .addUserMessageOfBlockParams(userBlocks)
                 .build();
 
         log.debug("Calling Anthropic API (model={}, maxTokens={})",
                 properties.getModel(), properties.getMaxTokens());
-        Message response = getClient().messages().create(params);
+        long start = System.nanoTime();
+        Message response = api(() -> stream(params, progress));
+        LlmUsage usage = usageOf(response.usage(), (System.nanoTime() - start) / 1_000_000);
+        log.info("Anthropic API: {} ms, tokens entrada={}, salida={}",
+                usage.latencyMillis(), usage.inputTokens(), usage.outputTokens());
         ensureNotTruncated(response.stopReason(), properties.getMaxTokens());
+        return new LlmLatexReply(texOf(response), usage);
+    }
 
-        String tex = response.content().stream()
+    /**
+     * Run an API request, reporting the errors worth retrying (network, timeout,
+     * 408/409/429, 5xx and 529 overloaded) as {@link LlmUnavailableException}.
+     * Any other API error (a 400 for a malformed request, a 401 for a bad key)
+     * would fail again the same way and is left as is.
+     */
+    static <T> T api(Supplier<T> request) {
+        try {
+            return request.get();
+        } catch (AnthropicIoException e) {
+            throw new LlmUnavailableException("No se pudo contactar con la API de Anthropic: " + e.getMessage(), e);
+        } catch (AnthropicServiceException e) {
+            if (!isRetryableStatus(e.statusCode())) {
+                throw e;
+            }
+            throw new LlmUnavailableException(
+                    "La API de Anthropic no está disponible (HTTP " + e.statusCode() + "): " + e.getMessage(), e);
+        }
+    }
+
+    static boolean isRetryableStatus(int status) {
+        return status == 408 || status == 409 || status == 429 || status >= 500;
+    }
+
+    private static String texOf(Message message) {
+        String tex = message.content().stream()
                 .flatMap(block -> block.text().stream())
                 .map(textBlock -> textBlock.text())
                 .collect(Collectors.joining("\n"));
         return stripMarkdownFences(tex).trim();
     }
 
+    /**
+     * Read a streamed response to its end. Text and thinking deltas feed the
+     * progress estimate; a stream that ends without message_stop was cut by the
+     * network, and is reported as an I/O error so the job is retried.
+     */
+    private Message stream(MessageCreateParams params, LongConsumer progress) {
+        MessageAccumulator accumulator = MessageAccumulator.create();
+        long chars = 0;
+        boolean stopped = false;
+        try (StreamResponse<RawMessageStreamEvent> response = getClient().messages().createStreaming(params)) {
+            for (RawMessageStreamEvent event : (Iterable<RawMessageStreamEvent>) response.stream()::iterator) {
+                accumulator.accumulate(event);
+                Optional<RawContentBlockDelta> delta = event.contentBlockDelta().map(block -> block.delta());
+                if (delta.isPresent()) {
+                    chars += delta.get().text().map(text -> text.text().length()).orElse(0)
+                            + delta.get().thinking().map(thinking -> thinking.thinking().length()).orElse(0);
+                    progress.accept(chars / CHARS_PER_TOKEN);
+                }
+                stopped |= event.messageStop().isPresent();
+            }
+        }
+        if (!stopped) {
+            throw new UncheckedIOException(new IOException(
+                    "La respuesta de la API se cortó antes de terminar (" + chars / CHARS_PER_TOKEN
+                            + " tokens recibidos)"));
+        }
+        Message message = accumulator.message();
+        progress.accept(message.usage().outputTokens());
+        return message;
+    }
+
+    static LlmUsage usageOf(Usage usage, long latencyMillis) {
+        return new LlmUsage(
+                usage.inputTokens(),
+                usage.outputTokens(),
+                latencyMillis);
+    }
+
+    /**
+     * Fixed per mode.
+     */
+    private static List<TextBlockParam> system(String prompt) {
+        return List.of(TextBlockParam.builder().text(prompt).build());
+    }
+
+    private static ContentBlockParam pdf(String base64) {
+        return ContentBlockParam.ofDocument(DocumentBlockParam.builder()
+                .source(Base64PdfSource.builder().data(base64).build())
+                .build());
+    }
+
     private static ContentBlockParam text(String value) {
         return ContentBlockParam.ofText(TextBlockParam.builder().text(value).build());
     }
 
+    /**
+     * Base64 of a file, read in fixed chunks: the request needs the encoded text,
+     * but the raw bytes are never loaded whole. Chunks are a multiple of 3 bytes,
+     * so only the last one can carry padding and the pieces concatenate cleanly.
+     */
+    static String base64(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            long size = Files.size(file);
+            StringBuilder encoded = new StringBuilder((int) (4 * ((size + 2) / 3)));
+            Base64.Encoder encoder = Base64.getEncoder();
+            byte[] chunk = new byte[ENCODE_CHUNK_BYTES];
+            int read;
+            while ((read = in.readNBytes(chunk, 0, chunk.length)) > 0) {
+                encoded.append(encoder.encodeToString(read == chunk.length ? chunk : Arrays.copyOf(chunk, read)));
+            }
+            return encoded.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el fichero " + file.getFileName(), e);
+        }
+    }
+
     /**
      * A response cut off by max_tokens is a truncated .tex: without this check
      * it would fail to compile and the fix loop could "repair" it into a
@@ -167,7 +422,7 @@ public class AnthropicLatexAdapter implements LlmLatexPort {
      */
     static void ensureNotTruncated(Optional<StopReason> stopReason, long maxTokens) {
         if (stopReason.filter(StopReason.MAX_TOKENS::equals).isPresent()) {
-            throw new IllegalStateException(
+            throw new LlmOutputTruncatedException(
                     "La IA agotó el máximo de tokens de salida (" + maxTokens
                             + "): el documento es demasiado largo y el resultado llegaría incompleto");
         }
@@ -208,6 +463,12 @@ public class AnthropicLatexAdapter implements LlmLatexPort {
                 }
                 client = AnthropicOkHttpClient.builder()
                         .apiKey(properties.getApiKey())
+                        .baseUrl(properties.getBaseUrl())
+                        // read = longest silence between two chunks of the stream
+                        .timeout(Timeout.builder()
+                                .read(Duration.ofSeconds(properties.getStallTimeoutSeconds()))
+                                .request(Duration.ofMinutes(properties.getMaxResponseMinutes()))
+                                .build())
                         .build();
             }
             return client;
@@ -0,0 +1,47 @@
+package com.acainfo.material.infrastructure.adapter.out.pdf;
+
+import com.acainfo.material.application.port.out.PdfPagesPort;
+import com.acainfo.material.domain.exception.InvalidAiJobRequestException;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * PdfPagesPort adapter over Apache PDFBox. Like {@link PdfBoxPreviewAdapter},
+ * parsed streams are cached in temp files, not on the heap.
+ */
+@Component
+public class PdfBoxPagesAdapter implements PdfPagesPort {
+
+    @Override
+    public int countPages(Path pdf) {
+        try (PDDocument document = load(pdf)) {
+            return document.getNumberOfPages();
+        } catch (IOException e) {
+            throw new InvalidAiJobRequestException("No se pudo leer el PDF de origen: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public byte[] extractPages(Path pdf, int firstPage, int lastPage) {
+        try (PDDocument source = load(pdf); PDDocument range = new PDDocument()) {
+            for (int page = firstPage; page <= lastPage; page++) {
+                range.importPage(source.getPage(page - 1));
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            range.save(out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new InvalidAiJobRequestException("No se pudo leer el PDF de origen: " + e.getMessage());
+        }
+    }
+
+    private static PDDocument load(Path pdf) throws IOException {
+        return Loader.loadPDF(pdf.toFile(), "", null, null, IOUtils.createTempFileOnlyStreamCache());
+    }
+}
@@ -0,0 +1,84 @@
+package com.acainfo.material.infrastructure.adapter.out.pdf;
+
+import com.acainfo.material.application.dto.PdfPreview;
+import com.acainfo.material.application.port.out.PdfPreviewPort;
+import com.acainfo.material.domain.exception.FileStorageException;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * PdfPreviewPort adapter over Apache PDFBox.
+ *
+ * <p>Only the first page is rendered, scaled to {@link #THUMBNAIL_WIDTH} px wide.
+ * The PDF is copied to a temp file and read from there through a small buffer,
+ * and parsed streams are cached in temp files too: neither the file nor its
+ * decoded streams are held on the heap, whatever the PDF size.</p>
+ */
+@Slf4j
+@Component
+public class PdfBoxPreviewAdapter implements PdfPreviewPort {
+
+    static final int THUMBNAIL_WIDTH = 320;
+
+    @Override
+    public PdfPreview render(InputStream pdf) {
+        Path tmpFile = null;
+        try {
+            tmpFile = Files.createTempFile("pdf-preview-", ".pdf");
+            Files.copy(pdf, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+            return render(tmpFile);
+        } catch (IOException e) {
+            throw new FileStorageException("No se pudo generar la vista previa del PDF", e);
+        } finally {
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    private PdfPreview render(Path pdf) throws IOException {
+        try (PDDocument document = Loader.loadPDF(
+                new RandomAccessReadBufferedFile(pdf.toFile()), "", null, null, IOUtils.createTempFileOnlyStreamCache())) {
+
+            int pageCount = document.getNumberOfPages();
+            if (pageCount == 0) {
+                throw new FileStorageException("El PDF no tiene páginas");
+            }
+
+            PDPage firstPage = document.getPage(0);
+            float pageWidth = firstPage.getCropBox().getWidth();
+            float scale = pageWidth > 0 ? THUMBNAIL_WIDTH / pageWidth : 1f;
+
+            BufferedImage image = new PDFRenderer(document).renderImage(0, scale, ImageType.RGB);
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", png);
+
+            return new PdfPreview(png.toByteArray(), pageCount);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file: {}", path);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.acainfo.material.infrastructure.adapter.out.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+/**
+ * Capture of an AI job, stored in 'material_ai_job_captures'.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaterialAiJobCaptureEmbeddable {
+
+    @Column(name = "storage_path", nullable = false, length = 500)
+    private String storagePath;
+
+    @Column(name = "mime_type", nullable = false, length = 50)
+    private String mimeType;
+}
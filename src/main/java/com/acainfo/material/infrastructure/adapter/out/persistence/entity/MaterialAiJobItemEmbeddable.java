@@ -0,0 +1,32 @@
+package com.acainfo.material.infrastructure.adapter.out.persistence.entity;
+
+import com.acainfo.material.domain.model.MaterialAiJobItemStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.*;
+
+/**
+ * Item of a batch AI job, stored in 'material_ai_job_items'.
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaterialAiJobItemEmbeddable {
+
+    @Column(name = "source_material_id")
+    private Long sourceMaterialId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private MaterialAiJobItemStatus status;
+
+    @Column(name = "result_material_id")
+    private Long resultMaterialId;
+
+    @Column(name = "error_message", length = 2000)
+    private String errorMessage;
+}
@@ -1,5 +1,6 @@
 package com.acainfo.material.infrastructure.adapter.out.persistence.entity;
 
+import com.acainfo.material.domain.model.MaterialAiJobStage;
 import com.acainfo.material.domain.model.MaterialAiJobStatus;
 import com.acainfo.material.domain.model.MaterialAiJobType;
 import jakarta.persistence.*;
@@ -9,6 +10,8 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * JPA Entity for MaterialAiJob persistence.
@@ -18,7 +21,8 @@ import java.time.LocalDateTime;
 @Table(
         name = "material_ai_jobs",
         indexes = {
-                @Index(name = "idx_material_ai_job_status", columnList = "status")
+                @Index(name = "idx_material_ai_job_status", columnList = "status"),
+                @Index(name = "idx_material_ai_job_claim", columnList = "status, next_attempt_at")
         }
 )
 @EntityListeners(AuditingEntityListener.class)
@@ -56,6 +60,58 @@ public class MaterialAiJobJpaEntity {
     @Column(name = "created_by_id", nullable = false)
     private Long createdById;
 
+    @Column(name = "folder_id")
+    private Long folderId;
+
+    @Column(name = "exercise_count")
+    private Integer exerciseCount;
+
+    @ElementCollection
+    @CollectionTable(name = "material_ai_job_captures", joinColumns = @JoinColumn(name = "job_id"))
+    @OrderColumn(name = "position")
+    @Builder.Default
+    private List<MaterialAiJobCaptureEmbeddable> captures = new ArrayList<>();
+
+    @ElementCollection
+    @CollectionTable(name = "material_ai_job_items", joinColumns = @JoinColumn(name = "job_id"))
+    @OrderColumn(name = "position")
+    @Builder.Default
+    private List<MaterialAiJobItemEmbeddable> items = new ArrayList<>();
+
+    @Column(name = "llm_batch_id", length = 100)
+    private String llmBatchId;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "llm_calls", nullable = false)
+    private int llmCalls;
+
+    @Column(name = "llm_input_tokens", nullable = false)
+    private long llmInputTokens;
+
+    @Column(name = "llm_output_tokens", nullable = false)
+    private long llmOutputTokens;
+
+    @Column(name = "llm_millis", nullable = false)
+    private long llmMillis;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "progress_stage", length = 20)
+    private MaterialAiJobStage progressStage;
+
+    @Column(name = "progress_tokens", nullable = false)
+    private long progressTokens;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
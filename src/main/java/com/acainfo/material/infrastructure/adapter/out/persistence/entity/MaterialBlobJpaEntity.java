@@ -0,0 +1,57 @@
+package com.acainfo.material.infrastructure.adapter.out.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity for a content-addressed blob and its reference count.
+ * Maps to 'material_blobs' table in database.
+ */
+@Entity
+@Table(name = "material_blobs")
+@EntityListeners(AuditingEntityListener.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class MaterialBlobJpaEntity {
+
+    @Id
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
+    @Column(name = "storage_path", nullable = false, length = 500)
+    private String storagePath;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    /**
+     * Cold-tier copy of the content ({@code archive/...zip#sha256}); kept after a restore.
+     */
+    @Column(name = "archive_locator", length = 500)
+    private String archiveLocator;
+
+    /**
+     * Set while the blob file only exists in the cold tier.
+     */
+    @Column(name = "archived_at")
+    private LocalDateTime archivedAt;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
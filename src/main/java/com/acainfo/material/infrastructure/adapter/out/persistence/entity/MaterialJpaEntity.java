@@ -20,7 +20,9 @@ import java.time.LocalDateTime;
                 @Index(name = "idx_material_uploaded_by", columnList = "uploaded_by_id"),
                 @Index(name = "idx_material_file_extension", columnList = "file_extension"),
                 @Index(name = "idx_material_uploaded_at", columnList = "uploaded_at"),
-                @Index(name = "idx_material_subject_year", columnList = "subject_id, academic_year"),
+                @Index(name = "idx_material_subject_year_visible",
+                        columnList = "subject_id, academic_year, visible, uploaded_at"),
+                @Index(name = "idx_material_content_hash", columnList = "content_hash"),
                 @Index(name = "idx_material_auto_disable",
                         columnList = "visible, download_disabled, visibility_enabled_at, download_enabled_at")
         }
@@ -73,6 +75,15 @@ public class MaterialJpaEntity {
     @Column(name = "storage_path", nullable = false, length = 500)
     private String storagePath;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "page_count")
+    private Integer pageCount;
+
+    @Column(name = "thumbnail_path", length = 500)
+    private String thumbnailPath;
+
     @Column(name = "uploaded_at", nullable = false)
     private LocalDateTime uploadedAt;
 
@@ -0,0 +1,49 @@
+package com.acainfo.material.infrastructure.adapter.out.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * JPA Entity for the daily usage aggregate of a material.
+ * Maps to 'material_usage_daily' table in database. Rows are only written by the
+ * batched upsert of the repository adapter, never through the entity.
+ */
+@Entity
+@Table(name = "material_usage_daily")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class MaterialUsageDailyJpaEntity {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "downloads", nullable = false)
+    private Long downloads;
+
+    @Column(name = "previews", nullable = false)
+    private Long previews;
+
+    /**
+     * Primary key: one row per material and day.
+     */
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(name = "material_id", nullable = false)
+        private Long materialId;
+
+        @Column(name = "usage_date", nullable = false)
+        private LocalDate usageDate;
+    }
+}
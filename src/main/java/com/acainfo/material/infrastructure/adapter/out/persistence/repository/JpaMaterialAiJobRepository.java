@@ -1,15 +1,23 @@
 package com.acainfo.material.infrastructure.adapter.out.persistence.repository;
 
+import com.acainfo.material.domain.model.MaterialAiJobStage;
 import com.acainfo.material.domain.model.MaterialAiJobStatus;
 import com.acainfo.material.infrastructure.adapter.out.persistence.entity.MaterialAiJobJpaEntity;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Spring Data JPA repository for MaterialAiJob entities.
@@ -18,18 +26,104 @@ import java.util.Collection;
 public interface JpaMaterialAiJobRepository extends JpaRepository<MaterialAiJobJpaEntity, Long> {
 
     /**
-     * Bulk-fail jobs left in the given statuses (orphans after a server restart).
-     * Bulk update skips auditing, so updated_at is set explicitly.
+     * Due jobs, oldest first, locked with SELECT ... FOR UPDATE SKIP LOCKED
+     * (lock timeout -2): rows another worker is claiming are skipped, not waited for.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT j FROM MaterialAiJobJpaEntity j
+            WHERE (j.status = com.acainfo.material.domain.model.MaterialAiJobStatus.PENDING
+                   AND (j.nextAttemptAt IS NULL OR j.nextAttemptAt <= :now))
+               OR (j.status = com.acainfo.material.domain.model.MaterialAiJobStatus.RUNNING
+                   AND j.leaseExpiresAt < :now)
+            ORDER BY j.id
+            """)
+    List<MaterialAiJobJpaEntity> findClaimable(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Find a job by ID with a pessimistic write lock: a claim or heartbeat on the
+     * row waits until the transaction ends.
+     */
+    @Query("SELECT j FROM MaterialAiJobJpaEntity j WHERE j.id = :id")
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<MaterialAiJobJpaEntity> findByIdForUpdate(@Param("id") Long id);
+
+    boolean existsByIdAndLeaseOwnerAndStatus(Long id, String leaseOwner, MaterialAiJobStatus status);
+
+    /**
+     * Heartbeat of a worker. Bulk update skips auditing, so updated_at is left as is.
      */
     @Modifying
     @Query("""
             UPDATE MaterialAiJobJpaEntity j
-            SET j.status = com.acainfo.material.domain.model.MaterialAiJobStatus.FAILED,
-                j.errorMessage = :errorMessage,
-                j.updatedAt = :now
-            WHERE j.status IN :statuses
+            SET j.leaseExpiresAt = :leaseUntil
+            WHERE j.id IN :jobIds AND j.leaseOwner = :workerId
+              AND j.status = com.acainfo.material.domain.model.MaterialAiJobStatus.RUNNING
+            """)
+    int renewLeases(@Param("workerId") String workerId,
+                    @Param("jobIds") Collection<Long> jobIds,
+                    @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Progress of a running job. Only its own columns: a full save from the job
+     * thread would overwrite a lease renewed meanwhile by the heartbeat.
+     */
+    @Modifying
+    @Query("""
+            UPDATE MaterialAiJobJpaEntity j
+            SET j.progressStage = :stage, j.progressTokens = :tokens, j.updatedAt = :now
+            WHERE j.id = :jobId
+              AND j.status = com.acainfo.material.domain.model.MaterialAiJobStatus.RUNNING
+            """)
+    int updateProgress(@Param("jobId") Long jobId,
+                       @Param("stage") MaterialAiJobStage stage,
+                       @Param("tokens") long tokens,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Outcome of one item of a batch job. Native: JPQL cannot update an element
+     * collection row, and a full save would overwrite the lease (see updateProgress).
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE material_ai_job_items
+            SET status = :status, result_material_id = :resultMaterialId, error_message = :errorMessage
+            WHERE job_id = :jobId AND position = :position
+            """, nativeQuery = true)
+    int updateItem(@Param("jobId") Long jobId,
+                   @Param("position") int position,
+                   @Param("status") String status,
+                   @Param("resultMaterialId") Long resultMaterialId,
+                   @Param("errorMessage") String errorMessage);
+
+    /**
+     * Sources of unfinished TRANSCRIBE jobs among the given materials.
+     */
+    @Query("""
+            SELECT j.sourceMaterialId FROM MaterialAiJobJpaEntity j
+            WHERE j.sourceMaterialId IN :materialIds
+              AND j.status IN (com.acainfo.material.domain.model.MaterialAiJobStatus.PENDING,
+                               com.acainfo.material.domain.model.MaterialAiJobStatus.RUNNING)
             """)
-    int failAllWithStatuses(@Param("statuses") Collection<MaterialAiJobStatus> statuses,
-                            @Param("errorMessage") String errorMessage,
-                            @Param("now") LocalDateTime now);
+    List<Long> findJobSourcesInProgress(@Param("materialIds") Collection<Long> materialIds);
+
+    /**
+     * Sources of the items still to publish of unfinished batch jobs, among the given materials.
+     */
+    @Query("""
+            SELECT i.sourceMaterialId FROM MaterialAiJobJpaEntity j JOIN j.items i
+            WHERE i.sourceMaterialId IN :materialIds
+              AND i.status = com.acainfo.material.domain.model.MaterialAiJobItemStatus.PENDING
+              AND j.status IN (com.acainfo.material.domain.model.MaterialAiJobStatus.PENDING,
+                               com.acainfo.material.domain.model.MaterialAiJobStatus.RUNNING)
+            """)
+    List<Long> findItemSourcesInProgress(@Param("materialIds") Collection<Long> materialIds);
+
+    /**
+     * Provider batch of a batch job, right after it was created (see updateProgress).
+     */
+    @Modifying
+    @Query("UPDATE MaterialAiJobJpaEntity j SET j.llmBatchId = :llmBatchId WHERE j.id = :jobId")
+    int updateLlmBatchId(@Param("jobId") Long jobId, @Param("llmBatchId") String llmBatchId);
 }
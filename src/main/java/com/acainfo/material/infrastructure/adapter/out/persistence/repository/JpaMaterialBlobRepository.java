@@ -0,0 +1,40 @@
+package com.acainfo.material.infrastructure.adapter.out.persistence.repository;
+
+import com.acainfo.material.application.dto.ArchivableBlob;
+import com.acainfo.material.infrastructure.adapter.out.persistence.entity.MaterialBlobJpaEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Spring Data JPA repository for MaterialBlobJpaEntity.
+ */
+@Repository
+public interface JpaMaterialBlobRepository extends JpaRepository<MaterialBlobJpaEntity, String> {
+
+    /**
+     * Find a blob with a pessimistic write lock (SELECT ... FOR UPDATE).
+     * Serializes reference count changes so the last release cannot race an acquire.
+     */
+    @Query("SELECT b FROM MaterialBlobJpaEntity b WHERE b.sha256 = :sha256")
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<MaterialBlobJpaEntity> findBySha256ForUpdate(@Param("sha256") String sha256);
+
+    /**
+     * Hot blobs whose materials all belong to academic years before {@code currentYear}
+     * (a material without academic year keeps its blob hot).
+     */
+    @Query("SELECT new com.acainfo.material.application.dto.ArchivableBlob(" +
+            "b.sha256, b.storagePath, b.fileSize, MAX(m.academicYear), b.archiveLocator) " +
+            "FROM MaterialBlobJpaEntity b, MaterialJpaEntity m " +
+            "WHERE m.contentHash = b.sha256 AND b.archivedAt IS NULL " +
+            "GROUP BY b.sha256, b.storagePath, b.fileSize, b.archiveLocator " +
+            "HAVING MAX(m.academicYear) < :currentYear AND COUNT(m.academicYear) = COUNT(m.id)")
+    List<ArchivableBlob> findArchivable(@Param("currentYear") int currentYear);
+}
@@ -1,10 +1,15 @@
 package com.acainfo.material.infrastructure.adapter.out.persistence.repository;
 
 import com.acainfo.material.infrastructure.adapter.out.persistence.entity.MaterialFolderJpaEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Spring Data JPA repository for MaterialFolder entities.
@@ -21,4 +26,11 @@ public interface JpaMaterialFolderRepository extends JpaRepository<MaterialFolde
      * Check name uniqueness within a subject.
      */
     boolean existsBySubjectIdAndName(Long subjectId, String name);
+
+    /**
+     * Find a folder by ID with a pessimistic write lock.
+     */
+    @Query("SELECT f FROM MaterialFolderJpaEntity f WHERE f.id = :id")
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<MaterialFolderJpaEntity> findByIdForUpdate(@Param("id") Long id);
 }
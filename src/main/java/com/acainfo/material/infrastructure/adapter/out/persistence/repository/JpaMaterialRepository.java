@@ -18,11 +18,6 @@ import java.util.List;
 public interface JpaMaterialRepository extends JpaRepository<MaterialJpaEntity, Long>,
         JpaSpecificationExecutor<MaterialJpaEntity> {
 
-    /**
-     * Find all materials for a subject ordered by upload date descending.
-     */
-    List<MaterialJpaEntity> findBySubjectIdOrderByUploadedAtDesc(Long subjectId);
-
     /**
      * Find all materials uploaded by a user.
      */
@@ -39,10 +34,13 @@ public interface JpaMaterialRepository extends JpaRepository<MaterialJpaEntity,
     long countBySubjectId(Long subjectId);
 
     /**
-     * Find recent materials for given subjects uploaded after a certain date.
+     * Find recent visible materials of an academic year for given subjects uploaded after a certain date.
      */
-    @Query("SELECT m FROM MaterialJpaEntity m WHERE m.subjectId IN :subjectIds AND m.uploadedAt >= :since ORDER BY m.uploadedAt DESC")
-    List<MaterialJpaEntity> findRecentBySubjectIds(@Param("subjectIds") List<Long> subjectIds, @Param("since") LocalDateTime since);
+    @Query("SELECT m FROM MaterialJpaEntity m WHERE m.subjectId IN :subjectIds AND m.visible = true " +
+            "AND m.academicYear = :academicYear AND m.uploadedAt >= :since ORDER BY m.uploadedAt DESC")
+    List<MaterialJpaEntity> findRecentVisibleBySubjectIds(@Param("subjectIds") List<Long> subjectIds,
+                                                          @Param("academicYear") int academicYear,
+                                                          @Param("since") LocalDateTime since);
 
     /**
      * Batch update downloadDisabled flag.
@@ -89,4 +87,58 @@ public interface JpaMaterialRepository extends JpaRepository<MaterialJpaEntity,
             "  AND m.visibilityEnabledAt IS NOT NULL AND m.visibilityEnabledAt <= :threshold " +
             "  AND m.downloadEnabledAt IS NOT NULL AND m.downloadEnabledAt <= :threshold")
     List<MaterialJpaEntity> findExpiredActiveMaterials(@Param("threshold") LocalDateTime threshold);
+
+    List<MaterialJpaEntity> findByContentHashIsNull();
+
+    /**
+     * Point a legacy material at its blob; no-op once the material has a content hash.
+     */
+    @Modifying
+    @Query("UPDATE MaterialJpaEntity m " +
+            "SET m.contentHash = :contentHash, m.storagePath = :storagePath, m.updatedAt = :now " +
+            "WHERE m.id = :id AND m.contentHash IS NULL")
+    int assignBlob(@Param("id") Long id,
+                   @Param("contentHash") String contentHash,
+                   @Param("storagePath") String storagePath,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * Whether any material of {@code academicYear} or later (or without year) uses the content.
+     */
+    @Query("SELECT COUNT(m) > 0 FROM MaterialJpaEntity m " +
+            "WHERE m.contentHash = :contentHash AND (m.academicYear IS NULL OR m.academicYear >= :academicYear)")
+    boolean existsContentInUseFrom(@Param("contentHash") String contentHash,
+                                   @Param("academicYear") int academicYear);
+
+    /**
+     * Move every material of a content from one storage path to another (cold tier in/out).
+     */
+    @Modifying
+    @Query("UPDATE MaterialJpaEntity m " +
+            "SET m.storagePath = :toPath, m.updatedAt = :now " +
+            "WHERE m.contentHash = :contentHash AND m.storagePath = :fromPath")
+    int repointStorage(@Param("contentHash") String contentHash,
+                       @Param("fromPath") String fromPath,
+                       @Param("toPath") String toPath,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * PDF materials in the content-addressed store that still lack a thumbnail.
+     */
+    @Query("SELECT m.id FROM MaterialJpaEntity m " +
+            "WHERE m.fileExtension = 'pdf' AND m.thumbnailPath IS NULL AND m.contentHash IS NOT NULL " +
+            "ORDER BY m.id")
+    List<Long> findPdfIdsWithoutThumbnail();
+
+    /**
+     * Record the generated preview (page count + thumbnail path) of a material.
+     */
+    @Modifying
+    @Query("UPDATE MaterialJpaEntity m " +
+            "SET m.pageCount = :pageCount, m.thumbnailPath = :thumbnailPath, m.updatedAt = :now " +
+            "WHERE m.id = :id")
+    int assignPreview(@Param("id") Long id,
+                      @Param("pageCount") int pageCount,
+                      @Param("thumbnailPath") String thumbnailPath,
+                      @Param("now") LocalDateTime now);
 }
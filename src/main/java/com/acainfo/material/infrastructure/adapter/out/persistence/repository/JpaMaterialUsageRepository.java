@@ -0,0 +1,47 @@
+package com.acainfo.material.infrastructure.adapter.out.persistence.repository;
+
+import com.acainfo.material.application.dto.MaterialUsageStat;
+import com.acainfo.material.infrastructure.adapter.out.persistence.entity.MaterialJpaEntity;
+import com.acainfo.material.infrastructure.adapter.out.persistence.entity.MaterialUsageDailyJpaEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for MaterialUsageDailyJpaEntity.
+ */
+@Repository
+public interface JpaMaterialUsageRepository
+        extends JpaRepository<MaterialUsageDailyJpaEntity, MaterialUsageDailyJpaEntity.Key> {
+
+    /**
+     * Usage totals of the materials of a subject since a day, most used first.
+     */
+    @Query("SELECT new com.acainfo.material.application.dto.MaterialUsageStat(" +
+            "m.id, m.name, SUM(u.downloads), SUM(u.previews), MAX(u.id.usageDate)) " +
+            "FROM MaterialUsageDailyJpaEntity u, MaterialJpaEntity m " +
+            "WHERE m.id = u.id.materialId AND m.subjectId = :subjectId AND u.id.usageDate >= :since " +
+            "GROUP BY m.id, m.name " +
+            "ORDER BY SUM(u.downloads) + SUM(u.previews) DESC, m.id")
+    List<MaterialUsageStat> findTopBySubject(@Param("subjectId") Long subjectId,
+                                             @Param("since") LocalDate since,
+                                             Pageable pageable);
+
+    @Query("SELECT m FROM MaterialJpaEntity m " +
+            "WHERE m.subjectId = :subjectId AND m.academicYear = :academicYear " +
+            "  AND NOT EXISTS (SELECT 1 FROM MaterialUsageDailyJpaEntity u WHERE u.id.materialId = m.id) " +
+            "ORDER BY m.uploadedAt")
+    List<MaterialJpaEntity> findNeverOpenedBySubject(@Param("subjectId") Long subjectId,
+                                                     @Param("academicYear") int academicYear);
+
+    @Query("SELECT DISTINCT u.id.materialId FROM MaterialUsageDailyJpaEntity u " +
+            "WHERE u.id.materialId IN :materialIds AND u.id.usageDate >= :since")
+    List<Long> findMaterialIdsUsedSince(@Param("materialIds") Collection<Long> materialIds,
+                                        @Param("since") LocalDate since);
+}
@@ -2,16 +2,22 @@ package com.acainfo.material.infrastructure.adapter.out.persistence.repository;
 
 import com.acainfo.material.application.port.out.MaterialAiJobRepositoryPort;
 import com.acainfo.material.domain.model.MaterialAiJob;
+import com.acainfo.material.domain.model.MaterialAiJobItem;
+import com.acainfo.material.domain.model.MaterialAiJobStage;
 import com.acainfo.material.domain.model.MaterialAiJobStatus;
 import com.acainfo.material.infrastructure.adapter.out.persistence.entity.MaterialAiJobJpaEntity;
 import com.acainfo.material.infrastructure.mapper.MaterialAiJobPersistenceMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Adapter implementing MaterialAiJobRepositoryPort.
@@ -30,16 +36,84 @@ public class MaterialAiJobRepositoryAdapter implements MaterialAiJobRepositoryPo
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<MaterialAiJob> findById(Long id) {
         return jpaRepository.findById(id).map(mapper::toDomain);
     }
 
     @Override
     @Transactional
-    public int failInterruptedJobs(String errorMessage) {
-        return jpaRepository.failAllWithStatuses(
-                List.of(MaterialAiJobStatus.PENDING, MaterialAiJobStatus.RUNNING),
-                errorMessage,
-                LocalDateTime.now());
+    public Optional<MaterialAiJob> claimNext(String workerId, LocalDateTime now, LocalDateTime leaseUntil) {
+        return jpaRepository.findClaimable(now, PageRequest.of(0, 1)).stream()
+                .findFirst()
+                .map(job -> {
+                    job.setStatus(MaterialAiJobStatus.RUNNING);
+                    job.setAttempts(job.getAttempts() + 1);
+                    job.setNextAttemptAt(null);
+                    job.setLeaseOwner(workerId);
+                    job.setLeaseExpiresAt(leaseUntil);
+                    return mapper.toDomain(jpaRepository.save(job));
+                });
+    }
+
+    @Override
+    @Transactional
+    public boolean release(MaterialAiJob job, String leaseOwner) {
+        // Checked and written under the row lock: no claim can slip in between
+        Optional<MaterialAiJobJpaEntity> locked = jpaRepository.findByIdForUpdate(job.getId());
+        if (locked.isEmpty() || !Objects.equals(locked.get().getLeaseOwner(), leaseOwner)) {
+            return false;
+        }
+        // Onto the loaded row, not a merge of the whole job: a TRANSCRIBE_BATCH job held
+        // in memory since its claim would write back item sources deleted meanwhile
+        MaterialAiJobJpaEntity entity = locked.get();
+        mapper.updateRunState(job, entity);
+        jpaRepository.save(entity);
+        return true;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isLeasedTo(Long jobId, String leaseOwner) {
+        return jpaRepository.existsByIdAndLeaseOwnerAndStatus(jobId, leaseOwner, MaterialAiJobStatus.RUNNING);
+    }
+
+    @Override
+    @Transactional
+    public int renewLeases(String workerId, Collection<Long> jobIds, LocalDateTime leaseUntil) {
+        if (jobIds.isEmpty()) {
+            return 0;
+        }
+        return jpaRepository.renewLeases(workerId, jobIds, leaseUntil);
+    }
+
+    @Override
+    @Transactional
+    public void updateProgress(Long jobId, MaterialAiJobStage stage, long tokens, LocalDateTime now) {
+        jpaRepository.updateProgress(jobId, stage, tokens, now);
+    }
+
+    @Override
+    @Transactional
+    public void updateItem(Long jobId, int position, MaterialAiJobItem item) {
+        jpaRepository.updateItem(jobId, position, item.status().name(), item.resultMaterialId(),
+                item.errorMessage());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Long> findSourcesInProgress(Collection<Long> materialIds) {
+        if (materialIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<Long> sources = new HashSet<>(jpaRepository.findJobSourcesInProgress(materialIds));
+        sources.addAll(jpaRepository.findItemSourcesInProgress(materialIds));
+        return sources;
+    }
+
+    @Override
+    @Transactional
+    public void updateLlmBatchId(Long jobId, String llmBatchId) {
+        jpaRepository.updateLlmBatchId(jobId, llmBatchId);
     }
 }
@@ -0,0 +1,156 @@
+package com.acainfo.material.infrastructure.adapter.out.persistence.repository;
+
+import com.acainfo.material.application.dto.ArchivableBlob;
+import com.acainfo.material.application.dto.StoredBlob;
+import com.acainfo.material.application.port.out.MaterialBlobRepositoryPort;
+import com.acainfo.material.domain.exception.FileStorageException;
+import com.acainfo.material.infrastructure.adapter.out.persistence.entity.MaterialBlobJpaEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Adapter implementing MaterialBlobRepositoryPort.
+ * Reference counts are read and written under the blob's row lock. The first reference
+ * to new content registers the row in a transaction of its own, so a concurrent first
+ * upload that loses the insert race only has to lock the winner's row, without aborting
+ * the caller's transaction (PostgreSQL rejects any statement after a failed one).
+ */
+@Slf4j
+@Repository
+public class MaterialBlobRepositoryAdapter implements MaterialBlobRepositoryPort {
+
+    private final JpaMaterialBlobRepository jpaMaterialBlobRepository;
+    private final TransactionTemplate registerTransaction;
+
+    public MaterialBlobRepositoryAdapter(JpaMaterialBlobRepository jpaMaterialBlobRepository,
+                                         PlatformTransactionManager transactionManager) {
+        this.jpaMaterialBlobRepository = jpaMaterialBlobRepository;
+        this.registerTransaction = new TransactionTemplate(transactionManager);
+        this.registerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void acquire(StoredBlob blob) {
+        Optional<MaterialBlobJpaEntity> found = jpaMaterialBlobRepository.findBySha256ForUpdate(blob.sha256());
+        if (found.isEmpty()) {
+            register(blob);
+            found = jpaMaterialBlobRepository.findBySha256ForUpdate(blob.sha256());
+        }
+        if (found.isEmpty()) {
+            // Registered with no references and removed, file included, by the release of the same content
+            throw new FileStorageException("El archivo se borró mientras se subía, vuelve a intentarlo");
+        }
+
+        MaterialBlobJpaEntity existing = found.get();
+        existing.setRefCount(existing.getRefCount() + 1);
+        if (existing.getArchivedAt() != null) {
+            // Same content uploaded again: storeBlob has just rewritten the hot file
+            existing.setArchivedAt(null);
+            existing.setStoragePath(blob.storagePath());
+        }
+        jpaMaterialBlobRepository.save(existing);
+    }
+
+    /**
+     * Insert the blob row with no references and commit it, so the caller can lock it.
+     * A duplicate key means a concurrent upload of the same content inserted it first.
+     */
+    private void register(StoredBlob blob) {
+        try {
+            registerTransaction.executeWithoutResult(status -> jpaMaterialBlobRepository.saveAndFlush(
+                    MaterialBlobJpaEntity.builder()
+                            .sha256(blob.sha256())
+                            .storagePath(blob.storagePath())
+                            .fileSize(blob.size())
+                            .refCount(0)
+                            .build()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Blob {} registered concurrently", blob.sha256());
+        }
+    }
+
+    @Override
+    public Optional<String> release(String sha256) {
+        Optional<MaterialBlobJpaEntity> found = jpaMaterialBlobRepository.findBySha256ForUpdate(sha256);
+        if (found.isEmpty()) {
+            log.warn("Released unknown blob {}", sha256);
+            return Optional.empty();
+        }
+
+        MaterialBlobJpaEntity blob = found.get();
+        blob.setRefCount(Math.max(blob.getRefCount() - 1, 0));
+        jpaMaterialBlobRepository.save(blob);
+        return blob.getRefCount() == 0 ? Optional.of(blob.getStoragePath()) : Optional.empty();
+    }
+
+    @Override
+    public boolean removeIfUnreferenced(String sha256) {
+        Optional<MaterialBlobJpaEntity> found = jpaMaterialBlobRepository.findBySha256ForUpdate(sha256);
+        if (found.isEmpty() || found.get().getRefCount() > 0) {
+            return false;
+        }
+        jpaMaterialBlobRepository.delete(found.get());
+        return true;
+    }
+
+    @Override
+    public boolean removeIfUnadopted(StoredBlob blob) {
+        Optional<MaterialBlobJpaEntity> found = jpaMaterialBlobRepository.findBySha256ForUpdate(blob.sha256());
+        if (found.isEmpty()) {
+            register(blob);
+            found = jpaMaterialBlobRepository.findBySha256ForUpdate(blob.sha256());
+        }
+        if (found.isEmpty()) {
+            // Removed, file included, by the release of the same content
+            return false;
+        }
+        if (found.get().getRefCount() > 0) {
+            return false;
+        }
+        jpaMaterialBlobRepository.delete(found.get());
+        return true;
+    }
+
+    @Override
+    public List<ArchivableBlob> findArchivable(int currentAcademicYear) {
+        return jpaMaterialBlobRepository.findArchivable(currentAcademicYear);
+    }
+
+    @Override
+    public boolean markArchived(String sha256, String archiveLocator) {
+        Optional<MaterialBlobJpaEntity> found = jpaMaterialBlobRepository.findBySha256ForUpdate(sha256);
+        if (found.isEmpty() || found.get().getArchivedAt() != null) {
+            return false;
+        }
+
+        MaterialBlobJpaEntity blob = found.get();
+        blob.setArchiveLocator(archiveLocator);
+        blob.setArchivedAt(LocalDateTime.now());
+        jpaMaterialBlobRepository.save(blob);
+        return true;
+    }
+
+    @Override
+    public boolean lockIfArchived(String sha256) {
+        return jpaMaterialBlobRepository.findBySha256ForUpdate(sha256)
+                .map(blob -> blob.getArchivedAt() != null)
+                .orElse(false);
+    }
+
+    @Override
+    public void markRestored(String sha256, String storagePath) {
+        jpaMaterialBlobRepository.findBySha256ForUpdate(sha256).ifPresentOrElse(blob -> {
+            blob.setArchivedAt(null);
+            blob.setStoragePath(storagePath);
+            jpaMaterialBlobRepository.save(blob);
+        }, () -> log.warn("Restored unknown blob {}", sha256));
+    }
+}
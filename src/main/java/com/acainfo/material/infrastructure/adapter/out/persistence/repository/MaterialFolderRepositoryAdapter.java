@@ -31,6 +31,11 @@ public class MaterialFolderRepositoryAdapter implements MaterialFolderRepository
         return jpaRepository.findById(id).map(mapper::toDomain);
     }
 
+    @Override
+    public Optional<MaterialFolder> findByIdForUpdate(Long id) {
+        return jpaRepository.findByIdForUpdate(id).map(mapper::toDomain);
+    }
+
     @Override
     public List<MaterialFolder> findBySubjectId(Long subjectId) {
         return mapper.toDomainList(jpaRepository.findBySubjectIdOrderByPositionAscNameAsc(subjectId));
@@ -13,6 +13,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -51,7 +52,8 @@ public class MaterialRepositoryAdapter implements MaterialRepositoryPort {
                 filters.uploadedById(),
                 filters.fileExtension(),
                 filters.searchTerm(),
-                filters.academicYear()
+                filters.academicYear(),
+                filters.visibleInAcademicYear()
         );
 
         return jpaRepository.findAll(spec, pageable)
@@ -59,9 +61,15 @@ public class MaterialRepositoryAdapter implements MaterialRepositoryPort {
     }
 
     @Override
-    public List<Material> findBySubjectId(Long subjectId) {
+    public List<Material> findDownloadable(Long subjectId, Long folderId, Integer visibleInAcademicYear) {
+        Specification<MaterialJpaEntity> spec = MaterialSpecifications.hasSubjectId(subjectId)
+                .and(MaterialSpecifications.hasFolderId(folderId))
+                .and(MaterialSpecifications.visibleInAcademicYear(visibleInAcademicYear));
+        if (visibleInAcademicYear != null) {
+            spec = spec.and(MaterialSpecifications.downloadEnabled());
+        }
         return mapper.toDomainList(
-                jpaRepository.findBySubjectIdOrderByUploadedAtDesc(subjectId)
+                jpaRepository.findAll(spec, Sort.by("originalFilename").ascending())
         );
     }
 
@@ -83,13 +91,13 @@ public class MaterialRepositoryAdapter implements MaterialRepositoryPort {
     }
 
     @Override
-    public List<Material> findRecentBySubjectIds(List<Long> subjectIds, int days) {
+    public List<Material> findRecentVisibleBySubjectIds(List<Long> subjectIds, int academicYear, int days) {
         if (subjectIds == null || subjectIds.isEmpty()) {
             return List.of();
         }
         LocalDateTime since = LocalDateTime.now().minusDays(days);
         return mapper.toDomainList(
-                jpaRepository.findRecentBySubjectIds(subjectIds, since)
+                jpaRepository.findRecentVisibleBySubjectIds(subjectIds, academicYear, since)
         );
     }
 
@@ -125,6 +133,37 @@ public class MaterialRepositoryAdapter implements MaterialRepositoryPort {
         return jpaRepository.clearFolderId(folderId);
     }
 
+    @Override
+    public List<Material> findWithoutContentHash() {
+        return mapper.toDomainList(jpaRepository.findByContentHashIsNull());
+    }
+
+    @Override
+    public int assignBlob(Long materialId, String contentHash, String storagePath) {
+        return jpaRepository.assignBlob(materialId, contentHash, storagePath, LocalDateTime.now());
+    }
+
+    @Override
+    public boolean isContentInUseFrom(String contentHash, int academicYear) {
+        return jpaRepository.existsContentInUseFrom(contentHash, academicYear);
+    }
+
+    @Override
+    public int repointStorage(String contentHash, String fromPath, String toPath) {
+        return jpaRepository.repointStorage(contentHash, fromPath, toPath, LocalDateTime.now());
+    }
+
+    @Override
+    public List<Long> findPdfIdsWithoutThumbnail() {
+        return jpaRepository.findPdfIdsWithoutThumbnail();
+    }
+
+    @Override
+    @Transactional
+    public int assignPreview(Long materialId, int pageCount, String thumbnailPath) {
+        return jpaRepository.assignPreview(materialId, pageCount, thumbnailPath, LocalDateTime.now());
+    }
+
     @Override
     public List<Material> findExpiredActiveMaterials(int daysThreshold) {
         LocalDateTime threshold = LocalDateTime.now().minusDays(daysThreshold);
@@ -0,0 +1,92 @@
+package com.acainfo.material.infrastructure.adapter.out.persistence.repository;
+
+import com.acainfo.material.application.dto.MaterialUsageCount;
+import com.acainfo.material.application.dto.MaterialUsageStat;
+import com.acainfo.material.application.port.out.MaterialUsageRepositoryPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Adapter implementing MaterialUsageRepositoryPort.
+ *
+ * <p>Counts are added with one JDBC batch of standard SQL {@code MERGE} statements
+ * (PostgreSQL 15+ and H2), so a flush is one round trip however many materials it
+ * touches. The {@code USING} subquery joins {@code materials}: counts of a material
+ * deleted since the access match no row and are dropped instead of failing the batch
+ * on the foreign key.</p>
+ *
+ * <p>{@code MERGE} does not lock the row it is about to insert: when another node's
+ * flush inserts the same material and day first, the batch fails on the primary key.
+ * It runs in one transaction, so nothing of it was applied, and it is run once more,
+ * now matching the other node's row.</p>
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class MaterialUsageRepositoryAdapter implements MaterialUsageRepositoryPort {
+
+    private static final String ADD_COUNTS_SQL = """
+            MERGE INTO material_usage_daily u
+            USING (SELECT id FROM materials WHERE id = ?) m
+            ON u.material_id = m.id AND u.usage_date = ?
+            WHEN MATCHED THEN
+                UPDATE SET downloads = u.downloads + ?, previews = u.previews + ?
+            WHEN NOT MATCHED THEN
+                INSERT (material_id, usage_date, downloads, previews) VALUES (m.id, ?, ?, ?)
+            """;
+
+    private final JpaMaterialUsageRepository jpaMaterialUsageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void addCounts(List<MaterialUsageCount> counts) {
+        List<Object[]> args = counts.stream()
+                .map(count -> new Object[]{
+                        count.materialId(), count.usageDate(),
+                        count.downloads(), count.previews(),
+                        count.usageDate(), count.downloads(), count.previews()})
+                .toList();
+        try {
+            mergeCounts(args);
+        } catch (DuplicateKeyException e) {
+            log.debug("Usage rows inserted concurrently, merging the batch again");
+            mergeCounts(args);
+        }
+    }
+
+    private void mergeCounts(List<Object[]> args) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(ADD_COUNTS_SQL, args));
+    }
+
+    @Override
+    public List<MaterialUsageStat> findTopBySubject(Long subjectId, LocalDate since, int limit) {
+        return jpaMaterialUsageRepository.findTopBySubject(subjectId, since, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<MaterialUsageStat> findNeverOpenedBySubject(Long subjectId, int academicYear) {
+        return jpaMaterialUsageRepository.findNeverOpenedBySubject(subjectId, academicYear).stream()
+                .map(material -> new MaterialUsageStat(material.getId(), material.getName(), 0L, 0L, null))
+                .toList();
+    }
+
+    @Override
+    public Set<Long> findUsedSince(Collection<Long> materialIds, LocalDate since) {
+        if (materialIds.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(jpaMaterialUsageRepository.findMaterialIdsUsedSince(materialIds, since));
+    }
+}
@@ -25,6 +25,21 @@ public final class MaterialSpecifications {
                 cb.equal(root.get("subjectId"), subjectId);
     }
 
+    /**
+     * Filter by folder ID (no restriction when null).
+     */
+    public static Specification<MaterialJpaEntity> hasFolderId(Long folderId) {
+        return (root, query, cb) -> folderId == null ? null :
+                cb.equal(root.get("folderId"), folderId);
+    }
+
+    /**
+     * Only materials whose download has not been disabled by an admin.
+     */
+    public static Specification<MaterialJpaEntity> downloadEnabled() {
+        return (root, query, cb) -> cb.isFalse(root.get("downloadDisabled"));
+    }
+
     /**
      * Filter by uploader ID.
      */
@@ -58,15 +73,30 @@ public final class MaterialSpecifications {
         };
     }
 
+    /**
+     * Only visible materials of the given academic year (what students may see).
+     * No restriction when the year is null.
+     */
+    public static Specification<MaterialJpaEntity> visibleInAcademicYear(Integer academicYear) {
+        return (root, query, cb) -> academicYear == null ? null :
+                cb.and(
+                        cb.isTrue(root.get("visible")),
+                        cb.equal(root.get("academicYear"), academicYear)
+                );
+    }
+
     /**
      * Build a combined specification from MaterialFilters.
+     * {@code visibleInAcademicYear} is the caller's visibility rule (null = sees everything);
+     * it is served by idx_material_subject_year_visible together with subjectId.
      */
     public static Specification<MaterialJpaEntity> fromFilters(
             Long subjectId,
             Long uploadedById,
             String fileExtension,
             String searchTerm,
-            Integer academicYear) {
+            Integer academicYear,
+            Integer visibleInAcademicYear) {
 
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
@@ -83,6 +113,11 @@ public final class MaterialSpecifications {
                 predicates.add(cb.equal(root.get("academicYear"), academicYear));
             }
 
+            if (visibleInAcademicYear != null) {
+                predicates.add(cb.isTrue(root.get("visible")));
+                predicates.add(cb.equal(root.get("academicYear"), visibleInAcademicYear));
+            }
+
             if (fileExtension != null && !fileExtension.isBlank()) {
                 predicates.add(cb.equal(root.get("fileExtension"), fileExtension.toLowerCase()));
             }
@@ -1,44 +1,67 @@
 package com.acainfo.material.infrastructure.adapter.out.storage;
 
+import com.acainfo.material.application.dto.StoredBlob;
 import com.acainfo.material.application.port.out.FileStoragePort;
 import com.acainfo.material.domain.exception.FileStorageException;
+import com.acainfo.material.domain.model.ArchiveLocator;
 import com.acainfo.subject.application.port.out.SubjectRepositoryPort;
 import com.acainfo.subject.domain.model.Subject;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
 
 /**
  * Local filesystem implementation of FileStoragePort.
- * Used for development and testing environments.
+ * Used for development and testing environments ({@code app.storage.type=local}, the default).
  *
- * <p>Storage structure (new uploads; legacy files keep their frozen storage_path):</p>
+ * <p>Storage structure (legacy files keep their frozen storage_path):</p>
  * <pre>
  * {base-path}/
- *   └── subjects/
- *       └── {subjectCode-subjectName}/
- *           └── {storedFilename}
+ *   ├── blobs/
+ *   │   └── {first 2 hex chars}/
+ *   │       ├── {sha256}               material files, one per distinct content
+ *   │       └── {sha256}.thumb.png     files derived from the content (thumbnails)
+ *   ├── archive/
+ *   │   └── {academicYear}/{run}-{n}.zip   cold tier: compressed blobs of past years
+ *   ├── subjects/
+ *   │   └── {subjectCode-subjectName}/
+ *   │       └── {storedFilename}       named side files and legacy uploads
+ *   └── tmp/                           uploads being hashed
  * </pre>
- * <p>Example: subjects/ing101-programacion-i/uuid.pdf</p>
+ * <p>Example: blobs/9f/9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08</p>
  */
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
 public class LocalFileStorageAdapter implements FileStoragePort {
 
+    private static final String BLOBS_DIR = "blobs";
+
     private final Path basePath;
+    private final Path tmpPath;
     private final SubjectRepositoryPort subjectRepository;
 
     public LocalFileStorageAdapter(
             @Value("${app.storage.local.base-path:./storage/materials}") String basePath,
             SubjectRepositoryPort subjectRepository) {
         this.basePath = Paths.get(basePath).toAbsolutePath().normalize();
+        this.tmpPath = this.basePath.resolve("tmp");
         this.subjectRepository = subjectRepository;
         initializeStorage();
     }
@@ -46,6 +69,8 @@ public class LocalFileStorageAdapter implements FileStoragePort {
     private void initializeStorage() {
         try {
             Files.createDirectories(basePath);
+            // Same filesystem as blobs/, so a finished upload is published with an atomic rename
+            Files.createDirectories(tmpPath);
             log.info("Local file storage initialized at: {}", basePath);
         } catch (IOException e) {
             throw new FileStorageException("No se pudo inicializar el directorio de almacenamiento: " + basePath, e);
@@ -55,12 +80,8 @@ public class LocalFileStorageAdapter implements FileStoragePort {
     @Override
     public String store(InputStream content, String storedFilename, Long subjectId) {
         try {
-            // Get subject information
-            Subject subject = subjectRepository.findById(subjectId)
-                    .orElseThrow(() -> new FileStorageException("Asignatura no encontrada con id: " + subjectId));
-
             // Build folder structure: subjects/{subjectCode-subjectName}/
-            String subjectFolderName = sanitizeFolderName(subject.getCode() + "-" + subject.getName());
+            String subjectFolderName = subjectFolderName(subjectId);
 
             Path subjectDir = basePath.resolve("subjects")
                     .resolve(subjectFolderName);
@@ -80,6 +101,77 @@ public class LocalFileStorageAdapter implements FileStoragePort {
         }
     }
 
+    @Override
+    public StoredBlob storeBlob(InputStream content) {
+        Path tmpFile = null;
+        try {
+            // Hash while writing: the content is read exactly once
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            tmpFile = Files.createTempFile(tmpPath, "upload-", ".part");
+            long size = Files.copy(new DigestInputStream(content, digest), tmpFile, StandardCopyOption.REPLACE_EXISTING);
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+
+            String storagePath = BLOBS_DIR + "/" + sha256.substring(0, 2) + "/" + sha256;
+            Path targetPath = basePath.resolve(storagePath);
+
+            if (Files.exists(targetPath)) {
+                Files.delete(tmpFile);
+                log.debug("Blob already stored, upload deduplicated: {}", storagePath);
+            } else {
+                Files.createDirectories(targetPath.getParent());
+                // Atomic rename: a concurrent upload of the same content just replaces identical bytes
+                Files.move(tmpFile, targetPath, StandardCopyOption.ATOMIC_MOVE);
+                log.debug("Blob stored at: {}", storagePath);
+            }
+
+            return new StoredBlob(sha256, storagePath, size);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            deleteQuietly(tmpFile);
+            throw new FileStorageException("No se pudo almacenar el archivo", e);
+        }
+    }
+
+    @Override
+    public String storeDerived(String contentHash, String suffix, InputStream content) {
+        String storagePath = BLOBS_DIR + "/" + contentHash.substring(0, 2) + "/" + contentHash + suffix;
+        Path tmpFile = null;
+        try {
+            tmpFile = Files.createTempFile(tmpPath, "derived-", ".part");
+            Files.copy(content, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+
+            Path targetPath = basePath.resolve(storagePath);
+            Files.createDirectories(targetPath.getParent());
+            // Readers never see a half-written file
+            Files.move(tmpFile, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Derived file stored at: {}", storagePath);
+
+            return storagePath;
+        } catch (IOException e) {
+            deleteQuietly(tmpFile);
+            throw new FileStorageException("No se pudo almacenar el archivo: " + storagePath, e);
+        }
+    }
+
+    @Override
+    public String storeArchiveSegment(String segmentName, InputStream content) {
+        String storagePath = ArchiveLocator.ARCHIVE_DIR + segmentName;
+        Path tmpFile = null;
+        try {
+            tmpFile = Files.createTempFile(tmpPath, "segment-", ".part");
+            Files.copy(content, tmpFile, StandardCopyOption.REPLACE_EXISTING);
+
+            Path targetPath = basePath.resolve(storagePath);
+            Files.createDirectories(targetPath.getParent());
+            Files.move(tmpFile, targetPath, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Archive segment stored at: {}", storagePath);
+
+            return storagePath;
+        } catch (IOException e) {
+            deleteQuietly(tmpFile);
+            throw new FileStorageException("No se pudo almacenar el archivo: " + storagePath, e);
+        }
+    }
+
     @Override
     public InputStream retrieve(String storagePath) {
         try {
@@ -95,6 +187,24 @@ public class LocalFileStorageAdapter implements FileStoragePort {
         }
     }
 
+    @Override
+    public Resource retrieveResource(String storagePath) {
+        Path filePath = basePath.resolve(storagePath);
+
+        if (!Files.isRegularFile(filePath)) {
+            throw new FileStorageException("Archivo no encontrado: " + storagePath);
+        }
+
+        // FileChannel-backed: ranges are served by seeking, not by skipping through the stream
+        return new FileSystemResource(filePath);
+    }
+
+    @Override
+    public Optional<URI> directDownloadUrl(String storagePath, String filename, String mimeType, boolean inline) {
+        // Files are only reachable through the application
+        return Optional.empty();
+    }
+
     @Override
     public void delete(String storagePath) {
         try {
@@ -117,6 +227,23 @@ public class LocalFileStorageAdapter implements FileStoragePort {
         return Files.exists(filePath);
     }
 
+    private String subjectFolderName(Long subjectId) {
+        Subject subject = subjectRepository.findById(subjectId)
+                .orElseThrow(() -> new FileStorageException("Asignatura no encontrada con id: " + subjectId));
+        return sanitizeFolderName(subject.getCode() + "-" + subject.getName());
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file: {}", path);
+        }
+    }
+
     /**
      * Sanitizes folder names for safe filesystem usage.
      * Removes special characters, replaces spaces with hyphens, and converts to lowercase.
@@ -0,0 +1,366 @@
+package com.acainfo.material.infrastructure.adapter.out.storage;
+
+import com.acainfo.material.application.dto.StoredBlob;
+import com.acainfo.material.application.port.out.FileStoragePort;
+import com.acainfo.material.domain.exception.FileStorageException;
+import com.acainfo.material.domain.model.ArchiveLocator;
+import com.acainfo.shared.infrastructure.config.S3StorageProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * S3 (or S3-compatible, e.g. MinIO) implementation of FileStoragePort.
+ * Active with {@code app.storage.type=s3}.
+ *
+ * <p>Blobs and archive segments use the local adapter's key layout, so their
+ * storage paths are portable between both. Named side files are not: they go
+ * under the subject ID here, while the local adapter names the folder after the
+ * subject's code and name ({@code subjects/{code-name}/...}).</p>
+ * <pre>
+ * {bucket}/
+ *   ├── blobs/{first 2 hex chars}/{sha256}[.thumb.png]
+ *   ├── archive/{academicYear}/{run}-{n}.zip
+ *   ├── subjects/{subjectId}/{storedFilename}
+ *   └── tmp/{uuid}                     multipart uploads being hashed
+ * </pre>
+ *
+ * <p>Uploads are streamed in {@link #PART_SIZE} parts: at most one part is held in
+ * memory, whatever the file size. Content that fits in one part is sent with a
+ * single PUT. Downloads are served by presigned GET URLs.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+public class S3FileStorageAdapter implements FileStoragePort {
+
+    /** Multipart part size; S3 requires at least 5 MB for every part but the last. */
+    static final int PART_SIZE = 8 * 1024 * 1024;
+
+    private static final String BLOBS_DIR = "blobs";
+    private static final String TMP_DIR = "tmp";
+
+    private final S3Client s3;
+    private final S3Presigner presigner;
+    private final S3StorageProperties properties;
+    private final String bucket;
+
+    public S3FileStorageAdapter(S3Client s3, S3Presigner presigner, S3StorageProperties properties) {
+        this.s3 = s3;
+        this.presigner = presigner;
+        this.properties = properties;
+        this.bucket = properties.getBucket();
+        log.info("S3 file storage initialized: bucket={}, endpoint={}",
+                bucket, properties.getEndpoint().isBlank() ? "AWS" : properties.getEndpoint());
+    }
+
+    @Override
+    public String store(InputStream content, String storedFilename, Long subjectId) {
+        String storagePath = "subjects/" + subjectId + "/" + storedFilename;
+        try {
+            upload(storagePath, content);
+            log.debug("File stored at: {}", storagePath);
+            return storagePath;
+        } catch (IOException | SdkException e) {
+            throw new FileStorageException("No se pudo almacenar el archivo: " + storedFilename, e);
+        }
+    }
+
+    @Override
+    public StoredBlob storeBlob(InputStream content) {
+        String tmpKey = null;
+        try {
+            // Hash while uploading: the content is read exactly once
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            InputStream hashing = new DigestInputStream(content, digest);
+            byte[] firstPart = hashing.readNBytes(PART_SIZE);
+
+            if (firstPart.length < PART_SIZE) {
+                // Fits in one part: the hash is known before anything is sent
+                String sha256 = HexFormat.of().formatHex(digest.digest());
+                String storagePath = blobKey(sha256);
+                if (exists(storagePath)) {
+                    log.debug("Blob already stored, upload deduplicated: {}", storagePath);
+                } else {
+                    s3.putObject(PutObjectRequest.builder().bucket(bucket).key(storagePath).build(),
+                            RequestBody.fromBytes(firstPart));
+                    log.debug("Blob stored at: {}", storagePath);
+                }
+                return new StoredBlob(sha256, storagePath, firstPart.length);
+            }
+
+            // Large file: the hash is only known at the end, so upload under a temporary key
+            tmpKey = TMP_DIR + "/" + UUID.randomUUID();
+            long size = multipartUpload(tmpKey, firstPart, hashing);
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            String storagePath = blobKey(sha256);
+
+            if (exists(storagePath)) {
+                log.debug("Blob already stored, upload deduplicated: {}", storagePath);
+            } else {
+                // Server-side copy: the bytes are not sent again
+                s3.copyObject(CopyObjectRequest.builder()
+                        .sourceBucket(bucket).sourceKey(tmpKey)
+                        .destinationBucket(bucket).destinationKey(storagePath)
+                        .build());
+                log.debug("Blob stored at: {}", storagePath);
+            }
+            return new StoredBlob(sha256, storagePath, size);
+        } catch (IOException | NoSuchAlgorithmException | SdkException e) {
+            throw new FileStorageException("No se pudo almacenar el archivo", e);
+        } finally {
+            deleteQuietly(tmpKey);
+        }
+    }
+
+    @Override
+    public String storeDerived(String contentHash, String suffix, InputStream content) {
+        String storagePath = blobKey(contentHash) + suffix;
+        try {
+            // A PUT is atomic: readers never see a half-written object
+            upload(storagePath, content);
+            log.debug("Derived file stored at: {}", storagePath);
+            return storagePath;
+        } catch (IOException | SdkException e) {
+            throw new FileStorageException("No se pudo almacenar el archivo: " + storagePath, e);
+        }
+    }
+
+    @Override
+    public String storeArchiveSegment(String segmentName, InputStream content) {
+        String storagePath = ArchiveLocator.ARCHIVE_DIR + segmentName;
+        try {
+            upload(storagePath, content);
+            log.debug("Archive segment stored at: {}", storagePath);
+            return storagePath;
+        } catch (IOException | SdkException e) {
+            throw new FileStorageException("No se pudo almacenar el archivo: " + storagePath, e);
+        }
+    }
+
+    @Override
+    public InputStream retrieve(String storagePath) {
+        try {
+            return s3.getObject(GetObjectRequest.builder().bucket(bucket).key(storagePath).build());
+        } catch (NoSuchKeyException e) {
+            throw new FileStorageException("Archivo no encontrado: " + storagePath);
+        } catch (SdkException e) {
+            throw new FileStorageException("No se pudo recuperar el archivo: " + storagePath, e);
+        }
+    }
+
+    @Override
+    public Resource retrieveResource(String storagePath) {
+        HeadObjectResponse head = head(storagePath)
+                .orElseThrow(() -> new FileStorageException("Archivo no encontrado: " + storagePath));
+        return new S3ObjectResource(storagePath, head);
+    }
+
+    @Override
+    public Optional<URI> directDownloadUrl(String storagePath, String filename, String mimeType, boolean inline) {
+        String disposition = (inline ? ContentDisposition.inline() : ContentDisposition.attachment())
+                .filename(filename, StandardCharsets.UTF_8)
+                .build()
+                .toString();
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucket)
+                .key(storagePath)
+                .responseContentDisposition(disposition)
+                .responseContentType(mimeType)
+                .build();
+        try {
+            // Signed locally: no request to the storage
+            URI url = presigner.presignGetObject(GetObjectPresignRequest.builder()
+                            .signatureDuration(properties.getPresignedUrlTtl())
+                            .getObjectRequest(request)
+                            .build())
+                    .url()
+                    .toURI();
+            return Optional.of(url);
+        } catch (URISyntaxException | SdkException e) {
+            throw new FileStorageException("No se pudo generar la URL de descarga: " + storagePath, e);
+        }
+    }
+
+    @Override
+    public void delete(String storagePath) {
+        try {
+            // Idempotent in S3: deleting a missing key is not an error
+            s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(storagePath).build());
+            log.debug("File deleted: {}", storagePath);
+        } catch (SdkException e) {
+            throw new FileStorageException("No se pudo eliminar el archivo: " + storagePath, e);
+        }
+    }
+
+    @Override
+    public boolean exists(String storagePath) {
+        return head(storagePath).isPresent();
+    }
+
+    /**
+     * Upload to a known key: one PUT when the content fits in a part, multipart otherwise.
+     */
+    private void upload(String key, InputStream content) throws IOException {
+        byte[] firstPart = content.readNBytes(PART_SIZE);
+        if (firstPart.length < PART_SIZE) {
+            s3.putObject(PutObjectRequest.builder().bucket(bucket).key(key).build(), RequestBody.fromBytes(firstPart));
+        } else {
+            multipartUpload(key, firstPart, content);
+        }
+    }
+
+    /**
+     * Multipart upload of {@code firstPart} followed by the rest of {@code content},
+     * one part in memory at a time. Aborted on failure so no orphan parts are billed.
+     *
+     * @return Total bytes uploaded
+     */
+    private long multipartUpload(String key, byte[] firstPart, InputStream content) throws IOException {
+        String uploadId = s3.createMultipartUpload(
+                CreateMultipartUploadRequest.builder().bucket(bucket).key(key).build()).uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            long size = 0;
+            byte[] part = firstPart;
+            while (part.length > 0) {
+                int partNumber = parts.size() + 1;
+                UploadPartRequest request = UploadPartRequest.builder()
+                        .bucket(bucket).key(key).uploadId(uploadId).partNumber(partNumber)
+                        .build();
+                String eTag = s3.uploadPart(request, RequestBody.fromBytes(part)).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+                size += part.length;
+                part = content.readNBytes(PART_SIZE);
+            }
+            s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+            return size;
+        } catch (IOException | SdkException e) {
+            abortQuietly(key, uploadId);
+            throw e;
+        }
+    }
+
+    private Optional<HeadObjectResponse> head(String storagePath) {
+        try {
+            return Optional.of(s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(storagePath).build()));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            // HEAD responses have no body, so some servers only report the 404 status
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new FileStorageException("No se pudo consultar el archivo: " + storagePath, e);
+        }
+    }
+
+    private String blobKey(String sha256) {
+        return BLOBS_DIR + "/" + sha256.substring(0, 2) + "/" + sha256;
+    }
+
+    private void abortQuietly(String key, String uploadId) {
+        try {
+            s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket).key(key).uploadId(uploadId)
+                    .build());
+        } catch (SdkException e) {
+            log.warn("Could not abort multipart upload {} of {}", uploadId, key);
+        }
+    }
+
+    private void deleteQuietly(String key) {
+        if (key == null) {
+            return;
+        }
+        try {
+            s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (SdkException e) {
+            log.warn("Could not delete temporary object: {}", key);
+        }
+    }
+
+    /**
+     * Resource over an S3 object. Length and last-modified come from the HEAD done
+     * when it was created; the body is only requested when it is read.
+     */
+    private class S3ObjectResource extends AbstractResource {
+
+        private final String storagePath;
+        private final HeadObjectResponse head;
+
+        S3ObjectResource(String storagePath, HeadObjectResponse head) {
+            this.storagePath = storagePath;
+            this.head = head;
+        }
+
+        @Override
+        public String getDescription() {
+            return "S3 object [" + bucket + "/" + storagePath + "]";
+        }
+
+        @Override
+        public String getFilename() {
+            return storagePath.substring(storagePath.lastIndexOf('/') + 1);
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return retrieve(storagePath);
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return head.contentLength();
+        }
+
+        @Override
+        public long lastModified() {
+            return head.lastModified() != null ? head.lastModified().toEpochMilli() : 0L;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.acainfo.material.infrastructure.mapper;
 import com.acainfo.material.domain.model.MaterialAiJob;
 import com.acainfo.material.infrastructure.adapter.out.persistence.entity.MaterialAiJobJpaEntity;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 
 /**
  * MapStruct mapper for MaterialAiJob persistence layer.
@@ -13,4 +15,15 @@ public interface MaterialAiJobPersistenceMapper {
     MaterialAiJobJpaEntity toJpaEntity(MaterialAiJob job);
 
     MaterialAiJob toDomain(MaterialAiJobJpaEntity entity);
+
+    /**
+     * Copy the state a run leaves the job in onto its loaded entity. Captures and items
+     * keep their loaded rows (items are written one at a time), and so do the source
+     * material and folder, which the database clears when they are deleted mid-run.
+     */
+    @Mapping(target = "captures", ignore = true)
+    @Mapping(target = "items", ignore = true)
+    @Mapping(target = "sourceMaterialId", ignore = true)
+    @Mapping(target = "folderId", ignore = true)
+    void updateRunState(MaterialAiJob job, @MappingTarget MaterialAiJobJpaEntity entity);
 }
@@ -4,8 +4,11 @@ import com.acainfo.reservation.application.dto.ReservationFilters;
 import com.acainfo.reservation.domain.model.ReservationMode;
 import com.acainfo.reservation.domain.model.ReservationStatus;
 import com.acainfo.reservation.domain.model.SessionReservation;
+import com.acainfo.schedule.domain.model.Classroom;
 import org.springframework.data.domain.Page;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -150,6 +153,16 @@ public interface ReservationRepositoryPort {
      */
     Set<Long> findExistingSessionIdsForStudent(Long studentId, List<Long> sessionIds);
 
+    /**
+     * Multi-student variant of {@link #findExistingSessionIdsForStudent(Long, List)}:
+     * one query for every (student, session) pair that already has a reservation.
+     *
+     * @param studentIds Student IDs
+     * @param sessionIds Session IDs to check
+     * @return Map of student ID to the session IDs where they already have a reservation
+     */
+    Map<Long, Set<Long>> findExistingSessionIdsByStudent(List<Long> studentIds, List<Long> sessionIds);
+
     /**
      * Count confirmed in-person reservations for multiple sessions in a single query.
      * Returns a map from session ID to in-person count.
@@ -158,4 +171,67 @@ public interface ReservationRepositoryPort {
      * @return Map of session ID to confirmed in-person reservation count
      */
     Map<Long, Long> countInPersonReservationsBySessionIds(List<Long> sessionIds);
+
+    /**
+     * Cancel, in a single set-based update, every confirmed reservation of a student
+     * for the upcoming SCHEDULED sessions of a course (session date >= fromDate).
+     * Replaces the per-session find + save loop used on withdrawal / course closure.
+     *
+     * @param studentId   Student ID
+     * @param courseId    Course whose future sessions are affected
+     * @param fromDate    First session date considered "future" (inclusive)
+     * @param cancelledAt Timestamp written to cancelledAt
+     * @return Number of reservations cancelled
+     */
+    int cancelFutureConfirmedByStudentAndCourse(Long studentId, Long courseId,
+                                                LocalDate fromDate, LocalDateTime cancelledAt);
+
+    /**
+     * Cancel, in a single set-based update, every confirmed reservation of a session.
+     * Used when the session itself is cancelled so its seats are released.
+     *
+     * @param sessionId   Session ID
+     * @param cancelledAt Timestamp written to cancelledAt
+     * @return Number of reservations cancelled
+     */
+    int cancelConfirmedBySessionId(Long sessionId, LocalDateTime cancelledAt);
+
+    /**
+     * Cancel, in a single set-based update, every confirmed reservation of the
+     * SCHEDULED sessions in a date range. Must run BEFORE the sessions are moved
+     * to CANCELLED, since the SCHEDULED status is what selects them.
+     *
+     * @param fromDate    First session date (inclusive)
+     * @param toDate      Last session date (inclusive)
+     * @param classroom   Optional classroom filter (null = all)
+     * @param courseId    Optional course filter (null = all)
+     * @param cancelledAt Timestamp written to cancelledAt
+     * @return Number of reservations cancelled
+     */
+    int cancelConfirmedForScheduledSessionsInRange(LocalDate fromDate, LocalDate toDate,
+                                                   Classroom classroom, Long courseId,
+                                                   LocalDateTime cancelledAt);
+
+    /**
+     * Cancel, in a single set-based update, the confirmed reservations that every
+     * ACTIVE student of a course holds for the upcoming SCHEDULED sessions of that
+     * course. Must run BEFORE the enrollments leave ACTIVE, since that status is
+     * what selects the students.
+     *
+     * @param courseId    Course being closed
+     * @param fromDate    First session date considered "future" (inclusive)
+     * @param cancelledAt Timestamp written to cancelledAt
+     * @return Number of reservations cancelled
+     */
+    int cancelFutureConfirmedForActiveStudentsOfCourse(Long courseId, LocalDate fromDate,
+                                                       LocalDateTime cancelledAt);
+
+    /**
+     * Delete every reservation of the sessions of a course in a single statement.
+     * Used when the course (and therefore its sessions) is deleted.
+     *
+     * @param courseId Course ID
+     * @return Number of reservations deleted
+     */
+    int deleteBySessionCourseId(Long courseId);
 }
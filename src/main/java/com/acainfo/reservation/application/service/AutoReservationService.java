@@ -1,6 +1,7 @@
 package com.acainfo.reservation.application.service;
 
 import com.acainfo.enrollment.application.port.out.AutoReservationPort;
+import com.acainfo.enrollment.domain.model.Enrollment;
 import com.acainfo.reservation.application.port.out.ReservationRepositoryPort;
 import com.acainfo.reservation.domain.model.ReservationMode;
 import com.acainfo.reservation.domain.model.ReservationStatus;
@@ -15,9 +16,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service implementing automatic reservation generation and cancellation.
@@ -27,6 +31,7 @@ import java.util.Set;
  * <ul>
  *   <li>Enrollment is approved as ACTIVE → generates reservations for all future sessions</li>
  *   <li>Student is promoted from waiting list → generates reservations for all future sessions</li>
+ *   <li>Enrollments are approved in bulk → generates the reservations of the whole batch at once</li>
  *   <li>Enrollment is withdrawn → cancels all future confirmed reservations</li>
  * </ul>
  */
@@ -65,8 +70,8 @@ public class AutoReservationService implements AutoReservationPort {
         Map<Long, Long> inPersonCounts = reservationRepositoryPort
                 .countInPersonReservationsBySessionIds(sessionIds);
 
-        int created = 0;
         LocalDateTime now = LocalDateTime.now();
+        List<SessionReservation> toCreate = new ArrayList<>();
 
         for (Session session : futureSessions) {
             // Idempotency: skip if reservation already exists - in-memory lookup
@@ -82,46 +87,113 @@ public class AutoReservationService implements AutoReservationPort {
                     ? ReservationMode.IN_PERSON
                     : ReservationMode.ONLINE;
 
-            SessionReservation reservation = SessionReservation.builder()
+            toCreate.add(SessionReservation.builder()
                     .studentId(studentId)
                     .sessionId(session.getId())
                     .enrollmentId(enrollmentId)
                     .mode(mode)
                     .status(ReservationStatus.CONFIRMED)
                     .reservedAt(now)
-                    .build();
+                    .build());
+        }
 
-            reservationRepositoryPort.save(reservation);
-            created++;
+        // Single batched write instead of one save() per session
+        if (!toCreate.isEmpty()) {
+            reservationRepositoryPort.saveAll(toCreate);
         }
 
         log.info("Auto-generated {} reservations for student {} in group {}",
-                created, studentId, courseId);
+                toCreate.size(), studentId, courseId);
     }
 
     @Override
+    @Async
     @Transactional
-    public void cancelFutureReservations(Long studentId, Long courseId) {
-        log.info("Cancelling future reservations for student {} in group {}", studentId, courseId);
+    public void generateForNewEnrollments(List<Enrollment> enrollments) {
+        if (enrollments.isEmpty()) {
+            return;
+        }
 
+        List<Long> courseIds = enrollments.stream().map(Enrollment::getCourseId).distinct().toList();
         List<Session> futureSessions = sessionRepositoryPort
-                .findUpcomingByCourseIds(List.of(courseId), LocalDate.now(), 999);
+                .findUpcomingByCourseIds(courseIds, LocalDate.now(), 999 * courseIds.size());
+
+        if (futureSessions.isEmpty()) {
+            log.info("No future sessions for groups {}, no reservations generated", courseIds);
+            return;
+        }
+
+        Map<Long, List<Session>> sessionsByCourse = futureSessions.stream()
+                .collect(Collectors.groupingBy(Session::getCourseId));
+        List<Long> sessionIds = futureSessions.stream().map(Session::getId).toList();
+        List<Long> studentIds = enrollments.stream().map(Enrollment::getStudentId).distinct().toList();
+
+        // Batch-fetch once for the whole batch: existing pairs and in-person occupancy
+        Map<Long, Set<Long>> existingByStudent = reservationRepositoryPort
+                .findExistingSessionIdsByStudent(studentIds, sessionIds);
+        Map<Long, Long> inPersonCounts = new HashMap<>(
+                reservationRepositoryPort.countInPersonReservationsBySessionIds(sessionIds));
 
-        int cancelled = 0;
         LocalDateTime now = LocalDateTime.now();
+        List<SessionReservation> toCreate = new ArrayList<>();
+
+        for (Enrollment enrollment : enrollments) {
+            Set<Long> existing = existingByStudent.getOrDefault(enrollment.getStudentId(), Set.of());
+
+            for (Session session : sessionsByCourse.getOrDefault(enrollment.getCourseId(), List.of())) {
+                if (existing.contains(session.getId())) {
+                    continue;
+                }
+
+                // Seats taken earlier in this batch count too, so the running total is kept in memory
+                long inPersonCount = inPersonCounts.getOrDefault(session.getId(), 0L);
+                ReservationMode mode = inPersonCount < MAX_IN_PERSON_CAPACITY
+                        ? ReservationMode.IN_PERSON
+                        : ReservationMode.ONLINE;
+                if (mode == ReservationMode.IN_PERSON) {
+                    inPersonCounts.put(session.getId(), inPersonCount + 1);
+                }
+
+                toCreate.add(SessionReservation.builder()
+                        .studentId(enrollment.getStudentId())
+                        .sessionId(session.getId())
+                        .enrollmentId(enrollment.getId())
+                        .mode(mode)
+                        .status(ReservationStatus.CONFIRMED)
+                        .reservedAt(now)
+                        .build());
+            }
+        }
 
-        for (Session session : futureSessions) {
-            reservationRepositoryPort.findByStudentIdAndSessionId(studentId, session.getId())
-                    .filter(SessionReservation::isConfirmed)
-                    .ifPresent(reservation -> {
-                        reservation.setStatus(ReservationStatus.CANCELLED);
-                        reservation.setCancelledAt(now);
-                        reservationRepositoryPort.save(reservation);
-                    });
-            cancelled++;
+        if (!toCreate.isEmpty()) {
+            reservationRepositoryPort.saveAll(toCreate);
         }
 
+        log.info("Auto-generated {} reservations for {} enrollments in groups {}",
+                toCreate.size(), enrollments.size(), courseIds);
+    }
+
+    @Override
+    @Transactional
+    public int cancelFutureReservations(Long studentId, Long courseId) {
+        log.info("Cancelling future reservations for student {} in group {}", studentId, courseId);
+
+        // One set-based UPDATE over the course's upcoming SCHEDULED sessions
+        int cancelled = reservationRepositoryPort.cancelFutureConfirmedByStudentAndCourse(
+                studentId, courseId, LocalDate.now(), LocalDateTime.now());
+
         log.info("Cancelled {} future reservations for student {} in group {}",
                 cancelled, studentId, courseId);
+        return cancelled;
+    }
+
+    @Override
+    @Transactional
+    public int cancelFutureReservationsForActiveStudents(Long courseId) {
+        int cancelled = reservationRepositoryPort.cancelFutureConfirmedForActiveStudentsOfCourse(
+                courseId, LocalDate.now(), LocalDateTime.now());
+
+        log.info("Cancelled {} future reservations of active students in group {}", cancelled, courseId);
+        return cancelled;
     }
 }
@@ -3,12 +3,16 @@ package com.acainfo.reservation.infrastructure.adapter.out.persistence.repositor
 import com.acainfo.reservation.domain.model.ReservationMode;
 import com.acainfo.reservation.domain.model.ReservationStatus;
 import com.acainfo.reservation.infrastructure.adapter.out.persistence.entity.SessionReservationJpaEntity;
+import com.acainfo.schedule.domain.model.Classroom;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -76,6 +80,21 @@ public interface JpaReservationRepository extends
             @Param("sessionIds") List<Long> sessionIds
     );
 
+    /**
+     * Find existing (studentId, sessionId) pairs for several students at once.
+     * Returns pairs of [studentId, sessionId] for batch reservation generation.
+     */
+    @Query("""
+        SELECT r.studentId, r.sessionId
+        FROM SessionReservationJpaEntity r
+        WHERE r.studentId IN :studentIds
+        AND r.sessionId IN :sessionIds
+        """)
+    List<Object[]> findStudentSessionPairs(
+            @Param("studentIds") List<Long> studentIds,
+            @Param("sessionIds") List<Long> sessionIds
+    );
+
     /**
      * Count confirmed in-person reservations grouped by session ID.
      * Returns pairs of [sessionId, count] for batch counting.
@@ -106,4 +125,116 @@ public interface JpaReservationRepository extends
             @Param("studentId") Long studentId,
             @Param("subjectId") Long subjectId
     );
+
+    /**
+     * Bulk-cancel a student's confirmed reservations for the upcoming SCHEDULED sessions of a course.
+     * Audit fields are not populated by bulk JPQL, so updatedAt is set explicitly.
+     */
+    @Modifying
+    @Query("""
+        UPDATE SessionReservationJpaEntity r
+        SET r.status = com.acainfo.reservation.domain.model.ReservationStatus.CANCELLED,
+            r.cancelledAt = :now,
+            r.updatedAt = :now
+        WHERE r.studentId = :studentId
+        AND r.status = 'CONFIRMED'
+        AND r.sessionId IN (
+            SELECT s.id FROM SessionJpaEntity s
+            WHERE s.courseId = :courseId
+            AND s.status = 'SCHEDULED'
+            AND s.date >= :fromDate
+        )
+        """)
+    int cancelFutureConfirmedByStudentAndCourse(
+            @Param("studentId") Long studentId,
+            @Param("courseId") Long courseId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("now") LocalDateTime now
+    );
+
+    /**
+     * Bulk-cancel the confirmed reservations of a single session (session cancelled).
+     */
+    @Modifying
+    @Query("""
+        UPDATE SessionReservationJpaEntity r
+        SET r.status = com.acainfo.reservation.domain.model.ReservationStatus.CANCELLED,
+            r.cancelledAt = :now,
+            r.updatedAt = :now
+        WHERE r.sessionId = :sessionId
+        AND r.status = 'CONFIRMED'
+        """)
+    int cancelConfirmedBySessionId(
+            @Param("sessionId") Long sessionId,
+            @Param("now") LocalDateTime now
+    );
+
+    /**
+     * Bulk-cancel the confirmed reservations of every SCHEDULED session in a date range,
+     * optionally restricted to a classroom and/or a course (null = no filter).
+     */
+    @Modifying
+    @Query("""
+        UPDATE SessionReservationJpaEntity r
+        SET r.status = com.acainfo.reservation.domain.model.ReservationStatus.CANCELLED,
+            r.cancelledAt = :now,
+            r.updatedAt = :now
+        WHERE r.status = 'CONFIRMED'
+        AND r.sessionId IN (
+            SELECT s.id FROM SessionJpaEntity s
+            WHERE s.status = 'SCHEDULED'
+            AND s.date BETWEEN :fromDate AND :toDate
+            AND (:classroom IS NULL OR s.classroom = :classroom)
+            AND (:courseId IS NULL OR s.courseId = :courseId)
+        )
+        """)
+    int cancelConfirmedForScheduledSessionsInRange(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("classroom") Classroom classroom,
+            @Param("courseId") Long courseId,
+            @Param("now") LocalDateTime now
+    );
+
+    /**
+     * Bulk-cancel the confirmed reservations of every ACTIVE student of a course for
+     * the course's upcoming SCHEDULED sessions (course closure).
+     */
+    @Modifying
+    @Query("""
+        UPDATE SessionReservationJpaEntity r
+        SET r.status = com.acainfo.reservation.domain.model.ReservationStatus.CANCELLED,
+            r.cancelledAt = :now,
+            r.updatedAt = :now
+        WHERE r.status = 'CONFIRMED'
+        AND r.studentId IN (
+            SELECT e.studentId FROM EnrollmentJpaEntity e
+            WHERE e.courseId = :courseId
+            AND e.status = 'ACTIVE'
+        )
+        AND r.sessionId IN (
+            SELECT s.id FROM SessionJpaEntity s
+            WHERE s.courseId = :courseId
+            AND s.status = 'SCHEDULED'
+            AND s.date >= :fromDate
+        )
+        """)
+    int cancelFutureConfirmedForActiveStudentsOfCourse(
+            @Param("courseId") Long courseId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("now") LocalDateTime now
+    );
+
+    /**
+     * Bulk-delete every reservation of the sessions of a course (course deletion).
+     */
+    @Modifying
+    @Query("""
+        DELETE FROM SessionReservationJpaEntity r
+        WHERE r.sessionId IN (
+            SELECT s.id FROM SessionJpaEntity s
+            WHERE s.courseId = :courseId
+        )
+        """)
+    int deleteBySessionCourseId(@Param("courseId") Long courseId);
 }
@@ -8,6 +8,7 @@ import com.acainfo.reservation.domain.model.SessionReservation;
 import com.acainfo.reservation.infrastructure.adapter.out.persistence.entity.SessionReservationJpaEntity;
 import com.acainfo.reservation.infrastructure.adapter.out.persistence.specification.ReservationSpecifications;
 import com.acainfo.reservation.infrastructure.mapper.ReservationPersistenceMapper;
+import com.acainfo.schedule.domain.model.Classroom;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -15,6 +16,8 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -130,6 +133,18 @@ public class ReservationRepositoryAdapter implements ReservationRepositoryPort {
         return new HashSet<>(jpaReservationRepository.findSessionIdsByStudentIdAndSessionIdIn(studentId, sessionIds));
     }
 
+    @Override
+    public Map<Long, Set<Long>> findExistingSessionIdsByStudent(List<Long> studentIds, List<Long> sessionIds) {
+        if (studentIds == null || studentIds.isEmpty() || sessionIds == null || sessionIds.isEmpty()) {
+            return Map.of();
+        }
+        return jpaReservationRepository.findStudentSessionPairs(studentIds, sessionIds).stream()
+                .collect(Collectors.groupingBy(
+                        row -> (Long) row[0],
+                        Collectors.mapping(row -> (Long) row[1], Collectors.toSet())
+                ));
+    }
+
     @Override
     public Map<Long, Long> countInPersonReservationsBySessionIds(List<Long> sessionIds) {
         if (sessionIds == null || sessionIds.isEmpty()) {
@@ -141,4 +156,36 @@ public class ReservationRepositoryAdapter implements ReservationRepositoryPort {
                         row -> (Long) row[1]
                 ));
     }
+
+    @Override
+    public int cancelFutureConfirmedByStudentAndCourse(Long studentId, Long courseId,
+                                                       LocalDate fromDate, LocalDateTime cancelledAt) {
+        return jpaReservationRepository.cancelFutureConfirmedByStudentAndCourse(
+                studentId, courseId, fromDate, cancelledAt);
+    }
+
+    @Override
+    public int cancelConfirmedBySessionId(Long sessionId, LocalDateTime cancelledAt) {
+        return jpaReservationRepository.cancelConfirmedBySessionId(sessionId, cancelledAt);
+    }
+
+    @Override
+    public int cancelConfirmedForScheduledSessionsInRange(LocalDate fromDate, LocalDate toDate,
+                                                          Classroom classroom, Long courseId,
+                                                          LocalDateTime cancelledAt) {
+        return jpaReservationRepository.cancelConfirmedForScheduledSessionsInRange(
+                fromDate, toDate, classroom, courseId, cancelledAt);
+    }
+
+    @Override
+    public int cancelFutureConfirmedForActiveStudentsOfCourse(Long courseId, LocalDate fromDate,
+                                                              LocalDateTime cancelledAt) {
+        return jpaReservationRepository.cancelFutureConfirmedForActiveStudentsOfCourse(
+                courseId, fromDate, cancelledAt);
+    }
+
+    @Override
+    public int deleteBySessionCourseId(Long courseId) {
+        return jpaReservationRepository.deleteBySessionCourseId(courseId);
+    }
 }
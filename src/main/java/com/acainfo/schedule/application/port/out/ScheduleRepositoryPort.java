@@ -54,6 +54,15 @@ public interface ScheduleRepositoryPort {
      */
     void delete(Long id);
 
+    /**
+     * Delete every schedule of a course in a single statement.
+     * Used when the course itself is deleted.
+     *
+     * @param courseId Course ID
+     * @return Number of schedules deleted
+     */
+    int deleteByCourseId(Long courseId);
+
     /**
      * Check if a schedule exists by ID.
      *
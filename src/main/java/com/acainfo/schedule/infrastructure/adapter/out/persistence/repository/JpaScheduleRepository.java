@@ -3,6 +3,7 @@ package com.acainfo.schedule.infrastructure.adapter.out.persistence.repository;
 import com.acainfo.schedule.infrastructure.adapter.out.persistence.entity.ScheduleJpaEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -24,6 +25,13 @@ public interface JpaScheduleRepository extends
      */
     List<ScheduleJpaEntity> findByCourseId(Long courseId);
 
+    /**
+     * Bulk-delete every schedule of a course (no per-entity load).
+     */
+    @Modifying
+    @Query("DELETE FROM ScheduleJpaEntity s WHERE s.courseId = :courseId")
+    int deleteAllByCourseId(@Param("courseId") Long courseId);
+
     /**
      * Find schedules by teacher ID and day of week.
      * Joins through the courses table to get schedules where the group's teacher matches.
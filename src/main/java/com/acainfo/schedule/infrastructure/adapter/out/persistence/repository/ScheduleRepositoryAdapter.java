@@ -71,6 +71,11 @@ public class ScheduleRepositoryAdapter implements ScheduleRepositoryPort {
         jpaScheduleRepository.deleteById(id);
     }
 
+    @Override
+    public int deleteByCourseId(Long courseId) {
+        return jpaScheduleRepository.deleteAllByCourseId(courseId);
+    }
+
     @Override
     public boolean existsById(Long id) {
         return jpaScheduleRepository.existsById(id);
@@ -0,0 +1,23 @@
+package com.acainfo.session.application.dto;
+
+import com.acainfo.schedule.domain.model.Classroom;
+
+import java.time.LocalDate;
+
+/**
+ * Command DTO for cancelling every SCHEDULED session in a date range
+ * (bank holiday, closed week...). Optional filters narrow the affected sessions.
+ */
+public record CancelSessionsInRangeCommand(
+        LocalDate fromDate,     // First date affected (inclusive)
+        LocalDate toDate,       // Last date affected (inclusive)
+        Classroom classroom,    // Optional: null = all classrooms
+        Long courseId           // Optional: null = all courses
+) {
+    /**
+     * Cancel every SCHEDULED session on the given dates, regardless of classroom or course.
+     */
+    public static CancelSessionsInRangeCommand forDates(LocalDate fromDate, LocalDate toDate) {
+        return new CancelSessionsInRangeCommand(fromDate, toDate, null, null);
+    }
+}
@@ -0,0 +1,11 @@
+package com.acainfo.session.application.dto;
+
+/**
+ * Outcome of a bulk cancellation: how many sessions moved to CANCELLED and
+ * how many confirmed reservations were released with them.
+ */
+public record CancelSessionsInRangeResult(
+        int sessionsCancelled,
+        int reservationsCancelled
+) {
+}
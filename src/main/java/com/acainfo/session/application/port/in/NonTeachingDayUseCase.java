@@ -0,0 +1,30 @@
+package com.acainfo.session.application.port.in;
+
+import com.acainfo.session.domain.model.NonTeachingDay;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Input port for the calendar of non-teaching days (bank holidays, closed weeks).
+ * Session generation never creates sessions on these dates.
+ */
+public interface NonTeachingDayUseCase {
+
+    /**
+     * List the non-teaching days between two dates (both inclusive), ordered by date.
+     */
+    List<NonTeachingDay> getBetween(LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Mark a date as non-teaching. A date can only be marked once.
+     * Sessions already generated for that date are NOT touched: use
+     * {@link SessionLifecycleUseCase#cancelInRange} to cancel them.
+     */
+    NonTeachingDay create(LocalDate date, String description);
+
+    /**
+     * Remove a date from the calendar. Sessions are not regenerated automatically.
+     */
+    void delete(Long id);
+}
@@ -1,5 +1,7 @@
 package com.acainfo.session.application.port.in;
 
+import com.acainfo.session.application.dto.CancelSessionsInRangeCommand;
+import com.acainfo.session.application.dto.CancelSessionsInRangeResult;
 import com.acainfo.session.application.dto.PostponeSessionCommand;
 import com.acainfo.session.domain.model.Session;
 
@@ -38,6 +40,7 @@ public interface SessionLifecycleUseCase {
 
     /**
      * Cancel a session (transition from SCHEDULED to CANCELLED).
+     * Its confirmed reservations are cancelled as well, releasing the seats.
      *
      * @param id Session ID
      * @return The updated session
@@ -45,6 +48,17 @@ public interface SessionLifecycleUseCase {
      */
     Session cancel(Long id);
 
+    /**
+     * Cancel every SCHEDULED session in a date range, optionally restricted to a
+     * classroom and/or a course, together with their confirmed reservations.
+     * Runs as a fixed number of set-based updates, whatever the number of sessions.
+     *
+     * @param command Date range and optional filters
+     * @return Number of sessions and reservations cancelled
+     * @throws com.acainfo.session.domain.exception.InvalidSessionStateException if the range is invalid
+     */
+    CancelSessionsInRangeResult cancelInRange(CancelSessionsInRangeCommand command);
+
     /**
      * Postpone a session to a new date/time.
      * The original session is marked as POSTPONED and a new SCHEDULED session is created.
@@ -0,0 +1,44 @@
+package com.acainfo.session.application.port.out;
+
+import com.acainfo.session.domain.model.NonTeachingDay;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Output port for NonTeachingDay persistence.
+ */
+public interface NonTeachingDayRepositoryPort {
+
+    /**
+     * Save or update a non-teaching day.
+     */
+    NonTeachingDay save(NonTeachingDay nonTeachingDay);
+
+    /**
+     * Find non-teaching day by ID.
+     */
+    Optional<NonTeachingDay> findById(Long id);
+
+    /**
+     * Find the non-teaching days between two dates (both inclusive), ordered by date.
+     */
+    List<NonTeachingDay> findBetween(LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Dates only, for lookups while generating sessions: one query per generation run.
+     */
+    Set<LocalDate> findDatesBetween(LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Check whether a date is already in the calendar.
+     */
+    boolean existsByDate(LocalDate date);
+
+    /**
+     * Delete a non-teaching day by ID.
+     */
+    void delete(Long id);
+}
@@ -1,10 +1,12 @@
 package com.acainfo.session.application.port.out;
 
+import com.acainfo.schedule.domain.model.Classroom;
 import com.acainfo.session.application.dto.SessionFilters;
 import com.acainfo.session.domain.model.Session;
 import org.springframework.data.domain.Page;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -97,6 +99,15 @@ public interface SessionRepositoryPort {
      */
     void deleteByScheduleId(Long scheduleId);
 
+    /**
+     * Delete every session of a course (REGULAR and EXTRA) in a single statement.
+     * Used for cascade deletion when a course is removed.
+     *
+     * @param courseId Course ID
+     * @return Number of sessions deleted
+     */
+    int deleteByCourseId(Long courseId);
+
     /**
      * Check if there are any sessions for a group on a specific date and time range.
      * Used for conflict detection.
@@ -129,4 +140,18 @@ public interface SessionRepositoryPort {
      * @return List of sessions for the teacher on that date
      */
     List<Session> findByTeacherIdAndDate(Long teacherId, LocalDate date);
+
+    /**
+     * Move every SCHEDULED session in a date range to CANCELLED in a single update.
+     * Optional filters narrow the affected sessions.
+     *
+     * @param fromDate  First date (inclusive)
+     * @param toDate    Last date (inclusive)
+     * @param classroom Optional classroom filter (null = all)
+     * @param courseId  Optional course filter (null = all)
+     * @param updatedAt Timestamp written to updatedAt
+     * @return Number of sessions cancelled
+     */
+    int cancelScheduledInRange(LocalDate fromDate, LocalDate toDate, Classroom classroom,
+                               Long courseId, LocalDateTime updatedAt);
 }
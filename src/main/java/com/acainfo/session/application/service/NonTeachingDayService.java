@@ -0,0 +1,57 @@
+package com.acainfo.session.application.service;
+
+import com.acainfo.session.application.port.in.NonTeachingDayUseCase;
+import com.acainfo.session.application.port.out.NonTeachingDayRepositoryPort;
+import com.acainfo.session.domain.exception.DuplicateNonTeachingDayException;
+import com.acainfo.session.domain.exception.NonTeachingDayNotFoundException;
+import com.acainfo.session.domain.model.NonTeachingDay;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service for the non-teaching days calendar.
+ * Implements {@link NonTeachingDayUseCase}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class NonTeachingDayService implements NonTeachingDayUseCase {
+
+    private final NonTeachingDayRepositoryPort nonTeachingDayRepositoryPort;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<NonTeachingDay> getBetween(LocalDate fromDate, LocalDate toDate) {
+        return nonTeachingDayRepositoryPort.findBetween(fromDate, toDate);
+    }
+
+    @Override
+    public NonTeachingDay create(LocalDate date, String description) {
+        if (nonTeachingDayRepositoryPort.existsByDate(date)) {
+            throw new DuplicateNonTeachingDayException(date);
+        }
+
+        NonTeachingDay saved = nonTeachingDayRepositoryPort.save(NonTeachingDay.builder()
+                .date(date)
+                .description(description != null ? description.trim() : null)
+                .build());
+
+        log.info("Non-teaching day created: id={}, date={}", saved.getId(), saved.getDate());
+        return saved;
+    }
+
+    @Override
+    public void delete(Long id) {
+        NonTeachingDay day = nonTeachingDayRepositoryPort.findById(id)
+                .orElseThrow(() -> new NonTeachingDayNotFoundException(id));
+
+        nonTeachingDayRepositoryPort.delete(id);
+        log.info("Non-teaching day deleted: id={}, date={}", id, day.getDate());
+    }
+}
@@ -9,6 +9,7 @@ import com.acainfo.schedule.application.port.out.ScheduleRepositoryPort;
 import com.acainfo.schedule.domain.model.Schedule;
 import com.acainfo.session.application.dto.GenerateSessionsCommand;
 import com.acainfo.session.application.port.in.GenerateSessionsUseCase;
+import com.acainfo.session.application.port.out.NonTeachingDayRepositoryPort;
 import com.acainfo.session.application.port.out.SessionRepositoryPort;
 import com.acainfo.session.domain.exception.InvalidSessionStateException;
 import com.acainfo.session.domain.exception.TeacherSessionConflictException;
@@ -27,10 +28,12 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Service implementing session generation from schedules.
  * Handles bulk creation of REGULAR sessions based on schedule patterns.
+ * Dates in the non-teaching days calendar are skipped.
  */
 @Service
 @RequiredArgsConstructor
@@ -42,6 +45,7 @@ public class SessionGenerationService implements GenerateSessionsUseCase {
     private final ScheduleRepositoryPort scheduleRepositoryPort;
     private final UserRepositoryPort userRepositoryPort;
     private final GenerateReservationsUseCase generateReservationsUseCase;
+    private final NonTeachingDayRepositoryPort nonTeachingDayRepositoryPort;
 
     @Override
     @Transactional
@@ -97,10 +101,19 @@ public class SessionGenerationService implements GenerateSessionsUseCase {
                 ? group.getEndDate()
                 : command.endDate();
 
+        // One lookup for the whole range instead of one per generated date
+        Set<LocalDate> nonTeachingDays = nonTeachingDayRepositoryPort.findDatesBetween(
+                command.startDate(), effectiveEnd);
+
         List<Session> sessionsToCreate = new ArrayList<>();
 
         LocalDate currentDate = command.startDate();
         while (!currentDate.isAfter(effectiveEnd)) {
+            if (nonTeachingDays.contains(currentDate)) {
+                currentDate = currentDate.plusDays(1);
+                continue;
+            }
+
             DayOfWeek dayOfWeek = currentDate.getDayOfWeek();
 
             for (Schedule schedule : schedules) {
@@ -2,6 +2,8 @@ package com.acainfo.session.application.service;
 
 import com.acainfo.reservation.application.port.out.ReservationRepositoryPort;
 import com.acainfo.reservation.domain.model.SessionReservation;
+import com.acainfo.session.application.dto.CancelSessionsInRangeCommand;
+import com.acainfo.session.application.dto.CancelSessionsInRangeResult;
 import com.acainfo.session.application.dto.PostponeSessionCommand;
 import com.acainfo.session.application.port.in.GetSessionUseCase;
 import com.acainfo.session.application.port.in.SessionLifecycleUseCase;
@@ -19,7 +21,7 @@ import java.util.List;
 
 /**
  * Service implementing session lifecycle transitions.
- * Handles state changes: start, complete, cancel, postpone.
+ * Handles state changes: start, complete, cancel (single or by date range), postpone.
  */
 @Service
 @RequiredArgsConstructor
@@ -86,10 +88,39 @@ public class SessionLifecycleService implements SessionLifecycleUseCase {
         session.setStatus(SessionStatus.CANCELLED);
         Session updatedSession = sessionRepositoryPort.save(session);
 
-        log.info("Session cancelled successfully: ID {}", id);
+        // A cancelled session holds no seats: release its confirmed reservations
+        int releasedReservations = reservationRepositoryPort.cancelConfirmedBySessionId(id, LocalDateTime.now());
+
+        log.info("Session cancelled successfully: ID {}, reservations released: {}", id, releasedReservations);
         return updatedSession;
     }
 
+    @Override
+    @Transactional
+    public CancelSessionsInRangeResult cancelInRange(CancelSessionsInRangeCommand command) {
+        log.info("Cancelling sessions in range: from={}, to={}, classroom={}, courseId={}",
+                command.fromDate(), command.toDate(), command.classroom(), command.courseId());
+
+        if (command.fromDate() == null || command.toDate() == null
+                || command.toDate().isBefore(command.fromDate())) {
+            throw new InvalidSessionStateException(
+                    "Rango de fechas no válido: la fecha final no puede ser anterior a la inicial"
+            );
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        // Reservations first: the subquery selects sessions by their SCHEDULED status,
+        // which the second statement is about to change.
+        int reservationsCancelled = reservationRepositoryPort.cancelConfirmedForScheduledSessionsInRange(
+                command.fromDate(), command.toDate(), command.classroom(), command.courseId(), now);
+        int sessionsCancelled = sessionRepositoryPort.cancelScheduledInRange(
+                command.fromDate(), command.toDate(), command.classroom(), command.courseId(), now);
+
+        log.info("Bulk cancellation done: {} sessions, {} reservations", sessionsCancelled, reservationsCancelled);
+        return new CancelSessionsInRangeResult(sessionsCancelled, reservationsCancelled);
+    }
+
     @Override
     @Transactional
     public Session postpone(Long id, PostponeSessionCommand command) {
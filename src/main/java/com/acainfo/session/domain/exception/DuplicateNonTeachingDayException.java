@@ -0,0 +1,20 @@
+package com.acainfo.session.domain.exception;
+
+import com.acainfo.shared.domain.exception.BusinessRuleException;
+
+import java.time.LocalDate;
+
+/**
+ * Exception thrown when marking as non-teaching a date that is already in the calendar.
+ */
+public class DuplicateNonTeachingDayException extends BusinessRuleException {
+
+    public DuplicateNonTeachingDayException(LocalDate date) {
+        super("El día " + date + " ya está marcado como no lectivo");
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "DUPLICATE_NON_TEACHING_DAY";
+    }
+}
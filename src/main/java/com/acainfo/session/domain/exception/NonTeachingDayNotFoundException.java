@@ -0,0 +1,18 @@
+package com.acainfo.session.domain.exception;
+
+import com.acainfo.shared.domain.exception.NotFoundException;
+
+/**
+ * Exception thrown when a non-teaching day is not found.
+ */
+public class NonTeachingDayNotFoundException extends NotFoundException {
+
+    public NonTeachingDayNotFoundException(Long id) {
+        super("Día no lectivo no encontrado con ID: " + id);
+    }
+
+    @Override
+    public String getErrorCode() {
+        return "NON_TEACHING_DAY_NOT_FOUND";
+    }
+}
@@ -0,0 +1,36 @@
+package com.acainfo.session.domain.model;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * NonTeachingDay domain entity - Anemic model with Lombok.
+ * A date of the academy calendar with no classes (bank holiday, closed week...).
+ * Session generation skips these dates; at most one entry per date.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@EqualsAndHashCode(of = "id")
+@ToString
+public class NonTeachingDay {
+
+    private Long id;
+
+    /**
+     * Calendar date without classes. Unique.
+     */
+    private LocalDate date;
+
+    /**
+     * Free-text reason shown in the calendar (e.g. "Día de Andalucía").
+     */
+    private String description;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
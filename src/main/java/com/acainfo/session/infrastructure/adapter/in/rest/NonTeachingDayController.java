@@ -0,0 +1,67 @@
+package com.acainfo.session.infrastructure.adapter.in.rest;
+
+import com.acainfo.session.application.port.in.NonTeachingDayUseCase;
+import com.acainfo.session.domain.model.NonTeachingDay;
+import com.acainfo.session.infrastructure.adapter.in.rest.dto.CreateNonTeachingDayRequest;
+import com.acainfo.session.infrastructure.adapter.in.rest.dto.NonTeachingDayResponse;
+import com.acainfo.session.infrastructure.mapper.NonTeachingDayRestMapper;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * REST controller for the non-teaching days calendar.
+ * Endpoints: /api/non-teaching-days
+ *
+ * Security: reading requires authentication; changes require ADMIN.
+ */
+@RestController
+@RequestMapping("/api/non-teaching-days")
+@RequiredArgsConstructor
+public class NonTeachingDayController {
+
+    private final NonTeachingDayUseCase nonTeachingDayUseCase;
+    private final NonTeachingDayRestMapper mapper;
+
+    /**
+     * List the non-teaching days between two dates (both inclusive).
+     * GET /api/non-teaching-days?from=2026-12-01&to=2027-01-31
+     */
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<NonTeachingDayResponse>> getBetween(
+            @RequestParam LocalDate from,
+            @RequestParam LocalDate to
+    ) {
+        List<NonTeachingDay> days = nonTeachingDayUseCase.getBetween(from, to);
+        return ResponseEntity.ok(mapper.toResponseList(days));
+    }
+
+    /**
+     * Mark a date as non-teaching. Session generation will skip it.
+     * Requires ADMIN role.
+     */
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<NonTeachingDayResponse> create(@Valid @RequestBody CreateNonTeachingDayRequest request) {
+        NonTeachingDay created = nonTeachingDayUseCase.create(request.date(), request.description());
+        return ResponseEntity.status(HttpStatus.CREATED).body(mapper.toResponse(created));
+    }
+
+    /**
+     * Remove a date from the calendar.
+     * Requires ADMIN role.
+     */
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        nonTeachingDayUseCase.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+}
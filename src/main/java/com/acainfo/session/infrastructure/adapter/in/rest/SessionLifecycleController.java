@@ -1,7 +1,9 @@
 package com.acainfo.session.infrastructure.adapter.in.rest;
 
+import com.acainfo.session.application.dto.CancelSessionsInRangeResult;
 import com.acainfo.session.application.port.in.SessionLifecycleUseCase;
 import com.acainfo.session.domain.model.Session;
+import com.acainfo.session.infrastructure.adapter.in.rest.dto.CancelSessionsInRangeRequest;
 import com.acainfo.session.infrastructure.adapter.in.rest.dto.PostponeSessionRequest;
 import com.acainfo.session.infrastructure.adapter.in.rest.dto.SessionResponse;
 import com.acainfo.session.infrastructure.mapper.SessionRestMapper;
@@ -15,7 +17,7 @@ import org.springframework.web.bind.annotation.*;
 /**
  * REST Controller for Session lifecycle operations.
  * Handles state transitions: start, complete, cancel, postpone.
- * Endpoints: /api/sessions/{id}/...
+ * Endpoints: /api/sessions/{id}/... and /api/sessions/cancel-range
  *
  * Security: ADMIN or TEACHER
  */
@@ -92,4 +94,27 @@ public class SessionLifecycleController {
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Cancel every SCHEDULED session in a date range (bank holiday, closed week),
+     * optionally filtered by classroom and/or course. Their confirmed reservations
+     * are cancelled too.
+     * POST /api/sessions/cancel-range
+     *
+     * @return Number of sessions and reservations cancelled
+     */
+    @PostMapping("/cancel-range")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CancelSessionsInRangeResult> cancelSessionsInRange(
+            @Valid @RequestBody CancelSessionsInRangeRequest request
+    ) {
+        log.info("REST: Cancelling sessions from {} to {}, classroom: {}, course: {}",
+                request.getFromDate(), request.getToDate(), request.getClassroom(), request.getCourseId());
+
+        CancelSessionsInRangeResult result = sessionLifecycleUseCase.cancelInRange(
+                sessionRestMapper.toCommand(request)
+        );
+
+        return ResponseEntity.ok(result);
+    }
 }
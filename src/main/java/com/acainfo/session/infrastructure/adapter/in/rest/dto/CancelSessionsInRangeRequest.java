@@ -0,0 +1,30 @@
+package com.acainfo.session.infrastructure.adapter.in.rest.dto;
+
+import com.acainfo.schedule.domain.model.Classroom;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * REST DTO for cancelling every SCHEDULED session in a date range.
+ * Request body for POST /api/sessions/cancel-range
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class CancelSessionsInRangeRequest {
+
+    @NotNull(message = "La fecha de inicio es obligatoria")
+    private LocalDate fromDate;
+
+    @NotNull(message = "La fecha de fin es obligatoria")
+    private LocalDate toDate;
+
+    private Classroom classroom;  // Optional: null = all classrooms
+
+    private Long courseId;        // Optional: null = all courses
+}
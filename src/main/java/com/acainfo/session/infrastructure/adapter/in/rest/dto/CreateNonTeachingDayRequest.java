@@ -0,0 +1,18 @@
+package com.acainfo.session.infrastructure.adapter.in.rest.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+/**
+ * Request body for POST /api/non-teaching-days.
+ */
+public record CreateNonTeachingDayRequest(
+        @NotNull(message = "La fecha es obligatoria")
+        LocalDate date,
+
+        @Size(max = 200, message = "La descripción no puede exceder 200 caracteres")
+        String description
+) {
+}
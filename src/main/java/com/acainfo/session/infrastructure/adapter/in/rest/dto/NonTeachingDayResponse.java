@@ -0,0 +1,16 @@
+package com.acainfo.session.infrastructure.adapter.in.rest.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * REST response DTO for a non-teaching day.
+ */
+public record NonTeachingDayResponse(
+        Long id,
+        LocalDate date,
+        String description,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,33 @@
+package com.acainfo.session.infrastructure.adapter.out.persistence.repository;
+
+import com.acainfo.session.infrastructure.adapter.out.persistence.entity.NonTeachingDayJpaEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for NonTeachingDay entities.
+ */
+@Repository
+public interface JpaNonTeachingDayRepository extends JpaRepository<NonTeachingDayJpaEntity, Long> {
+
+    /**
+     * Find the non-teaching days in a date range ordered by date.
+     */
+    List<NonTeachingDayJpaEntity> findByDateBetweenOrderByDateAsc(LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Dates only (no entity hydration) for session generation lookups.
+     */
+    @Query("SELECT d.date FROM NonTeachingDayJpaEntity d WHERE d.date BETWEEN :fromDate AND :toDate")
+    List<LocalDate> findDatesBetween(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+    /**
+     * Check whether a date is already in the calendar.
+     */
+    boolean existsByDate(LocalDate date);
+}
@@ -1,13 +1,16 @@
 package com.acainfo.session.infrastructure.adapter.out.persistence.repository;
 
+import com.acainfo.schedule.domain.model.Classroom;
 import com.acainfo.session.infrastructure.adapter.out.persistence.entity.SessionJpaEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -53,6 +56,13 @@ public interface JpaSessionRepository extends
      */
     void deleteByScheduleId(Long scheduleId);
 
+    /**
+     * Bulk-delete every session of a course (no per-entity load).
+     */
+    @Modifying
+    @Query("DELETE FROM SessionJpaEntity s WHERE s.courseId = :courseId")
+    int deleteAllByCourseId(@Param("courseId") Long courseId);
+
     /**
      * Find sessions by teacher ID and date.
      * Joins through the courses table to get sessions where the group's teacher matches.
@@ -65,4 +75,27 @@ public interface JpaSessionRepository extends
     List<SessionJpaEntity> findByTeacherIdAndDate(
             @Param("teacherId") Long teacherId,
             @Param("date") LocalDate date);
+
+    /**
+     * Bulk-cancel every SCHEDULED session in a date range, optionally restricted to a
+     * classroom and/or a course (null = no filter).
+     * Audit fields are not populated by bulk JPQL, so updatedAt is set explicitly.
+     */
+    @Modifying
+    @Query("""
+        UPDATE SessionJpaEntity s
+        SET s.status = com.acainfo.session.domain.model.SessionStatus.CANCELLED,
+            s.updatedAt = :now
+        WHERE s.status = 'SCHEDULED'
+        AND s.date BETWEEN :fromDate AND :toDate
+        AND (:classroom IS NULL OR s.classroom = :classroom)
+        AND (:courseId IS NULL OR s.courseId = :courseId)
+        """)
+    int cancelScheduledInRange(
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate,
+            @Param("classroom") Classroom classroom,
+            @Param("courseId") Long courseId,
+            @Param("now") LocalDateTime now
+    );
 }
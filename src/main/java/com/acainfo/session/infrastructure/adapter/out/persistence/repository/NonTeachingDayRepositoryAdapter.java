@@ -0,0 +1,56 @@
+package com.acainfo.session.infrastructure.adapter.out.persistence.repository;
+
+import com.acainfo.session.application.port.out.NonTeachingDayRepositoryPort;
+import com.acainfo.session.domain.model.NonTeachingDay;
+import com.acainfo.session.infrastructure.adapter.out.persistence.entity.NonTeachingDayJpaEntity;
+import com.acainfo.session.infrastructure.mapper.NonTeachingDayPersistenceMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Adapter implementing NonTeachingDayRepositoryPort.
+ */
+@Component
+@RequiredArgsConstructor
+public class NonTeachingDayRepositoryAdapter implements NonTeachingDayRepositoryPort {
+
+    private final JpaNonTeachingDayRepository jpaRepository;
+    private final NonTeachingDayPersistenceMapper mapper;
+
+    @Override
+    public NonTeachingDay save(NonTeachingDay nonTeachingDay) {
+        NonTeachingDayJpaEntity saved = jpaRepository.save(mapper.toJpaEntity(nonTeachingDay));
+        return mapper.toDomain(saved);
+    }
+
+    @Override
+    public Optional<NonTeachingDay> findById(Long id) {
+        return jpaRepository.findById(id).map(mapper::toDomain);
+    }
+
+    @Override
+    public List<NonTeachingDay> findBetween(LocalDate fromDate, LocalDate toDate) {
+        return mapper.toDomainList(jpaRepository.findByDateBetweenOrderByDateAsc(fromDate, toDate));
+    }
+
+    @Override
+    public Set<LocalDate> findDatesBetween(LocalDate fromDate, LocalDate toDate) {
+        return new HashSet<>(jpaRepository.findDatesBetween(fromDate, toDate));
+    }
+
+    @Override
+    public boolean existsByDate(LocalDate date) {
+        return jpaRepository.existsByDate(date);
+    }
+
+    @Override
+    public void delete(Long id) {
+        jpaRepository.deleteById(id);
+    }
+}
@@ -1,5 +1,6 @@
 package com.acainfo.session.infrastructure.adapter.out.persistence.repository;
 
+import com.acainfo.schedule.domain.model.Classroom;
 import com.acainfo.session.application.dto.SessionFilters;
 import com.acainfo.session.application.port.out.SessionRepositoryPort;
 import com.acainfo.session.domain.model.Session;
@@ -14,6 +15,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -103,6 +105,11 @@ public class SessionRepositoryAdapter implements SessionRepositoryPort {
         jpaSessionRepository.deleteByScheduleId(scheduleId);
     }
 
+    @Override
+    public int deleteByCourseId(Long courseId) {
+        return jpaSessionRepository.deleteAllByCourseId(courseId);
+    }
+
     @Override
     public boolean existsConflictingSession(Long courseId, LocalDate date, Long excludeSessionId) {
         List<SessionJpaEntity> sessionsOnDate = jpaSessionRepository.findByCourseIdAndDate(courseId, date);
@@ -139,4 +146,10 @@ public class SessionRepositoryAdapter implements SessionRepositoryPort {
                 jpaSessionRepository.findByTeacherIdAndDate(teacherId, date)
         );
     }
+
+    @Override
+    public int cancelScheduledInRange(LocalDate fromDate, LocalDate toDate, Classroom classroom,
+                                      Long courseId, LocalDateTime updatedAt) {
+        return jpaSessionRepository.cancelScheduledInRange(fromDate, toDate, classroom, courseId, updatedAt);
+    }
 }
@@ -0,0 +1,20 @@
+package com.acainfo.session.infrastructure.mapper;
+
+import com.acainfo.session.domain.model.NonTeachingDay;
+import com.acainfo.session.infrastructure.adapter.out.persistence.entity.NonTeachingDayJpaEntity;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+/**
+ * MapStruct mapper for NonTeachingDay persistence layer.
+ */
+@Mapper(componentModel = "spring")
+public interface NonTeachingDayPersistenceMapper {
+
+    NonTeachingDayJpaEntity toJpaEntity(NonTeachingDay nonTeachingDay);
+
+    NonTeachingDay toDomain(NonTeachingDayJpaEntity entity);
+
+    List<NonTeachingDay> toDomainList(List<NonTeachingDayJpaEntity> entities);
+}
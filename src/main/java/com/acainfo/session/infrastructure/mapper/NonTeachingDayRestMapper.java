@@ -0,0 +1,18 @@
+package com.acainfo.session.infrastructure.mapper;
+
+import com.acainfo.session.domain.model.NonTeachingDay;
+import com.acainfo.session.infrastructure.adapter.in.rest.dto.NonTeachingDayResponse;
+import org.mapstruct.Mapper;
+
+import java.util.List;
+
+/**
+ * MapStruct mapper for NonTeachingDay REST layer.
+ */
+@Mapper(componentModel = "spring")
+public interface NonTeachingDayRestMapper {
+
+    NonTeachingDayResponse toResponse(NonTeachingDay nonTeachingDay);
+
+    List<NonTeachingDayResponse> toResponseList(List<NonTeachingDay> nonTeachingDays);
+}
@@ -1,5 +1,6 @@
 package com.acainfo.session.infrastructure.mapper;
 
+import com.acainfo.session.application.dto.CancelSessionsInRangeCommand;
 import com.acainfo.session.application.dto.CreateSessionCommand;
 import com.acainfo.session.application.dto.GenerateSessionsCommand;
 import com.acainfo.session.application.dto.PostponeSessionCommand;
@@ -38,6 +39,11 @@ public interface SessionRestMapper {
      */
     GenerateSessionsCommand toCommand(GenerateSessionsRequest request);
 
+    /**
+     * Convert CancelSessionsInRangeRequest (REST) to CancelSessionsInRangeCommand (Application).
+     */
+    CancelSessionsInRangeCommand toCommand(CancelSessionsInRangeRequest request);
+
     /**
      * Convert Session (Domain) to SessionResponse (REST) without enriched data.
      * Use toEnrichedResponse for enriched responses.
@@ -0,0 +1,18 @@
+package com.acainfo.shared.application.port.out;
+
+/**
+ * Output port for locks shared by every instance of the application, so a
+ * scheduled task runs on one node at a time.
+ */
+public interface ClusterLockPort {
+
+    /**
+     * Run a task while holding the named lock, unless another instance holds it.
+     * Does not wait for the lock.
+     *
+     * @param lockName Name of the lock (one per task)
+     * @param task     Task to run
+     * @return true if the task ran, false if another instance holds the lock
+     */
+    boolean runExclusively(String lockName, Runnable task);
+}
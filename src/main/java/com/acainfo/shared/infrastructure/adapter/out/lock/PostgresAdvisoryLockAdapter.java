@@ -0,0 +1,56 @@
+package com.acainfo.shared.infrastructure.adapter.out.lock;
+
+import com.acainfo.shared.application.port.out.ClusterLockPort;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * ClusterLockPort adapter over PostgreSQL session advisory locks.
+ *
+ * <p>The lock is taken and released on one pooled connection, kept for the whole
+ * task: the task's own transactions use other connections, so it can commit as
+ * often as it likes while the lock stays held. If the instance dies the
+ * connection closes and PostgreSQL releases the lock.</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostgresAdvisoryLockAdapter implements ClusterLockPort {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean runExclusively(String lockName, Runnable task) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            if (!advisoryLock(connection, "SELECT pg_try_advisory_lock(hashtext(?))", lockName)) {
+                return false;
+            }
+            try {
+                task.run();
+                return true;
+            } finally {
+                if (!advisoryLock(connection, "SELECT pg_advisory_unlock(hashtext(?))", lockName)) {
+                    log.warn("Advisory lock '{}' was not held at release", lockName);
+                }
+            }
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql, String lockName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, lockName);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+}
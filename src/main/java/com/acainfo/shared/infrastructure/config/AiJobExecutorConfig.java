@@ -1,30 +1,49 @@
 package com.acainfo.shared.infrastructure.config;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
 /**
- * Dedicated single-thread executor for the AI LaTeX pipeline: one job at a time
- * (the server has 2 vCPUs and a job can take minutes between Claude and tectonic).
+ * Executor for the AI LaTeX pipeline: one virtual thread per job. Jobs are not
+ * limited here but by the bounded stages they go through (Claude calls, tectonic
+ * compiles; see {@code app.anthropic.pipeline.*}), where a waiting job parks its
+ * virtual thread instead of holding a pool thread.
  *
  * <p>Declaring this bean would normally remove Boot's auto-configured
  * applicationTaskExecutor and starve the unqualified @Async methods (emails,
  * auto-reservations) behind minutes-long jobs; {@code spring.task.execution.mode=force}
  * in application.properties keeps the default executor for everything else.</p>
+ *
+ * <p>Job change notifications for the SSE streams go through "aiJobEventExecutor":
+ * one thread and a bounded queue, so a slow client or job read never holds up the
+ * pipeline thread that published the change. A notification dropped on a full queue
+ * is caught up by the streams' heartbeat.</p>
  */
+@Slf4j
 @Configuration
 public class AiJobExecutorConfig {
 
     @Bean("aiJobExecutor")
     public Executor aiJobExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ai-job-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    @Bean("aiJobEventExecutor")
+    public Executor aiJobEventExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(1);
         executor.setMaxPoolSize(1);
-        executor.setQueueCapacity(50);
-        executor.setThreadNamePrefix("ai-job-");
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("ai-job-events-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                log.warn("Cola de avisos de jobs de IA llena: aviso descartado (lo recupera el heartbeat)"));
         executor.initialize();
         return executor;
     }
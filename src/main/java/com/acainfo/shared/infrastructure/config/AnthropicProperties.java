@@ -24,6 +24,11 @@ public class AnthropicProperties {
      */
     private String apiKey = "";
 
+    /**
+     * API endpoint. Only changed to point tests at a local stand-in.
+     */
+    private String baseUrl = "https://api.anthropic.com";
+
     /**
      * Model used for LaTeX generation/transcription. claude-opus-4-8 by default;
      * can be lowered to claude-sonnet-5 by property if quality allows (~40% cost).
@@ -32,10 +37,21 @@ public class AnthropicProperties {
 
     /**
      * Max output tokens per request. A 3-6 page .tex is 4-8k tokens;
-     * 16000 leaves headroom without needing streaming.
+     * 16000 leaves headroom.
      */
     private long maxTokens = 16000;
 
+    /**
+     * Responses are streamed: a request is only given up when nothing arrives for
+     * this long, however long the whole document takes to write.
+     */
+    private long stallTimeoutSeconds = 90;
+
+    /**
+     * Backstop for a response that keeps streaming without ever finishing.
+     */
+    private long maxResponseMinutes = 30;
+
     /**
      * Max attempts to fix a .tex that does not compile by sending the
      * compilation errors back to Claude (on top of the initial attempt).
@@ -47,6 +63,36 @@ public class AnthropicProperties {
      */
     private Tectonic tectonic = new Tectonic();
 
+    /**
+     * Sizing of the pipeline stages (Claude calls / tectonic compiles).
+     */
+    private Pipeline pipeline = new Pipeline();
+
+    /**
+     * Durable job queue (leases, retries).
+     */
+    private Queue queue = new Queue();
+
+    /**
+     * Chunked transcription of long PDFs.
+     */
+    private Transcription transcription = new Transcription();
+
+    /**
+     * Folder transcriptions through the batch interface.
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * Normalization of GENERATE captures before they are stored.
+     */
+    private Captures captures = new Captures();
+
+    /**
+     * Server-Sent Events streams of job state.
+     */
+    private Events events = new Events();
+
     @Getter
     @Setter
     public static class Tectonic {
@@ -62,5 +108,176 @@ public class AnthropicProperties {
          * (see deploy notes in the design doc).
          */
         private long timeoutSeconds = 120;
+
+        /**
+         * Persistent bundle cache (TECTONIC_CACHE_DIR). Empty = tectonic's per-user
+         * default. In prod a volume, so restarts do not resolve the bundle cold.
+         */
+        private String cacheDir = "";
+
+        /**
+         * Resolve packages only from the cache, never the network. For offline
+         * machines whose cache was pre-seeded (copied from a warmed one).
+         */
+        private boolean onlyCached = false;
+
+        /**
+         * Compile a template with every allowed package at startup, so the first
+         * job does not pay for filling the cache.
+         */
+        private boolean warmUp = true;
+
+        /**
+         * Compilation results kept by source hash (LRU). Identical sources (fix
+         * loop, retried jobs) are never compiled twice.
+         */
+        private int compileCacheEntries = 32;
+    }
+
+    @Getter
+    @Setter
+    public static class Pipeline {
+        /**
+         * Claude calls in flight at once, across all jobs. They mostly wait on the
+         * network, so this is bounded by API rate limits and cost, not by CPUs.
+         */
+        private int llmConcurrency = 2;
+
+        /**
+         * Steps waiting for a Claude slot; beyond this a step is rejected. Raised
+         * to max-jobs-per-node x chunk-concurrency, so jobs of this node always wait.
+         */
+        private int llmQueueCapacity = 20;
+
+        /**
+         * Tectonic compiles at once. 0 = number of CPUs.
+         */
+        private int compileConcurrency = 0;
+
+        /**
+         * Steps waiting for a compile slot. Raised to max-jobs-per-node, so a job
+         * never loses the Claude call it has just paid for to a full queue.
+         */
+        private int compileQueueCapacity = 20;
+
+        /**
+         * Minimum time between two progress writes of the same job while a
+         * response streams in.
+         */
+        private long progressIntervalMs = 2000;
+    }
+
+    @Getter
+    @Setter
+    public static class Queue {
+        /**
+         * Jobs one instance runs at once; the stages bound the actual work.
+         */
+        private int maxJobsPerNode = 4;
+
+        /**
+         * Lease of a claimed job. Renewed by heartbeats; once it expires without
+         * renewal (the instance died) another instance claims the job again.
+         */
+        private long leaseSeconds = 120;
+
+        /**
+         * Claims of a job before it is given up (the first run included).
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * Wait before the first retry of a transient failure; doubles on each retry.
+         */
+        private long retryBackoffSeconds = 30;
+    }
+
+    @Getter
+    @Setter
+    public static class Transcription {
+        /**
+         * Pages per Claude request. Longer PDFs are split into ranges of this
+         * size, transcribed in parallel and merged under one preamble.
+         */
+        private int pagesPerChunk = 4;
+
+        /**
+         * Ranges of one job transcribed at once (the llm stage still bounds
+         * the total across jobs).
+         */
+        private int chunkConcurrency = 3;
+
+        /**
+         * Tries of a range that fails transiently before the whole job fails.
+         */
+        private int chunkAttempts = 2;
+
+        /**
+         * Milliseconds before the first retry of a range; doubled on each
+         * further retry.
+         */
+        private long chunkRetryBackoffMs = 2000;
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+        /**
+         * Seconds between two checks of a submitted batch. The job waits PENDING
+         * in between, without holding a worker slot.
+         */
+        private long pollSeconds = 300;
+
+        /**
+         * PDFs of one folder job.
+         */
+        private int maxItems = 100;
+
+        /**
+         * Total size of the PDFs of one folder job: the batch request carries
+         * them all, base64-encoded.
+         */
+        private long maxMegabytes = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class Captures {
+        /**
+         * Longest edge of a capture sent to the model, in px. The API scales
+         * anything larger down itself, so the extra pixels only cost upload time;
+         * 1568 keeps handwriting legible.
+         */
+        private int maxEdgePx = 1568;
+
+        /**
+         * JPEG quality of re-encoded photos (0-1). PNG captures stay lossless.
+         */
+        private float jpegQuality = 0.85f;
+
+        /**
+         * Captures of one job normalized at once.
+         */
+        private int concurrency = 2;
+    }
+
+    @Getter
+    @Setter
+    public static class Events {
+        /**
+         * Open streams across all jobs on this instance. Beyond this a new stream
+         * gets the current state and is closed, with a reconnect delay.
+         */
+        private int maxSubscribers = 100;
+
+        /**
+         * Lifetime of a stream; the client reconnects after it.
+         */
+        private long timeoutMinutes = 30;
+
+        /**
+         * Reconnect delay sent to a client turned away because the registry is full.
+         */
+        private long retrySeconds = 10;
     }
 }
@@ -0,0 +1,63 @@
+package com.acainfo.shared.infrastructure.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+
+/**
+ * S3 client and presigner for {@code app.storage.type=s3}.
+ * The same settings drive both, so presigned URLs point at the same endpoint
+ * (AWS or MinIO) the adapter writes to.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+public class S3StorageConfig {
+
+    @Bean(destroyMethod = "close")
+    public S3Client s3Client(S3StorageProperties properties) {
+        var builder = S3Client.builder()
+                .region(Region.of(properties.getRegion()))
+                .credentialsProvider(credentials(properties))
+                .serviceConfiguration(serviceConfiguration(properties));
+        if (!properties.getEndpoint().isBlank()) {
+            builder.endpointOverride(URI.create(properties.getEndpoint()));
+        }
+        return builder.build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public S3Presigner s3Presigner(S3StorageProperties properties) {
+        var builder = S3Presigner.builder()
+                .region(Region.of(properties.getRegion()))
+                .credentialsProvider(credentials(properties))
+                .serviceConfiguration(serviceConfiguration(properties));
+        if (!properties.getEndpoint().isBlank()) {
+            builder.endpointOverride(URI.create(properties.getEndpoint()));
+        }
+        return builder.build();
+    }
+
+    private AwsCredentialsProvider credentials(S3StorageProperties properties) {
+        if (properties.getAccessKey().isBlank()) {
+            return DefaultCredentialsProvider.create();
+        }
+        return StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(properties.getAccessKey(), properties.getSecretKey()));
+    }
+
+    private S3Configuration serviceConfiguration(S3StorageProperties properties) {
+        return S3Configuration.builder()
+                .pathStyleAccessEnabled(properties.isPathStyleAccess())
+                .build();
+    }
+}
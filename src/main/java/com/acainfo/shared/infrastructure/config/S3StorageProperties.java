@@ -0,0 +1,48 @@
+package com.acainfo.shared.infrastructure.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for S3 (or S3-compatible, e.g. MinIO) material storage.
+ * Only used when {@code app.storage.type=s3}.
+ *
+ * <p>Keys NEVER live in the repo: they come from S3_ACCESS_KEY / S3_SECRET_KEY, or
+ * are left empty to use the default AWS credentials chain (instance role).</p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.storage.s3")
+@Getter
+@Setter
+public class S3StorageProperties {
+
+    /**
+     * Endpoint override. Empty for AWS; e.g. http://localhost:9000 for MinIO.
+     */
+    private String endpoint = "";
+
+    private String region = "eu-west-1";
+
+    private String bucket = "acainfo-materials";
+
+    /**
+     * Static credentials. Both empty = default AWS credentials provider chain.
+     */
+    private String accessKey = "";
+    private String secretKey = "";
+
+    /**
+     * Path-style URLs (http://host/bucket/key). Required by MinIO.
+     */
+    private boolean pathStyleAccess = false;
+
+    /**
+     * Lifetime of presigned download URLs. Short: the URL is handed out right
+     * after the access check and used immediately by the browser.
+     */
+    private Duration presignedUrlTtl = Duration.ofMinutes(5);
+}
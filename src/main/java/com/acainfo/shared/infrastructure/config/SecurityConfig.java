@@ -2,6 +2,7 @@ package com.acainfo.shared.infrastructure.config;
 
 import com.acainfo.security.jwt.JwtAuthenticationFilter;
 import com.acainfo.security.jwt.RestAuthenticationEntryPoint;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -119,6 +120,10 @@ public class SecurityConfig {
                         // Public endpoints (authentication)
                         auth.requestMatchers(publicEndpoints.toArray(new String[0])).permitAll();
 
+                        // Async dispatches only finish a request already authorized
+                        // (SSE streams of AI jobs); the stateless JWT is not re-read on them
+                        auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
+
                         // All other endpoints require authentication
                         auth.anyRequest().authenticated();
                 })
@@ -0,0 +1,35 @@
+package com.acainfo.shared.infrastructure.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Dedicated executor for PDF preview rendering: a single worker with a bounded
+ * queue, so a burst of uploads (or a backfill) never takes more than one of the
+ * server's 2 vCPUs away from request handling.
+ *
+ * <p>When the queue is full the task is dropped instead of failing the caller
+ * (an upload must not fail because its thumbnail could not be queued): the
+ * material simply stays without preview until the next backfill.</p>
+ */
+@Slf4j
+@Configuration
+public class ThumbnailExecutorConfig {
+
+    @Bean("thumbnailExecutor")
+    public Executor thumbnailExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("thumbnail-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                log.warn("Cola de miniaturas llena: tarea descartada (se recupera con el backfill)"));
+        executor.initialize();
+        return executor;
+    }
+}
@@ -1,5 +1,6 @@
 package com.acainfo.shared.infrastructure.rest;
 
+import com.acainfo.material.domain.exception.ColdTierRunningException;
 import com.acainfo.material.domain.exception.MaterialAccessDeniedException;
 import com.acainfo.shared.domain.exception.BusinessRuleException;
 import com.acainfo.shared.domain.exception.NotFoundException;
@@ -61,6 +62,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    @ExceptionHandler(ColdTierRunningException.class)
+    public ResponseEntity<ErrorResponse> handleColdTierRunningException(
+            ColdTierRunningException ex,
+            HttpServletRequest request) {
+        log.warn("Cold tier already running: {}", ex.getMessage());
+        ErrorResponse error = ErrorResponse.of(
+                HttpStatus.CONFLICT.value(),
+                "Conflict",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     @ExceptionHandler(DuplicateEmailException.class)
     public ResponseEntity<ErrorResponse> handleDuplicateEmailException(
             DuplicateEmailException ex,
@@ -0,0 +1,9 @@
+-- V10: la regla de visibilidad de los STUDENT (visible=true Y año académico actual)
+-- se aplica ya en la consulta, no filtrando en Java tras paginar. Índice compuesto
+-- para los listados por asignatura: filtra por (subject_id, academic_year, visible)
+-- y ordena por uploaded_at. Sustituye a idx_material_subject_year (es su prefijo).
+
+CREATE INDEX idx_material_subject_year_visible
+    ON materials (subject_id, academic_year, visible, uploaded_at);
+
+DROP INDEX idx_material_subject_year;
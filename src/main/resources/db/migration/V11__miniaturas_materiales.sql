@@ -0,0 +1,10 @@
+-- V11: vista previa de los PDF de materiales (miniatura de la primera página + nº de páginas).
+--   - Las genera una etapa en segundo plano tras cada subida; los materiales existentes
+--     se rellenan con POST /api/materials/admin/thumbnails/backfill.
+--   - La miniatura se guarda junto al blob (blobs/{2 hex}/{sha256}.thumb.png): material
+--     con el mismo contenido = misma miniatura. Se borra con el blob.
+--   - NULL = aún no generada (o no es un PDF).
+
+ALTER TABLE materials
+    ADD COLUMN page_count integer,
+    ADD COLUMN thumbnail_path varchar(500);
@@ -0,0 +1,12 @@
+-- V12: nivel frío para los ficheros de materiales de cursos académicos pasados.
+--   - Los estudiantes nunca acceden a materiales de años pasados: un job programado
+--     comprime sus blobs en segmentos (archive/{año}/{ejecución}-{n}.zip, una entrada
+--     por sha256) y borra el fichero original.
+--   - Solo se archiva un blob si TODOS los materiales que lo usan son de años pasados.
+--   - Mientras está archivado, materials.storage_path guarda el localizador
+--     archive/...zip#{sha256}; admin/profesor lo restauran al acceder.
+--   - archive_locator se conserva tras restaurar: volver a archivar no reescribe el segmento.
+
+ALTER TABLE material_blobs
+    ADD COLUMN archive_locator varchar(500),
+    ADD COLUMN archived_at timestamp(6);
@@ -0,0 +1,13 @@
+-- V13: estadísticas de uso de materiales (descargas y vistas previas por día).
+--   - Los accesos se cuentan en memoria y se vuelcan cada minuto en lote (MERGE),
+--     sumando a la fila del material y día: nunca un UPDATE por descarga.
+--   - Los contadores que no llegan a volcarse antes de una caída del nodo se pierden.
+--   - Al borrar un material se borran sus filas.
+
+CREATE TABLE material_usage_daily (
+    material_id bigint NOT NULL REFERENCES materials (id) ON DELETE CASCADE,
+    usage_date  date NOT NULL,
+    downloads   bigint NOT NULL,
+    previews    bigint NOT NULL,
+    PRIMARY KEY (material_id, usage_date)
+);
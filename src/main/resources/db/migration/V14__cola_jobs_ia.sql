@@ -0,0 +1,32 @@
+-- V14: la tabla de jobs de IA pasa a ser la cola de trabajo (sobrevive a reinicios
+-- y la pueden consumir varias instancias).
+--   - Un worker reclama el job PENDING más antiguo ya vencido (o uno RUNNING con el
+--     lease caducado: su nodo murió) con FOR UPDATE SKIP LOCKED, y renueva el lease
+--     con heartbeats mientras lo ejecuta.
+--   - Los parámetros de GENERATE (carpeta, nº de ejercicios) y sus capturas quedan
+--     guardados hasta que el job termina; un fallo transitorio vuelve a PENDING con
+--     next_attempt_at (backoff) hasta agotar los intentos.
+--   - Los jobs vivos de antes de esta versión no guardaron sus capturas: se cierran
+--     como FAILED igual que hacía el arranque.
+
+ALTER TABLE material_ai_jobs
+    ADD COLUMN folder_id bigint REFERENCES material_folders (id) ON DELETE SET NULL,
+    ADD COLUMN exercise_count integer,
+    ADD COLUMN attempts integer NOT NULL DEFAULT 0,
+    ADD COLUMN next_attempt_at timestamp(6),
+    ADD COLUMN lease_owner varchar(100),
+    ADD COLUMN lease_expires_at timestamp(6);
+
+CREATE INDEX idx_material_ai_job_claim ON material_ai_jobs (status, next_attempt_at);
+
+CREATE TABLE material_ai_job_captures (
+    job_id       bigint NOT NULL REFERENCES material_ai_jobs (id) ON DELETE CASCADE,
+    position     integer NOT NULL,
+    storage_path varchar(500) NOT NULL,
+    mime_type    varchar(50) NOT NULL,
+    PRIMARY KEY (job_id, position)
+);
+
+UPDATE material_ai_jobs
+SET status = 'FAILED', error_message = 'Interrumpido por reinicio del servidor', updated_at = now()
+WHERE status IN ('PENDING', 'RUNNING');
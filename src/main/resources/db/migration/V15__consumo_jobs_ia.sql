@@ -0,0 +1,10 @@
+-- V15: consumo de Claude por job de IA (sumado sobre todos sus intentos), para
+-- vigilar el coste.
+--   - llm_input_tokens / llm_output_tokens: tokens de entrada y de salida
+--   - llm_millis: tiempo esperando respuestas de la API
+
+ALTER TABLE material_ai_jobs
+    ADD COLUMN llm_calls integer NOT NULL DEFAULT 0,
+    ADD COLUMN llm_input_tokens bigint NOT NULL DEFAULT 0,
+    ADD COLUMN llm_output_tokens bigint NOT NULL DEFAULT 0,
+    ADD COLUMN llm_millis bigint NOT NULL DEFAULT 0;
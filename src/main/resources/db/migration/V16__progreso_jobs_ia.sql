@@ -0,0 +1,8 @@
+-- V16: progreso de un job de IA en curso, para que el admin vea que avanza mientras
+-- Claude escribe la respuesta (que llega en streaming).
+--   - progress_stage: paso actual (GENERATING, TRANSCRIBING, COMPILING, FIXING, PUBLISHING)
+--   - progress_tokens: tokens de salida recibidos en ese paso (estimados durante el streaming)
+
+ALTER TABLE material_ai_jobs
+    ADD COLUMN progress_stage varchar(20),
+    ADD COLUMN progress_tokens bigint NOT NULL DEFAULT 0;
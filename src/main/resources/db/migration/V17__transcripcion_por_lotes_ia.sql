@@ -0,0 +1,20 @@
+-- V17: transcripción de una carpeta entera en un único job de IA (TRANSCRIBE_BATCH).
+--   - Todos los PDF de la carpeta se envían juntos por la interfaz de lotes de la API
+--     (más barata, sin prisa): llm_batch_id es el lote y el job vuelve a PENDING entre
+--     consulta y consulta, sin ocupar un hueco del worker mientras espera.
+--   - material_ai_job_items: un registro por material de origen con su propio estado;
+--     los resultados se compilan y publican uno a uno en la misma carpeta, y un fallo
+--     de uno no tumba al resto.
+
+ALTER TABLE material_ai_jobs
+    ADD COLUMN llm_batch_id varchar(100);
+
+CREATE TABLE material_ai_job_items (
+    job_id             bigint NOT NULL REFERENCES material_ai_jobs (id) ON DELETE CASCADE,
+    position           integer NOT NULL,
+    source_material_id bigint REFERENCES materials (id) ON DELETE SET NULL,
+    status             varchar(20) NOT NULL,
+    result_material_id bigint REFERENCES materials (id) ON DELETE SET NULL,
+    error_message      varchar(2000),
+    PRIMARY KEY (job_id, position)
+);
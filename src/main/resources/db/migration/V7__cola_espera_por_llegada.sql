@@ -0,0 +1,29 @@
+-- V7: la lista de espera deja de guardar posiciones 1..N y pasa a ordenarse por llegada.
+--   - waiting_list_entered_at = clave de cola monotona (desempate por id).
+--   - La posicion que ve el front se calcula al leer (ROW_NUMBER() OVER ...), asi que
+--     salir de la cola / promocionar ya no reescribe todas las filas de detras.
+--   - La promocion coge la cabeza con ORDER BY ... LIMIT 1 FOR UPDATE SKIP LOCKED.
+
+ALTER TABLE enrollments ADD COLUMN waiting_list_entered_at timestamp(6);
+
+-- Backfill que conserva EXACTAMENTE el orden actual: base = primera entrada del curso,
+-- + 1 microsegundo por posicion. Las nuevas entradas (now()) quedan siempre detras.
+UPDATE enrollments e
+SET waiting_list_entered_at = base.first_entry + e.waiting_list_position * INTERVAL '1 microsecond'
+FROM (SELECT course_id, MIN(COALESCE(approved_at, enrolled_at)) AS first_entry
+      FROM enrollments
+      WHERE status = 'WAITING_LIST'
+      GROUP BY course_id) base
+WHERE base.course_id = e.course_id
+  AND e.status = 'WAITING_LIST';
+
+-- Filas incoherentes (WAITING_LIST sin posicion): por su fecha de aprobacion
+UPDATE enrollments
+SET waiting_list_entered_at = COALESCE(approved_at, enrolled_at)
+WHERE status = 'WAITING_LIST' AND waiting_list_entered_at IS NULL;
+
+-- Cae la posicion persistida (y con ella idx_enrollment_waiting_list_course)
+ALTER TABLE enrollments DROP COLUMN waiting_list_position;
+
+CREATE INDEX idx_enrollment_waiting_list
+    ON enrollments (course_id, status, waiting_list_entered_at, id);
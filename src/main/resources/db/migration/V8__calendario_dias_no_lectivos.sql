@@ -0,0 +1,14 @@
+-- V8: calendario de días no lectivos (festivos, semanas de cierre).
+--   - La generación de sesiones salta estas fechas.
+--   - Una fecha solo puede marcarse una vez (uk por fecha).
+--   - Marcar un día NO cancela las sesiones ya generadas: para eso está
+--     POST /api/sessions/cancel-range, que además libera las reservas.
+
+CREATE TABLE non_teaching_days (
+    id          bigserial PRIMARY KEY,
+    date        date NOT NULL,
+    description varchar(200),
+    created_at  timestamp(6) NOT NULL,
+    updated_at  timestamp(6) NOT NULL,
+    CONSTRAINT uk_non_teaching_day_date UNIQUE (date)
+);
@@ -0,0 +1,21 @@
+-- V9: almacenamiento de ficheros de materiales direccionado por contenido.
+--   - Cada fichero se guarda UNA vez, en blobs/{2 primeros hex}/{sha256}, sin consultar
+--     la asignatura: el mismo temario subido a varias asignaturas/años comparte blob.
+--   - material_blobs lleva el contador de referencias; al borrar el último material
+--     que apunta a un blob se borran la fila y el fichero.
+--   - materials.content_hash NULL = fichero heredado en subjects/...; se migra con
+--     POST /api/materials/admin/storage/dedupe (idempotente, solo toca los NULL).
+
+CREATE TABLE material_blobs (
+    sha256       varchar(64) PRIMARY KEY,
+    storage_path varchar(500) NOT NULL,
+    file_size    bigint NOT NULL,
+    ref_count    integer NOT NULL,
+    created_at   timestamp(6) NOT NULL,
+    updated_at   timestamp(6) NOT NULL
+);
+
+ALTER TABLE materials
+    ADD COLUMN content_hash varchar(64);
+
+CREATE INDEX idx_material_content_hash ON materials (content_hash);
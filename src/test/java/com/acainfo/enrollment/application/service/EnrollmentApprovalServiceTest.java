@@ -1,5 +1,7 @@
 package com.acainfo.enrollment.application.service;
 
+import com.acainfo.enrollment.application.dto.BatchApprovalResult;
+import com.acainfo.enrollment.application.dto.BatchApprovalResult.SkippedEnrollment;
 import com.acainfo.enrollment.application.port.out.AutoReservationPort;
 import com.acainfo.enrollment.application.port.out.EnrollmentRepositoryPort;
 import com.acainfo.enrollment.domain.exception.EnrollmentNotFoundException;
@@ -26,12 +28,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
@@ -149,7 +153,7 @@ class EnrollmentApprovalServiceTest {
             ArgumentCaptor<Enrollment> savedCaptor = ArgumentCaptor.forClass(Enrollment.class);
             verify(enrollmentRepositoryPort).save(savedCaptor.capture());
             assertThat(savedCaptor.getValue().getStatus()).isEqualTo(EnrollmentStatus.ACTIVE);
-            verify(enrollmentRepositoryPort, never()).getNextWaitingListPosition(anyLong());
+            assertThat(savedCaptor.getValue().getWaitingListEnteredAt()).isNull();
         }
 
         @Test
@@ -183,20 +187,20 @@ class EnrollmentApprovalServiceTest {
         }
 
         @Test
-        void shouldAddToWaitingListWithNextPositionWhenGroupIsFull() {
+        void shouldAddToWaitingListStampedWithApprovalTimeWhenGroupIsFull() {
             // Boundary: activeCount (2) == maxCapacity (2) -> no seat
             Enrollment enrollment = pendingEnrollment();
             when(enrollmentRepositoryPort.findById(ENROLLMENT_ID)).thenReturn(Optional.of(enrollment));
             when(courseRepositoryPort.findByIdForUpdate(GROUP_ID)).thenReturn(Optional.of(groupWithCapacity(2)));
             when(getUserProfileUseCase.getUserById(ADMIN_ID)).thenReturn(admin());
             when(enrollmentRepositoryPort.countActiveByCourseId(GROUP_ID)).thenReturn(2L);
-            when(enrollmentRepositoryPort.getNextWaitingListPosition(GROUP_ID)).thenReturn(3);
             stubSaveReturnsArgument();
 
             Enrollment result = service.approve(ENROLLMENT_ID, ADMIN_ID);
 
             assertThat(result.getStatus()).isEqualTo(EnrollmentStatus.WAITING_LIST);
-            assertThat(result.getWaitingListPosition()).isEqualTo(3);
+            // Queue order key; the display position is derived by the repository on read
+            assertThat(result.getWaitingListEnteredAt()).isNotNull().isEqualTo(result.getApprovedAt());
             // Current behavior: approval metadata is set even when parked on the waiting list
             assertThat(result.getApprovedAt()).isNotNull();
             assertThat(result.getApprovedByUserId()).isEqualTo(ADMIN_ID);
@@ -209,7 +213,7 @@ class EnrollmentApprovalServiceTest {
         void shouldApproveAsActiveWithoutCapacityCheckWhenCapacityIsNull() {
             // Unified course model: capacity == null -> unlimited (virtual/dual).
             // The approval is ALWAYS ACTIVE: occupancy is never queried and the
-            // waiting list position counter is never consulted, no matter how many
+            // waiting list is never entered, no matter how many
             // students (24, 100, N...) are already enrolled.
             Enrollment enrollment = pendingEnrollment();
             when(enrollmentRepositoryPort.findById(ENROLLMENT_ID)).thenReturn(Optional.of(enrollment));
@@ -221,8 +225,8 @@ class EnrollmentApprovalServiceTest {
 
             assertThat(result.getStatus()).isEqualTo(EnrollmentStatus.ACTIVE);
             assertThat(result.getWaitingListPosition()).isNull();
+            assertThat(result.getWaitingListEnteredAt()).isNull();
             verify(enrollmentRepositoryPort, never()).countActiveByCourseId(anyLong());
-            verify(enrollmentRepositoryPort, never()).getNextWaitingListPosition(anyLong());
         }
 
         @Test
@@ -409,6 +413,108 @@ class EnrollmentApprovalServiceTest {
 
     // ==================== reject() ====================
 
+    // ==================== approveBatch() ====================
+
+    @Nested
+    class ApproveBatch {
+
+        private static final Long OTHER_GROUP_ID = 6L;
+
+        private Enrollment pending(Long id, Long studentId, Long courseId) {
+            return Enrollment.builder()
+                    .id(id)
+                    .studentId(studentId)
+                    .courseId(courseId)
+                    .status(EnrollmentStatus.PENDING_APPROVAL)
+                    .build();
+        }
+
+        private void stubSaveAllReturnsArgument() {
+            when(enrollmentRepositoryPort.saveAll(anyList()))
+                    .thenAnswer(invocation -> invocation.getArgument(0));
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void shouldLockCourseOnceAndFillSeatsInArrivalOrderThenWaitingList() {
+            Enrollment first = pending(11L, 101L, GROUP_ID);
+            Enrollment second = pending(12L, 102L, GROUP_ID);
+            Enrollment third = pending(13L, 103L, GROUP_ID);
+            when(enrollmentRepositoryPort.findAllById(any())).thenReturn(List.of(third, first, second));
+            when(getUserProfileUseCase.getUserById(TEACHER_ID)).thenReturn(groupTeacher());
+            when(courseRepositoryPort.findByIdForUpdate(GROUP_ID)).thenReturn(Optional.of(groupWithCapacity(5)));
+            when(enrollmentRepositoryPort.countActiveByCourseId(GROUP_ID)).thenReturn(3L);
+            stubSaveAllReturnsArgument();
+
+            BatchApprovalResult result = service.approveBatch(List.of(13L, 11L, 12L), TEACHER_ID);
+
+            // Two free seats go to the two oldest requests; the third one is queued
+            assertThat(first.getStatus()).isEqualTo(EnrollmentStatus.ACTIVE);
+            assertThat(second.getStatus()).isEqualTo(EnrollmentStatus.ACTIVE);
+            assertThat(third.getStatus()).isEqualTo(EnrollmentStatus.WAITING_LIST);
+            assertThat(third.getWaitingListEnteredAt()).isEqualTo(third.getApprovedAt());
+            assertThat(result.approved()).allSatisfy(e -> {
+                assertThat(e.getApprovedAt()).isNotNull();
+                assertThat(e.getApprovedByUserId()).isEqualTo(TEACHER_ID);
+            });
+            assertThat(result.skipped()).isEmpty();
+
+            // One lock, one count, one authorization lookup, one batched write
+            verify(courseRepositoryPort).findByIdForUpdate(GROUP_ID);
+            verify(enrollmentRepositoryPort).countActiveByCourseId(GROUP_ID);
+            verify(getUserProfileUseCase).getUserById(TEACHER_ID);
+            verify(enrollmentRepositoryPort, never()).save(any(Enrollment.class));
+
+            // One reservation fan-out for the newly active students only
+            ArgumentCaptor<List<Enrollment>> captor = ArgumentCaptor.forClass(List.class);
+            verify(autoReservationPort).generateForNewEnrollments(captor.capture());
+            assertThat(captor.getValue()).containsExactly(first, second);
+            verify(autoReservationPort, never()).generateForNewEnrollment(anyLong(), anyLong(), anyLong());
+        }
+
+        @Test
+        void shouldSkipUnapprovableEnrollmentsWithoutFailingTheBatch() {
+            Enrollment approvable = pending(11L, 101L, GROUP_ID);
+            Enrollment otherTeachersCourse = pending(12L, 102L, OTHER_GROUP_ID);
+            Enrollment alreadyActive = pending(13L, 103L, GROUP_ID);
+            alreadyActive.setStatus(EnrollmentStatus.ACTIVE);
+            Course otherCourse = Course.builder().id(OTHER_GROUP_ID).teacherId(OTHER_TEACHER_ID).build();
+
+            when(enrollmentRepositoryPort.findAllById(any()))
+                    .thenReturn(List.of(approvable, otherTeachersCourse, alreadyActive));
+            when(getUserProfileUseCase.getUserById(TEACHER_ID)).thenReturn(groupTeacher());
+            when(courseRepositoryPort.findByIdForUpdate(GROUP_ID)).thenReturn(Optional.of(groupWithCapacity(null)));
+            when(courseRepositoryPort.findByIdForUpdate(OTHER_GROUP_ID)).thenReturn(Optional.of(otherCourse));
+            stubSaveAllReturnsArgument();
+
+            BatchApprovalResult result = service.approveBatch(List.of(11L, 12L, 13L, 404L), TEACHER_ID);
+
+            assertThat(result.approved()).containsExactly(approvable);
+            assertThat(approvable.getStatus()).isEqualTo(EnrollmentStatus.ACTIVE);
+            assertThat(result.skipped()).extracting(SkippedEnrollment::enrollmentId)
+                    .containsExactlyInAnyOrder(12L, 13L, 404L);
+            assertThat(result.skipped()).extracting(SkippedEnrollment::reason).anySatisfy(reason ->
+                    assertThat(reason).contains("no está autorizado"));
+
+            // Unlimited capacity: no occupancy count is needed
+            verify(enrollmentRepositoryPort, never()).countActiveByCourseId(anyLong());
+            assertThat(otherTeachersCourse.getStatus()).isEqualTo(EnrollmentStatus.PENDING_APPROVAL);
+        }
+
+        @Test
+        void shouldNotLockOrLookUpApproverWhenNothingIsApprovable() {
+            when(enrollmentRepositoryPort.findAllById(any())).thenReturn(List.of());
+
+            BatchApprovalResult result = service.approveBatch(List.of(404L), TEACHER_ID);
+
+            assertThat(result.approved()).isEmpty();
+            assertThat(result.skipped()).singleElement()
+                    .satisfies(s -> assertThat(s.reason()).contains("404"));
+            verifyNoInteractions(courseRepositoryPort, getUserProfileUseCase, autoReservationPort);
+            verify(enrollmentRepositoryPort, never()).saveAll(anyList());
+        }
+    }
+
     @Nested
     class Reject {
 
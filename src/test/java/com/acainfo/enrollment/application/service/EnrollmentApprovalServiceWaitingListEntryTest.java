@@ -22,8 +22,6 @@ import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -32,8 +30,8 @@ import static org.mockito.Mockito.when;
  * Pure unit tests for the WAITING LIST ENTRY path of
  * {@link EnrollmentApprovalService#approve(Long, Long)}.
  *
- * <p>Queue entry (position assignment via
- * {@code EnrollmentRepositoryPort.getNextWaitingListPosition}) does NOT live in
+ * <p>Queue entry (stamping {@code waitingListEnteredAt}, the FIFO ordering key)
+ * does NOT live in
  * {@code WaitingListService}: it happens when a teacher approves an enrollment
  * for a group that is already full. This class captures exactly that behavior
  * before the group -> course migration; the rest of the approval workflow is
@@ -96,21 +94,19 @@ class EnrollmentApprovalServiceWaitingListEntryTest {
     }
 
     @Test
-    void shouldAssignNextWaitingListPositionWhenGroupIsFullOnApproval() {
+    void shouldStampQueueEntryTimeWhenGroupIsFullOnApproval() {
         // Group full: active count equals max capacity
         when(enrollmentRepositoryPort.countActiveByCourseId(GROUP_ID)).thenReturn((long) CAPACITY);
-        when(enrollmentRepositoryPort.getNextWaitingListPosition(GROUP_ID)).thenReturn(3);
 
         Enrollment result = enrollmentApprovalService.approve(ENROLLMENT_ID, TEACHER_ID);
 
-        // Position on entering the queue comes straight from the repository counter
+        // No counter is read: the queue key is simply the approval instant
         assertThat(result.getStatus()).isEqualTo(EnrollmentStatus.WAITING_LIST);
-        assertThat(result.getWaitingListPosition()).isEqualTo(3);
+        assertThat(result.getWaitingListEnteredAt()).isNotNull().isEqualTo(result.getApprovedAt());
         // It still counts as an approval, even though the student ends up queued
         assertThat(result.getApprovedAt()).isNotNull();
         assertThat(result.getApprovedByUserId()).isEqualTo(TEACHER_ID);
 
-        verify(enrollmentRepositoryPort).getNextWaitingListPosition(GROUP_ID);
         verify(enrollmentRepositoryPort).save(pendingEnrollment);
         // No reservations while waiting: only ACTIVE students get auto-reservations
         verifyNoInteractions(autoReservationPort);
@@ -128,8 +124,8 @@ class EnrollmentApprovalServiceWaitingListEntryTest {
         assertThat(result.getApprovedAt()).isNotNull();
         assertThat(result.getApprovedByUserId()).isEqualTo(TEACHER_ID);
 
-        // The queue position counter is never consulted when a seat is free
-        verify(enrollmentRepositoryPort, never()).getNextWaitingListPosition(anyLong());
+        // The queue is never entered when a seat is free
+        assertThat(result.getWaitingListEnteredAt()).isNull();
         verify(autoReservationPort).generateForNewEnrollment(STUDENT_ID, GROUP_ID, ENROLLMENT_ID);
     }
 }
@@ -1,6 +1,7 @@
 package com.acainfo.enrollment.application.service;
 
 import com.acainfo.enrollment.application.dto.ChangeCourseCommand;
+import com.acainfo.enrollment.application.dto.CourseClosureResult;
 import com.acainfo.enrollment.application.dto.EnrollStudentCommand;
 import com.acainfo.enrollment.application.port.out.AutoReservationPort;
 import com.acainfo.enrollment.application.port.out.EnrollmentRepositoryPort;
@@ -24,14 +25,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -193,14 +193,13 @@ class EnrollmentServiceTest {
             inOrder.verify(enrollmentRepositoryPort).save(active);
             inOrder.verify(autoReservationPort).cancelFutureReservations(STUDENT_ID, GROUP_ID);
             inOrder.verify(waitingListService).promoteNextFromWaitingList(GROUP_ID);
-            // ACTIVE enrollments have no waiting list position -> no decrement
-            verify(enrollmentRepositoryPort, never()).decrementWaitingListPositionsAfter(anyLong(), anyInt());
         }
 
         @Test
-        void shouldDecrementFollowingPositionsWithoutPromotionWhenWithdrawingFromWaitingList() {
+        void shouldLeaveQueueWithoutRenumberingOrPromotionWhenWithdrawingFromWaitingList() {
             Enrollment waiting = enrollmentBuilder(EnrollmentStatus.WAITING_LIST)
                     .waitingListPosition(3)
+                    .waitingListEnteredAt(LocalDateTime.now().minusDays(2))
                     .build();
             when(enrollmentRepositoryPort.findById(ENROLLMENT_ID)).thenReturn(Optional.of(waiting));
             when(enrollmentRepositoryPort.save(any(Enrollment.class)))
@@ -211,8 +210,10 @@ class EnrollmentServiceTest {
             assertThat(result.getStatus()).isEqualTo(EnrollmentStatus.WITHDRAWN);
             assertThat(result.getWithdrawnAt()).isNotNull();
             assertThat(result.getWaitingListPosition()).isNull();
+            assertThat(result.getWaitingListEnteredAt()).isNull();
 
-            verify(enrollmentRepositoryPort).decrementWaitingListPositionsAfter(GROUP_ID, 3);
+            // Positions behind it are derived on read, so the only write is the row itself
+            verify(enrollmentRepositoryPort).save(waiting);
             verifyNoInteractions(autoReservationPort);
             verifyNoInteractions(waitingListService);
         }
@@ -229,7 +230,6 @@ class EnrollmentServiceTest {
             Enrollment result = enrollmentService.withdraw(ENROLLMENT_ID);
 
             assertThat(result.getStatus()).isEqualTo(EnrollmentStatus.WITHDRAWN);
-            verify(enrollmentRepositoryPort, never()).decrementWaitingListPositionsAfter(anyLong(), anyInt());
             verifyNoInteractions(autoReservationPort);
             verifyNoInteractions(waitingListService);
         }
@@ -421,54 +421,42 @@ class EnrollmentServiceTest {
     class CloseAllForCourse {
 
         @Test
-        void shouldCompleteActiveEnrollmentAndCancelFutureReservationsWhenClosingCourse() {
-            Enrollment active = enrollmentBuilder(EnrollmentStatus.ACTIVE).build();
-            when(enrollmentRepositoryPort.findByCourseId(GROUP_ID)).thenReturn(List.of(active));
-            when(enrollmentRepositoryPort.save(any(Enrollment.class))).thenAnswer(inv -> inv.getArgument(0));
-
-            int transitioned = enrollmentService.closeAllForCourse(GROUP_ID);
-
-            assertThat(transitioned).isEqualTo(1);
-            assertThat(active.getStatus()).isEqualTo(EnrollmentStatus.COMPLETED);
-            verify(enrollmentRepositoryPort).save(active);
-            verify(autoReservationPort).cancelFutureReservations(STUDENT_ID, GROUP_ID);
-        }
-
-        @Test
-        void shouldExpirePendingAndWaitingListEnrollmentsWithoutTouchingReservations() {
-            Enrollment pending = enrollmentBuilder(EnrollmentStatus.PENDING_APPROVAL).id(1001L).build();
-            Enrollment waiting = enrollmentBuilder(EnrollmentStatus.WAITING_LIST).id(1002L)
-                    .waitingListPosition(2).build();
-            when(enrollmentRepositoryPort.findByCourseId(GROUP_ID)).thenReturn(List.of(pending, waiting));
-            when(enrollmentRepositoryPort.save(any(Enrollment.class))).thenAnswer(inv -> inv.getArgument(0));
-
-            int transitioned = enrollmentService.closeAllForCourse(GROUP_ID);
-
-            assertThat(transitioned).isEqualTo(2);
-            assertThat(pending.getStatus()).isEqualTo(EnrollmentStatus.EXPIRED);
-            assertThat(waiting.getStatus()).isEqualTo(EnrollmentStatus.EXPIRED);
-            assertThat(waiting.getWaitingListPosition()).isNull();
+        void shouldCloseCourseWithThreeBulkStatementsAndReportCounts() {
+            when(autoReservationPort.cancelFutureReservationsForActiveStudents(GROUP_ID)).thenReturn(120);
+            when(enrollmentRepositoryPort.completeActiveByCourseId(eq(GROUP_ID), any(LocalDateTime.class)))
+                    .thenReturn(40);
+            when(enrollmentRepositoryPort.expirePendingAndWaitingByCourseId(eq(GROUP_ID), any(LocalDateTime.class)))
+                    .thenReturn(3);
+
+            CourseClosureResult result = enrollmentService.closeAllForCourse(GROUP_ID);
+
+            assertThat(result.completed()).isEqualTo(40);
+            assertThat(result.expired()).isEqualTo(3);
+            assertThat(result.reservationsCancelled()).isEqualTo(120);
+            assertThat(result.transitioned()).isEqualTo(43);
+
+            // No per-enrollment load/save and no per-student reservation cancellation
+            verify(enrollmentRepositoryPort, never()).findByCourseId(anyLong());
+            verify(enrollmentRepositoryPort, never()).save(any(Enrollment.class));
             verify(autoReservationPort, never()).cancelFutureReservations(anyLong(), anyLong());
         }
 
         @Test
-        void shouldIgnoreFinalStateEnrollmentsWhenClosingCourse() {
-            Enrollment withdrawn = enrollmentBuilder(EnrollmentStatus.WITHDRAWN).id(1003L).build();
-            Enrollment completed = enrollmentBuilder(EnrollmentStatus.COMPLETED).id(1004L).build();
-            when(enrollmentRepositoryPort.findByCourseId(GROUP_ID)).thenReturn(List.of(withdrawn, completed));
-
-            int transitioned = enrollmentService.closeAllForCourse(GROUP_ID);
+        void shouldCancelReservationsBeforeEnrollmentsLeaveActive() {
+            enrollmentService.closeAllForCourse(GROUP_ID);
 
-            assertThat(transitioned).isZero();
-            verify(enrollmentRepositoryPort, never()).save(any(Enrollment.class));
-            verify(autoReservationPort, never()).cancelFutureReservations(anyLong(), anyLong());
+            // Reservations are selected through the ACTIVE enrollments: they must go first
+            InOrder inOrder = inOrder(autoReservationPort, enrollmentRepositoryPort);
+            inOrder.verify(autoReservationPort).cancelFutureReservationsForActiveStudents(GROUP_ID);
+            inOrder.verify(enrollmentRepositoryPort).completeActiveByCourseId(eq(GROUP_ID), any(LocalDateTime.class));
         }
 
         @Test
-        void shouldReturnZeroWhenCourseHasNoEnrollments() {
-            when(enrollmentRepositoryPort.findByCourseId(GROUP_ID)).thenReturn(List.of());
+        void shouldReturnZeroCountsWhenCourseHasNoLiveEnrollments() {
+            CourseClosureResult result = enrollmentService.closeAllForCourse(GROUP_ID);
 
-            assertThat(enrollmentService.closeAllForCourse(GROUP_ID)).isZero();
+            assertThat(result.transitioned()).isZero();
+            assertThat(result.reservationsCancelled()).isZero();
         }
     }
 }
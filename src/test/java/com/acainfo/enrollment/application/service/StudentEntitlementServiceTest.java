@@ -0,0 +1,136 @@
+package com.acainfo.enrollment.application.service;
+
+import com.acainfo.enrollment.application.port.out.EnrollmentRepositoryPort;
+import com.acainfo.enrollment.domain.event.EnrollmentsChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pure unit tests for {@link StudentEntitlementService}.
+ *
+ * <p>Pins the per-download database work: one join query on a miss, none on a
+ * hit, until the student's enrollments change.</p>
+ */
+@ExtendWith(MockitoExtension.class)
+class StudentEntitlementServiceTest {
+
+    private static final Long STUDENT_ID = 10L;
+    private static final Long OTHER_STUDENT_ID = 11L;
+    private static final Clock FIXED_CLOCK =
+            Clock.fixed(Instant.parse("2026-02-15T12:00:00Z"), ZoneId.of("UTC"));
+
+    @Mock
+    private EnrollmentRepositoryPort enrollmentRepository;
+
+    private StudentEntitlementService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new StudentEntitlementService(enrollmentRepository, FIXED_CLOCK);
+    }
+
+    @Test
+    void repeatedChecksHitTheDatabaseOnce() {
+        when(enrollmentRepository.findActiveSubjectIdsByStudentId(STUDENT_ID)).thenReturn(Set.of(30L, 31L));
+
+        for (int download = 0; download < 100; download++) {
+            assertThat(service.getAccessibleSubjectIds(STUDENT_ID)).containsExactlyInAnyOrder(30L, 31L);
+        }
+
+        verify(enrollmentRepository, times(1)).findActiveSubjectIdsByStudentId(STUDENT_ID);
+    }
+
+    @Test
+    void enrollmentChangeEvictsOnlyThatStudent() {
+        when(enrollmentRepository.findActiveSubjectIdsByStudentId(STUDENT_ID))
+                .thenReturn(Set.of(30L))
+                .thenReturn(Set.of(30L, 32L));
+        when(enrollmentRepository.findActiveSubjectIdsByStudentId(OTHER_STUDENT_ID)).thenReturn(Set.of(30L));
+        service.getAccessibleSubjectIds(STUDENT_ID);
+        service.getAccessibleSubjectIds(OTHER_STUDENT_ID);
+
+        service.onEnrollmentsChanged(EnrollmentsChangedEvent.forStudent(STUDENT_ID));
+
+        assertThat(service.getAccessibleSubjectIds(STUDENT_ID)).containsExactlyInAnyOrder(30L, 32L);
+        service.getAccessibleSubjectIds(OTHER_STUDENT_ID);
+        verify(enrollmentRepository, times(2)).findActiveSubjectIdsByStudentId(STUDENT_ID);
+        verify(enrollmentRepository, times(1)).findActiveSubjectIdsByStudentId(OTHER_STUDENT_ID);
+    }
+
+    @Test
+    void anEvictionDuringTheReadIsNotLostToAStaleEntry() {
+        when(enrollmentRepository.findActiveSubjectIdsByStudentId(STUDENT_ID))
+                .thenAnswer(invocation -> {
+                    // The enrollment commits (and evicts) while the old state is being read
+                    service.onEnrollmentsChanged(EnrollmentsChangedEvent.forStudent(STUDENT_ID));
+                    return Set.of(30L);
+                })
+                .thenReturn(Set.of(30L, 32L));
+
+        assertThat(service.getAccessibleSubjectIds(STUDENT_ID)).containsExactly(30L);
+
+        assertThat(service.getAccessibleSubjectIds(STUDENT_ID)).containsExactlyInAnyOrder(30L, 32L);
+        verify(enrollmentRepository, times(2)).findActiveSubjectIdsByStudentId(STUDENT_ID);
+    }
+
+    @Test
+    void bulkEnrollmentChangeEvictsEveryStudent() {
+        when(enrollmentRepository.findActiveSubjectIdsByStudentId(anyLong())).thenReturn(Set.of(30L));
+        service.getAccessibleSubjectIds(STUDENT_ID);
+        service.getAccessibleSubjectIds(OTHER_STUDENT_ID);
+
+        service.onEnrollmentsChanged(EnrollmentsChangedEvent.forAllStudents());
+        service.getAccessibleSubjectIds(STUDENT_ID);
+        service.getAccessibleSubjectIds(OTHER_STUDENT_ID);
+
+        verify(enrollmentRepository, times(2)).findActiveSubjectIdsByStudentId(STUDENT_ID);
+        verify(enrollmentRepository, times(2)).findActiveSubjectIdsByStudentId(OTHER_STUDENT_ID);
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        Clock clock = mock(Clock.class);
+        Instant start = Instant.parse("2026-02-15T12:00:00Z");
+        when(clock.instant()).thenReturn(start, start.plus(StudentEntitlementService.TTL));
+        when(enrollmentRepository.findActiveSubjectIdsByStudentId(STUDENT_ID)).thenReturn(Set.of(30L));
+        service = new StudentEntitlementService(enrollmentRepository, clock);
+
+        service.getAccessibleSubjectIds(STUDENT_ID);
+        service.getAccessibleSubjectIds(STUDENT_ID);
+
+        verify(enrollmentRepository, times(2)).findActiveSubjectIdsByStudentId(STUDENT_ID);
+    }
+
+    @Test
+    void cacheIsBoundedEvictingLeastRecentlyUsedStudent() {
+        when(enrollmentRepository.findActiveSubjectIdsByStudentId(anyLong())).thenReturn(Set.of(30L));
+
+        service.getAccessibleSubjectIds(0L);
+        for (long studentId = 1; studentId <= StudentEntitlementService.MAX_ENTRIES; studentId++) {
+            // Keep student 0 hot so student 1 becomes the eldest entry
+            service.getAccessibleSubjectIds(0L);
+            service.getAccessibleSubjectIds(studentId);
+        }
+
+        service.getAccessibleSubjectIds(0L);
+        service.getAccessibleSubjectIds(1L);
+
+        verify(enrollmentRepository, times(1)).findActiveSubjectIdsByStudentId(0L);
+        verify(enrollmentRepository, times(2)).findActiveSubjectIdsByStudentId(1L);
+    }
+}
@@ -25,7 +25,6 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
@@ -77,6 +76,7 @@ class WaitingListServiceTest {
                 .courseId(GROUP_ID)
                 .status(EnrollmentStatus.WAITING_LIST)
                 .waitingListPosition(position)
+                .waitingListEnteredAt(LocalDateTime.now().minusHours(10 - id))
                 .enrolledAt(LocalDateTime.now().minusDays(1))
                 .build();
     }
@@ -139,7 +139,7 @@ class WaitingListServiceTest {
     class LeaveWaitingList {
 
         @Test
-        void shouldWithdrawAndDecrementLaterPositionsWhenStudentLeavesQueue() {
+        void shouldWithdrawWithSingleRowWriteWhenStudentLeavesQueue() {
             Enrollment enrollment = waitingEnrollment(ENROLLMENT_ID, STUDENT_ID, 2);
             when(enrollmentRepositoryPort.findById(ENROLLMENT_ID)).thenReturn(Optional.of(enrollment));
             stubSaveEcho();
@@ -150,14 +150,13 @@ class WaitingListServiceTest {
 
             assertThat(result.getStatus()).isEqualTo(EnrollmentStatus.WITHDRAWN);
             assertThat(result.getWaitingListPosition()).isNull();
+            assertThat(result.getWaitingListEnteredAt()).isNull();
             assertThat(result.getWithdrawnAt()).isNotNull()
                     .isAfterOrEqualTo(before)
                     .isBeforeOrEqualTo(after);
 
-            // Save happens BEFORE positions of the rest of the queue are decremented
-            InOrder inOrder = inOrder(enrollmentRepositoryPort);
-            inOrder.verify(enrollmentRepositoryPort).save(enrollment);
-            inOrder.verify(enrollmentRepositoryPort).decrementWaitingListPositionsAfter(GROUP_ID, 2);
+            // Positions behind it are derived on read: no renumbering write is issued
+            verify(enrollmentRepositoryPort).save(enrollment);
 
             // Leaving the queue does NOT trigger any reservation logic
             verifyNoInteractions(autoReservationPort);
@@ -172,7 +171,6 @@ class WaitingListServiceTest {
                     .hasMessageContaining(String.valueOf(ENROLLMENT_ID));
 
             verify(enrollmentRepositoryPort, never()).save(any(Enrollment.class));
-            verify(enrollmentRepositoryPort, never()).decrementWaitingListPositionsAfter(anyLong(), anyInt());
         }
 
         @Test
@@ -193,21 +191,6 @@ class WaitingListServiceTest {
             // The enrollment must not be touched
             assertThat(activeEnrollment.getStatus()).isEqualTo(EnrollmentStatus.ACTIVE);
             verify(enrollmentRepositoryPort, never()).save(any(Enrollment.class));
-            verify(enrollmentRepositoryPort, never()).decrementWaitingListPositionsAfter(anyLong(), anyInt());
-        }
-
-        @Test
-        void shouldSkipDecrementWhenWaitingEnrollmentHasNullPosition() {
-            // Data-inconsistency edge captured as-is: WAITING_LIST status but null position.
-            // The service still withdraws but silently skips the position adjustment.
-            Enrollment inconsistent = waitingEnrollment(ENROLLMENT_ID, STUDENT_ID, null);
-            when(enrollmentRepositoryPort.findById(ENROLLMENT_ID)).thenReturn(Optional.of(inconsistent));
-            stubSaveEcho();
-
-            Enrollment result = waitingListService.leaveWaitingList(ENROLLMENT_ID);
-
-            assertThat(result.getStatus()).isEqualTo(EnrollmentStatus.WITHDRAWN);
-            verify(enrollmentRepositoryPort, never()).decrementWaitingListPositionsAfter(anyLong(), anyInt());
         }
     }
 
@@ -219,39 +202,34 @@ class WaitingListServiceTest {
         @Test
         void shouldPromoteFirstInQueueToActiveWhenWaitingListHasStudents() {
             Enrollment first = waitingEnrollment(1L, 10L, 1);
-            Enrollment second = waitingEnrollment(2L, 11L, 2);
-            Enrollment third = waitingEnrollment(3L, 12L, 3);
             when(courseRepositoryPort.findByIdForUpdate(GROUP_ID)).thenReturn(Optional.of(group));
-            when(enrollmentRepositoryPort.findWaitingListByCourseId(GROUP_ID))
-                    .thenReturn(List.of(first, second, third));
+            when(enrollmentRepositoryPort.findNextInWaitingListForUpdate(GROUP_ID)).thenReturn(Optional.of(first));
             stubSaveEcho();
 
             LocalDateTime before = LocalDateTime.now();
             Enrollment result = waitingListService.promoteNextFromWaitingList(GROUP_ID);
             LocalDateTime after = LocalDateTime.now();
 
-            // FIFO: the head of the list (position 1) is the one promoted
+            // FIFO: the head of the queue (as chosen by the repository) is the one promoted
             assertThat(result.getId()).isEqualTo(1L);
             assertThat(result.getStudentId()).isEqualTo(10L);
             assertThat(result.getStatus()).isEqualTo(EnrollmentStatus.ACTIVE);
             assertThat(result.getWaitingListPosition()).isNull();
+            assertThat(result.getWaitingListEnteredAt()).isNull();
             assertThat(result.getPromotedAt()).isNotNull()
                     .isAfterOrEqualTo(before)
                     .isBeforeOrEqualTo(after);
 
+            // Only the promoted row is written; the rest of the queue is never loaded
             verify(enrollmentRepositoryPort).save(first);
-            // Everyone behind position 1 moves up one slot
-            verify(enrollmentRepositoryPort).decrementWaitingListPositionsAfter(GROUP_ID, 1);
-            // The others are not persisted individually by the service
-            verify(enrollmentRepositoryPort, never()).save(second);
-            verify(enrollmentRepositoryPort, never()).save(third);
+            verify(enrollmentRepositoryPort, never()).findWaitingListByCourseId(anyLong());
         }
 
         @Test
         void shouldGenerateAutoReservationsForPromotedStudent() {
             Enrollment first = waitingEnrollment(7L, 42L, 1);
             when(courseRepositoryPort.findByIdForUpdate(GROUP_ID)).thenReturn(Optional.of(group));
-            when(enrollmentRepositoryPort.findWaitingListByCourseId(GROUP_ID)).thenReturn(List.of(first));
+            when(enrollmentRepositoryPort.findNextInWaitingListForUpdate(GROUP_ID)).thenReturn(Optional.of(first));
             stubSaveEcho();
 
             waitingListService.promoteNextFromWaitingList(GROUP_ID);
@@ -262,14 +240,13 @@ class WaitingListServiceTest {
         @Test
         void shouldReturnNullWithoutSideEffectsWhenWaitingListIsEmpty() {
             when(courseRepositoryPort.findByIdForUpdate(GROUP_ID)).thenReturn(Optional.of(group));
-            when(enrollmentRepositoryPort.findWaitingListByCourseId(GROUP_ID)).thenReturn(List.of());
+            when(enrollmentRepositoryPort.findNextInWaitingListForUpdate(GROUP_ID)).thenReturn(Optional.empty());
 
             Enrollment result = waitingListService.promoteNextFromWaitingList(GROUP_ID);
 
             // No-op contract: null return, nothing saved, no reservations generated
             assertThat(result).isNull();
             verify(enrollmentRepositoryPort, never()).save(any(Enrollment.class));
-            verify(enrollmentRepositoryPort, never()).decrementWaitingListPositionsAfter(anyLong(), anyInt());
             verifyNoInteractions(autoReservationPort);
         }
 
@@ -281,7 +258,7 @@ class WaitingListServiceTest {
                     .isInstanceOf(CourseNotFoundException.class)
                     .hasMessageContaining(String.valueOf(GROUP_ID));
 
-            verify(enrollmentRepositoryPort, never()).findWaitingListByCourseId(anyLong());
+            verify(enrollmentRepositoryPort, never()).findNextInWaitingListForUpdate(anyLong());
             verify(enrollmentRepositoryPort, never()).save(any(Enrollment.class));
             verifyNoInteractions(autoReservationPort);
         }
@@ -290,31 +267,14 @@ class WaitingListServiceTest {
         void shouldLockGroupRowBeforeReadingWaitingList() {
             Enrollment first = waitingEnrollment(1L, 10L, 1);
             when(courseRepositoryPort.findByIdForUpdate(GROUP_ID)).thenReturn(Optional.of(group));
-            when(enrollmentRepositoryPort.findWaitingListByCourseId(GROUP_ID)).thenReturn(List.of(first));
+            when(enrollmentRepositoryPort.findNextInWaitingListForUpdate(GROUP_ID)).thenReturn(Optional.of(first));
             stubSaveEcho();
 
             waitingListService.promoteNextFromWaitingList(GROUP_ID);
 
             InOrder inOrder = inOrder(courseRepositoryPort, enrollmentRepositoryPort);
             inOrder.verify(courseRepositoryPort).findByIdForUpdate(GROUP_ID);
-            inOrder.verify(enrollmentRepositoryPort).findWaitingListByCourseId(GROUP_ID);
-        }
-
-        @Test
-        void shouldPromoteButSkipDecrementWhenHeadOfQueueHasNullPosition() {
-            // Data-inconsistency edge captured as-is: head of queue with null position.
-            // Promotion still happens (ACTIVE + reservations) but no decrement is issued.
-            Enrollment inconsistentHead = waitingEnrollment(9L, 50L, null);
-            when(courseRepositoryPort.findByIdForUpdate(GROUP_ID)).thenReturn(Optional.of(group));
-            when(enrollmentRepositoryPort.findWaitingListByCourseId(GROUP_ID))
-                    .thenReturn(List.of(inconsistentHead));
-            stubSaveEcho();
-
-            Enrollment result = waitingListService.promoteNextFromWaitingList(GROUP_ID);
-
-            assertThat(result.getStatus()).isEqualTo(EnrollmentStatus.ACTIVE);
-            verify(enrollmentRepositoryPort, never()).decrementWaitingListPositionsAfter(anyLong(), anyInt());
-            verify(autoReservationPort).generateForNewEnrollment(50L, GROUP_ID, 9L);
+            inOrder.verify(enrollmentRepositoryPort).findNextInWaitingListForUpdate(GROUP_ID);
         }
     }
 }
@@ -0,0 +1,95 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.dto.AiPipelineStageStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for {@link AiPipelineStage}: concurrency cap, bounded queue and stats.
+ */
+class AiPipelineStageTest {
+
+    @Test
+    void neverRunsMoreStepsThanItsConcurrency() throws Exception {
+        AiPipelineStage stage = new AiPipelineStage("compile", 2, 10);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try (ExecutorService jobs = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                int step = i;
+                results.add(jobs.submit(() -> stage.call(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    running.decrementAndGet();
+                    return step;
+                })));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).isEqualTo(i);
+            }
+        }
+
+        assertThat(maxRunning.get()).isEqualTo(2);
+        AiPipelineStageStats stats = stage.stats();
+        assertThat(stats.completed()).isEqualTo(8);
+        assertThat(stats.running()).isZero();
+        assertThat(stats.queued()).isZero();
+        assertThat(stats.avgRunMillis()).isGreaterThanOrEqualTo(20);
+        assertThat(stats.avgWaitMillis()).isPositive();
+    }
+
+    @Test
+    void rejectsStepsBeyondTheQueueCapacity() throws Exception {
+        AiPipelineStage stage = new AiPipelineStage("llm", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService jobs = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<String> first = jobs.submit(() -> stage.call(() -> {
+                release.await();
+                return "first";
+            }));
+            while (stage.stats().running() < 1) {
+                Thread.onSpinWait();
+            }
+            Future<String> second = jobs.submit(() -> stage.call(() -> "second"));
+            while (stage.stats().queued() < 1) {
+                Thread.onSpinWait();
+            }
+
+            assertThatThrownBy(() -> stage.call(() -> "third"))
+                    .isInstanceOf(RejectedExecutionException.class)
+                    .hasMessageContaining("saturada");
+
+            release.countDown();
+            assertThat(first.get()).isEqualTo("first");
+            assertThat(second.get()).isEqualTo("second");
+        }
+
+        assertThat(stage.stats().rejected()).isEqualTo(1);
+        assertThat(stage.stats().completed()).isEqualTo(2);
+    }
+
+    @Test
+    void releasesTheSlotWhenAStepFails() throws Exception {
+        AiPipelineStage stage = new AiPipelineStage("compile", 1, 0);
+
+        assertThatThrownBy(() -> stage.call(() -> {
+            throw new IllegalStateException("tectonic no encontrado");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(stage.call(() -> "ok")).isEqualTo("ok");
+    }
+}
@@ -0,0 +1,113 @@
+package com.acainfo.material.application.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link LatexMerger}.
+ */
+class LatexMergerTest {
+
+    @Test
+    void unSoloDocumentoQuedaIntacto() {
+        String tex = "\\documentclass{article}\n\\begin{document}\nx\n\\end{document}";
+
+        assertThat(LatexMerger.merge(List.of(tex))).isSameAs(tex);
+    }
+
+    @Test
+    void unePreamblosSinRepetirYCuerposEnOrden() {
+        String first = """
+                \\documentclass{article}
+                \\usepackage{amsmath}
+                \\title{Apuntes}
+                \\begin{document}
+                \\maketitle
+                Páginas 1-4
+                \\end{document}
+                """;
+        String second = """
+                \\documentclass[12pt]{article}
+                \\usepackage{amsmath}
+                \\usepackage{tikz}
+                \\title{Otro título}
+                \\begin{document}
+                Páginas 5-8
+                \\end{document}
+                """;
+
+        String merged = LatexMerger.merge(List.of(first, second));
+
+        assertThat(merged).startsWith("\\documentclass{article}\n\\usepackage{amsmath}\n\\title{Apuntes}\n")
+                .containsOnlyOnce("\\usepackage{amsmath}")
+                .containsOnlyOnce("\\usepackage{tikz}")
+                .doesNotContain("12pt", "Otro título")
+                .containsOnlyOnce("\\begin{document}")
+                .containsSubsequence("\\maketitle", "Páginas 1-4", "Páginas 5-8")
+                .endsWith("\\end{document}\n");
+    }
+
+    @Test
+    void unaDefinicionDeVariasLineasSeCopiaEnteraYUnaRepetidaNoSeAnade() {
+        String first = """
+                \\documentclass{article}
+                \\newtheorem{teorema}{Teorema}
+                \\begin{document}
+                Páginas 1-4
+                \\end{document}
+                """;
+        String second = """
+                \\documentclass{article}
+                \\usepackage[utf8]{inputenc}
+                \\newtheorem{teorema}{Teorema}[section]
+                \\newcommand{\\norma}[1]{
+                  \\left\\lVert #1 \\right\\rVert
+                }
+                \\begin{document}
+                Páginas 5-8
+                \\end{document}
+                """;
+        String third = """
+                \\documentclass{article}
+                \\newcommand{\\norma}[1]{
+                  \\lVert #1 \\rVert
+                }
+                \\begin{document}
+                Páginas 9-12
+                \\end{document}
+                """;
+
+        String merged = LatexMerger.merge(List.of(first, second, third));
+
+        assertThat(merged).containsOnlyOnce("\\newtheorem{teorema}")
+                .doesNotContain("[section]")
+                .containsOnlyOnce("\\usepackage[utf8]{inputenc}")
+                .containsOnlyOnce("\\newcommand{\\norma}")
+                .contains("\\newcommand{\\norma}[1]{\n  \\left\\lVert #1 \\right\\rVert\n}")
+                .doesNotContain("  \\lVert #1 \\rVert")
+                .containsSubsequence("Páginas 1-4", "Páginas 5-8", "Páginas 9-12");
+    }
+
+    @Test
+    void deUnaListaDePaquetesSoloSeCarganLosNuevos() {
+        String first = "\\documentclass{article}\n\\usepackage{amsmath,amssymb}\n\\begin{document}\nuno\n\\end{document}";
+        String second = "\\documentclass{article}\n\\usepackage{amssymb, tikz}\n\\begin{document}\ndos\n\\end{document}";
+
+        String merged = LatexMerger.merge(List.of(first, second));
+
+        assertThat(merged).containsOnlyOnce("amssymb")
+                .contains("\\usepackage{tikz}");
+    }
+
+    @Test
+    void unaRespuestaSinEntornoDocumentSeConservaEntera() {
+        String first = "\\documentclass{article}\n\\begin{document}\nuno\n\\end{document}";
+
+        String merged = LatexMerger.merge(List.of(first, "dos sin document"));
+
+        assertThat(merged).containsSubsequence("uno", "dos sin document", "\\end{document}");
+    }
+}
@@ -0,0 +1,92 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.service.LatexPreFixer.Repair;
+import com.acainfo.material.application.service.LatexPreFixer.Rule;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pure unit tests for {@link LatexPreFixer}.
+ */
+class LatexPreFixerTest {
+
+    private final LatexPreFixer preFixer = new LatexPreFixer();
+
+    @Test
+    void stripsFencesAndChatterAroundTheDocument() {
+        Repair repair = preFixer.repair("""
+                Aquí tienes el documento:
+                ```latex
+                \\documentclass{article}
+                \\begin{document}
+                x
+                \\end{document}
+                ```
+                Espero que te sirva.""", "");
+
+        assertThat(repair.rules()).containsExactly(Rule.MARKDOWN_FENCES);
+        assertThat(repair.tex()).isEqualTo("\\documentclass{article}\n\\begin{document}\nx\n\\end{document}");
+    }
+
+    @Test
+    void dropsForbiddenAndMissingPackagesKeepingTheRestOfTheList() {
+        Repair repair = preFixer.repair("""
+                \\documentclass{article}
+                \\usepackage[utf8]{inputenc}
+                \\usepackage{amsmath,tikz,mathrsfs}
+                \\usetikzlibrary{arrows}
+                \\begin{document}
+                \\begin{tikzpicture}\\draw (0,0) -- (1,1);\\end{tikzpicture}
+                \\end{document}
+                """, "error: doc.tex:3: LaTeX Error: File `mathrsfs.sty' not found.");
+
+        assertThat(repair.rules()).containsExactly(Rule.FORBIDDEN_PACKAGES);
+        assertThat(repair.tex()).isEqualTo("""
+                \\documentclass{article}
+                \\usepackage{amsmath}
+                \\begin{document}
+                \\textit{[figura omitida]}
+                \\end{document}
+                """);
+    }
+
+    @Test
+    void closesEnvironmentsInOrderAndAddsTheMissingEnd() {
+        Repair repair = preFixer.repair("""
+                \\documentclass{article}
+                \\begin{document}
+                \\begin{enumerate}
+                \\item $x$ % \\end{itemize} en un comentario no cuenta
+                \\begin{itemize}
+                \\item a
+                \\end{enumerate}
+                \\end{align}
+                texto cortado""", "error: doc.tex:7: \\begin{itemize} ended by \\end{enumerate}.");
+
+        assertThat(repair.rules()).containsExactly(Rule.MISSING_END_DOCUMENT, Rule.UNBALANCED_ENVIRONMENTS);
+        assertThat(repair.tex()).isEqualTo("""
+                \\documentclass{article}
+                \\begin{document}
+                \\begin{enumerate}
+                \\item $x$ % \\end{itemize} en un comentario no cuenta
+                \\begin{itemize}
+                \\item a
+                \\end{itemize}
+                \\end{enumerate}
+
+                texto cortado
+                \\end{document}
+                """);
+    }
+
+    @Test
+    void leavesAWellFormedDocumentAlone() {
+        String tex = "\\documentclass{article}\n\\usepackage{amsmath}\n\\begin{document}\nx\n\\end{document}\n";
+
+        Repair repair = preFixer.repair(tex, "error: doc.tex:4: Undefined control sequence");
+
+        assertThat(repair.changed()).isFalse();
+        assertThat(repair.tex()).isEqualTo(tex);
+    }
+}
@@ -0,0 +1,101 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.port.out.MaterialAiJobRepositoryPort;
+import com.acainfo.material.domain.model.MaterialAiJob;
+import com.acainfo.shared.infrastructure.config.AnthropicProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pure unit tests for {@link MaterialAiJobWorker}.
+ */
+@ExtendWith(MockitoExtension.class)
+class MaterialAiJobWorkerTest {
+
+    private static final Clock FIXED_CLOCK =
+            Clock.fixed(Instant.parse("2026-07-15T10:00:00Z"), ZoneId.of("UTC"));
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 7, 15, 10, 0);
+
+    @Mock
+    private MaterialAiJobRepositoryPort jobRepository;
+    @Mock
+    private MaterialAiPipeline pipeline;
+
+    private MaterialAiJobWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        AnthropicProperties properties = new AnthropicProperties();
+        properties.getQueue().setMaxJobsPerNode(2);
+        worker = new MaterialAiJobWorker(jobRepository, pipeline, properties, FIXED_CLOCK);
+    }
+
+    private static MaterialAiJob job(Long id) {
+        return MaterialAiJob.builder().id(id).attempts(1).build();
+    }
+
+    @Test
+    void claimsUntilTheQueueIsEmpty() {
+        when(jobRepository.claimNext(anyString(), eq(NOW), eq(NOW.plusSeconds(120))))
+                .thenReturn(Optional.of(job(1L)), Optional.empty());
+        when(pipeline.process(any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        worker.poll();
+
+        verify(pipeline).process(any());
+        verify(jobRepository, times(2)).claimNext(anyString(), any(), any());
+    }
+
+    @Test
+    void stopsClaimingAtMaxJobsPerNodeAndRenewsTheirLeases() {
+        when(jobRepository.claimNext(anyString(), any(), any()))
+                .thenReturn(Optional.of(job(1L)), Optional.of(job(2L)));
+        when(pipeline.process(any())).thenReturn(new CompletableFuture<>());
+        when(jobRepository.renewLeases(anyString(), anyCollection(), any())).thenReturn(2);
+
+        worker.poll();
+        worker.heartbeat();
+
+        verify(jobRepository, times(2)).claimNext(anyString(), any(), any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> renewed = ArgumentCaptor.forClass(Collection.class);
+        verify(jobRepository).renewLeases(anyString(), renewed.capture(), eq(NOW.plusSeconds(120)));
+        assertThat(renewed.getValue()).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void finishedJobsFreeTheirSlotAndStopBeingRenewed() {
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        when(jobRepository.claimNext(anyString(), any(), any()))
+                .thenReturn(Optional.of(job(1L)), Optional.empty());
+        when(pipeline.process(any())).thenReturn(first);
+
+        worker.poll();
+        first.complete(null);
+        worker.heartbeat();
+
+        verify(jobRepository, never()).renewLeases(anyString(), anyCollection(), any());
+    }
+}
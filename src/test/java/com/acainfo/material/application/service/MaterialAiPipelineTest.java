@@ -1,16 +1,30 @@
 package com.acainfo.material.application.service;
 
+import com.acainfo.material.application.dto.AiImageInput;
 import com.acainfo.material.application.dto.LatexCompilationResult;
-import com.acainfo.material.application.dto.StoredCapture;
+import com.acainfo.material.application.dto.LlmBatchDocument;
+import com.acainfo.material.application.dto.LlmBatchResult;
+import com.acainfo.material.application.dto.LlmLatexReply;
+import com.acainfo.material.application.dto.LlmUsage;
 import com.acainfo.material.application.dto.UploadMaterialCommand;
 import com.acainfo.material.application.port.in.UploadMaterialUseCase;
 import com.acainfo.material.application.port.out.FileStoragePort;
 import com.acainfo.material.application.port.out.LatexCompilerPort;
+import com.acainfo.material.application.port.out.LlmLatexBatchPort;
 import com.acainfo.material.application.port.out.LlmLatexPort;
 import com.acainfo.material.application.port.out.MaterialAiJobRepositoryPort;
 import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.application.port.out.PdfPagesPort;
+import com.acainfo.material.domain.event.MaterialAiJobChangedEvent;
+import com.acainfo.material.domain.exception.FileStorageException;
+import com.acainfo.material.domain.exception.LlmOutputTruncatedException;
+import com.acainfo.material.domain.exception.LlmUnavailableException;
 import com.acainfo.material.domain.model.Material;
 import com.acainfo.material.domain.model.MaterialAiJob;
+import com.acainfo.material.domain.model.MaterialAiJobCapture;
+import com.acainfo.material.domain.model.MaterialAiJobItem;
+import com.acainfo.material.domain.model.MaterialAiJobItemStatus;
+import com.acainfo.material.domain.model.MaterialAiJobStage;
 import com.acainfo.material.domain.model.MaterialAiJobStatus;
 import com.acainfo.material.domain.model.MaterialAiJobType;
 import com.acainfo.shared.infrastructure.config.AnthropicProperties;
@@ -19,24 +33,36 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.time.Clock;
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -49,10 +75,12 @@ import static org.mockito.Mockito.when;
 class MaterialAiPipelineTest {
 
     private static final Long JOB_ID = 40L;
+    private static final String LEASE_OWNER = "node-1";
     private static final Long SUBJECT_ID = 30L;
     private static final Long ADMIN_ID = 1L;
     private static final Long FOLDER_ID = 7L;
     private static final byte[] PDF = "pdf-bytes".getBytes(StandardCharsets.UTF_8);
+    private static final String CAPTURE_PATH = "subjects/inf006/ai-captura-1";
     private static final String TEX_OK = "\\documentclass{article}\\title{Integrales impropias}\\begin{document}x\\end{document}";
 
     @Mock
@@ -66,30 +94,61 @@ class MaterialAiPipelineTest {
     @Mock
     private LlmLatexPort llmLatex;
     @Mock
+    private PdfPagesPort pdfPages;
+    @Mock
+    private LlmLatexBatchPort llmBatch;
+    @Mock
     private LatexCompilerPort latexCompiler;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
+    private AnthropicProperties properties;
     private MaterialAiPipeline pipeline;
 
     @BeforeEach
     void setUp() {
-        AnthropicProperties properties = new AnthropicProperties(); // max-fix-retries = 2 por defecto
+        properties = new AnthropicProperties(); // max-fix-retries = 2 por defecto
+        properties.getTranscription().setChunkRetryBackoffMs(0);
         // 15-jul-2026 fijo: los nombres "Repaso dd-mm" son deterministas en los tests
         Clock clock = Clock.fixed(Instant.parse("2026-07-15T10:00:00Z"), ZoneId.of("Europe/Madrid"));
         pipeline = new MaterialAiPipeline(jobRepository, materialRepository, uploadMaterialUseCase,
-                fileStorage, llmLatex, latexCompiler, properties, clock);
+                fileStorage, llmLatex, pdfPages, llmBatch, latexCompiler, new MaterialAiStages(properties), new LatexPreFixer(), properties, clock,
+                eventPublisher);
     }
 
-    private MaterialAiJob pendingJob(MaterialAiJobType type, Long sourceMaterialId) {
+    private MaterialAiJob claimedJob(MaterialAiJobType type, Long sourceMaterialId) {
         return MaterialAiJob.builder()
                 .id(JOB_ID)
                 .type(type)
                 .subjectId(SUBJECT_ID)
                 .sourceMaterialId(sourceMaterialId)
-                .status(MaterialAiJobStatus.PENDING)
+                .status(MaterialAiJobStatus.RUNNING)
                 .createdById(ADMIN_ID)
+                .attempts(1)
+                .leaseOwner(LEASE_OWNER)
                 .build();
     }
 
+    /** The claim's lease is still this worker's: publishing and the final write go through. */
+    private void leaseHeld() {
+        lenient().when(jobRepository.isLeasedTo(JOB_ID, LEASE_OWNER)).thenReturn(true);
+        when(jobRepository.release(any(), eq(LEASE_OWNER))).thenReturn(true);
+    }
+
+    private MaterialAiJob generateJob(Long folderId) {
+        MaterialAiJob job = claimedJob(MaterialAiJobType.GENERATE, null);
+        job.setFolderId(folderId);
+        job.setExerciseCount(2);
+        job.setCaptures(List.of(new MaterialAiJobCapture(CAPTURE_PATH, "image/png")));
+        when(fileStorage.retrieve(CAPTURE_PATH)).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3}));
+        return job;
+    }
+
+    /** Every reply: 100 tokens in, 50 out, 1.2 s. */
+    private static LlmLatexReply reply(String tex) {
+        return new LlmLatexReply(tex, new LlmUsage(100, 50, 1200));
+    }
+
     private Material publishedMaterial() {
         return Material.builder()
                 .id(55L)
@@ -98,27 +157,24 @@ class MaterialAiPipelineTest {
                 .build();
     }
 
-    private Path capturesDirWithOneImage() throws Exception {
-        Path dir = Files.createTempDirectory("test-captures-");
-        Files.write(dir.resolve("captura-0"), new byte[]{1, 2, 3});
-        return dir;
-    }
-
     @Nested
     class Generate {
 
         @Test
-        void pipelineFelizPublicaConTemaDelTitleYGuardaElTex() throws Exception {
-            MaterialAiJob job = pendingJob(MaterialAiJobType.GENERATE, null);
-            when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
-            when(jobRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-            when(llmLatex.generateExercises(any(), eq(2))).thenReturn(TEX_OK);
+        void pipelineFelizPublicaConTemaDelTitleYGuardaElTex() {
+            MaterialAiJob job = generateJob(FOLDER_ID);
+            leaseHeld();
+            when(llmLatex.generateExercises(any(), eq(2), any())).thenAnswer(inv -> {
+                // La captura llega al modelo como fichero local copiado del storage
+                List<AiImageInput> images = inv.getArgument(0);
+                assertThat(Files.readAllBytes(images.get(0).path())).containsExactly(1, 2, 3);
+                assertThat(images.get(0).mimeType()).isEqualTo("image/png");
+                return reply(TEX_OK);
+            });
             when(latexCompiler.compile(TEX_OK)).thenReturn(LatexCompilationResult.ok(PDF));
             when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
-            Path capturesDir = capturesDirWithOneImage();
 
-            pipeline.runGenerateJob(JOB_ID, FOLDER_ID, 2, capturesDir,
-                    List.of(new StoredCapture(capturesDir.resolve("captura-0"), "image/png")));
+            pipeline.process(job);
 
             ArgumentCaptor<UploadMaterialCommand> captor = ArgumentCaptor.forClass(UploadMaterialCommand.class);
             verify(uploadMaterialUseCase).upload(captor.capture());
@@ -136,25 +192,23 @@ class MaterialAiPipelineTest {
 
             assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.COMPLETED);
             assertThat(job.getResultMaterialId()).isEqualTo(55L);
-            // PENDING->RUNNING y RUNNING->COMPLETED: dos saves
-            verify(jobRepository, times(2)).save(job);
-            // Las capturas temporales se borran siempre
-            assertThat(Files.notExists(capturesDir)).isTrue();
+            assertThat(job.getLeaseOwner()).isNull();
+            // El claim ya lo dejó RUNNING: una única escritura, RUNNING->COMPLETED, con el lease aún suyo
+            verify(jobRepository).release(job, LEASE_OWNER);
+            // Terminado el job, sus capturas salen del storage
+            verify(fileStorage).delete(CAPTURE_PATH);
         }
 
         @Test
-        void sinTitleParseableElNombreCaeARepasoDdMm() throws Exception {
-            MaterialAiJob job = pendingJob(MaterialAiJobType.GENERATE, null);
-            when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
-            when(jobRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-            when(llmLatex.generateExercises(any(), anyInt()))
-                    .thenReturn("\\documentclass{article}\\begin{document}x\\end{document}");
+        void sinTitleParseableElNombreCaeARepasoDdMm() {
+            MaterialAiJob job = generateJob(null);
+            leaseHeld();
+            when(llmLatex.generateExercises(any(), anyInt(), any()))
+                    .thenReturn(reply("\\documentclass{article}\\begin{document}x\\end{document}"));
             when(latexCompiler.compile(anyString())).thenReturn(LatexCompilationResult.ok(PDF));
             when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
-            Path capturesDir = capturesDirWithOneImage();
 
-            pipeline.runGenerateJob(JOB_ID, null, 2, capturesDir,
-                    List.of(new StoredCapture(capturesDir.resolve("captura-0"), "image/png")));
+            pipeline.process(job);
 
             ArgumentCaptor<UploadMaterialCommand> captor = ArgumentCaptor.forClass(UploadMaterialCommand.class);
             verify(uploadMaterialUseCase).upload(captor.capture());
@@ -163,49 +217,221 @@ class MaterialAiPipelineTest {
         }
 
         @Test
-        void reintentaConClaudeTrasUnErrorDeCompilacionYPublica() throws Exception {
-            MaterialAiJob job = pendingJob(MaterialAiJobType.GENERATE, null);
-            when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
-            when(jobRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        void reintentaConClaudeTrasUnErrorDeCompilacionYPublica() {
+            MaterialAiJob job = generateJob(null);
+            leaseHeld();
             String texRoto = "\\documentclass{article}\\broken";
             String texArreglado = TEX_OK;
-            when(llmLatex.generateExercises(any(), anyInt())).thenReturn(texRoto);
+            when(llmLatex.generateExercises(any(), anyInt(), any())).thenReturn(reply(texRoto));
             when(latexCompiler.compile(texRoto))
                     .thenReturn(LatexCompilationResult.failure("error: doc.tex:1: Undefined control sequence"));
-            when(llmLatex.fixLatex(texRoto, "error: doc.tex:1: Undefined control sequence"))
-                    .thenReturn(texArreglado);
+            when(llmLatex.fixLatex(eq(texRoto), eq("error: doc.tex:1: Undefined control sequence"), any()))
+                    .thenReturn(reply(texArreglado));
             when(latexCompiler.compile(texArreglado)).thenReturn(LatexCompilationResult.ok(PDF));
             when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
-            Path capturesDir = capturesDirWithOneImage();
 
-            pipeline.runGenerateJob(JOB_ID, null, 2, capturesDir,
-                    List.of(new StoredCapture(capturesDir.resolve("captura-0"), "image/png")));
+            pipeline.process(job);
+
+            verify(llmLatex).fixLatex(eq(texRoto), eq("error: doc.tex:1: Undefined control sequence"), any());
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.COMPLETED);
+            // Generación + corrección: el consumo de las dos llamadas se suma en el job
+            assertThat(job.getLlmCalls()).isEqualTo(2);
+            assertThat(job.getLlmInputTokens()).isEqualTo(200);
+            assertThat(job.getLlmOutputTokens()).isEqualTo(100);
+            assertThat(job.getLlmMillis()).isEqualTo(2400);
+        }
+
+        @Test
+        void informaDelPasoYDeLosTokensMientrasLlegaLaRespuesta() {
+            properties.getPipeline().setProgressIntervalMs(0);
+            MaterialAiJob job = generateJob(null);
+            leaseHeld();
+            when(llmLatex.generateExercises(any(), anyInt(), any())).thenAnswer(inv -> {
+                LongConsumer progress = inv.getArgument(2);
+                progress.accept(300);
+                progress.accept(700);
+                return reply(TEX_OK);
+            });
+            when(latexCompiler.compile(TEX_OK)).thenReturn(LatexCompilationResult.ok(PDF));
+            when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
+
+            pipeline.process(job);
+
+            InOrder order = inOrder(jobRepository);
+            order.verify(jobRepository).updateProgress(eq(JOB_ID), eq(MaterialAiJobStage.GENERATING), eq(0L), any());
+            order.verify(jobRepository).updateProgress(eq(JOB_ID), eq(MaterialAiJobStage.GENERATING), eq(300L), any());
+            order.verify(jobRepository).updateProgress(eq(JOB_ID), eq(MaterialAiJobStage.GENERATING), eq(700L), any());
+            order.verify(jobRepository).updateProgress(eq(JOB_ID), eq(MaterialAiJobStage.COMPILING), eq(0L), any());
+            order.verify(jobRepository).updateProgress(eq(JOB_ID), eq(MaterialAiJobStage.PUBLISHING), eq(0L), any());
+            order.verify(jobRepository).release(job, LEASE_OWNER);
+            // Terminado, el job ya no tiene paso en curso
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.COMPLETED);
+            assertThat(job.getProgressStage()).isNull();
+            // Cada cambio se publica: inicio, 5 avances y el COMPLETED
+            verify(eventPublisher, times(7)).publishEvent(new MaterialAiJobChangedEvent(JOB_ID));
+        }
+
+        @Test
+        void elProgresoSeGuardaComoMuchoUnaVezPorIntervalo() {
+            // Reloj fijo: tras el aviso de inicio no pasa el intervalo por defecto (2 s)
+            MaterialAiJob job = generateJob(null);
+            leaseHeld();
+            when(llmLatex.generateExercises(any(), anyInt(), any())).thenAnswer(inv -> {
+                LongConsumer progress = inv.getArgument(2);
+                progress.accept(300);
+                progress.accept(700);
+                return reply(TEX_OK);
+            });
+            when(latexCompiler.compile(TEX_OK)).thenReturn(LatexCompilationResult.ok(PDF));
+            when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
+
+            pipeline.process(job);
+
+            verify(jobRepository).updateProgress(eq(JOB_ID), eq(MaterialAiJobStage.GENERATING), eq(0L), any());
+            verify(jobRepository, never()).updateProgress(eq(JOB_ID), eq(MaterialAiJobStage.GENERATING), eq(300L), any());
+            verify(jobRepository, never()).updateProgress(eq(JOB_ID), eq(MaterialAiJobStage.GENERATING), eq(700L), any());
+        }
+
+        @Test
+        void unFalloAlGuardarElProgresoNoHaceFallarElJob() {
+            MaterialAiJob job = generateJob(null);
+            leaseHeld();
+            doThrow(new RuntimeException("pool agotado"))
+                    .when(jobRepository).updateProgress(any(), any(), anyLong(), any());
+            when(llmLatex.generateExercises(any(), anyInt(), any())).thenReturn(reply(TEX_OK));
+            when(latexCompiler.compile(TEX_OK)).thenReturn(LatexCompilationResult.ok(PDF));
+            when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
+
+            pipeline.process(job);
+
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.COMPLETED);
+        }
+
+        @Test
+        void unaCorreccionLocalEvitaLaLlamadaAClaude() {
+            MaterialAiJob job = generateJob(null);
+            leaseHeld();
+            String texConFences = "```latex\n\\documentclass{article}\n\\begin{document}\nx\n```";
+            String texReparado = "\\documentclass{article}\n\\begin{document}\nx\n\\end{document}\n";
+            when(llmLatex.generateExercises(any(), anyInt(), any())).thenReturn(reply(texConFences));
+            when(latexCompiler.compile(texConFences))
+                    .thenReturn(LatexCompilationResult.failure("error: doc.tex:1: Missing \\begin{document}."));
+            when(latexCompiler.compile(texReparado)).thenReturn(LatexCompilationResult.ok(PDF));
+            when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
+
+            pipeline.process(job);
+
+            verify(llmLatex, never()).fixLatex(anyString(), anyString(), any());
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.COMPLETED);
+        }
+
+        @Test
+        void enUnDocumentoLargoClaudeSoloRecibeLasLineasDelError() {
+            MaterialAiJob job = generateJob(null);
+            leaseHeld();
+            StringBuilder body = new StringBuilder("\\documentclass{article}\n\\begin{document}\n");
+            for (int line = 3; line <= 59; line++) {
+                body.append(line == 40 ? "$x^2" : "linea " + line).append('\n');
+            }
+            String texRoto = body.append("\\end{document}").toString();
+            String errors = "error: doc.tex:40: Missing $ inserted";
+            when(llmLatex.generateExercises(any(), anyInt(), any())).thenReturn(reply(texRoto));
+            when(latexCompiler.compile(texRoto)).thenReturn(LatexCompilationResult.failure(errors));
+            when(llmLatex.fixLatexExcerpt(anyString(), eq(32), eq(48), eq(errors), any())).thenAnswer(inv ->
+                    reply(inv.<String>getArgument(0).replace("$x^2", "$x^2$")));
+            when(latexCompiler.compile(texRoto.replace("$x^2", "$x^2$"))).thenReturn(LatexCompilationResult.ok(PDF));
+            when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
+
+            pipeline.process(job);
 
-            verify(llmLatex).fixLatex(texRoto, "error: doc.tex:1: Undefined control sequence");
+            ArgumentCaptor<String> excerpt = ArgumentCaptor.forClass(String.class);
+            verify(llmLatex).fixLatexExcerpt(excerpt.capture(), eq(32), eq(48), eq(errors), any());
+            assertThat(excerpt.getValue().lines()).hasSize(17).startsWith("linea 32").endsWith("linea 48");
+            verify(llmLatex, never()).fixLatex(anyString(), anyString(), any());
             assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.COMPLETED);
         }
 
         @Test
-        void failedTrasAgotarLosReintentosSinPublicarNada() throws Exception {
-            MaterialAiJob job = pendingJob(MaterialAiJobType.GENERATE, null);
-            when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
-            when(jobRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
-            when(llmLatex.generateExercises(any(), anyInt())).thenReturn("tex-1");
-            when(llmLatex.fixLatex(anyString(), anyString())).thenReturn("tex-2", "tex-3");
+        void failedTrasAgotarLosReintentosSinPublicarNada() {
+            MaterialAiJob job = generateJob(null);
+            leaseHeld();
+            when(llmLatex.generateExercises(any(), anyInt(), any())).thenReturn(reply("tex-1"));
+            when(llmLatex.fixLatex(anyString(), anyString(), any())).thenReturn(reply("tex-2"), reply("tex-3"));
             when(latexCompiler.compile(anyString()))
                     .thenReturn(LatexCompilationResult.failure("error: doc.tex:9: Missing $ inserted"));
-            Path capturesDir = capturesDirWithOneImage();
 
-            pipeline.runGenerateJob(JOB_ID, null, 2, capturesDir,
-                    List.of(new StoredCapture(capturesDir.resolve("captura-0"), "image/png")));
+            pipeline.process(job);
 
             // intento inicial + 2 correcciones = 3 compilaciones, 2 fixes
             verify(latexCompiler, times(3)).compile(anyString());
-            verify(llmLatex, times(2)).fixLatex(anyString(), anyString());
+            verify(llmLatex, times(2)).fixLatex(anyString(), anyString(), any());
             verify(uploadMaterialUseCase, never()).upload(any());
             assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.FAILED);
             assertThat(job.getErrorMessage()).contains("no compila").contains("Missing $ inserted");
-            assertThat(Files.notExists(capturesDir)).isTrue();
+            // Un documento que no compila no se reintenta: fallo definitivo y capturas borradas
+            verify(fileStorage).delete(CAPTURE_PATH);
+        }
+
+        @Test
+        void unFalloTransitorioVuelveALaColaConBackoffYConservaLasCapturas() {
+            MaterialAiJob job = generateJob(null);
+            job.setAttempts(2);
+            leaseHeld();
+            when(llmLatex.generateExercises(any(), anyInt(), any()))
+                    .thenThrow(new LlmUnavailableException("529 Overloaded", null));
+
+            pipeline.process(job);
+
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.PENDING);
+            // 30 s de base, doblando por intento: el 2º fallo espera 60 s
+            assertThat(job.getNextAttemptAt()).isEqualTo(LocalDateTime.of(2026, 7, 15, 12, 1, 0));
+            assertThat(job.getErrorMessage()).contains("Intento 2/3").contains("529 Overloaded");
+            assertThat(job.getLeaseOwner()).isNull();
+            verify(fileStorage, never()).delete(anyString());
+        }
+
+        @Test
+        void elUltimoIntentoFallaDefinitivamente() {
+            MaterialAiJob job = generateJob(null);
+            job.setAttempts(3);
+            leaseHeld();
+            when(llmLatex.generateExercises(any(), anyInt(), any()))
+                    .thenThrow(new LlmUnavailableException("529 Overloaded", null));
+
+            pipeline.process(job);
+
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.FAILED);
+            verify(fileStorage).delete(CAPTURE_PATH);
+        }
+
+        @Test
+        void unErrorInesperadoNoSeReintentaAunqueQuedenIntentos() {
+            MaterialAiJob job = generateJob(null);
+            leaseHeld();
+            when(llmLatex.generateExercises(any(), anyInt(), any())).thenThrow(new NullPointerException("images"));
+
+            pipeline.process(job);
+
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.FAILED);
+            verify(fileStorage).delete(CAPTURE_PATH);
+        }
+
+        @Test
+        void unFalloAlGuardarElTexNoVuelveAPublicarElMaterial() {
+            MaterialAiJob job = generateJob(null);
+            leaseHeld();
+            when(llmLatex.generateExercises(any(), anyInt(), any())).thenReturn(reply(TEX_OK));
+            when(latexCompiler.compile(TEX_OK)).thenReturn(LatexCompilationResult.ok(PDF));
+            when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
+            when(fileStorage.store(any(), eq("deadbeef.tex"), eq(SUBJECT_ID)))
+                    .thenThrow(new FileStorageException("S3 no responde"));
+
+            pipeline.process(job);
+
+            // El PDF ya está publicado: el job termina en vez de reintentarse y duplicarlo
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.COMPLETED);
+            assertThat(job.getResultMaterialId()).isEqualTo(55L);
+            verify(uploadMaterialUseCase, times(1)).upload(any());
         }
     }
 
@@ -226,17 +452,17 @@ class MaterialAiPipelineTest {
 
         @Test
         void pipelineFelizHeredaCarpetaYNombraAlLimpio() {
-            MaterialAiJob job = pendingJob(MaterialAiJobType.TRANSCRIBE, 20L);
-            when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
-            when(jobRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+            MaterialAiJob job = claimedJob(MaterialAiJobType.TRANSCRIBE, 20L);
+            leaseHeld();
             when(materialRepository.findById(20L)).thenReturn(Optional.of(source()));
             when(fileStorage.retrieve("subjects/inf006/orig.pdf"))
                     .thenReturn(new ByteArrayInputStream(PDF));
-            when(llmLatex.transcribeDocument(any())).thenReturn(TEX_OK);
+            when(pdfPages.countPages(any())).thenReturn(1);
+            when(llmLatex.transcribeDocument(eq(PDF), any())).thenReturn(reply(TEX_OK));
             when(latexCompiler.compile(TEX_OK)).thenReturn(LatexCompilationResult.ok(PDF));
             when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
 
-            pipeline.runTranscribeJob(JOB_ID);
+            pipeline.process(job);
 
             ArgumentCaptor<UploadMaterialCommand> captor = ArgumentCaptor.forClass(UploadMaterialCommand.class);
             verify(uploadMaterialUseCase).upload(captor.capture());
@@ -253,22 +479,395 @@ class MaterialAiPipelineTest {
 
         @Test
         void unErrorDelLlmDejaElJobFailedConMensaje() {
-            MaterialAiJob job = pendingJob(MaterialAiJobType.TRANSCRIBE, 20L);
-            when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
-            when(jobRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+            MaterialAiJob job = claimedJob(MaterialAiJobType.TRANSCRIBE, 20L);
+            leaseHeld();
             when(materialRepository.findById(20L)).thenReturn(Optional.of(source()));
             when(fileStorage.retrieve(anyString())).thenReturn(new ByteArrayInputStream(PDF));
-            when(llmLatex.transcribeDocument(any()))
-                    .thenThrow(new RuntimeException("ANTHROPIC_API_KEY no configurada"));
+            when(pdfPages.countPages(any())).thenReturn(1);
+            when(llmLatex.transcribeDocument(any(), any()))
+                    .thenThrow(new IllegalStateException("ANTHROPIC_API_KEY no configurada"));
+
+            pipeline.process(job);
+
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.FAILED);
+            assertThat(job.getErrorMessage()).contains("ANTHROPIC_API_KEY");
+            verify(uploadMaterialUseCase, never()).upload(any());
+        }
+
+        /** Each range transcribes to its own document: a shared package, one line "Pn-m" of body. */
+        private static LlmLatexReply rangeReply(int first, int last) {
+            return reply("\\documentclass{article}\n\\usepackage{amsmath}\n\\begin{document}\nP"
+                    + first + "-" + last + "\n\\end{document}\n");
+        }
+
+        private MaterialAiJob longSourceJob(int pages) {
+            MaterialAiJob job = claimedJob(MaterialAiJobType.TRANSCRIBE, 20L);
+            leaseHeld();
+            when(materialRepository.findById(20L)).thenReturn(Optional.of(source()));
+            when(fileStorage.retrieve(anyString())).thenReturn(new ByteArrayInputStream(PDF));
+            when(pdfPages.countPages(any())).thenReturn(pages);
+            when(pdfPages.extractPages(any(), anyInt(), anyInt()))
+                    .thenAnswer(inv -> ("p" + inv.getArgument(1) + "-" + inv.getArgument(2)).getBytes());
+            return job;
+        }
+
+        @Test
+        void unPdfLargoSeTranscribePorRangosYSoloSeReintentaElQueFalla() {
+            MaterialAiJob job = longSourceJob(10);
+            AtomicBoolean failedOnce = new AtomicBoolean();
+            when(llmLatex.transcribePages(any(), anyInt(), anyInt(), eq(10), any())).thenAnswer(inv -> {
+                int first = inv.getArgument(1);
+                int last = inv.getArgument(2);
+                // Cada rango recibe solo sus páginas
+                assertThat(new String((byte[]) inv.getArgument(0))).isEqualTo("p" + first + "-" + last);
+                if (first == 5 && failedOnce.compareAndSet(false, true)) {
+                    throw new UncheckedIOException(new IOException("stream cortado"));
+                }
+                return rangeReply(first, last);
+            });
+            when(latexCompiler.compile(anyString())).thenReturn(LatexCompilationResult.ok(PDF));
+            when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
+
+            pipeline.process(job);
+
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.COMPLETED);
+            // 1-4 y 9-10 una vez, 5-8 dos: el job no vuelve a la cola por un rango
+            verify(llmLatex, times(4)).transcribePages(any(), anyInt(), anyInt(), anyInt(), any());
+            verify(llmLatex, never()).transcribeDocument(any(), any());
+            assertThat(job.getLlmCalls()).isEqualTo(3);
+            assertThat(job.getAttempts()).isEqualTo(1);
+
+            ArgumentCaptor<String> tex = ArgumentCaptor.forClass(String.class);
+            verify(latexCompiler).compile(tex.capture());
+            assertThat(tex.getValue())
+                    .containsOnlyOnce("\\documentclass{article}")
+                    .containsOnlyOnce("\\usepackage{amsmath}")
+                    .containsOnlyOnce("\\begin{document}");
+            assertThat(tex.getValue().indexOf("P1-4")).isLessThan(tex.getValue().indexOf("P5-8"));
+            assertThat(tex.getValue().indexOf("P5-8")).isLessThan(tex.getValue().indexOf("P9-10"));
+        }
 
-            pipeline.runTranscribeJob(JOB_ID);
+        @Test
+        void unRangoCortadoPorElLimiteDeSalidaSeDivideEnDos() {
+            MaterialAiJob job = longSourceJob(6);
+            when(llmLatex.transcribePages(any(), eq(1), eq(4), eq(6), any()))
+                    .thenThrow(new LlmOutputTruncatedException("Respuesta cortada por max_tokens"));
+            when(llmLatex.transcribePages(any(), eq(1), eq(2), eq(6), any())).thenReturn(rangeReply(1, 2));
+            when(llmLatex.transcribePages(any(), eq(3), eq(4), eq(6), any())).thenReturn(rangeReply(3, 4));
+            when(llmLatex.transcribePages(any(), eq(5), eq(6), eq(6), any())).thenReturn(rangeReply(5, 6));
+            when(latexCompiler.compile(anyString())).thenReturn(LatexCompilationResult.ok(PDF));
+            when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
+
+            pipeline.process(job);
+
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.COMPLETED);
+            ArgumentCaptor<String> tex = ArgumentCaptor.forClass(String.class);
+            verify(latexCompiler).compile(tex.capture());
+            assertThat(tex.getValue()).containsSubsequence("P1-2", "P3-4", "P5-6");
+        }
+
+        @Test
+        void unRangoQueFallaDefinitivamenteHaceFallarElJob() {
+            MaterialAiJob job = longSourceJob(8);
+            when(llmLatex.transcribePages(any(), anyInt(), anyInt(), anyInt(), any()))
+                    .thenThrow(new IllegalStateException("ANTHROPIC_API_KEY no configurada"));
+
+            pipeline.process(job);
 
             assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.FAILED);
             assertThat(job.getErrorMessage()).contains("ANTHROPIC_API_KEY");
+            verify(latexCompiler, never()).compile(anyString());
+        }
+    }
+
+    @Nested
+    class TranscribeBatch {
+
+        private Material source(Long id, String name) {
+            return Material.builder()
+                    .id(id)
+                    .subjectId(SUBJECT_ID)
+                    .name(name)
+                    .originalFilename(name + ".pdf")
+                    .fileExtension("pdf")
+                    .folderId(9L)
+                    .storagePath("subjects/inf006/" + id + ".pdf")
+                    .build();
+        }
+
+        private MaterialAiJob batchJob(String llmBatchId, MaterialAiJobItem... items) {
+            MaterialAiJob job = claimedJob(MaterialAiJobType.TRANSCRIBE_BATCH, null);
+            job.setFolderId(9L);
+            job.setLlmBatchId(llmBatchId);
+            job.setItems(new ArrayList<>(List.of(items)));
+            return job;
+        }
+
+        @Test
+        void elPrimerTurnoEnviaLosPdfEnUnLoteYElJobEsperaSinGastarIntento() {
+            MaterialAiJob job = batchJob(null, MaterialAiJobItem.pending(20L), MaterialAiJobItem.pending(21L));
+            leaseHeld();
+            when(materialRepository.findById(20L)).thenReturn(Optional.of(source(20L, "Pizarra 1")));
+            when(materialRepository.findById(21L)).thenReturn(Optional.of(source(21L, "Pizarra 2")));
+            when(fileStorage.retrieve(anyString())).thenAnswer(inv -> new ByteArrayInputStream(
+                    ((String) inv.getArgument(0)).getBytes(StandardCharsets.UTF_8)));
+            when(llmBatch.submitTranscriptions(any())).thenAnswer(inv -> {
+                List<LlmBatchDocument> documents = inv.getArgument(0);
+                assertThat(documents).extracting(LlmBatchDocument::customId)
+                        .containsExactly("material-20", "material-21");
+                // Cada PDF llega al adaptador como fichero local copiado del storage
+                assertThat(Files.readString(documents.get(1).pdf())).isEqualTo("subjects/inf006/21.pdf");
+                return "msgbatch_01";
+            });
+
+            pipeline.process(job);
+
+            assertThat(job.getLlmBatchId()).isEqualTo("msgbatch_01");
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.PENDING);
+            assertThat(job.getProgressStage()).isEqualTo(MaterialAiJobStage.BATCHED);
+            assertThat(job.getNextAttemptAt()).isEqualTo(LocalDateTime.of(2026, 7, 15, 12, 5));
+            assertThat(job.getAttempts()).isZero();
+            assertThat(job.getLeaseOwner()).isNull();
+            // El id del lote se guarda nada más crearlo, antes que el resto del job
+            InOrder order = inOrder(llmBatch, jobRepository);
+            order.verify(llmBatch).submitTranscriptions(any());
+            order.verify(jobRepository).updateLlmBatchId(JOB_ID, "msgbatch_01");
+            order.verify(jobRepository).release(job, LEASE_OWNER);
+            verify(llmBatch, never()).isEnded(anyString());
+            verify(llmLatex, never()).transcribeDocument(any(), any());
+        }
+
+        @Test
+        void unPdfMasLargoQueUnRangoSeEnviaEnRangosDePaginas() {
+            MaterialAiJob job = batchJob(null, MaterialAiJobItem.pending(20L));
+            leaseHeld();
+            when(materialRepository.findById(20L)).thenReturn(Optional.of(source(20L, "Pizarra 1")));
+            when(fileStorage.retrieve(anyString())).thenReturn(new ByteArrayInputStream(PDF));
+            when(pdfPages.countPages(any())).thenReturn(10);
+            when(pdfPages.extractPages(any(), anyInt(), anyInt())).thenAnswer(inv ->
+                    ("p" + inv.getArgument(1) + "-" + inv.getArgument(2)).getBytes(StandardCharsets.UTF_8));
+            when(llmBatch.submitTranscriptions(any())).thenAnswer(inv -> {
+                List<LlmBatchDocument> documents = inv.getArgument(0);
+                // pages-per-chunk = 4: los mismos rangos que un TRANSCRIBE
+                assertThat(documents).extracting(LlmBatchDocument::customId)
+                        .containsExactly("material-20-p1-4", "material-20-p5-8", "material-20-p9-10");
+                assertThat(documents).allMatch(LlmBatchDocument::isRange);
+                assertThat(documents.get(2).totalPages()).isEqualTo(10);
+                assertThat(Files.readString(documents.get(2).pdf())).isEqualTo("p9-10");
+                return "msgbatch_01";
+            });
+
+            pipeline.process(job);
+
+            assertThat(job.getLlmBatchId()).isEqualTo("msgbatch_01");
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.PENDING);
+        }
+
+        @Test
+        void losRangosDeUnPdfSeUnenEnOrdenAntesDeCompilar() {
+            MaterialAiJob job = batchJob("msgbatch_01", MaterialAiJobItem.pending(20L));
+            leaseHeld();
+            when(materialRepository.findById(20L)).thenReturn(Optional.of(source(20L, "Pizarra 1")));
+            when(llmBatch.isEnded("msgbatch_01")).thenReturn(true);
+            when(llmBatch.results("msgbatch_01")).thenReturn(List.of(
+                    new LlmBatchResult("material-20-p5-6",
+                            reply("\\documentclass{article}\n\\begin{document}\nPáginas 5-6\n\\end{document}"), null),
+                    new LlmBatchResult("material-20-p1-4",
+                            reply("\\documentclass{article}\n\\begin{document}\nPáginas 1-4\n\\end{document}"), null)));
+            when(latexCompiler.compile(anyString())).thenReturn(LatexCompilationResult.ok(PDF));
+            when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
+
+            pipeline.process(job);
+
+            ArgumentCaptor<String> tex = ArgumentCaptor.forClass(String.class);
+            verify(latexCompiler).compile(tex.capture());
+            assertThat(tex.getValue()).containsOnlyOnce("\\begin{document}")
+                    .containsSubsequence("Páginas 1-4", "Páginas 5-6");
+            assertThat(job.getItems().get(0).resultMaterialId()).isEqualTo(55L);
+            assertThat(job.getLlmCalls()).isEqualTo(2);
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.COMPLETED);
+        }
+
+        @Test
+        void unRangoFallidoOQueFaltaTumbaSoloSuDocumento() {
+            MaterialAiJob job = batchJob("msgbatch_01", MaterialAiJobItem.pending(20L), MaterialAiJobItem.pending(21L));
+            leaseHeld();
+            when(materialRepository.findById(20L)).thenReturn(Optional.of(source(20L, "Pizarra 1")));
+            when(materialRepository.findById(21L)).thenReturn(Optional.of(source(21L, "Pizarra 2")));
+            when(llmBatch.isEnded("msgbatch_01")).thenReturn(true);
+            when(llmBatch.results("msgbatch_01")).thenReturn(List.of(
+                    new LlmBatchResult("material-20-p1-4", reply(TEX_OK), null),
+                    new LlmBatchResult("material-20-p5-8", null, "La respuesta superó el límite"),
+                    new LlmBatchResult("material-21-p1-4", reply(TEX_OK), null),
+                    new LlmBatchResult("material-21-p9-10", reply(TEX_OK), null)));
+
+            pipeline.process(job);
+
+            assertThat(job.getItems()).extracting(MaterialAiJobItem::errorMessage).containsExactly(
+                    "Páginas 5-8: La respuesta superó el límite",
+                    "Al resultado del lote le faltan páginas del documento");
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.FAILED);
+            verify(latexCompiler, never()).compile(anyString());
+        }
+
+        @Test
+        void unLoteAunEnProcesoVuelveAEsperar() {
+            MaterialAiJob job = batchJob("msgbatch_01", MaterialAiJobItem.pending(20L));
+            leaseHeld();
+            when(llmBatch.isEnded("msgbatch_01")).thenReturn(false);
+
+            pipeline.process(job);
+
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.PENDING);
+            assertThat(job.getAttempts()).isZero();
+            verify(llmBatch, never()).results(anyString());
+            verify(llmBatch, never()).submitTranscriptions(any());
+        }
+
+        @Test
+        void unFalloDeRedAlConsultarElLoteNoGastaIntentos() {
+            MaterialAiJob job = batchJob("msgbatch_01", MaterialAiJobItem.pending(20L));
+            job.setAttempts(properties.getQueue().getMaxAttempts());
+            leaseHeld();
+            when(llmBatch.isEnded("msgbatch_01")).thenThrow(new UncheckedIOException(new IOException("timeout")));
+
+            pipeline.process(job);
+
+            // El lote ya está pagado: el job sigue esperándolo en vez de fallar y abandonarlo
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.PENDING);
+            assertThat(job.getAttempts()).isEqualTo(properties.getQueue().getMaxAttempts() - 1);
+            assertThat(job.getProgressStage()).isEqualTo(MaterialAiJobStage.BATCHED);
+            assertThat(job.getErrorMessage()).contains("No se pudo consultar el lote").contains("timeout");
+            assertThat(job.getLlmBatchId()).isEqualTo("msgbatch_01");
+        }
+
+        @Test
+        void alTerminarElLotePublicaCadaResultadoEnLaCarpetaYUnFalloNoTumbaAlResto() {
+            MaterialAiJob job = batchJob("msgbatch_01", MaterialAiJobItem.pending(20L), MaterialAiJobItem.pending(21L));
+            leaseHeld();
+            when(materialRepository.findById(20L)).thenReturn(Optional.of(source(20L, "Pizarra 1")));
+            when(materialRepository.findById(21L)).thenReturn(Optional.of(source(21L, "Pizarra 2")));
+            when(llmBatch.isEnded("msgbatch_01")).thenReturn(true);
+            when(llmBatch.results("msgbatch_01")).thenReturn(List.of(
+                    new LlmBatchResult("material-21", null, "El lote caducó antes de procesar este documento"),
+                    new LlmBatchResult("material-20", reply(TEX_OK), null)));
+            when(latexCompiler.compile(TEX_OK)).thenReturn(LatexCompilationResult.ok(PDF));
+            when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
+
+            pipeline.process(job);
+
+            ArgumentCaptor<UploadMaterialCommand> captor = ArgumentCaptor.forClass(UploadMaterialCommand.class);
+            verify(uploadMaterialUseCase).upload(captor.capture());
+            assertThat(captor.getValue().name()).isEqualTo("Pizarra 1 (a limpio)");
+            assertThat(captor.getValue().originalFilename()).isEqualTo("Pizarra 1-a-limpio.pdf");
+            assertThat(captor.getValue().folderId()).isEqualTo(9L);
+
+            MaterialAiJobItem published = MaterialAiJobItem.pending(20L).markCompleted(55L);
+            MaterialAiJobItem expired = MaterialAiJobItem.pending(21L)
+                    .markFailed("El lote caducó antes de procesar este documento");
+            assertThat(job.getItems()).containsExactly(published, expired);
+            // Cada item se guarda en cuanto termina, sin pisar el lease del job
+            verify(jobRepository).updateItem(JOB_ID, 0, published);
+            verify(jobRepository).updateItem(JOB_ID, 1, expired);
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.COMPLETED);
+            assertThat(job.getErrorMessage()).isEqualTo("1 de 2 transcripciones fallaron");
+            assertThat(job.getResultMaterialId()).isNull();
+            assertThat(job.getLlmCalls()).isEqualTo(1);
+        }
+
+        @Test
+        void trasUnaInterrupcionNoRepublicaLosItemsYaPublicados() {
+            MaterialAiJob job = batchJob("msgbatch_01",
+                    MaterialAiJobItem.pending(20L).markCompleted(54L), MaterialAiJobItem.pending(21L));
+            leaseHeld();
+            when(materialRepository.findById(21L)).thenReturn(Optional.of(source(21L, "Pizarra 2")));
+            when(llmBatch.isEnded("msgbatch_01")).thenReturn(true);
+            when(llmBatch.results("msgbatch_01")).thenReturn(List.of(
+                    new LlmBatchResult("material-20", reply(TEX_OK), null),
+                    new LlmBatchResult("material-21", reply(TEX_OK), null)));
+            when(latexCompiler.compile(TEX_OK)).thenReturn(LatexCompilationResult.ok(PDF));
+            when(uploadMaterialUseCase.upload(any())).thenReturn(publishedMaterial());
+
+            pipeline.process(job);
+
+            verify(uploadMaterialUseCase, times(1)).upload(any());
+            assertThat(job.getItems()).extracting(MaterialAiJobItem::resultMaterialId).containsExactly(54L, 55L);
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.COMPLETED);
+            assertThat(job.getErrorMessage()).isNull();
+        }
+
+        @Test
+        void siNingunaTranscripcionSePublicaElJobFalla() {
+            MaterialAiJob job = batchJob("msgbatch_01", MaterialAiJobItem.pending(20L));
+            leaseHeld();
+            when(materialRepository.findById(20L)).thenReturn(Optional.of(source(20L, "Pizarra 1")));
+            when(llmBatch.isEnded("msgbatch_01")).thenReturn(true);
+            when(llmBatch.results("msgbatch_01")).thenReturn(List.of(
+                    new LlmBatchResult("material-20", reply("tex-1"), null)));
+            when(latexCompiler.compile(anyString()))
+                    .thenReturn(LatexCompilationResult.failure("error: doc.tex:9: Missing $ inserted"));
+            when(llmLatex.fixLatex(anyString(), anyString(), any())).thenReturn(reply("tex-2"), reply("tex-3"));
+
+            pipeline.process(job);
+
+            assertThat(job.getItems().get(0).status()).isEqualTo(MaterialAiJobItemStatus.FAILED);
+            assertThat(job.getItems().get(0).errorMessage()).contains("no compila");
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.FAILED);
+            assertThat(job.getErrorMessage()).contains("ninguna transcripción");
             verify(uploadMaterialUseCase, never()).upload(any());
         }
     }
 
+    @Nested
+    class LeasePerdido {
+
+        @Test
+        void siOtraInstanciaRetomaElJobNoSePublicaNiSeTocaSuEstado() {
+            MaterialAiJob job = generateJob(null);
+            when(llmLatex.generateExercises(any(), anyInt(), any())).thenReturn(reply(TEX_OK));
+            when(latexCompiler.compile(TEX_OK)).thenReturn(LatexCompilationResult.ok(PDF));
+            when(jobRepository.isLeasedTo(JOB_ID, LEASE_OWNER)).thenReturn(false);
+
+            pipeline.process(job);
+
+            verify(uploadMaterialUseCase, never()).upload(any());
+            verify(jobRepository, never()).release(any(), any());
+            verify(jobRepository, never()).save(any());
+            // Las capturas son ahora de la instancia que lo ha retomado
+            verify(fileStorage, never()).delete(anyString());
+        }
+
+        @Test
+        void unFalloTardioNoPisaElEstadoEscritoPorElNuevoDueno() {
+            MaterialAiJob job = generateJob(null);
+            when(llmLatex.generateExercises(any(), anyInt(), any())).thenThrow(new IllegalStateException("roto"));
+            // Progress published while the lease was held does not count: only what follows the lost release
+            when(jobRepository.release(job, LEASE_OWNER)).thenAnswer(invocation -> {
+                clearInvocations(eventPublisher);
+                return false;
+            });
+
+            pipeline.process(job);
+
+            verify(jobRepository).release(job, LEASE_OWNER);
+            verify(fileStorage, never()).delete(anyString());
+            verify(eventPublisher, never()).publishEvent(any());
+        }
+    }
+
+    @Test
+    void unJobQueTumbaSuInstanciaUnaYOtraVezSeAbandona() {
+        MaterialAiJob job = claimedJob(MaterialAiJobType.TRANSCRIBE, 20L);
+        job.setAttempts(4);
+        leaseHeld();
+
+        pipeline.process(job);
+
+        assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.FAILED);
+        assertThat(job.getErrorMessage()).contains("Interrumpido 3 veces");
+        verify(llmLatex, never()).transcribeDocument(any(), any());
+    }
+
     @Nested
     class ParseTitle {
 
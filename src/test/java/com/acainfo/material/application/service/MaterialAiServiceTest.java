@@ -1,9 +1,12 @@
 package com.acainfo.material.application.service;
 
-import com.acainfo.material.application.dto.AiImageInput;
+import com.acainfo.material.application.dto.CaptureUpload;
+import com.acainfo.material.application.dto.NormalizedCapture;
 import com.acainfo.material.application.dto.GenerateAiMaterialCommand;
-import com.acainfo.material.application.dto.StoredCapture;
+import com.acainfo.material.application.dto.TranscribeAiFolderCommand;
 import com.acainfo.material.application.dto.TranscribeAiMaterialCommand;
+import com.acainfo.material.application.port.out.CaptureNormalizerPort;
+import com.acainfo.material.application.port.out.FileStoragePort;
 import com.acainfo.material.application.port.out.MaterialAiJobRepositoryPort;
 import com.acainfo.material.application.port.out.MaterialFolderRepositoryPort;
 import com.acainfo.material.application.port.out.MaterialRepositoryPort;
@@ -12,30 +15,41 @@ import com.acainfo.material.domain.exception.InvalidAiJobRequestException;
 import com.acainfo.material.domain.exception.MaterialAiJobNotFoundException;
 import com.acainfo.material.domain.model.Material;
 import com.acainfo.material.domain.model.MaterialAiJob;
+import com.acainfo.material.domain.model.MaterialAiJobCapture;
+import com.acainfo.material.domain.model.MaterialAiJobItem;
 import com.acainfo.material.domain.model.MaterialAiJobStatus;
 import com.acainfo.material.domain.model.MaterialAiJobType;
 import com.acainfo.material.domain.model.MaterialFolder;
+import com.acainfo.shared.infrastructure.config.AnthropicProperties;
 import com.acainfo.subject.application.port.in.GetSubjectUseCase;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -58,7 +72,15 @@ class MaterialAiServiceTest {
     @Mock
     private GetSubjectUseCase getSubjectUseCase;
     @Mock
+    private FileStoragePort fileStorage;
+    @Mock
     private MaterialAiPipeline pipeline;
+    @Mock
+    private MaterialAiJobWorker jobWorker;
+    @Mock
+    private CaptureNormalizerPort captureNormalizer;
+    @Spy
+    private AnthropicProperties properties = new AnthropicProperties();
 
     @InjectMocks
     private MaterialAiService service;
@@ -71,40 +93,106 @@ class MaterialAiServiceTest {
         });
     }
 
+    /** The normalizer halves every capture, into its target file. */
+    private void stubNormalizerHalves() {
+        when(captureNormalizer.normalize(any(), anyString(), any())).thenAnswer(inv -> {
+            Path source = inv.getArgument(0);
+            Path target = inv.getArgument(2);
+            byte[] original = Files.readAllBytes(source);
+            Files.write(target, Arrays.copyOf(original, original.length / 2));
+            return new NormalizedCapture(target, "image/jpeg", original.length, original.length / 2);
+        });
+    }
+
     @Nested
     class CreateGenerateJob {
 
         private GenerateAiMaterialCommand command(Long folderId) {
             return new GenerateAiMaterialCommand(SUBJECT_ID, folderId, ADMIN_ID, 2,
-                    List.of(new AiImageInput(new byte[]{1, 2, 3}, "image/png")));
+                    List.of(new CaptureUpload(target -> Files.write(target, new byte[]{1, 2, 3, 4}), "image/png")));
         }
 
         @Test
-        void guardaElJobPendingPersisteLasCapturasYLanzaElPipeline() throws Exception {
+        void guardaElJobPendingConLasCapturasEnStorageYDespiertaAlWorker() {
             stubSaveAssignsId();
+            stubNormalizerHalves();
+            when(materialFolderRepository.findById(7L)).thenReturn(Optional.of(
+                    MaterialFolder.builder().id(7L).subjectId(SUBJECT_ID).name("Integrales").build()));
+            AtomicReference<byte[]> stored = new AtomicReference<>();
+            when(fileStorage.store(any(InputStream.class), startsWith("ai-captura-"), eq(SUBJECT_ID)))
+                    .thenAnswer(inv -> {
+                        stored.set(inv.<InputStream>getArgument(0).readAllBytes());
+                        return "subjects/inf006/ai-captura-1";
+                    });
 
-            MaterialAiJob job = service.createGenerateJob(command(null));
+            MaterialAiJob job = service.createGenerateJob(command(7L));
 
             assertThat(job.getId()).isEqualTo(40L);
             assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.PENDING);
             assertThat(job.getType()).isEqualTo(MaterialAiJobType.GENERATE);
             assertThat(job.getSubjectId()).isEqualTo(SUBJECT_ID);
+            assertThat(job.getFolderId()).isEqualTo(7L);
+            assertThat(job.getExerciseCount()).isEqualTo(2);
+            // La captura vive en el storage (el multipart muere al responder y el job puede esperar en cola)
+            // ...ya normalizada: se guarda (y se enviará) la versión reducida, con su tipo
+            assertThat(stored.get()).containsExactly(1, 2);
+            assertThat(job.getCaptures()).containsExactly(
+                    new MaterialAiJobCapture("subjects/inf006/ai-captura-1", "image/jpeg"));
+            verify(jobWorker).wakeUp();
+        }
+
+        @Test
+        void siNoSeGuardaElJobBorraLasCapturasYaSubidas() {
+            stubNormalizerHalves();
+            when(fileStorage.store(any(InputStream.class), anyString(), eq(SUBJECT_ID)))
+                    .thenReturn("subjects/inf006/ai-captura-1");
+            when(jobRepository.save(any())).thenThrow(new DataAccessResourceFailureException("connection refused"));
 
-            @SuppressWarnings("unchecked")
-            ArgumentCaptor<List<StoredCapture>> capturesCaptor = ArgumentCaptor.forClass(List.class);
-            ArgumentCaptor<Path> dirCaptor = ArgumentCaptor.forClass(Path.class);
-            verify(pipeline).runGenerateJob(eq(40L), eq(null), eq(2),
-                    dirCaptor.capture(), capturesCaptor.capture());
+            assertThatThrownBy(() -> service.createGenerateJob(command(null)))
+                    .isInstanceOf(DataAccessResourceFailureException.class);
 
-            // La captura queda persistida en tmp (el multipart muere al responder)
-            assertThat(capturesCaptor.getValue()).hasSize(1);
-            Path stored = capturesCaptor.getValue().get(0).path();
-            assertThat(Files.readAllBytes(stored)).containsExactly(1, 2, 3);
-            assertThat(capturesCaptor.getValue().get(0).mimeType()).isEqualTo("image/png");
+            verify(fileStorage).delete("subjects/inf006/ai-captura-1");
+            verify(jobWorker, never()).wakeUp();
+        }
 
-            // limpieza del test (en producción la borra el pipeline en su finally)
-            Files.deleteIfExists(stored);
-            Files.deleteIfExists(dirCaptor.getValue());
+        @Test
+        void variasCapturasSeNormalizanEnParaleloYConservanElOrden() {
+            stubSaveAssignsId();
+            stubNormalizerHalves();
+            properties.getCaptures().setConcurrency(3);
+            when(fileStorage.store(any(InputStream.class), anyString(), eq(SUBJECT_ID)))
+                    .thenAnswer(inv -> "subjects/inf006/ai-captura-" + inv.<InputStream>getArgument(0).readAllBytes()[0]);
+            List<CaptureUpload> images = new ArrayList<>();
+            for (int i = 1; i <= 5; i++) {
+                byte first = (byte) i;
+                images.add(new CaptureUpload(target -> Files.write(target, new byte[]{first, 0}), "image/jpeg"));
+            }
+
+            MaterialAiJob job = service.createGenerateJob(
+                    new GenerateAiMaterialCommand(SUBJECT_ID, null, ADMIN_ID, 2, images));
+
+            assertThat(job.getCaptures()).extracting(MaterialAiJobCapture::storagePath).containsExactly(
+                    "subjects/inf006/ai-captura-1", "subjects/inf006/ai-captura-2", "subjects/inf006/ai-captura-3",
+                    "subjects/inf006/ai-captura-4", "subjects/inf006/ai-captura-5");
+        }
+
+        @Test
+        void siFallaUnaCapturaBorraLasYaSubidasYNoCreaElJob() {
+            stubNormalizerHalves();
+            when(fileStorage.store(any(InputStream.class), anyString(), eq(SUBJECT_ID)))
+                    .thenReturn("subjects/inf006/ai-captura-1");
+            List<CaptureUpload> images = List.of(
+                    new CaptureUpload(target -> Files.write(target, new byte[]{1, 2}), "image/jpeg"),
+                    new CaptureUpload(target -> {
+                        throw new IOException("parte multipart perdida");
+                    }, "image/jpeg"));
+
+            assertThatThrownBy(() -> service.createGenerateJob(
+                    new GenerateAiMaterialCommand(SUBJECT_ID, null, ADMIN_ID, 2, images)))
+                    .isInstanceOf(UncheckedIOException.class);
+
+            verify(fileStorage).delete("subjects/inf006/ai-captura-1");
+            verify(jobRepository, never()).save(any());
         }
 
         @Test
@@ -116,7 +204,7 @@ class MaterialAiServiceTest {
                     .isInstanceOf(InvalidAiJobRequestException.class);
 
             verify(jobRepository, never()).save(any());
-            verify(pipeline, never()).runGenerateJob(anyLong(), any(), anyInt(), any(), anyList());
+            verify(jobWorker, never()).wakeUp();
         }
 
         @Test
@@ -128,6 +216,7 @@ class MaterialAiServiceTest {
                     .isInstanceOf(FolderSubjectMismatchException.class);
 
             verify(jobRepository, never()).save(any());
+            verify(fileStorage, never()).store(any(InputStream.class), anyString(), anyLong());
         }
     }
 
@@ -146,7 +235,20 @@ class MaterialAiServiceTest {
             assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.PENDING);
             assertThat(job.getSourceMaterialId()).isEqualTo(20L);
             assertThat(job.getSubjectId()).isEqualTo(SUBJECT_ID);
-            verify(pipeline).runTranscribeJob(40L);
+            verify(jobWorker).wakeUp();
+        }
+
+        @Test
+        void unMaterialQueYaSeEstaTranscribiendoSeRechaza() {
+            when(materialRepository.findById(20L)).thenReturn(Optional.of(Material.builder()
+                    .id(20L).subjectId(SUBJECT_ID).fileExtension("pdf").name("Pizarra").build()));
+            when(jobRepository.findSourcesInProgress(List.of(20L))).thenReturn(Set.of(20L));
+
+            assertThatThrownBy(() -> service.createTranscribeJob(new TranscribeAiMaterialCommand(20L, ADMIN_ID)))
+                    .isInstanceOf(InvalidAiJobRequestException.class)
+                    .hasMessageContaining("ya se está transcribiendo");
+
+            verify(jobRepository, never()).save(any());
         }
 
         @Test
@@ -162,6 +264,93 @@ class MaterialAiServiceTest {
         }
     }
 
+    @Nested
+    class CreateTranscribeFolderJob {
+
+        private static final Long FOLDER_ID = 9L;
+
+        private Material material(Long id, String filename, String extension) {
+            return Material.builder().id(id).subjectId(SUBJECT_ID).folderId(FOLDER_ID)
+                    .originalFilename(filename).fileExtension(extension).fileSize(2L * 1024 * 1024).build();
+        }
+
+        private void folderWith(Material... materials) {
+            when(materialFolderRepository.findByIdForUpdate(FOLDER_ID)).thenReturn(Optional.of(MaterialFolder.builder()
+                    .id(FOLDER_ID).subjectId(SUBJECT_ID).name("Pizarras tema 3").build()));
+            when(materialRepository.findDownloadable(SUBJECT_ID, FOLDER_ID, null)).thenReturn(List.of(materials));
+        }
+
+        @Test
+        void unItemPorCadaPdfSinTranscribirDeLaCarpeta() {
+            stubSaveAssignsId();
+            folderWith(
+                    material(20L, "2026-05-12.pdf", "pdf"),
+                    material(21L, "2026-05-12-a-limpio.pdf", "pdf"),
+                    material(22L, "2026-05-19.PDF", "pdf"),
+                    material(23L, "enunciados.zip", "zip"));
+
+            MaterialAiJob job = service.createTranscribeFolderJob(new TranscribeAiFolderCommand(FOLDER_ID, ADMIN_ID));
+
+            assertThat(job.getType()).isEqualTo(MaterialAiJobType.TRANSCRIBE_BATCH);
+            assertThat(job.getStatus()).isEqualTo(MaterialAiJobStatus.PENDING);
+            assertThat(job.getFolderId()).isEqualTo(FOLDER_ID);
+            assertThat(job.getSubjectId()).isEqualTo(SUBJECT_ID);
+            // Ni la transcripción ni el original que ya la tiene al lado
+            assertThat(job.getItems()).containsExactly(MaterialAiJobItem.pending(22L));
+            verify(jobWorker).wakeUp();
+        }
+
+        @Test
+        void sinPdfPendientesRechazaSinCrearJob() {
+            folderWith(material(20L, "2026-05-12.pdf", "pdf"), material(21L, "2026-05-12-a-limpio.pdf", "pdf"));
+
+            assertThatThrownBy(() -> service.createTranscribeFolderJob(new TranscribeAiFolderCommand(FOLDER_ID, ADMIN_ID)))
+                    .isInstanceOf(InvalidAiJobRequestException.class)
+                    .hasMessageContaining("Pizarras tema 3");
+
+            verify(jobRepository, never()).save(any());
+        }
+
+        @Test
+        void losPdfQueOtroJobEstaTranscribiendoSeQuedanFuera() {
+            stubSaveAssignsId();
+            folderWith(material(20L, "a.pdf", "pdf"), material(22L, "b.pdf", "pdf"));
+            when(jobRepository.findSourcesInProgress(List.of(20L, 22L))).thenReturn(Set.of(20L));
+
+            MaterialAiJob job = service.createTranscribeFolderJob(new TranscribeAiFolderCommand(FOLDER_ID, ADMIN_ID));
+
+            assertThat(job.getItems()).containsExactly(MaterialAiJobItem.pending(22L));
+        }
+
+        @Test
+        void unDobleClicNoLanzaLaCarpetaDosVeces() {
+            folderWith(material(20L, "a.pdf", "pdf"));
+            when(jobRepository.findSourcesInProgress(List.of(20L))).thenReturn(Set.of(20L));
+
+            assertThatThrownBy(() -> service.createTranscribeFolderJob(new TranscribeAiFolderCommand(FOLDER_ID, ADMIN_ID)))
+                    .isInstanceOf(InvalidAiJobRequestException.class)
+                    .hasMessageContaining("ya se están transcribiendo");
+
+            verify(jobRepository, never()).save(any());
+        }
+
+        @Test
+        void porEncimaDeLosLimitesDelLoteRechaza() {
+            folderWith(material(20L, "a.pdf", "pdf"), material(22L, "b.pdf", "pdf"));
+            properties.getBatch().setMaxMegabytes(3);
+
+            assertThatThrownBy(() -> service.createTranscribeFolderJob(new TranscribeAiFolderCommand(FOLDER_ID, ADMIN_ID)))
+                    .isInstanceOf(InvalidAiJobRequestException.class)
+                    .hasMessageContaining("4 MB");
+
+            properties.getBatch().setMaxItems(1);
+            assertThatThrownBy(() -> service.createTranscribeFolderJob(new TranscribeAiFolderCommand(FOLDER_ID, ADMIN_ID)))
+                    .isInstanceOf(InvalidAiJobRequestException.class)
+                    .hasMessageContaining("2 PDF");
+            verify(jobRepository, never()).save(any());
+        }
+    }
+
     @Nested
     class GetJob {
 
@@ -0,0 +1,39 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.shared.infrastructure.config.AnthropicProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link MaterialAiStages}: queues sized to what this node can claim.
+ */
+class MaterialAiStagesTest {
+
+    @Test
+    void queuesHoldEveryStepTheClaimedJobsCanHaveInFlight() {
+        AnthropicProperties properties = new AnthropicProperties();
+        properties.getQueue().setMaxJobsPerNode(8);
+        properties.getTranscription().setChunkConcurrency(3);
+        properties.getPipeline().setLlmQueueCapacity(5);
+        properties.getPipeline().setCompileQueueCapacity(2);
+        properties.getPipeline().setCompileConcurrency(1);
+
+        MaterialAiStages stages = new MaterialAiStages(properties);
+
+        assertThat(stages.getLlm().stats().queueCapacity()).isEqualTo(24);
+        assertThat(stages.getCompile().stats().queueCapacity()).isEqualTo(8);
+    }
+
+    @Test
+    void largerConfiguredQueuesAreKept() {
+        AnthropicProperties properties = new AnthropicProperties();
+        properties.getPipeline().setLlmQueueCapacity(50);
+        properties.getPipeline().setCompileQueueCapacity(30);
+
+        MaterialAiStages stages = new MaterialAiStages(properties);
+
+        assertThat(stages.getLlm().stats().queueCapacity()).isEqualTo(50);
+        assertThat(stages.getCompile().stats().queueCapacity()).isEqualTo(30);
+    }
+}
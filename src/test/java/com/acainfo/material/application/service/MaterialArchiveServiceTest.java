@@ -0,0 +1,226 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.enrollment.application.port.in.GetStudentEntitlementsUseCase;
+import com.acainfo.material.application.dto.MaterialArchive;
+import com.acainfo.material.application.port.in.RestoreArchivedMaterialUseCase;
+import com.acainfo.material.application.port.out.FileStoragePort;
+import com.acainfo.material.application.port.out.MaterialFolderRepositoryPort;
+import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.domain.exception.FileStorageException;
+import com.acainfo.material.domain.exception.MaterialAccessDeniedException;
+import com.acainfo.material.domain.model.Material;
+import com.acainfo.material.domain.model.MaterialFolder;
+import com.acainfo.subject.application.port.in.GetSubjectUseCase;
+import com.acainfo.subject.domain.model.Subject;
+import com.acainfo.user.application.port.out.UserRepositoryPort;
+import com.acainfo.user.domain.model.Role;
+import com.acainfo.user.domain.model.RoleType;
+import com.acainfo.user.domain.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pure unit tests for {@link MaterialArchiveService}.
+ * The clock is fixed at 2026-02-15 → current academic year 2025.
+ */
+@ExtendWith(MockitoExtension.class)
+class MaterialArchiveServiceTest {
+
+    private static final Long SUBJECT_ID = 30L;
+    private static final Long FOLDER_ID = 5L;
+    private static final Long USER_ID = 20L;
+    private static final int CURRENT_ACADEMIC_YEAR = 2025;
+    private static final Clock FIXED_CLOCK =
+            Clock.fixed(Instant.parse("2026-02-15T12:00:00Z"), ZoneId.of("UTC"));
+
+    @Mock
+    private MaterialRepositoryPort materialRepository;
+    @Mock
+    private MaterialFolderRepositoryPort materialFolderRepository;
+    @Mock
+    private FileStoragePort fileStorage;
+    @Mock
+    private UserRepositoryPort userRepository;
+    @Mock
+    private GetStudentEntitlementsUseCase studentEntitlements;
+    @Mock
+    private GetSubjectUseCase getSubjectUseCase;
+    @Mock
+    private RestoreArchivedMaterialUseCase restoreArchivedMaterial;
+
+    private MaterialArchiveService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MaterialArchiveService(materialRepository, materialFolderRepository, fileStorage,
+                userRepository, studentEntitlements, getSubjectUseCase, restoreArchivedMaterial, FIXED_CLOCK);
+    }
+
+    private User userWithRole(RoleType roleType) {
+        return User.builder()
+                .id(USER_ID)
+                .email("user@acainfo.com")
+                .roles(Set.of(Role.builder().type(roleType).build()))
+                .build();
+    }
+
+    private Material material(String filename, Long folderId, String storagePath) {
+        return Material.builder()
+                .subjectId(SUBJECT_ID)
+                .folderId(folderId)
+                .originalFilename(filename)
+                .storagePath(storagePath)
+                .build();
+    }
+
+    private MaterialFolder folder(Long id, String name) {
+        return MaterialFolder.builder().id(id).subjectId(SUBJECT_ID).name(name).build();
+    }
+
+    @Nested
+    class Prepare {
+
+        @Test
+        void studentGetsOnlyCurrentYearDownloadableMaterialsOfEntitledSubject() {
+            when(materialFolderRepository.findById(FOLDER_ID)).thenReturn(Optional.of(folder(FOLDER_ID, "Tema 1")));
+            when(userRepository.findById(USER_ID)).thenReturn(Optional.of(userWithRole(RoleType.STUDENT)));
+            when(studentEntitlements.getAccessibleSubjectIds(USER_ID)).thenReturn(Set.of(SUBJECT_ID));
+            when(materialRepository.findDownloadable(SUBJECT_ID, FOLDER_ID, CURRENT_ACADEMIC_YEAR))
+                    .thenReturn(List.of(material("apuntes.pdf", FOLDER_ID, "blobs/aa/aa")));
+
+            MaterialArchive archive = service.prepareFolderArchive(FOLDER_ID, USER_ID);
+
+            assertThat(archive.filename()).isEqualTo("Tema 1.zip");
+            assertThat(archive.entries()).extracting(MaterialArchive.Entry::path).containsExactly("apuntes.pdf");
+        }
+
+        @Test
+        void studentWithoutEntitlementIsDeniedBeforeListingMaterials() {
+            when(userRepository.findById(USER_ID)).thenReturn(Optional.of(userWithRole(RoleType.STUDENT)));
+            when(studentEntitlements.getAccessibleSubjectIds(USER_ID)).thenReturn(Set.of());
+
+            assertThatThrownBy(() -> service.prepareSubjectArchive(SUBJECT_ID, USER_ID))
+                    .isInstanceOf(MaterialAccessDeniedException.class);
+
+            verify(materialRepository, never()).findDownloadable(anyLong(), any(), any());
+        }
+
+        @Test
+        void subjectArchiveGroupsByFolderInPositionOrderAndRenamesClashes() {
+            when(userRepository.findById(USER_ID)).thenReturn(Optional.of(userWithRole(RoleType.ADMIN)));
+            when(getSubjectUseCase.getById(SUBJECT_ID)).thenReturn(Subject.builder().id(SUBJECT_ID).code("ING101").build());
+            when(materialFolderRepository.findBySubjectId(SUBJECT_ID))
+                    .thenReturn(List.of(folder(7L, "Tema 2"), folder(6L, "Tema 1/Ejercicios")));
+            when(materialRepository.findDownloadable(eq(SUBJECT_ID), isNull(), isNull())).thenReturn(List.of(
+                    material("a.pdf", 6L, "p1"),
+                    material("a.pdf", 6L, "p2"),
+                    material("guia.txt", null, "p3"),
+                    material("b.pdf", 7L, "p4")));
+
+            MaterialArchive archive = service.prepareSubjectArchive(SUBJECT_ID, USER_ID);
+
+            assertThat(archive.filename()).isEqualTo("ING101.zip");
+            assertThat(archive.entries()).extracting(MaterialArchive.Entry::path).containsExactly(
+                    "guia.txt", "Tema 2/b.pdf", "Tema 1_Ejercicios/a.pdf", "Tema 1_Ejercicios/a (2).pdf");
+            assertThat(archive.entries()).extracting(MaterialArchive.Entry::compressed)
+                    .containsExactly(false, true, true, true);
+        }
+    }
+
+    @Nested
+    class Write {
+
+        @Test
+        void storesCompressedFormatsAndDeflatesText() throws IOException {
+            byte[] pdf = "%PDF-1.7 contenido".getBytes(StandardCharsets.UTF_8);
+            byte[] txt = "x".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+            when(fileStorage.retrieve("p1")).thenAnswer(i -> new ByteArrayInputStream(pdf));
+            when(fileStorage.retrieve("p2")).thenAnswer(i -> new ByteArrayInputStream(txt));
+            MaterialArchive archive = new MaterialArchive("ING101.zip", List.of(
+                    new MaterialArchive.Entry("tema1.pdf", "p1", true),
+                    new MaterialArchive.Entry("notas.txt", "p2", false)));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            service.writeArchive(archive, out);
+
+            List<ZipEntry> entries = new ArrayList<>();
+            List<byte[]> contents = new ArrayList<>();
+            try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    entries.add(entry);
+                    contents.add(zip.readAllBytes());
+                }
+            }
+
+            assertThat(entries).extracting(ZipEntry::getName).containsExactly("tema1.pdf", "notas.txt");
+            assertThat(entries).extracting(ZipEntry::getMethod).containsExactly(ZipEntry.STORED, ZipEntry.DEFLATED);
+            assertThat(contents.get(0)).isEqualTo(pdf);
+            assertThat(contents.get(1)).isEqualTo(txt);
+        }
+
+        @Test
+        void readsArchivedFilesOnceAsDeflatedEntries() throws IOException {
+            byte[] pdf = "%PDF-1.4 apuntes 2019".getBytes(StandardCharsets.UTF_8);
+            String locator = "archive/20240101-000000-0.zip#aa11";
+            when(restoreArchivedMaterial.openArchived(locator)).thenAnswer(i -> new ByteArrayInputStream(pdf));
+            MaterialArchive archive = new MaterialArchive("ING101.zip", List.of(
+                    new MaterialArchive.Entry("tema1.pdf", locator, true)));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            service.writeArchive(archive, out);
+
+            try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+                ZipEntry entry = zip.getNextEntry();
+                assertThat(entry.getMethod()).isEqualTo(ZipEntry.DEFLATED);
+                assertThat(zip.readAllBytes()).isEqualTo(pdf);
+            }
+            verify(restoreArchivedMaterial).openArchived(locator);
+        }
+
+        @Test
+        void skipsFilesMissingFromStorage() throws IOException {
+            when(fileStorage.retrieve("gone")).thenThrow(new FileStorageException("Archivo no encontrado: gone"));
+            when(fileStorage.retrieve("p2")).thenAnswer(i -> new ByteArrayInputStream(new byte[]{1, 2}));
+            MaterialArchive archive = new MaterialArchive("x.zip", List.of(
+                    new MaterialArchive.Entry("gone.pdf", "gone", true),
+                    new MaterialArchive.Entry("ok.txt", "p2", false)));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            service.writeArchive(archive, out);
+
+            try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+                assertThat(zip.getNextEntry().getName()).isEqualTo("ok.txt");
+                assertThat(zip.getNextEntry()).isNull();
+            }
+        }
+    }
+}
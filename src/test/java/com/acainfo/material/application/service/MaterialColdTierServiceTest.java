@@ -0,0 +1,267 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.dto.ArchivableBlob;
+import com.acainfo.material.application.dto.ColdTierResult;
+import com.acainfo.material.application.dto.StoredBlob;
+import com.acainfo.material.application.port.out.FileStoragePort;
+import com.acainfo.material.application.port.out.MaterialBlobRepositoryPort;
+import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.domain.exception.ColdTierRunningException;
+import com.acainfo.material.domain.exception.FileStorageException;
+import com.acainfo.material.domain.model.Material;
+import com.acainfo.shared.application.port.out.ClusterLockPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pure unit tests for {@link MaterialColdTierService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class MaterialColdTierServiceTest {
+
+    /** Academic year 2025-26: everything before 2025 is cold. */
+    private static final Clock FIXED_CLOCK =
+            Clock.fixed(Instant.parse("2026-02-15T12:00:00Z"), ZoneId.of("UTC"));
+    private static final String SEGMENT = "archive/2024/20260215-120000-1.zip";
+    private static final byte[] SLIDES = new byte[64 * 1024];
+
+    @Mock
+    private MaterialRepositoryPort materialRepository;
+    @Mock
+    private MaterialBlobRepositoryPort materialBlobRepository;
+    @Mock
+    private FileStoragePort fileStorage;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ClusterLockPort clusterLock;
+
+    private final TransactionStatus transactionStatus = mock(TransactionStatus.class);
+
+    private MaterialColdTierService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MaterialColdTierService(
+                materialRepository, materialBlobRepository, fileStorage, transactionTemplate, clusterLock, FIXED_CLOCK);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(transactionStatus));
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        }).when(clusterLock).runExclusively(eq(MaterialColdTierService.COLD_TIER_LOCK), any());
+    }
+
+    private ArchivableBlob blob(String sha256, String locator) {
+        return new ArchivableBlob(sha256, "blobs/" + sha256.substring(0, 2) + "/" + sha256,
+                (long) SLIDES.length, 2024, locator);
+    }
+
+    private static byte[] segmentWith(String entryName, byte[] content) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry(entryName));
+            zip.write(content);
+            zip.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+
+    @Nested
+    class ArchivePastYears {
+
+        @Test
+        void theScheduledRunSkipsWhileAnotherInstanceHoldsTheLock() {
+            doReturn(false).when(clusterLock).runExclusively(eq(MaterialColdTierService.COLD_TIER_LOCK), any());
+
+            service.archivePastYearsScheduled();
+
+            verify(materialBlobRepository, never()).findArchivable(anyInt());
+        }
+
+        @Test
+        void theScheduledRunArchivesWhileHoldingTheLock() {
+            service.archivePastYearsScheduled();
+
+            verify(clusterLock).runExclusively(eq(MaterialColdTierService.COLD_TIER_LOCK), any());
+            verify(materialBlobRepository).findArchivable(2025);
+        }
+
+        @Test
+        void aManualRunIsRejectedWhileAnotherRunHoldsTheLock() {
+            doReturn(false).when(clusterLock).runExclusively(eq(MaterialColdTierService.COLD_TIER_LOCK), any());
+
+            assertThatThrownBy(() -> service.archivePastYears()).isInstanceOf(ColdTierRunningException.class);
+
+            verify(materialBlobRepository, never()).findArchivable(anyInt());
+        }
+
+        @Test
+        void compressesBlobsIntoOneSegmentRepointsMaterialsAndDeletesHotFiles() throws Exception {
+            when(materialBlobRepository.findArchivable(2025)).thenReturn(List.of(blob("aa11", null), blob("bb22", null)));
+            when(fileStorage.retrieve("blobs/aa/aa11")).thenReturn(new ByteArrayInputStream(SLIDES));
+            when(fileStorage.retrieve("blobs/bb/bb22")).thenReturn(new ByteArrayInputStream(SLIDES));
+            AtomicReference<byte[]> written = new AtomicReference<>();
+            when(fileStorage.storeArchiveSegment(eq("2024/20260215-120000-1.zip"), any(InputStream.class)))
+                    .thenAnswer(invocation -> {
+                        written.set(invocation.<InputStream>getArgument(1).readAllBytes());
+                        return SEGMENT;
+                    });
+            when(materialBlobRepository.markArchived(anyString(), anyString())).thenReturn(true);
+            when(materialBlobRepository.lockIfArchived(anyString())).thenReturn(true);
+
+            ColdTierResult result = service.archivePastYears();
+
+            assertThat(result.candidates()).isEqualTo(2);
+            assertThat(result.archived()).isEqualTo(2);
+            assertThat(result.segments()).isEqualTo(1);
+            assertThat(result.bytesArchived()).isEqualTo(2L * SLIDES.length);
+            assertThat(result.bytesReclaimed()).isEqualTo(2L * SLIDES.length - written.get().length).isPositive();
+
+            verify(materialRepository).repointStorage("aa11", "blobs/aa/aa11", SEGMENT + "#aa11");
+            verify(materialRepository).repointStorage("bb22", "blobs/bb/bb22", SEGMENT + "#bb22");
+            verify(fileStorage).delete("blobs/aa/aa11");
+            verify(fileStorage).delete("blobs/bb/bb22");
+
+            // The segment entry reads back as the original content
+            when(fileStorage.retrieve(SEGMENT)).thenReturn(new ByteArrayInputStream(written.get()));
+            try (InputStream in = service.openArchived(SEGMENT + "#bb22")) {
+                assertThat(in.readAllBytes()).isEqualTo(SLIDES);
+            }
+        }
+
+        @Test
+        void keepsBlobHotWhenACurrentMaterialAdoptedItMeanwhile() {
+            when(materialBlobRepository.findArchivable(2025)).thenReturn(List.of(blob("aa11", null)));
+            when(fileStorage.retrieve("blobs/aa/aa11")).thenReturn(new ByteArrayInputStream(SLIDES));
+            when(fileStorage.storeArchiveSegment(anyString(), any(InputStream.class))).thenReturn(SEGMENT);
+            when(materialBlobRepository.markArchived("aa11", SEGMENT + "#aa11")).thenReturn(true);
+            when(materialRepository.isContentInUseFrom("aa11", 2025)).thenReturn(true);
+
+            ColdTierResult result = service.archivePastYears();
+
+            assertThat(result.archived()).isZero();
+            assertThat(result.failed()).isEqualTo(1);
+            verify(transactionStatus).setRollbackOnly();
+            verify(materialRepository, never()).repointStorage(anyString(), anyString(), anyString());
+            verify(fileStorage, never()).delete(anyString());
+        }
+
+        @Test
+        void reusesTheSegmentEntryOfAPreviouslyRestoredBlob() {
+            String locator = "archive/2024/20250907-043000-1.zip#aa11";
+            when(materialBlobRepository.findArchivable(2025)).thenReturn(List.of(blob("aa11", locator)));
+            when(materialBlobRepository.markArchived("aa11", locator)).thenReturn(true);
+            when(materialBlobRepository.lockIfArchived("aa11")).thenReturn(true);
+
+            ColdTierResult result = service.archivePastYears();
+
+            assertThat(result.archived()).isEqualTo(1);
+            assertThat(result.segments()).isZero();
+            verify(fileStorage, never()).storeArchiveSegment(anyString(), any(InputStream.class));
+            verify(materialRepository).repointStorage("aa11", "blobs/aa/aa11", locator);
+            verify(fileStorage).delete("blobs/aa/aa11");
+        }
+
+        @Test
+        void keepsTheHotFileWhenAnUploadMadeTheBlobHotAgainAfterArchiving() {
+            String locator = "archive/2024/20250907-043000-1.zip#aa11";
+            when(materialBlobRepository.findArchivable(2025)).thenReturn(List.of(blob("aa11", locator)));
+            when(materialBlobRepository.markArchived("aa11", locator)).thenReturn(true);
+            when(materialBlobRepository.lockIfArchived("aa11")).thenReturn(false);
+
+            service.archivePastYears();
+
+            verify(materialRepository).repointStorage("aa11", "blobs/aa/aa11", locator);
+            verify(fileStorage, never()).delete(anyString());
+        }
+
+        @Test
+        void leavesUnreadableBlobsHot() {
+            when(materialBlobRepository.findArchivable(2025)).thenReturn(List.of(blob("aa11", null)));
+            when(fileStorage.retrieve("blobs/aa/aa11"))
+                    .thenThrow(new FileStorageException("Archivo no encontrado: blobs/aa/aa11"));
+
+            ColdTierResult result = service.archivePastYears();
+
+            assertThat(result.failed()).isEqualTo(1);
+            assertThat(result.segments()).isZero();
+            verify(fileStorage, never()).storeArchiveSegment(anyString(), any(InputStream.class));
+            verify(materialBlobRepository, never()).markArchived(anyString(), anyString());
+        }
+    }
+
+    @Nested
+    class Restore {
+
+        private Material archived() {
+            return Material.builder().id(7L).contentHash("aa11").storagePath(SEGMENT + "#aa11").build();
+        }
+
+        @Test
+        void writesEntryBackToItsBlobAndRepointsEveryMaterialOfTheContent() throws Exception {
+            when(fileStorage.retrieve(SEGMENT)).thenReturn(new ByteArrayInputStream(segmentWith("aa11", SLIDES)));
+            when(fileStorage.storeBlob(any(InputStream.class)))
+                    .thenReturn(new StoredBlob("aa11", "blobs/aa/aa11", SLIDES.length));
+
+            String restored = service.restore(archived());
+
+            assertThat(restored).isEqualTo("blobs/aa/aa11");
+            verify(materialBlobRepository).markRestored("aa11", "blobs/aa/aa11");
+            verify(materialRepository).repointStorage("aa11", SEGMENT + "#aa11", "blobs/aa/aa11");
+        }
+
+        @Test
+        void rejectsEntryWhoseContentDoesNotMatchItsHash() throws Exception {
+            when(fileStorage.retrieve(SEGMENT)).thenReturn(new ByteArrayInputStream(segmentWith("aa11", SLIDES)));
+            when(fileStorage.storeBlob(any(InputStream.class)))
+                    .thenReturn(new StoredBlob("ff99", "blobs/ff/ff99", SLIDES.length));
+
+            assertThatThrownBy(() -> service.restore(archived()))
+                    .isInstanceOf(FileStorageException.class);
+
+            verify(materialRepository, never()).repointStorage(anyString(), anyString(), anyString());
+        }
+
+        @Test
+        void failsWhenTheSegmentHasNoSuchEntry() throws Exception {
+            when(fileStorage.retrieve(SEGMENT)).thenReturn(new ByteArrayInputStream(segmentWith("bb22", SLIDES)));
+
+            assertThatThrownBy(() -> service.openArchived(SEGMENT + "#aa11"))
+                    .isInstanceOf(FileStorageException.class)
+                    .hasMessageContaining("Archivo no encontrado");
+        }
+    }
+}
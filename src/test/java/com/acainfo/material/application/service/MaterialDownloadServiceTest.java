@@ -0,0 +1,152 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.enrollment.application.port.in.GetStudentEntitlementsUseCase;
+import com.acainfo.material.application.dto.MaterialDownload;
+import com.acainfo.material.application.port.in.RestoreArchivedMaterialUseCase;
+import com.acainfo.material.application.port.out.FileStoragePort;
+import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.domain.exception.MaterialAccessDeniedException;
+import com.acainfo.material.domain.model.Material;
+import com.acainfo.user.application.port.out.UserRepositoryPort;
+import com.acainfo.user.domain.model.Role;
+import com.acainfo.user.domain.model.RoleType;
+import com.acainfo.user.domain.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pure unit tests for {@link MaterialDownloadService}: the payload carries a
+ * seekable resource plus the HTTP validators (ETag, Last-Modified).
+ */
+@ExtendWith(MockitoExtension.class)
+class MaterialDownloadServiceTest {
+
+    private static final Long MATERIAL_ID = 10L;
+    private static final Long ADMIN_ID = 1L;
+    private static final Clock FIXED_CLOCK =
+            Clock.fixed(Instant.parse("2026-02-15T12:00:00Z"), ZoneId.of("UTC"));
+
+    @Mock
+    private MaterialRepositoryPort materialRepository;
+    @Mock
+    private FileStoragePort fileStorage;
+    @Mock
+    private UserRepositoryPort userRepository;
+    @Mock
+    private GetStudentEntitlementsUseCase studentEntitlements;
+    @Mock
+    private RestoreArchivedMaterialUseCase restoreArchivedMaterial;
+
+    private MaterialDownloadService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MaterialDownloadService(
+                materialRepository, fileStorage, userRepository, studentEntitlements, restoreArchivedMaterial,
+                FIXED_CLOCK);
+    }
+
+    private Material material() {
+        return Material.builder()
+                .id(MATERIAL_ID)
+                .subjectId(30L)
+                .originalFilename("tema1.pdf")
+                .storedFilename("0b6c2f1e.pdf")
+                .mimeType("application/pdf")
+                .fileSize(20_000_000L)
+                .storagePath("subjects/ing101/0b6c2f1e.pdf")
+                .uploadedAt(LocalDateTime.of(2026, 1, 10, 9, 30))
+                .visible(true)
+                .build();
+    }
+
+    private User admin() {
+        return User.builder()
+                .id(ADMIN_ID)
+                .email("admin@acainfo.com")
+                .roles(Set.of(Role.builder().type(RoleType.ADMIN).build()))
+                .build();
+    }
+
+    @Test
+    void previewReturnsSeekableResourceWithValidatorsFromStoredFile() {
+        Resource file = new ByteArrayResource(new byte[]{1, 2, 3});
+        when(materialRepository.findById(MATERIAL_ID)).thenReturn(Optional.of(material()));
+        when(userRepository.findById(ADMIN_ID)).thenReturn(Optional.of(admin()));
+        when(fileStorage.retrieveResource("subjects/ing101/0b6c2f1e.pdf")).thenReturn(file);
+
+        MaterialDownload download = service.preview(MATERIAL_ID, ADMIN_ID);
+
+        assertThat(download.content()).isSameAs(file);
+        assertThat(download.etag()).isEqualTo("0b6c2f1e.pdf-20000000");
+        assertThat(download.lastModified()).isEqualTo(Instant.parse("2026-01-10T09:30:00Z"));
+        assertThat(download.filename()).isEqualTo("tema1.pdf");
+        verify(fileStorage, never()).retrieve(anyString());
+    }
+
+    @Test
+    void downloadRedirectsToPresignedUrlWithoutOpeningTheFile() {
+        URI presigned = URI.create("http://localhost:9000/acainfo-materials/subjects/ing101/0b6c2f1e.pdf?X-Amz-Signature=x");
+        when(materialRepository.findById(MATERIAL_ID)).thenReturn(Optional.of(material()));
+        when(userRepository.findById(ADMIN_ID)).thenReturn(Optional.of(admin()));
+        when(fileStorage.directDownloadUrl("subjects/ing101/0b6c2f1e.pdf", "tema1.pdf", "application/pdf", false))
+                .thenReturn(Optional.of(presigned));
+
+        MaterialDownload download = service.download(MATERIAL_ID, ADMIN_ID);
+
+        assertThat(download.redirectUrl()).isEqualTo(presigned);
+        assertThat(download.content()).isNull();
+        verify(fileStorage, never()).retrieveResource(anyString());
+    }
+
+    @Test
+    void previewRestoresArchivedFileBeforeServingIt() {
+        Material archived = material().toBuilder()
+                .storagePath("archive/2024/20260201-043000-1.zip#aa11")
+                .contentHash("aa11")
+                .build();
+        Resource file = new ByteArrayResource(new byte[]{1, 2, 3});
+        when(materialRepository.findById(MATERIAL_ID)).thenReturn(Optional.of(archived));
+        when(userRepository.findById(ADMIN_ID)).thenReturn(Optional.of(admin()));
+        when(restoreArchivedMaterial.restore(archived)).thenReturn("blobs/aa/aa11");
+        when(fileStorage.retrieveResource("blobs/aa/aa11")).thenReturn(file);
+
+        MaterialDownload download = service.preview(MATERIAL_ID, ADMIN_ID);
+
+        assertThat(download.content()).isSameAs(file);
+        assertThat(download.etag()).isEqualTo("aa11");
+    }
+
+    @Test
+    void downloadDoesNotTouchStorageWhenAccessIsDenied() {
+        when(materialRepository.findById(MATERIAL_ID)).thenReturn(Optional.of(material()));
+        when(userRepository.findById(ADMIN_ID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.download(MATERIAL_ID, ADMIN_ID))
+                .isInstanceOf(MaterialAccessDeniedException.class);
+
+        verify(fileStorage, never()).retrieveResource(anyString());
+        verify(fileStorage, never()).directDownloadUrl(anyString(), anyString(), anyString(), anyBoolean());
+    }
+}
@@ -1,12 +1,10 @@
 package com.acainfo.material.application.service;
 
-import com.acainfo.course.application.port.in.GetCourseUseCase;
-import com.acainfo.course.domain.model.Course;
-import com.acainfo.enrollment.application.port.out.EnrollmentRepositoryPort;
-import com.acainfo.enrollment.domain.model.Enrollment;
-import com.acainfo.enrollment.domain.model.EnrollmentStatus;
+import com.acainfo.enrollment.application.port.in.GetStudentEntitlementsUseCase;
+import com.acainfo.material.application.dto.MaterialFilters;
 import com.acainfo.material.application.port.out.MaterialRepositoryPort;
 import com.acainfo.material.domain.model.Material;
+import com.acainfo.shared.application.dto.PageResponse;
 import com.acainfo.user.application.port.out.UserRepositoryPort;
 import com.acainfo.user.domain.model.Role;
 import com.acainfo.user.domain.model.RoleType;
@@ -15,8 +13,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.Clock;
 import java.time.Instant;
@@ -26,6 +27,9 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -38,7 +42,6 @@ class MaterialQueryServiceTest {
     private static final Long MATERIAL_ID = 10L;
     private static final Long USER_ID = 20L;
     private static final Long SUBJECT_ID = 30L;
-    private static final Long COURSE_ID = 40L;
     private static final int CURRENT_ACADEMIC_YEAR = 2025;
 
     private static final Clock FIXED_CLOCK =
@@ -51,17 +54,14 @@ class MaterialQueryServiceTest {
     private UserRepositoryPort userRepository;
 
     @Mock
-    private EnrollmentRepositoryPort enrollmentRepository;
-
-    @Mock
-    private GetCourseUseCase getCourseUseCase;
+    private GetStudentEntitlementsUseCase studentEntitlements;
 
     private MaterialQueryService service;
 
     @BeforeEach
     void setUp() {
         service = new MaterialQueryService(
-                materialRepository, userRepository, enrollmentRepository, getCourseUseCase, FIXED_CLOCK);
+                materialRepository, userRepository, studentEntitlements, FIXED_CLOCK);
     }
 
     private Material visibleMaterialOfYear(int academicYear) {
@@ -112,16 +112,63 @@ class MaterialQueryServiceTest {
                     .thenReturn(Optional.of(visibleMaterialOfYear(CURRENT_ACADEMIC_YEAR)));
             when(userRepository.findById(USER_ID))
                     .thenReturn(Optional.of(userWithRole(RoleType.STUDENT)));
-            when(enrollmentRepository.findByStudentIdAndStatus(USER_ID, EnrollmentStatus.ACTIVE))
-                    .thenReturn(List.of(Enrollment.builder()
-                            .studentId(USER_ID)
-                            .courseId(COURSE_ID)
-                            .status(EnrollmentStatus.ACTIVE)
-                            .build()));
-            when(getCourseUseCase.getById(COURSE_ID))
-                    .thenReturn(Course.builder().id(COURSE_ID).subjectId(SUBJECT_ID).build());
+            when(studentEntitlements.getAccessibleSubjectIds(USER_ID)).thenReturn(Set.of(SUBJECT_ID));
 
             assertThat(service.canDownload(MATERIAL_ID, USER_ID)).isTrue();
         }
+
+        @Test
+        void deniesStudentWithoutEntitlementToMaterialSubject() {
+            when(materialRepository.findById(MATERIAL_ID))
+                    .thenReturn(Optional.of(visibleMaterialOfYear(CURRENT_ACADEMIC_YEAR)));
+            when(userRepository.findById(USER_ID))
+                    .thenReturn(Optional.of(userWithRole(RoleType.STUDENT)));
+            when(studentEntitlements.getAccessibleSubjectIds(USER_ID)).thenReturn(Set.of(SUBJECT_ID + 1));
+
+            assertThat(service.canDownload(MATERIAL_ID, USER_ID)).isFalse();
+        }
+    }
+
+    @Nested
+    class GetBySubjectId {
+
+        @Test
+        void pushesSubjectAndCallerVisibilityIntoOnePagedQuery() {
+            when(materialRepository.findWithFilters(any(MaterialFilters.class)))
+                    .thenReturn(new PageImpl<>(List.of(visibleMaterialOfYear(CURRENT_ACADEMIC_YEAR)),
+                            PageRequest.of(1, 10), 11));
+
+            PageResponse<Material> page = service.getBySubjectId(SUBJECT_ID, CURRENT_ACADEMIC_YEAR, 1, 10);
+
+            ArgumentCaptor<MaterialFilters> captor = ArgumentCaptor.forClass(MaterialFilters.class);
+            verify(materialRepository).findWithFilters(captor.capture());
+            assertThat(captor.getValue().subjectId()).isEqualTo(SUBJECT_ID);
+            assertThat(captor.getValue().visibleInAcademicYear()).isEqualTo(CURRENT_ACADEMIC_YEAR);
+            assertThat(captor.getValue().page()).isEqualTo(1);
+            assertThat(captor.getValue().size()).isEqualTo(10);
+            assertThat(page.totalElements()).isEqualTo(11);
+            assertThat(page.content()).hasSize(1);
+        }
+    }
+
+    @Nested
+    class GetRecentForStudent {
+
+        @Test
+        void queriesRecentVisibleCurrentYearMaterialsOfEntitledSubjects() {
+            when(studentEntitlements.getAccessibleSubjectIds(USER_ID)).thenReturn(Set.of(SUBJECT_ID));
+            when(materialRepository.findRecentVisibleBySubjectIds(List.of(SUBJECT_ID), CURRENT_ACADEMIC_YEAR, 7))
+                    .thenReturn(List.of(visibleMaterialOfYear(CURRENT_ACADEMIC_YEAR)));
+
+            assertThat(service.getRecentForStudent(USER_ID, 7)).hasSize(1);
+        }
+
+        @Test
+        void returnsEmptyWithoutQueryingMaterialsWhenStudentHasNoEntitlements() {
+            when(studentEntitlements.getAccessibleSubjectIds(USER_ID)).thenReturn(Set.of());
+
+            assertThat(service.getRecentForStudent(USER_ID, 7)).isEmpty();
+            verifyNoInteractions(materialRepository);
+        }
     }
 }
@@ -0,0 +1,142 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.dto.StorageDedupeResult;
+import com.acainfo.material.application.dto.StoredBlob;
+import com.acainfo.material.application.port.out.FileStoragePort;
+import com.acainfo.material.application.port.out.MaterialBlobRepositoryPort;
+import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.domain.exception.FileStorageException;
+import com.acainfo.material.domain.model.Material;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pure unit tests for {@link MaterialStorageDedupeService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class MaterialStorageDedupeServiceTest {
+
+    private static final StoredBlob SLIDES = new StoredBlob("aa11", "blobs/aa/aa11", 1000L);
+
+    @Mock
+    private MaterialRepositoryPort materialRepository;
+    @Mock
+    private MaterialBlobRepositoryPort materialBlobRepository;
+    @Mock
+    private FileStoragePort fileStorage;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private MaterialStorageDedupeService service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private Material legacy(Long id, String path) {
+        return Material.builder().id(id).storagePath(path).build();
+    }
+
+    @Test
+    void repointsMaterialsToSharedBlobAndDeletesLegacyCopies() {
+        when(materialRepository.findWithoutContentHash()).thenReturn(List.of(
+                legacy(1L, "subjects/ing101/a.pdf"),
+                legacy(2L, "subjects/ing102/b.pdf"),
+                legacy(3L, "subjects/ing103/missing.pdf")));
+        when(fileStorage.retrieve("subjects/ing101/a.pdf")).thenReturn(new ByteArrayInputStream(new byte[]{1}));
+        when(fileStorage.retrieve("subjects/ing102/b.pdf")).thenReturn(new ByteArrayInputStream(new byte[]{1}));
+        when(fileStorage.retrieve("subjects/ing103/missing.pdf"))
+                .thenThrow(new FileStorageException("Archivo no encontrado: subjects/ing103/missing.pdf"));
+        when(fileStorage.storeBlob(any(InputStream.class))).thenReturn(SLIDES);
+        when(materialRepository.assignBlob(any(), any(), any())).thenReturn(1);
+        when(fileStorage.exists("blobs/aa/aa11")).thenReturn(true);
+
+        StorageDedupeResult result = service.deduplicateLegacyFiles();
+
+        assertThat(result.scanned()).isEqualTo(3);
+        assertThat(result.migrated()).isEqualTo(2);
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(result.distinctBlobs()).isEqualTo(1);
+        assertThat(result.bytesReclaimed()).isEqualTo(1000L);
+
+        verify(materialRepository).assignBlob(1L, "aa11", "blobs/aa/aa11");
+        verify(materialRepository).assignBlob(2L, "aa11", "blobs/aa/aa11");
+        verify(materialBlobRepository, times(2)).acquire(SLIDES);
+        verify(fileStorage).delete("subjects/ing101/a.pdf");
+        verify(fileStorage).delete("subjects/ing102/b.pdf");
+        verify(fileStorage, never()).delete("subjects/ing103/missing.pdf");
+    }
+
+    @Test
+    void keepsLegacyFileWhenMaterialWasAlreadyMigratedConcurrently() {
+        when(materialRepository.findWithoutContentHash()).thenReturn(List.of(legacy(1L, "subjects/ing101/a.pdf")));
+        when(fileStorage.retrieve("subjects/ing101/a.pdf")).thenReturn(new ByteArrayInputStream(new byte[]{1}));
+        when(fileStorage.storeBlob(any(InputStream.class))).thenReturn(SLIDES);
+        when(materialRepository.assignBlob(1L, "aa11", "blobs/aa/aa11")).thenReturn(0);
+
+        StorageDedupeResult result = service.deduplicateLegacyFiles();
+
+        assertThat(result.migrated()).isZero();
+        verify(materialBlobRepository, never()).acquire(any());
+        verify(materialBlobRepository).removeIfUnadopted(SLIDES);
+        verify(fileStorage, never()).delete(any());
+    }
+
+    @Test
+    void deletesTheBlobFileWhenNoMaterialAdoptedIt() {
+        when(materialRepository.findWithoutContentHash()).thenReturn(List.of(legacy(1L, "subjects/ing101/a.pdf")));
+        when(fileStorage.retrieve("subjects/ing101/a.pdf")).thenReturn(new ByteArrayInputStream(new byte[]{1}));
+        when(fileStorage.storeBlob(any(InputStream.class))).thenReturn(SLIDES);
+        when(materialRepository.assignBlob(1L, "aa11", "blobs/aa/aa11")).thenReturn(0);
+        when(materialBlobRepository.removeIfUnadopted(SLIDES)).thenReturn(true);
+        when(fileStorage.exists("blobs/aa/aa11")).thenReturn(true);
+
+        StorageDedupeResult result = service.deduplicateLegacyFiles();
+
+        assertThat(result.migrated()).isZero();
+        verify(fileStorage).delete("blobs/aa/aa11");
+        verify(fileStorage, never()).delete("subjects/ing101/a.pdf");
+    }
+
+    @Test
+    void keepsLegacyFileWhenTheBlobFileWasDeletedBeforeTakingTheReference() {
+        TransactionStatus status = mock(TransactionStatus.class);
+        doAnswer(invocation -> ((TransactionCallback<?>) invocation.getArgument(0)).doInTransaction(status))
+                .when(transactionTemplate).execute(any());
+        when(materialRepository.findWithoutContentHash()).thenReturn(List.of(legacy(1L, "subjects/ing101/a.pdf")));
+        when(fileStorage.retrieve("subjects/ing101/a.pdf")).thenReturn(new ByteArrayInputStream(new byte[]{1}));
+        when(fileStorage.storeBlob(any(InputStream.class))).thenReturn(SLIDES);
+        when(materialRepository.assignBlob(1L, "aa11", "blobs/aa/aa11")).thenReturn(1);
+        when(fileStorage.exists("blobs/aa/aa11")).thenReturn(false);
+
+        StorageDedupeResult result = service.deduplicateLegacyFiles();
+
+        assertThat(result.migrated()).isZero();
+        verify(status).setRollbackOnly();
+        verify(fileStorage, never()).delete(any());
+    }
+}
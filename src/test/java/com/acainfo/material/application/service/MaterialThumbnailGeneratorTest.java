@@ -0,0 +1,96 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.dto.PdfPreview;
+import com.acainfo.material.application.port.out.FileStoragePort;
+import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.application.port.out.PdfPreviewPort;
+import com.acainfo.material.domain.exception.FileStorageException;
+import com.acainfo.material.domain.model.Material;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pure unit tests for {@link MaterialThumbnailGenerator}.
+ */
+@ExtendWith(MockitoExtension.class)
+class MaterialThumbnailGeneratorTest {
+
+    private static final Long MATERIAL_ID = 10L;
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+    private static final String BLOB_PATH = "blobs/9f/" + HASH;
+
+    @Mock
+    private MaterialRepositoryPort materialRepository;
+    @Mock
+    private FileStoragePort fileStorage;
+    @Mock
+    private PdfPreviewPort pdfPreview;
+
+    @InjectMocks
+    private MaterialThumbnailGenerator generator;
+
+    private Material pdf() {
+        return Material.builder()
+                .id(MATERIAL_ID)
+                .fileExtension("pdf")
+                .contentHash(HASH)
+                .storagePath(BLOB_PATH)
+                .build();
+    }
+
+    @Test
+    void storesThumbnailNextToBlobAndRecordsPageCount() {
+        when(materialRepository.findById(MATERIAL_ID)).thenReturn(Optional.of(pdf()));
+        when(fileStorage.retrieve(BLOB_PATH)).thenReturn(new ByteArrayInputStream(new byte[]{1}));
+        when(pdfPreview.render(any(InputStream.class))).thenReturn(new PdfPreview(new byte[]{9, 9}, 12));
+        when(fileStorage.storeDerived(eq(HASH), eq(".thumb.png"), any(InputStream.class)))
+                .thenReturn(BLOB_PATH + ".thumb.png");
+
+        assertThat(generator.generate(MATERIAL_ID)).isTrue();
+
+        verify(materialRepository).assignPreview(MATERIAL_ID, 12, BLOB_PATH + ".thumb.png");
+    }
+
+    @Test
+    void skipsNonPdfAndLegacyMaterials() {
+        when(materialRepository.findById(MATERIAL_ID))
+                .thenReturn(Optional.of(pdf().toBuilder().fileExtension("java").build()))
+                .thenReturn(Optional.of(pdf().toBuilder().contentHash(null).build()));
+
+        assertThat(generator.generate(MATERIAL_ID)).isFalse();
+        assertThat(generator.generate(MATERIAL_ID)).isFalse();
+
+        verifyNoInteractions(fileStorage, pdfPreview);
+    }
+
+    @Test
+    void corruptPdfLeavesMaterialWithoutPreviewInsteadOfFailing() {
+        when(materialRepository.findById(MATERIAL_ID)).thenReturn(Optional.of(pdf()));
+        when(fileStorage.retrieve(BLOB_PATH)).thenReturn(new ByteArrayInputStream(new byte[]{1}));
+        when(pdfPreview.render(any(InputStream.class)))
+                .thenThrow(new FileStorageException("No se pudo generar la vista previa del PDF"));
+
+        assertThat(generator.generate(MATERIAL_ID)).isFalse();
+
+        verify(fileStorage, never()).storeDerived(anyString(), anyString(), any());
+        verify(materialRepository, never()).assignPreview(anyLong(), anyInt(), anyString());
+    }
+}
@@ -1,17 +1,24 @@
 package com.acainfo.material.application.service;
 
+import com.acainfo.material.application.dto.StoredBlob;
 import com.acainfo.material.application.dto.UploadMaterialCommand;
 import com.acainfo.material.application.port.out.FileStoragePort;
+import com.acainfo.material.application.port.out.MaterialBlobRepositoryPort;
 import com.acainfo.material.application.port.out.MaterialFolderRepositoryPort;
 import com.acainfo.material.application.port.out.MaterialRepositoryPort;
+import com.acainfo.material.domain.event.MaterialBlobReleasedEvent;
+import com.acainfo.material.domain.event.MaterialUploadedEvent;
+import com.acainfo.material.domain.exception.FileStorageException;
 import com.acainfo.material.domain.exception.FolderSubjectMismatchException;
 import com.acainfo.material.domain.model.Material;
 import com.acainfo.material.domain.model.MaterialFolder;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.io.InputStream;
 import java.time.Clock;
@@ -40,6 +47,7 @@ class MaterialUploadServiceTest {
     private static final Long UPLOADER_ID = 1L;
     private static final Long FOLDER_ID = 7L;
     private static final int CURRENT_ACADEMIC_YEAR = 2025;
+    private static final String HASH = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
 
     private static final Clock FIXED_CLOCK =
             Clock.fixed(Instant.parse("2026-02-15T12:00:00Z"), ZoneId.of("UTC"));
@@ -53,12 +61,19 @@ class MaterialUploadServiceTest {
     @Mock
     private FileStoragePort fileStorage;
 
+    @Mock
+    private MaterialBlobRepositoryPort materialBlobRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private MaterialUploadService service;
 
     @BeforeEach
     void setUp() {
         service = new MaterialUploadService(
-                materialRepository, materialFolderRepository, fileStorage, FIXED_CLOCK);
+                materialRepository, materialFolderRepository, fileStorage, materialBlobRepository, eventPublisher,
+                FIXED_CLOCK);
     }
 
     private UploadMaterialCommand commandWithFolder(Long folderId) {
@@ -75,9 +90,11 @@ class MaterialUploadServiceTest {
         );
     }
 
+    private static final StoredBlob BLOB = new StoredBlob(HASH, "blobs/9f/" + HASH, 1024L);
+
     private void stubHappyStorageAndSave() {
-        when(fileStorage.store(any(InputStream.class), anyString(), anyLong()))
-                .thenReturn("subjects/30/doc.pdf");
+        when(fileStorage.storeBlob(any(InputStream.class))).thenReturn(BLOB);
+        when(fileStorage.exists(BLOB.storagePath())).thenReturn(true);
         when(materialRepository.save(any(Material.class)))
                 .thenAnswer(invocation -> invocation.getArgument(0));
     }
@@ -122,7 +139,107 @@ class MaterialUploadServiceTest {
         assertThatThrownBy(() -> service.upload(commandWithFolder(FOLDER_ID)))
                 .isInstanceOf(FolderSubjectMismatchException.class);
 
+        verify(fileStorage, never()).storeBlob(any());
+        verify(materialRepository, never()).save(any());
+    }
+
+    @Test
+    void uploadStoresContentByHashAndTakesABlobReference() {
+        stubHappyStorageAndSave();
+
+        Material saved = service.upload(commandWithFolder(null));
+
+        assertThat(saved.getContentHash()).isEqualTo(HASH);
+        assertThat(saved.getStoragePath()).isEqualTo("blobs/9f/" + HASH);
+        assertThat(saved.getStoredFilename()).endsWith(".pdf");
+        verify(materialBlobRepository).acquire(BLOB);
+        // No subject lookup / per-subject path on the upload path
         verify(fileStorage, never()).store(any(), anyString(), anyLong());
+    }
+
+    @Test
+    void uploadFailsWhenTheBlobFileWasDeletedBeforeTakingTheReference() {
+        // storeBlob found the file, then the deletion of the last material with that content removed it
+        when(fileStorage.storeBlob(any(InputStream.class))).thenReturn(BLOB);
+        when(fileStorage.exists(BLOB.storagePath())).thenReturn(false);
+
+        assertThatThrownBy(() -> service.upload(commandWithFolder(null)))
+                .isInstanceOf(FileStorageException.class);
+
+        verify(materialBlobRepository).acquire(BLOB);
         verify(materialRepository, never()).save(any());
     }
+
+    @Test
+    void uploadAnnouncesTheNewMaterialForBackgroundPreview() {
+        when(fileStorage.storeBlob(any(InputStream.class))).thenReturn(BLOB);
+        when(fileStorage.exists(BLOB.storagePath())).thenReturn(true);
+        when(materialRepository.save(any(Material.class)))
+                .thenAnswer(invocation -> ((Material) invocation.getArgument(0)).toBuilder().id(99L).build());
+
+        service.upload(commandWithFolder(null));
+
+        verify(eventPublisher).publishEvent(new MaterialUploadedEvent(99L));
+    }
+
+    @Nested
+    class Delete {
+
+        private static final Long MATERIAL_ID = 10L;
+
+        @Test
+        void keepsSharedBlobWhileOtherMaterialsReferenceIt() {
+            when(materialRepository.findById(MATERIAL_ID)).thenReturn(Optional.of(Material.builder()
+                    .id(MATERIAL_ID).contentHash(HASH).storagePath(BLOB.storagePath()).build()));
+            when(materialBlobRepository.release(HASH)).thenReturn(Optional.empty());
+
+            service.delete(MATERIAL_ID);
+
+            verify(materialRepository).delete(MATERIAL_ID);
+            verify(fileStorage, never()).delete(anyString());
+        }
+
+        @Test
+        void leavesBlobFileDeletionUntilAfterCommitWhenLastReferenceIsReleased() {
+            when(materialRepository.findById(MATERIAL_ID)).thenReturn(Optional.of(Material.builder()
+                    .id(MATERIAL_ID).contentHash(HASH).storagePath(BLOB.storagePath()).build()));
+            when(materialBlobRepository.release(HASH)).thenReturn(Optional.of(BLOB.storagePath()));
+
+            service.delete(MATERIAL_ID);
+
+            verify(eventPublisher).publishEvent(new MaterialBlobReleasedEvent(HASH, BLOB.storagePath()));
+            verify(fileStorage, never()).delete(anyString());
+        }
+
+        @Test
+        void releasedBlobFileAndThumbnailAreDeletedWhileStillUnreferenced() {
+            when(materialBlobRepository.removeIfUnreferenced(HASH)).thenReturn(true);
+            when(fileStorage.exists(BLOB.storagePath() + ".thumb.png")).thenReturn(true);
+
+            service.onBlobReleased(new MaterialBlobReleasedEvent(HASH, BLOB.storagePath()));
+
+            verify(fileStorage).delete(BLOB.storagePath());
+            verify(fileStorage).delete(BLOB.storagePath() + ".thumb.png");
+        }
+
+        @Test
+        void releasedBlobFileIsKeptWhenAnUploadReferencedItAgain() {
+            when(materialBlobRepository.removeIfUnreferenced(HASH)).thenReturn(false);
+
+            service.onBlobReleased(new MaterialBlobReleasedEvent(HASH, BLOB.storagePath()));
+
+            verify(fileStorage, never()).delete(anyString());
+        }
+
+        @Test
+        void deletesLegacyFileDirectly() {
+            when(materialRepository.findById(MATERIAL_ID)).thenReturn(Optional.of(Material.builder()
+                    .id(MATERIAL_ID).storagePath("subjects/ing101/uuid.pdf").build()));
+
+            service.delete(MATERIAL_ID);
+
+            verify(fileStorage).delete("subjects/ing101/uuid.pdf");
+            verify(materialBlobRepository, never()).release(anyString());
+        }
+    }
 }
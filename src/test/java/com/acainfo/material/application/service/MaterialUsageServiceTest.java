@@ -0,0 +1,138 @@
+package com.acainfo.material.application.service;
+
+import com.acainfo.material.application.dto.MaterialUsageCount;
+import com.acainfo.material.application.dto.MaterialUsageReport;
+import com.acainfo.material.application.port.out.MaterialUsageRepositoryPort;
+import com.acainfo.material.domain.model.MaterialUsageType;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pure unit tests for {@link MaterialUsageService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class MaterialUsageServiceTest {
+
+    private static final Clock FIXED_CLOCK =
+            Clock.fixed(Instant.parse("2026-02-15T12:00:00Z"), ZoneId.of("UTC"));
+    private static final LocalDate TODAY = LocalDate.of(2026, 2, 15);
+
+    @Mock
+    private MaterialUsageRepositoryPort materialUsageRepository;
+
+    @SuppressWarnings("unchecked")
+    private List<MaterialUsageCount> flushedBatch(int times) {
+        ArgumentCaptor<List<MaterialUsageCount>> batch = ArgumentCaptor.forClass(List.class);
+        verify(materialUsageRepository, times(times)).addCounts(batch.capture());
+        return batch.getValue();
+    }
+
+    @Nested
+    class Flush {
+
+        @Test
+        void addsConcurrentAccessesAsOneCountPerMaterialAndDay() {
+            MaterialUsageService service = new MaterialUsageService(materialUsageRepository, FIXED_CLOCK);
+
+            try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+                CompletableFuture.allOf(IntStream.range(0, 1000)
+                        .mapToObj(i -> CompletableFuture.runAsync(() -> service.record(
+                                i % 2 == 0 ? 10L : 20L,
+                                i % 4 == 0 ? MaterialUsageType.DOWNLOAD : MaterialUsageType.PREVIEW), pool))
+                        .toArray(CompletableFuture[]::new)).join();
+            }
+            service.flush();
+
+            assertThat(flushedBatch(1)).containsExactlyInAnyOrder(
+                    new MaterialUsageCount(10L, TODAY, 250, 250),
+                    new MaterialUsageCount(20L, TODAY, 0, 500));
+        }
+
+        @Test
+        void flushesOnlyWhatAccumulatedSinceThePreviousFlush() {
+            MaterialUsageService service = new MaterialUsageService(materialUsageRepository, FIXED_CLOCK);
+            service.record(10L, MaterialUsageType.DOWNLOAD);
+            service.flush();
+
+            service.flush();
+            service.record(10L, MaterialUsageType.PREVIEW);
+            service.flush();
+
+            assertThat(flushedBatch(2)).containsExactly(new MaterialUsageCount(10L, TODAY, 0, 1));
+        }
+
+        @Test
+        void keepsCountsForTheNextRunWhenTheBatchFails() {
+            MaterialUsageService service = new MaterialUsageService(materialUsageRepository, FIXED_CLOCK);
+            service.record(10L, MaterialUsageType.DOWNLOAD);
+            doThrow(new DataAccessResourceFailureException("connection refused"))
+                    .doNothing()
+                    .when(materialUsageRepository).addCounts(anyList());
+
+            service.flush();
+            service.record(10L, MaterialUsageType.DOWNLOAD);
+            service.flush();
+
+            assertThat(flushedBatch(2)).containsExactly(new MaterialUsageCount(10L, TODAY, 2, 0));
+        }
+
+        @Test
+        void keepsTheDayOfAccessesRecordedBeforeMidnight() {
+            Clock clock = mock(Clock.class);
+            when(clock.getZone()).thenReturn(ZoneId.of("UTC"));
+            when(clock.instant()).thenReturn(
+                    Instant.parse("2026-02-14T23:59:59Z"),
+                    Instant.parse("2026-02-15T00:00:30Z"));
+            MaterialUsageService service = new MaterialUsageService(materialUsageRepository, clock);
+
+            service.record(10L, MaterialUsageType.PREVIEW);
+            service.flush();
+
+            assertThat(flushedBatch(1)).containsExactly(new MaterialUsageCount(10L, TODAY.minusDays(1), 0, 1));
+        }
+
+        @Test
+        void doesNotHitTheDatabaseWithoutAccesses() {
+            new MaterialUsageService(materialUsageRepository, FIXED_CLOCK).flush();
+
+            verify(materialUsageRepository, never()).addCounts(anyList());
+        }
+    }
+
+    @Test
+    void reportRanksTheWindowEndingTodayAndListsNeverOpenedOfTheCurrentYear() {
+        MaterialUsageService service = new MaterialUsageService(materialUsageRepository, FIXED_CLOCK);
+        when(materialUsageRepository.findTopBySubject(30L, LocalDate.of(2026, 1, 17), MaterialUsageService.MAX_TOP))
+                .thenReturn(List.of());
+        when(materialUsageRepository.findNeverOpenedBySubject(30L, 2025)).thenReturn(List.of());
+
+        MaterialUsageReport report = service.getSubjectUsage(30L, 30, 5000);
+
+        assertThat(report.since()).isEqualTo(LocalDate.of(2026, 1, 17));
+        assertThat(report.subjectId()).isEqualTo(30L);
+    }
+}
@@ -1,6 +1,7 @@
 package com.acainfo.material.infrastructure.adapter.in.rest;
 
 import com.acainfo.material.application.dto.GenerateAiMaterialCommand;
+import com.acainfo.material.application.dto.TranscribeAiFolderCommand;
 import com.acainfo.material.application.dto.TranscribeAiMaterialCommand;
 import com.acainfo.material.application.port.in.MaterialAiUseCase;
 import com.acainfo.material.domain.exception.InvalidAiJobRequestException;
@@ -12,13 +13,17 @@ import com.acainfo.material.infrastructure.adapter.in.rest.mapper.MaterialAiRest
 import com.acainfo.security.userdetails.CustomUserDetails;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -41,6 +46,8 @@ class MaterialAiControllerTest {
     @Mock
     private MaterialAiRestMapper mapper;
     @Mock
+    private MaterialAiJobEventStream eventStream;
+    @Mock
     private CustomUserDetails userDetails;
 
     @InjectMocks
@@ -53,7 +60,7 @@ class MaterialAiControllerTest {
     }
 
     @Test
-    void generateConstruyeElCommandConDefaultDeDosEjerciciosYDevuelve201() throws Exception {
+    void generateConstruyeElCommandConDefaultDeDosEjerciciosYDevuelve201(@TempDir Path dir) throws Exception {
         when(userDetails.getUserId()).thenReturn(ADMIN_ID);
         when(materialAiUseCase.createGenerateJob(any())).thenReturn(job());
         MockMultipartFile image = new MockMultipartFile(
@@ -73,7 +80,9 @@ class MaterialAiControllerTest {
         assertThat(command.exerciseCount()).isEqualTo(2); // default cuando no se envía
         assertThat(command.images()).hasSize(1);
         assertThat(command.images().get(0).mimeType()).isEqualTo("image/png");
-        assertThat(command.images().get(0).data()).containsExactly(1, 2, 3);
+        Path written = dir.resolve("captura-0");
+        command.images().get(0).content().transferTo(written);
+        assertThat(Files.readAllBytes(written)).containsExactly(1, 2, 3);
     }
 
     @Test
@@ -103,4 +112,23 @@ class MaterialAiControllerTest {
         assertThat(captor.getValue().materialId()).isEqualTo(20L);
         assertThat(captor.getValue().createdById()).isEqualTo(ADMIN_ID);
     }
+
+    @Test
+    void transcribeFolderLanzaElJobDeLaCarpetaYDevuelve201() {
+        when(userDetails.getUserId()).thenReturn(ADMIN_ID);
+        when(materialAiUseCase.createTranscribeFolderJob(any())).thenReturn(job());
+
+        var response = controller.transcribeFolder(9L, userDetails);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        verify(materialAiUseCase).createTranscribeFolderJob(new TranscribeAiFolderCommand(9L, ADMIN_ID));
+    }
+
+    @Test
+    void streamJobDevuelveElStreamDelJob() {
+        SseEmitter emitter = new SseEmitter();
+        when(eventStream.subscribe(40L)).thenReturn(emitter);
+
+        assertThat(controller.streamJob(40L)).isSameAs(emitter);
+    }
 }
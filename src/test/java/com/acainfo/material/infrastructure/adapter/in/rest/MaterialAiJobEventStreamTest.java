@@ -0,0 +1,121 @@
+package com.acainfo.material.infrastructure.adapter.in.rest;
+
+import com.acainfo.material.application.port.in.MaterialAiUseCase;
+import com.acainfo.material.domain.event.MaterialAiJobChangedEvent;
+import com.acainfo.material.domain.exception.MaterialAiJobNotFoundException;
+import com.acainfo.material.domain.model.MaterialAiJob;
+import com.acainfo.material.domain.model.MaterialAiJobStage;
+import com.acainfo.material.domain.model.MaterialAiJobStatus;
+import com.acainfo.material.domain.model.MaterialAiJobType;
+import com.acainfo.material.infrastructure.adapter.in.rest.dto.MaterialAiJobResponse;
+import com.acainfo.material.infrastructure.adapter.in.rest.mapper.MaterialAiRestMapper;
+import com.acainfo.shared.infrastructure.config.AnthropicProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pure unit tests for {@link MaterialAiJobEventStream}: who is subscribed and
+ * when the job is read.
+ */
+@ExtendWith(MockitoExtension.class)
+class MaterialAiJobEventStreamTest {
+
+    private static final Long JOB_ID = 40L;
+
+    @Mock
+    private MaterialAiUseCase materialAiUseCase;
+    @Mock
+    private MaterialAiRestMapper mapper;
+
+    private AnthropicProperties properties;
+    private MaterialAiJobEventStream eventStream;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AnthropicProperties();
+        eventStream = new MaterialAiJobEventStream(materialAiUseCase, mapper, properties);
+    }
+
+    private void jobIs(MaterialAiJobStatus status, MaterialAiJobStage stage, long tokens) {
+        MaterialAiJob job = MaterialAiJob.builder().id(JOB_ID).type(MaterialAiJobType.GENERATE)
+                .status(status).progressStage(stage).progressTokens(tokens).build();
+        when(materialAiUseCase.getJob(JOB_ID)).thenReturn(job);
+        when(mapper.toResponse(job)).thenReturn(new MaterialAiJobResponse(JOB_ID, MaterialAiJobType.GENERATE,
+                30L, null, status, null, null, 1, 0, 0, 0, 0, stage, tokens, List.of(), null, null));
+    }
+
+    @Test
+    void unJobEnCursoQuedaSuscritoHastaQueTermina() {
+        jobIs(MaterialAiJobStatus.RUNNING, MaterialAiJobStage.GENERATING, 0);
+        eventStream.subscribe(JOB_ID);
+        eventStream.subscribe(JOB_ID);
+        assertThat(eventStream.openStreams()).isEqualTo(2);
+
+        jobIs(MaterialAiJobStatus.COMPLETED, null, 0);
+        eventStream.onJobChanged(new MaterialAiJobChangedEvent(JOB_ID));
+
+        assertThat(eventStream.openStreams()).isZero();
+        // Una lectura al abrir cada stream y UNA por cambio, no una por stream
+        verify(materialAiUseCase, times(3)).getJob(JOB_ID);
+    }
+
+    @Test
+    void sinSuscriptoresUnCambioNoLeeElJob() {
+        eventStream.onJobChanged(new MaterialAiJobChangedEvent(JOB_ID));
+
+        verify(materialAiUseCase, never()).getJob(JOB_ID);
+    }
+
+    @Test
+    void unJobYaTerminadoSeEnviaYNoSeSuscribe() {
+        jobIs(MaterialAiJobStatus.FAILED, null, 0);
+
+        eventStream.subscribe(JOB_ID);
+
+        assertThat(eventStream.openStreams()).isZero();
+    }
+
+    @Test
+    void conElRegistroLlenoElStreamNoSeSuscribe() {
+        properties.getEvents().setMaxSubscribers(1);
+        jobIs(MaterialAiJobStatus.RUNNING, MaterialAiJobStage.COMPILING, 0);
+
+        eventStream.subscribe(JOB_ID);
+        eventStream.subscribe(JOB_ID);
+
+        assertThat(eventStream.openStreams()).isEqualTo(1);
+    }
+
+    @Test
+    void elHeartbeatRecogeLosCambiosDeJobsDeOtraInstancia() {
+        jobIs(MaterialAiJobStatus.RUNNING, MaterialAiJobStage.GENERATING, 0);
+        eventStream.subscribe(JOB_ID);
+
+        // El job corre en otra instancia: aquí no llega ningún evento, solo el heartbeat
+        jobIs(MaterialAiJobStatus.COMPLETED, null, 0);
+        eventStream.heartbeat();
+
+        assertThat(eventStream.openStreams()).isZero();
+    }
+
+    @Test
+    void unJobInexistenteNoAbreStream() {
+        when(materialAiUseCase.getJob(JOB_ID)).thenThrow(new MaterialAiJobNotFoundException(JOB_ID));
+
+        assertThatThrownBy(() -> eventStream.subscribe(JOB_ID))
+                .isInstanceOf(MaterialAiJobNotFoundException.class);
+        assertThat(eventStream.openStreams()).isZero();
+    }
+}
@@ -0,0 +1,131 @@
+package com.acainfo.material.infrastructure.adapter.out.image;
+
+import com.acainfo.material.application.dto.NormalizedCapture;
+import com.acainfo.shared.infrastructure.config.AnthropicProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ImageIoCaptureNormalizer} on images drawn in memory.
+ */
+class ImageIoCaptureNormalizerTest {
+
+    @TempDir
+    Path tmp;
+
+    private ImageIoCaptureNormalizer normalizer;
+
+    @BeforeEach
+    void setUp() {
+        AnthropicProperties properties = new AnthropicProperties();
+        properties.getCaptures().setMaxEdgePx(400);
+        normalizer = new ImageIoCaptureNormalizer(properties);
+    }
+
+    /** White image with a red square in its top-left corner. */
+    private static BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, width / 4, height / 4);
+        g.dispose();
+        return image;
+    }
+
+    private static byte[] jpeg(BufferedImage image) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpeg", out);
+        return out.toByteArray();
+    }
+
+    /** The JPEG with an EXIF (APP1) block carrying only the orientation tag, right after SOI. */
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        ByteBuffer tiff = ByteBuffer.allocate(26);
+        tiff.put(new byte[]{'M', 'M', 0, 42}).putInt(8)
+                .putShort((short) 1)
+                .putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0)
+                .putInt(0);
+        byte[] exif = ByteBuffer.allocate(6 + tiff.capacity())
+                .put("Exif\0\0".getBytes()).put(tiff.array()).array();
+        return ByteBuffer.allocate(jpeg.length + 4 + exif.length)
+                .put(jpeg, 0, 2)
+                .putShort((short) 0xFFE1).putShort((short) (exif.length + 2)).put(exif)
+                .put(jpeg, 2, jpeg.length - 2)
+                .array();
+    }
+
+    @Test
+    void aLargePhotoIsScaledDownToTheMaxEdgeAndShrinks() throws Exception {
+        Path source = Files.write(tmp.resolve("captura.jpg"), jpeg(photo(2000, 1500)));
+
+        NormalizedCapture result = normalizer.normalize(source, "image/jpeg", tmp.resolve("out"));
+
+        assertThat(result.path()).isEqualTo(tmp.resolve("out"));
+        assertThat(result.mimeType()).isEqualTo("image/jpeg");
+        assertThat(result.normalizedBytes()).isLessThan(result.originalBytes()).isEqualTo(Files.size(result.path()));
+        BufferedImage image = ImageIO.read(result.path().toFile());
+        assertThat(image.getWidth()).isEqualTo(400);
+        assertThat(image.getHeight()).isEqualTo(300);
+    }
+
+    @Test
+    void aPhotoTakenSidewaysIsTurnedUpright() throws Exception {
+        // Stored landscape, EXIF 6: shown rotated 90º clockwise
+        Path source = Files.write(tmp.resolve("captura.jpg"), withOrientation(jpeg(photo(400, 200)), 6));
+        assertThat(ImageIoCaptureNormalizer.exifOrientation(source)).isEqualTo(6);
+
+        NormalizedCapture result = normalizer.normalize(source, "image/jpeg", tmp.resolve("out"));
+
+        BufferedImage image = ImageIO.read(result.path().toFile());
+        assertThat(image.getWidth()).isEqualTo(200);
+        assertThat(image.getHeight()).isEqualTo(400);
+        // The red corner moved from top-left to top-right
+        assertThat(new Color(image.getRGB(image.getWidth() - 5, 5)).getRed()).isGreaterThan(200);
+        assertThat(new Color(image.getRGB(5, 5)).getGreen()).isGreaterThan(200);
+    }
+
+    @Test
+    void aSmallPngThatWouldNotShrinkIsKeptAsIs() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(photo(100, 100), "png", png);
+        Path source = Files.write(tmp.resolve("captura.png"), png.toByteArray());
+
+        NormalizedCapture result = normalizer.normalize(source, "image/png", tmp.resolve("out"));
+
+        assertThat(result.path()).isEqualTo(source);
+        assertThat(result.normalizedBytes()).isEqualTo(result.originalBytes());
+    }
+
+    @Test
+    void formatsImageIoCannotReadArePassedThrough() throws Exception {
+        Path source = Files.write(tmp.resolve("captura.webp"), new byte[]{'R', 'I', 'F', 'F', 0, 0, 0, 0});
+
+        NormalizedCapture result = normalizer.normalize(source, "image/webp", tmp.resolve("out"));
+
+        assertThat(result.path()).isEqualTo(source);
+        assertThat(result.mimeType()).isEqualTo("image/webp");
+    }
+
+    @Test
+    void aCorruptJpegIsPassedThrough() throws Exception {
+        Path source = Files.write(tmp.resolve("captura.jpg"), new byte[]{(byte) 0xFF, (byte) 0xD8, 1, 2, 3});
+
+        NormalizedCapture result = normalizer.normalize(source, "image/jpeg", tmp.resolve("out"));
+
+        assertThat(result.path()).isEqualTo(source);
+    }
+}
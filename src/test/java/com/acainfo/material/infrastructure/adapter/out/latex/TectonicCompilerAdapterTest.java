@@ -0,0 +1,135 @@
+package com.acainfo.material.infrastructure.adapter.out.latex;
+
+import com.acainfo.material.application.dto.LatexCompilationResult;
+import com.acainfo.shared.infrastructure.config.AnthropicProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TectonicCompilerAdapter} against a stub tectonic script that
+ * logs each run and "compiles" by copying the source into doc.pdf.
+ */
+@DisabledOnOs(OS.WINDOWS)
+class TectonicCompilerAdapterTest {
+
+    private static final String STUB = """
+            #!/bin/sh
+            echo "$* cache=$TECTONIC_CACHE_DIR" >> "$(dirname "$0")/runs.log"
+            while [ "$1" != "--outdir" ]; do shift; done
+            out="$2"; tex="$3"
+            if grep -q ROTO "$tex"; then
+              echo "error: doc.tex:3: Undefined control sequence"
+              exit 1
+            fi
+            if grep -q SIN_RED "$tex"; then
+              echo "error: failed to download the bundle index"
+              exit 1
+            fi
+            cp "$tex" "$out/doc.pdf"
+            """;
+
+    @TempDir
+    Path tmp;
+
+    private AnthropicProperties properties;
+    private TectonicCompilerAdapter adapter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path binary = tmp.resolve("tectonic");
+        Files.writeString(binary, STUB);
+        Files.setPosixFilePermissions(binary, PosixFilePermissions.fromString("rwx------"));
+
+        properties = new AnthropicProperties();
+        properties.getTectonic().setBinaryPath(binary.toString());
+        properties.getTectonic().setCacheDir(tmp.resolve("cache").toString());
+        adapter = new TectonicCompilerAdapter(properties);
+    }
+
+    private List<String> runs() throws Exception {
+        Path log = tmp.resolve("runs.log");
+        return Files.exists(log) ? Files.readAllLines(log) : List.of();
+    }
+
+    @Test
+    void compilesWithThePersistentCacheDir() throws Exception {
+        LatexCompilationResult result = adapter.compile("\\documentclass{article}");
+
+        assertThat(result.success()).isTrue();
+        assertThat(new String(result.pdf(), StandardCharsets.UTF_8)).isEqualTo("\\documentclass{article}");
+        assertThat(runs()).singleElement().asString()
+                .contains("--untrusted")
+                .doesNotContain("--only-cached")
+                .endsWith("cache=" + tmp.resolve("cache"));
+        assertThat(tmp.resolve("cache")).isDirectory();
+    }
+
+    @Test
+    void identicalSourcesAreCompiledOnce() throws Exception {
+        adapter.compile("\\documentclass{article} A");
+        LatexCompilationResult failed = adapter.compile("\\documentclass{article} ROTO");
+        adapter.compile("\\documentclass{article} A");
+        LatexCompilationResult failedAgain = adapter.compile("\\documentclass{article} ROTO");
+
+        assertThat(runs()).hasSize(2);
+        assertThat(failedAgain.success()).isFalse();
+        assertThat(failedAgain.errors()).isEqualTo(failed.errors()).contains("Undefined control sequence");
+    }
+
+    @Test
+    void failuresOutsideTheSourceAreCompiledAgain() throws Exception {
+        LatexCompilationResult failed = adapter.compile("\\documentclass{article} SIN_RED");
+        adapter.compile("\\documentclass{article} SIN_RED");
+
+        assertThat(failed.success()).isFalse();
+        assertThat(runs()).hasSize(2);
+    }
+
+    @Test
+    void leastRecentlyUsedSourceIsCompiledAgain() throws Exception {
+        properties.getTectonic().setCompileCacheEntries(1);
+
+        adapter.compile("A");
+        adapter.compile("B");
+        adapter.compile("A");
+
+        assertThat(runs()).hasSize(3);
+    }
+
+    @Test
+    void offlineModeOnlyReadsTheCache() throws Exception {
+        properties.getTectonic().setOnlyCached(true);
+
+        adapter.compile("\\documentclass{article}");
+
+        assertThat(runs()).singleElement().asString().contains("--only-cached");
+    }
+
+    @Test
+    void warmUpCompilesTheTemplateWithoutCachingIt() throws Exception {
+        adapter.warmUp();
+        adapter.compile(TectonicCompilerAdapter.WARM_UP_TEX);
+
+        assertThat(runs()).hasSize(2);
+    }
+
+    @Test
+    void warmUpCanBeDisabled() throws Exception {
+        properties.getTectonic().setWarmUp(false);
+
+        adapter.warmUp();
+
+        assertThat(runs()).isEmpty();
+    }
+}
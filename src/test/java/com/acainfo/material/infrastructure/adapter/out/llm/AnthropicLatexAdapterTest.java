@@ -1,11 +1,35 @@
 package com.acainfo.material.infrastructure.adapter.out.llm;
 
+import com.acainfo.material.application.dto.AiImageInput;
+import com.acainfo.material.application.dto.LlmBatchDocument;
+import com.acainfo.material.application.dto.LlmBatchResult;
+import com.acainfo.material.application.dto.LlmLatexReply;
+import com.acainfo.material.domain.exception.LlmUnavailableException;
+import com.acainfo.shared.infrastructure.config.AnthropicProperties;
 import com.anthropic.models.messages.StopReason;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -14,6 +38,11 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
  * y el bucle de reintentos podría "arreglarlo" en un documento compilable pero
  * INCOMPLETO, publicado sin aviso. El guard convierte ese caso en job FAILED
  * con mensaje claro.
+ *
+ * <p>También: las capturas se codifican en base64 por bloques desde el fichero, y
+ * contra un sustituto HTTP local de la API, los breakpoints de caché de prompts y
+ * el consumo (tokens, latencia) que se devuelve con cada respuesta, que llega en
+ * streaming, y la transcripción por lotes (envío, estado y resultados).</p>
  */
 class AnthropicLatexAdapterTest {
 
@@ -35,6 +64,17 @@ class AnthropicLatexAdapterTest {
                 .doesNotThrowAnyException();
     }
 
+    @Test
+    @DisplayName("base64 por bloques desde fichero = base64 del contenido completo (incluido el relleno final)")
+    void base64PorBloquesCoincideConElCompleto(@TempDir Path dir) throws Exception {
+        byte[] captura = new byte[2 * 48 * 1024 + 1];
+        new Random(7).nextBytes(captura);
+        Path file = Files.write(dir.resolve("captura-0"), captura);
+
+        assertThat(AnthropicLatexAdapter.base64(file))
+                .isEqualTo(Base64.getEncoder().encodeToString(captura));
+    }
+
     @Test
     @DisplayName("sin stop_reason (Optional vacío) no lanza nada")
     void sinStopReasonNoLanza() {
@@ -42,4 +82,285 @@ class AnthropicLatexAdapterTest {
                 AnthropicLatexAdapter.ensureNotTruncated(Optional.empty(), 16000))
                 .doesNotThrowAnyException();
     }
+
+    @Nested
+    class ContraLaApi {
+
+        private static final String USAGE = """
+                "usage": {"input_tokens": 120, "output_tokens": 800,
+                          "cache_creation_input_tokens": 0, "cache_read_input_tokens": 0}""";
+
+        /** The reply streamed as the API does: the text arrives in two deltas. */
+        private static final List<String> EVENTS = List.of(
+                event("message_start", """
+                        {"type": "message_start", "message": {"id": "msg_01", "type": "message",
+                         "role": "assistant", "model": "claude-opus-4-8", "content": [],
+                         "stop_reason": null, "stop_sequence": null, %s}}""".formatted(USAGE)),
+                event("content_block_start", """
+                        {"type": "content_block_start", "index": 0,
+                         "content_block": {"type": "text", "text": "", "citations": null}}"""),
+                event("content_block_delta", """
+                        {"type": "content_block_delta", "index": 0,
+                         "delta": {"type": "text_delta", "text": "```latex\\n\\\\documentclass"}}"""),
+                event("content_block_delta", """
+                        {"type": "content_block_delta", "index": 0,
+                         "delta": {"type": "text_delta", "text": "{article}\\n```"}}"""),
+                event("content_block_stop", """
+                        {"type": "content_block_stop", "index": 0}"""),
+                event("message_delta", """
+                        {"type": "message_delta", "delta": {"stop_reason": "end_turn", "stop_sequence": null},
+                         %s}""".formatted(USAGE)),
+                event("message_stop", """
+                        {"type": "message_stop"}"""));
+
+        private static String event(String name, String data) {
+            return "event: " + name + "\ndata: " + data.replace("\n", " ") + "\n\n";
+        }
+
+        private final ObjectMapper json = new ObjectMapper();
+        private final List<JsonNode> requests = new CopyOnWriteArrayList<>();
+        private volatile List<String> events = EVENTS;
+        private volatile int errorStatus;
+        private HttpServer server;
+        private AnthropicLatexAdapter adapter;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/v1/messages", exchange -> {
+                requests.add(json.readTree(exchange.getRequestBody()));
+                if (errorStatus != 0) {
+                    byte[] error = """
+                            {"type": "error", "error": {"type": "api_error", "message": "fallo simulado"}}"""
+                            .getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    // Sin esperas entre los reintentos propios del SDK
+                    exchange.getResponseHeaders().add("retry-after-ms", "1");
+                    exchange.sendResponseHeaders(errorStatus, error.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(error);
+                    }
+                    return;
+                }
+                byte[] body = String.join("", events).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+
+            AnthropicProperties properties = new AnthropicProperties();
+            properties.setApiKey("test-key");
+            properties.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+            adapter = new AnthropicLatexAdapter(properties);
+        }
+
+        @AfterEach
+        void tearDown() {
+            server.stop(0);
+        }
+
+        @Test
+        @DisplayName("el system prompt va en un bloque sin breakpoint de caché, idéntico sea cual sea el nº de ejercicios")
+        void systemPromptSinCacheYEstable(@TempDir Path dir) throws Exception {
+            Path captura = Files.write(dir.resolve("captura-0"), new byte[]{1, 2, 3});
+            List<AiImageInput> images = List.of(new AiImageInput(captura, "image/png"));
+
+            adapter.generateExercises(images, 2, tokens -> { });
+            adapter.generateExercises(images, 5, tokens -> { });
+
+            JsonNode system = requests.get(0).get("system");
+            assertThat(system).hasSize(1);
+            assertThat(system.get(0).has("cache_control")).isFalse();
+            assertThat(requests.get(1).get("system")).isEqualTo(system);
+            // El nº de ejercicios viaja en el mensaje del usuario
+            JsonNode content = requests.get(1).get("messages").get(0).get("content");
+            assertThat(content.get(content.size() - 1).get("text").asText()).contains("5 ejercicio(s)");
+        }
+
+        @Test
+        @DisplayName("al corregir, ni el system prompt ni el documento ni los errores llevan breakpoint de caché")
+        void fixSinCache() {
+            adapter.fixLatex("\\documentclass{article}\\roto", "error: doc.tex:1: Undefined control sequence",
+                    tokens -> { });
+
+            JsonNode request = requests.get(0);
+            JsonNode content = request.get("messages").get(0).get("content");
+            assertThat(content.get(0).get("text").asText()).startsWith("DOCUMENTO:").contains("\\roto");
+            assertThat(content.get(0).has("cache_control")).isFalse();
+            assertThat(content.get(1).get("text").asText()).contains("Undefined control sequence");
+            assertThat(content.get(1).has("cache_control")).isFalse();
+            assertThat(request.get("system").get(0).has("cache_control")).isFalse();
+        }
+
+        @Test
+        @DisplayName("la respuesta trae el .tex sin fences y el consumo de tokens de la petición")
+        void devuelveTexYConsumo() {
+            LlmLatexReply reply = adapter.transcribeDocument("pdf".getBytes(StandardCharsets.UTF_8), tokens -> { });
+
+            assertThat(reply.tex()).isEqualTo("\\documentclass{article}");
+            assertThat(reply.usage().inputTokens()).isEqualTo(120);
+            assertThat(reply.usage().outputTokens()).isEqualTo(800);
+            assertThat(reply.usage().latencyMillis()).isNotNegative();
+        }
+
+        @Test
+        @DisplayName("la respuesta llega en streaming: el progreso crece con cada trozo y acaba en los tokens reales")
+        void informaDelProgresoMientrasLlega() {
+            List<Long> progress = new CopyOnWriteArrayList<>();
+
+            LlmLatexReply reply = adapter.transcribeDocument("pdf".getBytes(StandardCharsets.UTF_8), progress::add);
+
+            assertThat(reply.tex()).isEqualTo("\\documentclass{article}");
+            // 23 y luego 36 caracteres recibidos, ~4 por token; al terminar, la cifra real de la API
+            assertThat(progress).containsExactly(5L, 9L, 800L);
+        }
+
+        @Test
+        @DisplayName("un stream que se corta antes de message_stop es un error de E/S (el job se reintenta)")
+        void streamCortadoEsErrorDeEntradaSalida() {
+            events = EVENTS.subList(0, 3);
+
+            assertThatThrownBy(() -> adapter.transcribeDocument("pdf".getBytes(StandardCharsets.UTF_8), tokens -> { }))
+                    .isInstanceOf(UncheckedIOException.class)
+                    .hasMessageContaining("se cortó");
+        }
+
+        @Test
+        @DisplayName("una API saturada (529) es un error transitorio: el job se reintenta")
+        void apiSaturadaEsTransitoria() {
+            errorStatus = 529;
+
+            assertThatThrownBy(() -> adapter.transcribeDocument("pdf".getBytes(StandardCharsets.UTF_8), tokens -> { }))
+                    .isInstanceOf(LlmUnavailableException.class)
+                    .hasMessageContaining("HTTP 529");
+        }
+
+        @Test
+        @DisplayName("una petición rechazada (400) no se disfraza de transitoria: fallaría igual al reintentarla")
+        void peticionRechazadaNoEsTransitoria() {
+            errorStatus = 400;
+
+            assertThatThrownBy(() -> adapter.transcribeDocument("pdf".getBytes(StandardCharsets.UTF_8), tokens -> { }))
+                    .isNotInstanceOf(LlmUnavailableException.class)
+                    .hasMessageContaining("fallo simulado");
+            assertThat(requests).hasSize(1);
+        }
+    }
+
+    @Nested
+    class PorLotes {
+
+        private static final String BATCH = """
+                {"id": "msgbatch_01", "type": "message_batch", "processing_status": "%s",
+                 "request_counts": {"processing": 0, "succeeded": 1, "errored": 1, "canceled": 0, "expired": 1},
+                 "created_at": "2026-07-15T10:00:00Z", "expires_at": "2026-07-16T10:00:00Z",
+                 "ended_at": null, "archived_at": null, "cancel_initiated_at": null,
+                 "results_url": null}""";
+
+        /** One JSONL line per request: a reply with fences, an API error and an expired request. */
+        private static final String RESULTS = String.join("\n",
+                """
+                {"custom_id": "material-20", "result": {"type": "succeeded", "message": {"id": "msg_01",
+                 "type": "message", "role": "assistant", "model": "claude-opus-4-8",
+                 "content": [{"type": "text", "text": "```latex\\n\\\\documentclass{article}\\n```", "citations": null}],
+                 "stop_reason": "end_turn", "stop_sequence": null,
+                 "usage": {"input_tokens": 120, "output_tokens": 800,
+                           "cache_creation_input_tokens": 0, "cache_read_input_tokens": 0}}}}""",
+                """
+                {"custom_id": "material-21", "result": {"type": "errored", "error": {"type": "error",
+                 "error": {"type": "invalid_request_error", "message": "El PDF está dañado"}}}}""",
+                """
+                {"custom_id": "material-22", "result": {"type": "expired"}}""")
+                .replace("\n ", " ") + "\n";
+
+        private final ObjectMapper json = new ObjectMapper();
+        private final List<JsonNode> requests = new CopyOnWriteArrayList<>();
+        private HttpServer server;
+        private AnthropicLatexAdapter adapter;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/v1/messages/batches", exchange -> {
+                boolean results = exchange.getRequestURI().getPath().endsWith("/results");
+                String body;
+                if ("POST".equals(exchange.getRequestMethod())) {
+                    requests.add(json.readTree(exchange.getRequestBody()));
+                    body = BATCH.formatted("in_progress");
+                } else {
+                    body = results ? RESULTS : BATCH.formatted("ended");
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", results ? "application/x-jsonl" : "application/json");
+                exchange.sendResponseHeaders(200, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            });
+            server.start();
+
+            AnthropicProperties properties = new AnthropicProperties();
+            properties.setApiKey("test-key");
+            properties.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+            adapter = new AnthropicLatexAdapter(properties);
+        }
+
+        @AfterEach
+        void tearDown() {
+            server.stop(0);
+        }
+
+        @Test
+        @DisplayName("cada PDF o rango va como una petición del lote, con su custom_id y el mismo system prompt")
+        void enviaUnaPeticionPorDocumento(@TempDir Path dir) throws Exception {
+            Path first = Files.write(dir.resolve("material-20.pdf"), new byte[]{1, 2, 3});
+            Path second = Files.write(dir.resolve("material-21.pdf"), new byte[]{4, 5, 6});
+
+            String batchId = adapter.submitTranscriptions(List.of(
+                    LlmBatchDocument.whole("material-20", first, 3),
+                    new LlmBatchDocument("material-21-p5-8", second, 5, 8, 10)));
+
+            assertThat(batchId).isEqualTo("msgbatch_01");
+            JsonNode batch = requests.get(0).get("requests");
+            assertThat(batch).hasSize(2);
+            assertThat(batch.get(0).get("custom_id").asText()).isEqualTo("material-20");
+            assertThat(batch.get(1).get("custom_id").asText()).isEqualTo("material-21-p5-8");
+            // Un rango lleva la misma petición que transcribePages
+            assertThat(batch.get(0).get("params").get("messages").get(0).get("content").get(1).get("text").asText())
+                    .isEqualTo("Transcribe este documento a limpio.");
+            assertThat(batch.get(1).get("params").get("messages").get(0).get("content").get(1).get("text").asText())
+                    .contains("páginas 5 a 8 de unos apuntes de 10 páginas");
+            JsonNode params = batch.get(1).get("params");
+            assertThat(params.get("system").get(0).has("cache_control")).isFalse();
+            assertThat(params.get("system")).isEqualTo(batch.get(0).get("params").get("system"));
+            JsonNode document = params.get("messages").get(0).get("content").get(0);
+            assertThat(document.get("source").get("data").asText())
+                    .isEqualTo(Base64.getEncoder().encodeToString(new byte[]{4, 5, 6}));
+        }
+
+        @Test
+        @DisplayName("un lote en estado ended ha terminado")
+        void loteTerminado() {
+            assertThat(adapter.isEnded("msgbatch_01")).isTrue();
+        }
+
+        @Test
+        @DisplayName("los resultados traen el .tex sin fences y su consumo, o el motivo del fallo")
+        void resultadosPorDocumento() {
+            List<LlmBatchResult> results = adapter.results("msgbatch_01");
+
+            assertThat(results).extracting(LlmBatchResult::customId)
+                    .containsExactly("material-20", "material-21", "material-22");
+            assertThat(results.get(0).succeeded()).isTrue();
+            assertThat(results.get(0).reply().tex()).isEqualTo("\\documentclass{article}");
+            assertThat(results.get(0).reply().usage().inputTokens()).isEqualTo(120);
+            assertThat(results.get(0).reply().usage().outputTokens()).isEqualTo(800);
+            assertThat(results.get(1).succeeded()).isFalse();
+            assertThat(results.get(1).errorMessage()).startsWith("La API devolvió un error");
+            assertThat(results.get(2).errorMessage()).contains("caducó");
+        }
+    }
 }
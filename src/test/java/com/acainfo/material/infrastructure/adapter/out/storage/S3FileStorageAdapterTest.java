@@ -0,0 +1,402 @@
+package com.acainfo.material.infrastructure.adapter.out.storage;
+
+import com.acainfo.material.application.dto.StoredBlob;
+import com.acainfo.material.domain.exception.FileStorageException;
+import com.acainfo.shared.infrastructure.config.S3StorageConfig;
+import com.acainfo.shared.infrastructure.config.S3StorageProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link S3FileStorageAdapter} against a local in-process stand-in of
+ * the S3 REST API, with the real SDK client and presigner built by
+ * {@link S3StorageConfig}: single PUT for small content, multipart + server-side
+ * copy for large content, dedupe by key existence and presigned download URLs.
+ */
+class S3FileStorageAdapterTest {
+
+    private static final String BUCKET = "acainfo-materials";
+
+    private final FakeS3 fakeS3 = new FakeS3();
+    private HttpServer server;
+    private S3Client s3;
+    private S3Presigner presigner;
+    private S3FileStorageAdapter adapter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", fakeS3::handle);
+        server.start();
+
+        S3StorageProperties properties = new S3StorageProperties();
+        properties.setEndpoint("http://localhost:" + server.getAddress().getPort());
+        properties.setBucket(BUCKET);
+        properties.setAccessKey("test-access");
+        properties.setSecretKey("test-secret");
+        properties.setPathStyleAccess(true);
+        properties.setPresignedUrlTtl(Duration.ofMinutes(5));
+        S3StorageConfig config = new S3StorageConfig();
+        s3 = config.s3Client(properties);
+        presigner = config.s3Presigner(properties);
+        adapter = new S3FileStorageAdapter(s3, presigner, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        s3.close();
+        presigner.close();
+        server.stop(0);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private static String blobKey(byte[] content) throws Exception {
+        return "blobs/" + sha256(content).substring(0, 2) + "/" + sha256(content);
+    }
+
+    @Nested
+    class StoreBlob {
+
+        @Test
+        void putsSmallContentOnceUnderItsHash() throws Exception {
+            byte[] content = "apuntes tema 1".getBytes();
+
+            StoredBlob blob = adapter.storeBlob(new ByteArrayInputStream(content));
+
+            assertThat(blob).isEqualTo(new StoredBlob(sha256(content), blobKey(content), content.length));
+            assertThat(fakeS3.objects).containsOnlyKeys(blobKey(content));
+            assertThat(fakeS3.objects.get(blobKey(content))).isEqualTo(content);
+            assertThat(fakeS3.requests).containsExactly(
+                    "HEAD " + blobKey(content),
+                    "PUT " + blobKey(content));
+        }
+
+        @Test
+        void skipsUploadWhenContentIsAlreadyStored() throws Exception {
+            byte[] content = "apuntes tema 1".getBytes();
+            fakeS3.objects.put(blobKey(content), content);
+
+            adapter.storeBlob(new ByteArrayInputStream(content));
+
+            assertThat(fakeS3.requests).containsExactly("HEAD " + blobKey(content));
+        }
+
+        @Test
+        void streamsLargeContentInPartsAndCopiesItToItsHash() throws Exception {
+            byte[] content = new byte[S3FileStorageAdapter.PART_SIZE + 10];
+            content[content.length - 1] = 7;
+
+            StoredBlob blob = adapter.storeBlob(new ByteArrayInputStream(content));
+
+            assertThat(blob).isEqualTo(new StoredBlob(sha256(content), blobKey(content), content.length));
+            assertThat(fakeS3.objects).containsOnlyKeys(blobKey(content));
+            assertThat(fakeS3.objects.get(blobKey(content))).isEqualTo(content);
+            assertThat(fakeS3.requests).hasSize(7);
+            String tmpKey = fakeS3.requests.get(0).substring("POST ".length(), fakeS3.requests.get(0).indexOf('?'));
+            assertThat(tmpKey).startsWith("tmp/");
+            assertThat(fakeS3.requests).containsExactly(
+                    "POST " + tmpKey + "?uploads",
+                    "PUT " + tmpKey + "?part=1",
+                    "PUT " + tmpKey + "?part=2",
+                    "POST " + tmpKey + "?complete",
+                    "HEAD " + blobKey(content),
+                    "COPY " + tmpKey + " -> " + blobKey(content),
+                    "DELETE " + tmpKey);
+        }
+
+        @Test
+        void abortsMultipartUploadWhenAPartFails() {
+            fakeS3.failParts = true;
+
+            assertThatThrownBy(() -> adapter.storeBlob(
+                    new ByteArrayInputStream(new byte[S3FileStorageAdapter.PART_SIZE + 1])))
+                    .isInstanceOf(FileStorageException.class);
+
+            assertThat(fakeS3.requests).anyMatch(request -> request.endsWith("?abort"));
+            assertThat(fakeS3.requests).noneMatch(request -> request.startsWith("COPY"));
+            assertThat(fakeS3.objects).isEmpty();
+            assertThat(fakeS3.uploads).isEmpty();
+        }
+    }
+
+    @Test
+    void presignsDownloadWithContentDispositionAndTtl() {
+        Optional<URI> url = adapter.directDownloadUrl("blobs/aa/aa11", "tema1.pdf", "application/pdf", false);
+
+        assertThat(url).isPresent();
+        String presigned = URLDecoder.decode(url.get().toString(), StandardCharsets.UTF_8);
+        assertThat(presigned)
+                .startsWith("http://localhost:" + server.getAddress().getPort() + "/" + BUCKET + "/blobs/aa/aa11?")
+                .contains("X-Amz-Expires=300", "X-Amz-Signature=", "response-content-type=application/pdf",
+                        "response-content-disposition=attachment;", "tema1.pdf");
+        assertThat(fakeS3.requests).isEmpty();
+    }
+
+    @Test
+    void retrievesAStoredObjectAsAResource() throws Exception {
+        byte[] content = "apuntes tema 1".getBytes();
+        fakeS3.objects.put("blobs/aa/aa11", content);
+
+        var resource = adapter.retrieveResource("blobs/aa/aa11");
+
+        assertThat(resource.contentLength()).isEqualTo(content.length);
+        try (InputStream in = resource.getInputStream()) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void retrieveResourceFailsForMissingObject() {
+        assertThatThrownBy(() -> adapter.retrieveResource("blobs/aa/missing"))
+                .isInstanceOf(FileStorageException.class)
+                .hasMessageContaining("Archivo no encontrado");
+    }
+
+    @Test
+    void deleteRemovesTheObject() {
+        fakeS3.objects.put("subjects/3/tema1.tex", "x".getBytes());
+
+        adapter.delete("subjects/3/tema1.tex");
+
+        assertThat(fakeS3.objects).isEmpty();
+        assertThat(adapter.exists("subjects/3/tema1.tex")).isFalse();
+    }
+
+    /**
+     * The part of the S3 REST API the adapter uses, path-style, for one bucket.
+     * Every request is recorded as a short line ("PUT key", "COPY from -> to"...).
+     */
+    private static final class FakeS3 {
+
+        private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+        final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+        final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        volatile boolean failParts;
+
+        void handle(HttpExchange exchange) throws IOException {
+            try (exchange) {
+                String prefix = "/" + BUCKET + "/";
+                String path = exchange.getRequestURI().getPath();
+                if (!path.startsWith(prefix)) {
+                    error(exchange, 404, "NoSuchBucket");
+                    return;
+                }
+                String key = path.substring(prefix.length());
+                Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+                switch (exchange.getRequestMethod()) {
+                    case "HEAD" -> head(exchange, key);
+                    case "GET" -> get(exchange, key);
+                    case "PUT" -> put(exchange, key, query);
+                    case "POST" -> post(exchange, key, query);
+                    case "DELETE" -> delete(exchange, key, query);
+                    default -> error(exchange, 405, "MethodNotAllowed");
+                }
+            }
+        }
+
+        private void head(HttpExchange exchange, String key) throws IOException {
+            requests.add("HEAD " + key);
+            byte[] object = objects.get(key);
+            if (object == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            objectHeaders(exchange, object);
+            exchange.sendResponseHeaders(200, -1);
+        }
+
+        private void get(HttpExchange exchange, String key) throws IOException {
+            requests.add("GET " + key);
+            byte[] object = objects.get(key);
+            if (object == null) {
+                error(exchange, 404, "NoSuchKey");
+                return;
+            }
+            objectHeaders(exchange, object);
+            send(exchange, 200, object);
+        }
+
+        private void put(HttpExchange exchange, String key, Map<String, String> query) throws IOException {
+            String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+            if (copySource != null) {
+                String source = URLDecoder.decode(copySource, StandardCharsets.UTF_8)
+                        .replaceFirst("^/?" + BUCKET + "/", "");
+                requests.add("COPY " + source + " -> " + key);
+                objects.put(key, objects.get(source));
+                xml(exchange, "<CopyObjectResult><ETag>" + etag(objects.get(key)) + "</ETag>"
+                        + "<LastModified>2026-01-01T00:00:00.000Z</LastModified></CopyObjectResult>");
+                return;
+            }
+            byte[] body = body(exchange);
+            if (query.containsKey("uploadId")) {
+                requests.add("PUT " + key + "?part=" + query.get("partNumber"));
+                if (failParts) {
+                    error(exchange, 400, "InvalidRequest");
+                    return;
+                }
+                uploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), body);
+                exchange.getResponseHeaders().add("ETag", etag(body));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            requests.add("PUT " + key);
+            objects.put(key, body);
+            exchange.getResponseHeaders().add("ETag", etag(body));
+            exchange.sendResponseHeaders(200, -1);
+        }
+
+        private void post(HttpExchange exchange, String key, Map<String, String> query) throws IOException {
+            body(exchange);
+            if (query.containsKey("uploads")) {
+                requests.add("POST " + key + "?uploads");
+                String uploadId = "up-" + uploads.size();
+                uploads.put(uploadId, new ConcurrentHashMap<>());
+                xml(exchange, "<InitiateMultipartUploadResult><Bucket>" + BUCKET + "</Bucket><Key>" + key
+                        + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+                return;
+            }
+            requests.add("POST " + key + "?complete");
+            Map<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+            ByteArrayOutputStream object = new ByteArrayOutputStream();
+            for (int partNumber = 1; partNumber <= parts.size(); partNumber++) {
+                object.write(parts.get(partNumber));
+            }
+            objects.put(key, object.toByteArray());
+            xml(exchange, "<CompleteMultipartUploadResult><Bucket>" + BUCKET + "</Bucket><Key>" + key
+                    + "</Key><ETag>\"multipart-" + parts.size() + "\"</ETag></CompleteMultipartUploadResult>");
+        }
+
+        private void delete(HttpExchange exchange, String key, Map<String, String> query) throws IOException {
+            if (query.containsKey("uploadId")) {
+                requests.add("DELETE " + key + "?abort");
+                uploads.remove(query.get("uploadId"));
+            } else {
+                requests.add("DELETE " + key);
+                objects.remove(key);
+            }
+            exchange.sendResponseHeaders(204, -1);
+        }
+
+        private void objectHeaders(HttpExchange exchange, byte[] object) {
+            exchange.getResponseHeaders().add("ETag", etag(object));
+            exchange.getResponseHeaders().add("Last-Modified",
+                    HTTP_DATE.format(ZonedDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC)));
+            exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.length));
+            }
+        }
+
+        /**
+         * Request body, decoding the aws-chunked framing the SDK uses for signed
+         * streaming uploads ("size;chunk-signature=...\r\n" + data + "\r\n", then trailers).
+         */
+        private static byte[] body(HttpExchange exchange) throws IOException {
+            byte[] raw = exchange.getRequestBody().readAllBytes();
+            String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            if (encoding == null || !encoding.contains("aws-chunked")) {
+                return raw;
+            }
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            int position = 0;
+            while (position < raw.length) {
+                int lineEnd = indexOfCrlf(raw, position);
+                String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+                int size = Integer.parseInt(header.split(";")[0].strip(), 16);
+                if (size == 0) {
+                    break;
+                }
+                decoded.write(raw, lineEnd + 2, size);
+                position = lineEnd + 2 + size + 2;
+            }
+            return decoded.toByteArray();
+        }
+
+        private static int indexOfCrlf(byte[] raw, int from) {
+            for (int i = from; i < raw.length - 1; i++) {
+                if (raw[i] == '\r' && raw[i + 1] == '\n') {
+                    return i;
+                }
+            }
+            return raw.length;
+        }
+
+        private static Map<String, String> query(String rawQuery) {
+            Map<String, String> query = new HashMap<>();
+            if (rawQuery == null) {
+                return query;
+            }
+            for (String parameter : rawQuery.split("&")) {
+                String[] pair = parameter.split("=", 2);
+                query.put(URLDecoder.decode(pair[0], StandardCharsets.UTF_8),
+                        pair.length > 1 ? URLDecoder.decode(pair[1], StandardCharsets.UTF_8) : "");
+            }
+            return query;
+        }
+
+        private static String etag(byte[] content) {
+            try {
+                return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(content)) + "\"";
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static void error(HttpExchange exchange, int status, String code) throws IOException {
+            xml(exchange, status, "<Error><Code>" + code + "</Code><Message>fallo simulado</Message></Error>");
+        }
+
+        private static void xml(HttpExchange exchange, String body) throws IOException {
+            xml(exchange, 200, body);
+        }
+
+        private static void xml(HttpExchange exchange, int status, String body) throws IOException {
+            exchange.getResponseHeaders().add("Content-Type", "application/xml");
+            send(exchange, status, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + body)
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
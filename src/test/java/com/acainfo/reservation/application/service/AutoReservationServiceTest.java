@@ -0,0 +1,193 @@
+package com.acainfo.reservation.application.service;
+
+import com.acainfo.enrollment.domain.model.Enrollment;
+import com.acainfo.enrollment.domain.model.EnrollmentStatus;
+import com.acainfo.reservation.application.port.out.ReservationRepositoryPort;
+import com.acainfo.reservation.domain.model.ReservationMode;
+import com.acainfo.reservation.domain.model.ReservationStatus;
+import com.acainfo.reservation.domain.model.SessionReservation;
+import com.acainfo.session.application.port.out.SessionRepositoryPort;
+import com.acainfo.session.domain.model.Session;
+import com.acainfo.session.domain.model.SessionStatus;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pure unit tests for {@link AutoReservationService}.
+ *
+ * <p>Pins the set-based contract: one batched insert for generation and one
+ * bulk UPDATE for cancellation, never a per-session round trip.</p>
+ */
+@ExtendWith(MockitoExtension.class)
+class AutoReservationServiceTest {
+
+    private static final Long STUDENT_ID = 10L;
+    private static final Long COURSE_ID = 50L;
+    private static final Long ENROLLMENT_ID = 1000L;
+
+    @Mock
+    private SessionRepositoryPort sessionRepositoryPort;
+
+    @Mock
+    private ReservationRepositoryPort reservationRepositoryPort;
+
+    @InjectMocks
+    private AutoReservationService autoReservationService;
+
+    private Session aSession(Long id) {
+        return Session.builder()
+                .id(id)
+                .courseId(COURSE_ID)
+                .date(LocalDate.now().plusDays(id))
+                .status(SessionStatus.SCHEDULED)
+                .build();
+    }
+
+    @Nested
+    class GenerateForNewEnrollment {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void shouldPersistAllMissingReservationsInOneSaveAll() {
+            when(sessionRepositoryPort.findUpcomingByCourseIds(eq(List.of(COURSE_ID)), any(LocalDate.class), anyInt()))
+                    .thenReturn(List.of(aSession(1L), aSession(2L), aSession(3L)));
+            when(reservationRepositoryPort.findExistingSessionIdsForStudent(STUDENT_ID, List.of(1L, 2L, 3L)))
+                    .thenReturn(Set.of(2L));
+            when(reservationRepositoryPort.countInPersonReservationsBySessionIds(List.of(1L, 2L, 3L)))
+                    .thenReturn(Map.of(3L, 24L));
+
+            autoReservationService.generateForNewEnrollment(STUDENT_ID, COURSE_ID, ENROLLMENT_ID);
+
+            ArgumentCaptor<List<SessionReservation>> captor = ArgumentCaptor.forClass(List.class);
+            verify(reservationRepositoryPort).saveAll(captor.capture());
+            verify(reservationRepositoryPort, never()).save(any(SessionReservation.class));
+
+            List<SessionReservation> saved = captor.getValue();
+            assertThat(saved).extracting(SessionReservation::getSessionId).containsExactly(1L, 3L);
+            assertThat(saved).extracting(SessionReservation::getMode)
+                    .containsExactly(ReservationMode.IN_PERSON, ReservationMode.ONLINE);
+            assertThat(saved).allSatisfy(r -> {
+                assertThat(r.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+                assertThat(r.getEnrollmentId()).isEqualTo(ENROLLMENT_ID);
+                assertThat(r.getStudentId()).isEqualTo(STUDENT_ID);
+            });
+        }
+
+        @Test
+        void shouldNotWriteWhenEverySessionAlreadyHasAReservation() {
+            when(sessionRepositoryPort.findUpcomingByCourseIds(eq(List.of(COURSE_ID)), any(LocalDate.class), anyInt()))
+                    .thenReturn(List.of(aSession(1L)));
+            when(reservationRepositoryPort.findExistingSessionIdsForStudent(STUDENT_ID, List.of(1L)))
+                    .thenReturn(Set.of(1L));
+
+            autoReservationService.generateForNewEnrollment(STUDENT_ID, COURSE_ID, ENROLLMENT_ID);
+
+            verify(reservationRepositoryPort, never()).saveAll(anyList());
+        }
+
+        @Test
+        void shouldDoNothingWhenCourseHasNoFutureSessions() {
+            when(sessionRepositoryPort.findUpcomingByCourseIds(eq(List.of(COURSE_ID)), any(LocalDate.class), anyInt()))
+                    .thenReturn(List.of());
+
+            autoReservationService.generateForNewEnrollment(STUDENT_ID, COURSE_ID, ENROLLMENT_ID);
+
+            verifyNoInteractions(reservationRepositoryPort);
+        }
+    }
+
+    @Nested
+    class GenerateForNewEnrollments {
+
+        private Enrollment activeEnrollment(Long id, Long studentId) {
+            return Enrollment.builder()
+                    .id(id)
+                    .studentId(studentId)
+                    .courseId(COURSE_ID)
+                    .status(EnrollmentStatus.ACTIVE)
+                    .build();
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void shouldReadOnceAndKeepRunningInPersonCountAcrossTheBatch() {
+            when(sessionRepositoryPort.findUpcomingByCourseIds(eq(List.of(COURSE_ID)), any(LocalDate.class), anyInt()))
+                    .thenReturn(List.of(aSession(1L)));
+            when(reservationRepositoryPort.findExistingSessionIdsByStudent(List.of(10L, 11L, 12L), List.of(1L)))
+                    .thenReturn(Map.of(12L, Set.of(1L)));
+            // One in-person seat left before the batch
+            when(reservationRepositoryPort.countInPersonReservationsBySessionIds(List.of(1L)))
+                    .thenReturn(Map.of(1L, 23L));
+
+            autoReservationService.generateForNewEnrollments(List.of(
+                    activeEnrollment(100L, 10L), activeEnrollment(101L, 11L), activeEnrollment(102L, 12L)));
+
+            ArgumentCaptor<List<SessionReservation>> captor = ArgumentCaptor.forClass(List.class);
+            verify(reservationRepositoryPort).saveAll(captor.capture());
+
+            // Student 12 already had a reservation; the last free seat is not handed out twice
+            List<SessionReservation> saved = captor.getValue();
+            assertThat(saved).extracting(SessionReservation::getStudentId).containsExactly(10L, 11L);
+            assertThat(saved).extracting(SessionReservation::getEnrollmentId).containsExactly(100L, 101L);
+            assertThat(saved).extracting(SessionReservation::getMode)
+                    .containsExactly(ReservationMode.IN_PERSON, ReservationMode.ONLINE);
+        }
+
+        @Test
+        void shouldDoNothingForEmptyBatch() {
+            autoReservationService.generateForNewEnrollments(List.of());
+
+            verifyNoInteractions(sessionRepositoryPort, reservationRepositoryPort);
+        }
+    }
+
+    @Nested
+    class CancelFutureReservations {
+
+        @Test
+        void shouldCancelWithSingleBulkUpdateAndReturnAffectedCount() {
+            when(reservationRepositoryPort.cancelFutureConfirmedByStudentAndCourse(
+                    eq(STUDENT_ID), eq(COURSE_ID), eq(LocalDate.now()), any(LocalDateTime.class)))
+                    .thenReturn(7);
+
+            int cancelled = autoReservationService.cancelFutureReservations(STUDENT_ID, COURSE_ID);
+
+            assertThat(cancelled).isEqualTo(7);
+            verifyNoInteractions(sessionRepositoryPort);
+            verify(reservationRepositoryPort, never()).save(any(SessionReservation.class));
+        }
+
+        @Test
+        void shouldCancelAllActiveStudentsOfCourseWithSingleBulkUpdate() {
+            when(reservationRepositoryPort.cancelFutureConfirmedForActiveStudentsOfCourse(
+                    eq(COURSE_ID), eq(LocalDate.now()), any(LocalDateTime.class)))
+                    .thenReturn(120);
+
+            int cancelled = autoReservationService.cancelFutureReservationsForActiveStudents(COURSE_ID);
+
+            assertThat(cancelled).isEqualTo(120);
+            verifyNoInteractions(sessionRepositoryPort);
+        }
+    }
+}
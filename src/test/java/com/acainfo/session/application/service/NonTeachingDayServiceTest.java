@@ -0,0 +1,70 @@
+package com.acainfo.session.application.service;
+
+import com.acainfo.session.application.port.out.NonTeachingDayRepositoryPort;
+import com.acainfo.session.domain.exception.DuplicateNonTeachingDayException;
+import com.acainfo.session.domain.exception.NonTeachingDayNotFoundException;
+import com.acainfo.session.domain.model.NonTeachingDay;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pure unit tests for {@link NonTeachingDayService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class NonTeachingDayServiceTest {
+
+    private static final LocalDate HOLIDAY = LocalDate.of(2026, 12, 8);
+
+    @Mock
+    private NonTeachingDayRepositoryPort nonTeachingDayRepositoryPort;
+
+    @InjectMocks
+    private NonTeachingDayService service;
+
+    @Test
+    void shouldCreateNonTeachingDayWithTrimmedDescription() {
+        when(nonTeachingDayRepositoryPort.existsByDate(HOLIDAY)).thenReturn(false);
+        when(nonTeachingDayRepositoryPort.save(any(NonTeachingDay.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        NonTeachingDay result = service.create(HOLIDAY, "  Inmaculada Concepción ");
+
+        assertThat(result.getDate()).isEqualTo(HOLIDAY);
+        assertThat(result.getDescription()).isEqualTo("Inmaculada Concepción");
+    }
+
+    @Test
+    void shouldRejectDateAlreadyInCalendar() {
+        when(nonTeachingDayRepositoryPort.existsByDate(HOLIDAY)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.create(HOLIDAY, "Duplicado"))
+                .isInstanceOf(DuplicateNonTeachingDayException.class)
+                .hasMessageContaining(HOLIDAY.toString());
+
+        verify(nonTeachingDayRepositoryPort, never()).save(any(NonTeachingDay.class));
+    }
+
+    @Test
+    void shouldThrowNotFoundWhenDeletingUnknownDay() {
+        when(nonTeachingDayRepositoryPort.findById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.delete(99L))
+                .isInstanceOf(NonTeachingDayNotFoundException.class);
+
+        verify(nonTeachingDayRepositoryPort, never()).delete(anyLong());
+    }
+}
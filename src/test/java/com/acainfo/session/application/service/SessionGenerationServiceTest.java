@@ -10,6 +10,7 @@ import com.acainfo.schedule.application.port.out.ScheduleRepositoryPort;
 import com.acainfo.schedule.domain.model.Classroom;
 import com.acainfo.schedule.domain.model.Schedule;
 import com.acainfo.session.application.dto.GenerateSessionsCommand;
+import com.acainfo.session.application.port.out.NonTeachingDayRepositoryPort;
 import com.acainfo.session.application.port.out.SessionRepositoryPort;
 import com.acainfo.session.domain.exception.InvalidSessionStateException;
 import com.acainfo.session.domain.exception.TeacherSessionConflictException;
@@ -32,6 +33,7 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -86,6 +88,9 @@ class SessionGenerationServiceTest {
     @Mock
     private GenerateReservationsUseCase generateReservationsUseCase;
 
+    @Mock
+    private NonTeachingDayRepositoryPort nonTeachingDayRepositoryPort;
+
     @InjectMocks
     private SessionGenerationService service;
 
@@ -285,6 +290,27 @@ class SessionGenerationServiceTest {
         verify(sessionRepositoryPort, never()).findByTeacherIdAndDate(TEACHER_ID, MONDAY_1);
     }
 
+    // ==================== Non-teaching days ====================
+
+    @Test
+    void shouldSkipNonTeachingDaysWithoutCheckingThem() {
+        when(scheduleRepositoryPort.findByCourseId(GROUP_ID))
+                .thenReturn(List.of(mondaySchedule(SCHEDULE_ID, TEN, TWELVE, Classroom.AULA_PORTAL1)));
+        when(courseRepositoryPort.findById(GROUP_ID))
+                .thenReturn(Optional.of(group(RANGE_START, RANGE_END)));
+        when(nonTeachingDayRepositoryPort.findDatesBetween(RANGE_START, RANGE_END)).thenReturn(Set.of(MONDAY_1));
+        when(sessionRepositoryPort.existsByScheduleIdAndDate(SCHEDULE_ID, MONDAY_2)).thenReturn(false);
+        when(sessionRepositoryPort.findByTeacherIdAndDate(TEACHER_ID, MONDAY_2)).thenReturn(List.of());
+
+        List<Session> result = service.preview(
+                GenerateSessionsCommand.forCourse(GROUP_ID, RANGE_START, RANGE_END));
+
+        assertThat(result).extracting(Session::getDate).containsExactly(MONDAY_2);
+        // The holiday is discarded before any per-date lookup
+        verify(sessionRepositoryPort, never()).existsByScheduleIdAndDate(SCHEDULE_ID, MONDAY_1);
+        verify(sessionRepositoryPort, never()).findByTeacherIdAndDate(TEACHER_ID, MONDAY_1);
+    }
+
     // ==================== Group endDate capping ====================
 
     @Test
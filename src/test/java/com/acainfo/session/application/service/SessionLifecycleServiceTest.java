@@ -5,9 +5,12 @@ import com.acainfo.reservation.domain.model.ReservationMode;
 import com.acainfo.reservation.domain.model.ReservationStatus;
 import com.acainfo.reservation.domain.model.SessionReservation;
 import com.acainfo.schedule.domain.model.Classroom;
+import com.acainfo.session.application.dto.CancelSessionsInRangeCommand;
+import com.acainfo.session.application.dto.CancelSessionsInRangeResult;
 import com.acainfo.session.application.dto.PostponeSessionCommand;
 import com.acainfo.session.application.port.in.GetSessionUseCase;
 import com.acainfo.session.application.port.out.SessionRepositoryPort;
+import com.acainfo.session.domain.exception.InvalidSessionStateException;
 import com.acainfo.session.domain.model.Session;
 import com.acainfo.session.domain.model.SessionMode;
 import com.acainfo.session.domain.model.SessionStatus;
@@ -15,6 +18,7 @@ import com.acainfo.session.domain.model.SessionType;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -25,8 +29,13 @@ import java.time.LocalTime;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -165,4 +174,53 @@ class SessionLifecycleServiceTest {
         assertThat(nueva.getStatus()).isEqualTo(SessionStatus.SCHEDULED);
         assertThat(nueva.getDate()).isEqualTo(LocalDate.of(2026, 7, 27));
     }
+
+    @Test
+    void cancelarUnaSesionLiberaSusReservasConfirmadas() {
+        when(getSessionUseCase.getById(ORIGINAL_SESSION_ID)).thenReturn(scheduledSession());
+        when(sessionRepositoryPort.save(any(Session.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Session cancelada = service.cancel(ORIGINAL_SESSION_ID);
+
+        assertThat(cancelada.getStatus()).isEqualTo(SessionStatus.CANCELLED);
+        // Antes las reservas quedaban CONFIRMED y el aforo seguía ocupado
+        verify(reservationRepositoryPort).cancelConfirmedBySessionId(eq(ORIGINAL_SESSION_ID), any(LocalDateTime.class));
+    }
+
+    @Test
+    void cancelarRangoLiberaReservasAntesDeCancelarLasSesiones() {
+        LocalDate desde = LocalDate.of(2026, 12, 7);
+        LocalDate hasta = LocalDate.of(2026, 12, 8);
+        when(reservationRepositoryPort.cancelConfirmedForScheduledSessionsInRange(
+                eq(desde), eq(hasta), eq(Classroom.AULA_PORTAL1), isNull(), any(LocalDateTime.class)))
+                .thenReturn(37);
+        when(sessionRepositoryPort.cancelScheduledInRange(
+                eq(desde), eq(hasta), eq(Classroom.AULA_PORTAL1), isNull(), any(LocalDateTime.class)))
+                .thenReturn(4);
+
+        CancelSessionsInRangeResult result = service.cancelInRange(
+                new CancelSessionsInRangeCommand(desde, hasta, Classroom.AULA_PORTAL1, null));
+
+        assertThat(result.sessionsCancelled()).isEqualTo(4);
+        assertThat(result.reservationsCancelled()).isEqualTo(37);
+
+        // Las reservas se seleccionan por sesiones SCHEDULED: tienen que ir primero
+        InOrder orden = inOrder(reservationRepositoryPort, sessionRepositoryPort);
+        orden.verify(reservationRepositoryPort).cancelConfirmedForScheduledSessionsInRange(
+                eq(desde), eq(hasta), eq(Classroom.AULA_PORTAL1), isNull(), any(LocalDateTime.class));
+        orden.verify(sessionRepositoryPort).cancelScheduledInRange(
+                eq(desde), eq(hasta), eq(Classroom.AULA_PORTAL1), isNull(), any(LocalDateTime.class));
+        // Nada de ida y vuelta por sesión
+        verify(sessionRepositoryPort, never()).save(any(Session.class));
+        verifyNoInteractions(getSessionUseCase);
+    }
+
+    @Test
+    void cancelarRangoConFechasInvertidasNoTocaNada() {
+        assertThatThrownBy(() -> service.cancelInRange(CancelSessionsInRangeCommand.forDates(
+                LocalDate.of(2026, 12, 8), LocalDate.of(2026, 12, 7))))
+                .isInstanceOf(InvalidSessionStateException.class);
+
+        verifyNoInteractions(reservationRepositoryPort, sessionRepositoryPort);
+    }
 }